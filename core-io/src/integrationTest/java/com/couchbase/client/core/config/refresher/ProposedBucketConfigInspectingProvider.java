@@ -4,6 +4,7 @@ import com.couchbase.client.core.config.ClusterConfig;
 import com.couchbase.client.core.config.ConfigurationProvider;
 import com.couchbase.client.core.config.ProposedBucketConfigContext;
 import com.couchbase.client.core.config.ProposedGlobalConfigContext;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
 import com.couchbase.client.core.env.SeedNode;
 import com.couchbase.client.core.io.CollectionIdentifier;
 import com.couchbase.client.core.io.CollectionMap;
@@ -13,6 +14,7 @@ import reactor.core.publisher.Mono;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.util.Objects.requireNonNull;
@@ -126,4 +128,19 @@ public class ProposedBucketConfigInspectingProvider implements ConfigurationProv
   public boolean collectionRefreshInProgress(CollectionIdentifier identifier) {
     return delegate.collectionRefreshInProgress(identifier);
   }
+
+  @Override
+  public void clusterMapNotificationsActive(String bucketName) {
+    delegate.clusterMapNotificationsActive(bucketName);
+  }
+
+  @Override
+  public void clusterMapNotificationsInactive(String bucketName) {
+    delegate.clusterMapNotificationsInactive(bucketName);
+  }
+
+  @Override
+  public CompletableFuture<Void> proposeBucketConfig(String bucketName, ByteBuf config, String origin) {
+    return delegate.proposeBucketConfig(bucketName, config, origin);
+  }
 }
@@ -20,7 +20,6 @@ import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.callbacks.BeforeSendRequestCallback;
 import com.couchbase.client.core.cnc.Event;
 import com.couchbase.client.core.cnc.EventBus;
-import com.couchbase.client.core.cnc.TracingIdentifiers;
 import com.couchbase.client.core.cnc.ValueRecorder;
 import com.couchbase.client.core.cnc.events.core.BucketClosedEvent;
 import com.couchbase.client.core.cnc.events.core.BucketOpenFailedEvent;
@@ -34,12 +33,13 @@ import com.couchbase.client.core.cnc.events.core.ReconfigurationIgnoredEvent;
 import com.couchbase.client.core.cnc.events.core.ServiceReconfigurationFailedEvent;
 import com.couchbase.client.core.cnc.events.core.ShutdownCompletedEvent;
 import com.couchbase.client.core.cnc.events.core.ShutdownInitiatedEvent;
-import com.couchbase.client.core.config.AlternateAddress;
+import com.couchbase.client.core.cnc.metrics.ResponseMetrics;
 import com.couchbase.client.core.config.BucketConfig;
 import com.couchbase.client.core.config.ClusterConfig;
 import com.couchbase.client.core.config.ConfigurationProvider;
 import com.couchbase.client.core.config.DefaultConfigurationProvider;
-import com.couchbase.client.core.config.GlobalConfig;
+import com.couchbase.client.core.config.NodeInfo;
+import com.couchbase.client.core.config.PortInfo;
 import com.couchbase.client.core.diagnostics.EndpointDiagnostics;
 import com.couchbase.client.core.endpoint.http.CoreHttpClient;
 import com.couchbase.client.core.env.Authenticator;
@@ -51,12 +51,15 @@ import com.couchbase.client.core.error.GlobalConfigNotFoundException;
 import com.couchbase.client.core.error.InvalidArgumentException;
 import com.couchbase.client.core.error.RequestCanceledException;
 import com.couchbase.client.core.error.UnsupportedConfigMechanismException;
+import com.couchbase.client.core.io.netty.SslHandlerFactory;
 import com.couchbase.client.core.msg.CancellationReason;
 import com.couchbase.client.core.msg.Request;
 import com.couchbase.client.core.msg.RequestContext;
 import com.couchbase.client.core.msg.RequestTarget;
 import com.couchbase.client.core.msg.Response;
+import com.couchbase.client.core.msg.kv.GetRequest;
 import com.couchbase.client.core.node.KeyValueLocator;
+import com.couchbase.client.core.node.LoadAwareLocator;
 import com.couchbase.client.core.node.Locator;
 import com.couchbase.client.core.node.Node;
 import com.couchbase.client.core.node.NodeIdentifier;
@@ -65,29 +68,23 @@ import com.couchbase.client.core.node.ViewLocator;
 import com.couchbase.client.core.service.ServiceScope;
 import com.couchbase.client.core.service.ServiceState;
 import com.couchbase.client.core.service.ServiceType;
-import com.couchbase.client.core.util.HostAndPort;
+import com.couchbase.client.core.service.kv.ReadLatencyTracker;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.security.SecureRandom;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.couchbase.client.core.util.CbCollections.isNullOrEmpty;
-
 /**
  * The main entry point into the core layer.
  *
@@ -109,43 +106,50 @@ public class Core {
    */
   private static final AtomicInteger CORE_IDS = new AtomicInteger();
 
-  /**
-   * Locates the right node for the KV service.
-   */
-  private static final KeyValueLocator KEY_VALUE_LOCATOR = new KeyValueLocator();
-
   /**
    * Locates the right node for the manager service.
    */
   private static final RoundRobinLocator MANAGER_LOCATOR =
     new RoundRobinLocator(ServiceType.MANAGER);
 
+  /**
+   * Locates the right node for the view service.
+   */
+  private static final RoundRobinLocator VIEWS_LOCATOR =
+    new ViewLocator();
+
+  private static final RoundRobinLocator EVENTING_LOCATOR =
+    new RoundRobinLocator(ServiceType.EVENTING);
+
+  /**
+   * Locates the right node for the KV service.
+   *
+   * <p>Unlike the manager, view and eventing locators it is held per core since it caches routing tables built
+   * from the config and the managed nodes of this core.</p>
+   */
+  private final KeyValueLocator keyValueLocator = new KeyValueLocator();
+
   /**
    * Locates the right node for the query service.
+   *
+   * <p>Held per core since a load aware locator keeps track of the latencies of the nodes of this core.</p>
    */
-  private static final RoundRobinLocator QUERY_LOCATOR =
-    new RoundRobinLocator(ServiceType.QUERY);
+  private final RoundRobinLocator queryLocator;
 
   /**
    * Locates the right node for the analytics service.
    */
-  private static final RoundRobinLocator ANALYTICS_LOCATOR =
-    new RoundRobinLocator(ServiceType.ANALYTICS);
+  private final RoundRobinLocator analyticsLocator;
 
   /**
    * Locates the right node for the search service.
    */
-  private static final RoundRobinLocator SEARCH_LOCATOR =
-    new RoundRobinLocator(ServiceType.SEARCH);
+  private final RoundRobinLocator searchLocator;
 
   /**
-   * Locates the right node for the view service.
+   * Tracks the recent KV read latencies per node, i.e. to decide when a read should be hedged.
    */
-  private static final RoundRobinLocator VIEWS_LOCATOR =
-    new ViewLocator();
-
-  private static final RoundRobinLocator EVENTING_LOCATOR =
-    new RoundRobinLocator(ServiceType.EVENTING);
+  private final ReadLatencyTracker readLatencies = new ReadLatencyTracker();
 
   /**
    * Holds the current core context.
@@ -178,6 +182,11 @@ public class Core {
    */
   private final AtomicBoolean moreConfigsPending = new AtomicBoolean(false);
 
+  /**
+   * Remembers the last applied topology so that a reconfiguration only touches what changed.
+   */
+  private final TopologyTracker topology;
+
   /**
    * Once shutdown, this will be set to true and as a result no further ops are allowed to go through.
    */
@@ -198,9 +207,9 @@ public class Core {
   private final List<BeforeSendRequestCallback> beforeSendRequestCallbacks;
 
   /**
-   * Holds the response metrics per
+   * Resolves the latency recorders for completed requests from the meter of the environment.
    */
-  private final Map<ResponseMetricIdentifier, ValueRecorder> responseMetrics = new ConcurrentHashMap<>();
+  private final ResponseMetrics responseMetrics;
 
   /**
    * Creates a new {@link Core} with the given environment.
@@ -226,13 +235,28 @@ public class Core {
 
     this.seedNodes = seedNodes;
     this.coreContext = new CoreContext(this, createInstanceId(), environment, authenticator);
+    if (environment.securityConfig().tlsEnabled()) {
+      // builds the shared TLS context on the calling thread instead of the event loop of the first endpoint.
+      SslHandlerFactory.prepareSslContext(environment.securityConfig(), coreContext);
+    }
+    this.responseMetrics = new ResponseMetrics(
+      environment.meter(),
+      environment.ioConfig().nodeMetricDimensionEnabled(),
+      environment.ioConfig().bucketMetricDimensionEnabled()
+    );
     this.configurationProvider = createConfigurationProvider();
     this.nodes = new CopyOnWriteArrayList<>();
+    this.topology = new TopologyTracker(environment.securityConfig().tlsEnabled());
+    boolean loadAware = environment.ioConfig().loadAwareServiceSelectionEnabled();
+    this.queryLocator = serviceLocator(ServiceType.QUERY, loadAware);
+    this.analyticsLocator = serviceLocator(ServiceType.ANALYTICS, loadAware);
+    this.searchLocator = serviceLocator(ServiceType.SEARCH, loadAware);
     this.eventBus = environment.eventBus();
     this.timer = environment.timer();
     this.currentConfig = configurationProvider.config();
     this.configurationProvider.configs().subscribe(c -> {
       currentConfig = c;
+      keyValueLocator.updateRoutingTables(c, nodes);
       reconfigure();
     });
     this.beforeSendRequestCallbacks = environment
@@ -485,6 +509,7 @@ public class Core {
       .switchIfEmpty(Mono.defer(() -> {
         Node node = createNode(identifier, alternateAddress);
         nodes.add(node);
+        keyValueLocator.updateRoutingTables(identifier, nodes);
         return Mono.just(node);
       }))
       .flatMap(node -> node.addService(serviceType, port, bucket))
@@ -493,12 +518,46 @@ public class Core {
 
   @Stability.Internal
   public ValueRecorder responseMetric(final Request<?> request) {
-    return responseMetrics.computeIfAbsent(new ResponseMetricIdentifier(request), key -> {
-      Map<String, String> tags = new HashMap<>(4);
-      tags.put(TracingIdentifiers.ATTR_SERVICE, key.serviceType.ident());
-      tags.put(TracingIdentifiers.ATTR_OPERATION, key.requestName);
-      return coreContext.environment().meter().valueRecorder(TracingIdentifiers.METER_OPERATIONS, tags);
-    });
+    return responseMetrics.recorder(request);
+  }
+
+  /**
+   * Counts the logically completed request, its retries and if it timed out in the request counters of the meter.
+   *
+   * <p>Unlike the response metric, this is also called for requests which never got dispatched.</p>
+   *
+   * @param request the completed request.
+   */
+  @Stability.Internal
+  public void countRequest(final Request<? extends Response> request) {
+    responseMetrics.countCompleted(request);
+  }
+
+  /**
+   * Notifies the locator of the request's service that the request is logically complete.
+   *
+   * @param request the completed request.
+   */
+  @Stability.Internal
+  public void requestCompleted(final Request<? extends Response> request) {
+    locator(request.serviceType()).requestCompleted(request);
+
+    if (request instanceof GetRequest) {
+      RequestContext ctx = request.context();
+      NodeIdentifier node = ctx.lastDispatchedToNode();
+      long latency = ctx.dispatchLatency();
+      if (node != null && latency > 0) {
+        readLatencies.record(node, latency);
+      }
+    }
+  }
+
+  /**
+   * Returns the recent KV read latencies per node.
+   */
+  @Stability.Internal
+  public ReadLatencyTracker readLatencies() {
+    return readLatencies;
   }
 
 
@@ -519,38 +578,46 @@ public class Core {
    * Check if the given {@link Node} needs to be removed from the cluster topology.
    *
    * @param node the node in question
-   * @param config the current config.
+   * @param nodesInConfig the identifiers of all nodes in the current config.
    * @return a mono once disconnected (or completes immediately if there is no need to do so).
    */
-  private Mono<Void> maybeRemoveNode(final Node node, final ClusterConfig config) {
+  private Mono<Void> maybeRemoveNode(final Node node, final Set<NodeIdentifier> nodesInConfig) {
     return Mono.defer(() -> {
-      boolean stillPresentInBuckets = config
-        .bucketConfigs()
-        .values()
-        .stream()
-        .flatMap(bc -> bc.nodes().stream())
-        .anyMatch(ni -> ni.identifier().equals(node.identifier()));
-
-
-      boolean stillPresentInGlobal;
-      if (config.globalConfig() != null) {
-        stillPresentInGlobal = config
-          .globalConfig()
-          .portInfos()
-          .stream()
-          .anyMatch(ni -> ni.identifier().equals(node.identifier()));
-      } else {
-        stillPresentInGlobal = false;
-      }
-
-      if ((!stillPresentInBuckets && !stillPresentInGlobal) || !node.hasServicesEnabled()) {
-        return node.disconnect().doOnTerminate(() -> nodes.remove(node));
+      if (!nodesInConfig.contains(node.identifier()) || !node.hasServicesEnabled()) {
+        return node.disconnect().doOnTerminate(() -> {
+          nodes.remove(node);
+          topology.forgetNode(node.identifier());
+          readLatencies.remove(node.identifier());
+          responseMetrics.removeNode(node.identifier());
+          keyValueLocator.updateRoutingTables(node.identifier(), nodes);
+        });
       }
 
       return Mono.empty();
     });
   }
 
+  /**
+   * Collects the identifiers of all nodes which are part of a bucket config or the global config.
+   *
+   * @param config the current config.
+   * @return the identifiers of all nodes in the config.
+   */
+  private static Set<NodeIdentifier> nodesInConfig(final ClusterConfig config) {
+    Set<NodeIdentifier> identifiers = new HashSet<>();
+    for (BucketConfig bucketConfig : config.bucketConfigs().values()) {
+      for (NodeInfo ni : bucketConfig.nodes()) {
+        identifiers.add(ni.identifier());
+      }
+    }
+    if (config.globalConfig() != null) {
+      for (PortInfo pi : config.globalConfig().portInfos()) {
+        identifiers.add(pi.identifier());
+      }
+    }
+    return identifiers;
+  }
+
   /**
    * This method is used to remove a service from a node.
    *
@@ -608,6 +675,9 @@ public class Core {
    * <p>This is a eventually consistent process, so in-flight operations might still be rescheduled
    * and then picked up later (or cancelled, depending on the strategy). For those coming from 1.x,
    * it works very similar.</p>
+   *
+   * <p>Only the nodes and services which changed since the last reconfiguration are touched, and nodes are only
+   * checked for removal if the topology changed at all (see {@link TopologyTracker}).</p>
    */
   private void reconfigure() {
     if (reconfigureInProgress.compareAndSet(false, true)) {
@@ -619,18 +689,22 @@ public class Core {
       }
 
       final long start = System.nanoTime();
-      Flux<BucketConfig> bucketConfigFlux = Flux
-        .just(configForThisAttempt)
-        .flatMap(cc -> Flux.fromIterable(cc.bucketConfigs().values()));
-
-      reconfigureBuckets(bucketConfigFlux)
-        .then(reconfigureGlobal(configForThisAttempt.globalConfig()))
-        .then(Mono.defer(() ->
-          Flux
+      final TopologyTracker.Changes changes = topology.diff(configForThisAttempt, coreContext.alternateAddress());
+
+      Flux
+        .fromIterable(changes.bucketChanges())
+        .flatMap(this::applyNodeChange)
+        .thenMany(Flux.fromIterable(changes.globalChanges()).flatMap(this::applyNodeChange))
+        .then(Mono.defer(() -> {
+          if (!changes.topologyChanged()) {
+            return Mono.empty();
+          }
+          final Set<NodeIdentifier> nodesInConfig = nodesInConfig(configForThisAttempt);
+          return Flux
             .fromIterable(new ArrayList<>(nodes))
-            .flatMap(n -> maybeRemoveNode(n, configForThisAttempt))
-            .then()
-        ))
+            .flatMap(n -> maybeRemoveNode(n, nodesInConfig))
+            .then();
+        }))
         .subscribe(
         v -> {},
         e -> {
@@ -662,7 +736,11 @@ public class Core {
     Flux
       .fromIterable(new ArrayList<>(nodes))
       .flatMap(Node::disconnect)
-      .doOnComplete(nodes::clear)
+      .doOnComplete(() -> {
+        nodes.clear();
+        topology.clear();
+        keyValueLocator.clearRoutingTables();
+      })
       .subscribe(
         v -> {},
         e -> {
@@ -689,160 +767,56 @@ public class Core {
     }
   }
 
-  private Mono<Void> reconfigureGlobal(final GlobalConfig config) {
-    return Mono.defer(() -> {
-      if (config == null) {
-        return Mono.empty();
-      }
-
-      return Flux
-        .fromIterable(config.portInfos())
-        .flatMap(ni -> {
-          boolean tls = coreContext.environment().securityConfig().tlsEnabled();
-
-          Set<Map.Entry<ServiceType, Integer>> aServices = null;
-          Optional<String> alternateAddress = coreContext.alternateAddress();
-          String aHost = null;
-          if (alternateAddress.isPresent()) {
-            AlternateAddress aa = ni.alternateAddresses().get(alternateAddress.get());
-            aHost = aa.hostname();
-            aServices = tls ? aa.sslServices().entrySet() : aa.services().entrySet();
-          }
-
-          if (aServices == null || aServices.isEmpty()) {
-            aServices = tls ? ni.sslPorts().entrySet() : ni.ports().entrySet();
-          }
-
-          final String alternateHost = aHost;
-          final Set<Map.Entry<ServiceType, Integer>> services = aServices;
-
-          Flux<Void> serviceRemoveFlux = Flux
-            .fromIterable(Arrays.asList(ServiceType.values()))
-            .filter(s -> {
-              for (Map.Entry<ServiceType, Integer> inConfig : services) {
-                if (inConfig.getKey() == s) {
-                  return false;
-                }
-              }
-              return true;
-            })
-            .flatMap(s -> removeServiceFrom(
-              ni.identifier(),
-              s,
-              Optional.empty())
-              .onErrorResume(throwable -> {
-                eventBus.publish(new ServiceReconfigurationFailedEvent(
-                  coreContext,
-                  ni.hostname(),
-                  s,
-                  throwable
-                ));
-                return Mono.empty();
-              })
-            );
-
-
-          Flux<Void> serviceAddFlux = Flux
-            .fromIterable(services)
-            .flatMap(s -> ensureServiceAt(
-              ni.identifier(),
-              s.getKey(),
-              s.getValue(),
-              Optional.empty(),
-              Optional.ofNullable(alternateHost))
-              .onErrorResume(throwable -> {
-                eventBus.publish(new ServiceReconfigurationFailedEvent(
-                  coreContext,
-                  ni.hostname(),
-                  s.getKey(),
-                  throwable
-                ));
-                return Mono.empty();
-              })
-            );
-
-          return Flux.merge(serviceAddFlux, serviceRemoveFlux);
-        })
-        .then();
-    });
-  }
-
   /**
-   * Contains logic to perform reconfiguration for a bucket config.
+   * Applies the change of a single node from one config, removing services before ensuring the new ones so that
+   * services which changed their port are recreated.
    *
-   * @param bucketConfigs the flux of bucket configs currently open.
-   * @return a mono once reconfiguration for all buckets is complete
-   */
-  private Mono<Void> reconfigureBuckets(final Flux<BucketConfig> bucketConfigs) {
-    return bucketConfigs.flatMap(bc ->
-      Flux.fromIterable(bc.nodes())
-        .flatMap(ni -> {
-          boolean tls = coreContext.environment().securityConfig().tlsEnabled();
-
-          Set<Map.Entry<ServiceType, Integer>> aServices = null;
-          Optional<String> alternateAddress = coreContext.alternateAddress();
-          String aHost = null;
-          if (alternateAddress.isPresent()) {
-            AlternateAddress aa = ni.alternateAddresses().get(alternateAddress.get());
-            aHost = aa.hostname();
-            aServices = tls ? aa.sslServices().entrySet() : aa.services().entrySet();
-          }
-
-
-          if (isNullOrEmpty(aServices)) {
-            aServices = tls ? ni.sslServices().entrySet() : ni.services().entrySet();
-          }
-
-          final String alternateHost = aHost;
-          final Set<Map.Entry<ServiceType, Integer>> services = aServices;
+   * <p>If a service cannot be reconfigured, the node is marked to be applied again in full on the next
+   * reconfiguration.</p>
+   *
+   * @param change the change to apply.
+   * @return a mono once the change is initiated.
+   */
+  private Mono<Void> applyNodeChange(final TopologyTracker.NodeChange change) {
+    Flux<Void> serviceRemoveFlux = Flux
+      .fromIterable(change.servicesToRemove())
+      .flatMap(s -> removeServiceFrom(
+        change.identifier(),
+        s,
+        s.scope() == ServiceScope.BUCKET ? change.bucket() : Optional.empty())
+        .onErrorResume(throwable -> {
+          topology.invalidate(change);
+          eventBus.publish(new ServiceReconfigurationFailedEvent(
+            coreContext,
+            change.hostname(),
+            s,
+            throwable
+          ));
+          return Mono.empty();
+        })
+      );
 
-          Flux<Void> serviceRemoveFlux = Flux
-            .fromIterable(Arrays.asList(ServiceType.values()))
-            .filter(s -> {
-              for (Map.Entry<ServiceType, Integer> inConfig : services) {
-                if (inConfig.getKey() == s) {
-                  return false;
-                }
-              }
-              return true;
-            })
-            .flatMap(s -> removeServiceFrom(
-              ni.identifier(),
-              s,
-              s.scope() == ServiceScope.BUCKET ? Optional.of(bc.name()) : Optional.empty())
-              .onErrorResume(throwable -> {
-                eventBus.publish(new ServiceReconfigurationFailedEvent(
-                  coreContext,
-                  ni.hostname(),
-                  s,
-                  throwable
-                ));
-                return Mono.empty();
-              })
-            );
-
-          Flux<Void> serviceAddFlux = Flux
-            .fromIterable(services)
-            .flatMap(s -> ensureServiceAt(
-              ni.identifier(),
-              s.getKey(),
-              s.getValue(),
-              s.getKey().scope() == ServiceScope.BUCKET ? Optional.of(bc.name()) : Optional.empty(),
-              Optional.ofNullable(alternateHost))
-              .onErrorResume(throwable -> {
-                eventBus.publish(new ServiceReconfigurationFailedEvent(
-                  coreContext,
-                  ni.hostname(),
-                  s.getKey(),
-                  throwable
-                ));
-                return Mono.empty();
-              })
-            );
-
-          return Flux.merge(serviceAddFlux, serviceRemoveFlux);
+    Flux<Void> serviceAddFlux = Flux
+      .fromIterable(change.servicesToEnsure().entrySet())
+      .flatMap(s -> ensureServiceAt(
+        change.identifier(),
+        s.getKey(),
+        s.getValue(),
+        s.getKey().scope() == ServiceScope.BUCKET ? change.bucket() : Optional.empty(),
+        change.alternateHost())
+        .onErrorResume(throwable -> {
+          topology.invalidate(change);
+          eventBus.publish(new ServiceReconfigurationFailedEvent(
+            coreContext,
+            change.hostname(),
+            s.getKey(),
+            throwable
+          ));
+          return Mono.empty();
         })
-    ).then();
+      );
+
+    return serviceRemoveFlux.thenMany(serviceAddFlux).then();
   }
 
   /**
@@ -851,18 +825,18 @@ public class Core {
    * @param serviceType the service type for which a locator should be returned.
    * @return the locator for the service type, or an exception if unknown.
    */
-  private static Locator locator(final ServiceType serviceType) {
+  private Locator locator(final ServiceType serviceType) {
     switch (serviceType) {
       case KV:
-        return KEY_VALUE_LOCATOR;
+        return keyValueLocator;
       case MANAGER:
         return MANAGER_LOCATOR;
       case QUERY:
-        return QUERY_LOCATOR;
+        return queryLocator;
       case ANALYTICS:
-        return ANALYTICS_LOCATOR;
+        return analyticsLocator;
       case SEARCH:
-        return SEARCH_LOCATOR;
+        return searchLocator;
       case VIEWS:
         return VIEWS_LOCATOR;
       case EVENTING:
@@ -872,32 +846,11 @@ public class Core {
     }
   }
 
-  private static class ResponseMetricIdentifier {
-
-    private final ServiceType serviceType;
-    private final HostAndPort lastDispatchedTo;
-    private final String requestName;
-
-    ResponseMetricIdentifier(final Request<?> request) {
-      this.serviceType = request.serviceType();
-      this.lastDispatchedTo = request.context().lastDispatchedTo();
-      this.requestName = request.name();
-    }
-
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) return true;
-      if (o == null || getClass() != o.getClass()) return false;
-      ResponseMetricIdentifier that = (ResponseMetricIdentifier) o;
-      return serviceType == that.serviceType &&
-        Objects.equals(lastDispatchedTo, that.lastDispatchedTo) &&
-        Objects.equals(requestName, that.requestName);
-    }
-
-    @Override
-    public int hashCode() {
-      return Objects.hash(serviceType, lastDispatchedTo, requestName);
-    }
+  /**
+   * Creates the locator for a service which can optionally take the load of the nodes into account.
+   */
+  private static RoundRobinLocator serviceLocator(final ServiceType serviceType, final boolean loadAware) {
+    return loadAware ? new LoadAwareLocator(serviceType) : new RoundRobinLocator(serviceType);
   }
 
 }
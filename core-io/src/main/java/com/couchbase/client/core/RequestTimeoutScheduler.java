@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core;
+
+import com.couchbase.client.core.msg.CancellationReason;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.Response;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks request timeouts on a set of striped timing wheels.
+ *
+ * <p>Requests are assigned to a shard based on their id and stored in its wheel without allocating a timeout
+ * handle or attaching a completion callback. Completing a request does not touch the wheel at all: its (volatile)
+ * state tells the wheel that it no longer needs to be tracked, so it is dropped lazily once its slot of the wheel
+ * expires, or when the shard purges all completed requests at least every {@link #PURGE_TICKS} ticks.</p>
+ *
+ * <p>The thread of a shard does not tick while there is nothing to do: it parks until the earliest deadline or
+ * purge in its wheel (but at least one tick), or until a request is registered if the wheel is empty.</p>
+ *
+ * <p>The deadline of a request is taken from {@link Request#absoluteTimeout()}.</p>
+ */
+class RequestTimeoutScheduler {
+
+  /**
+   * Number of buckets per wheel, with the default tick this covers a bit more than five seconds per round.
+   */
+  private static final int WHEEL_SIZE = 512;
+
+  /**
+   * While requests are tracked, completed ones are purged from the whole wheel at most this many ticks apart.
+   */
+  private static final int PURGE_TICKS = 10;
+
+  private final Shard[] shards;
+  private final int shardMask;
+
+  /**
+   * Creates a new scheduler.
+   *
+   * @param numShards the number of shards (and threads), will be rounded up to the next power of two.
+   * @param tickDuration the resolution of the timing wheels.
+   */
+  RequestTimeoutScheduler(final int numShards, final Duration tickDuration) {
+    this(numShards, tickDuration, System::nanoTime);
+  }
+
+  /**
+   * Creates a new scheduler with a custom clock, which needs to be compatible with {@link System#nanoTime()}.
+   *
+   * @param numShards the number of shards (and threads), will be rounded up to the next power of two.
+   * @param tickDuration the resolution of the timing wheels.
+   * @param clock the source of the current time in nanoseconds.
+   */
+  RequestTimeoutScheduler(final int numShards, final Duration tickDuration, final LongSupplier clock) {
+    int size = Integer.highestOneBit(Math.max(numShards, 1) - 1) << 1;
+    size = Math.max(size, 1);
+    this.shards = new Shard[size];
+    this.shardMask = size - 1;
+    for (int i = 0; i < size; i++) {
+      shards[i] = new Shard(i, tickDuration.toNanos(), clock);
+    }
+  }
+
+  /**
+   * Returns the default number of shards, derived from the number of available processors.
+   */
+  static int defaultNumShards() {
+    return Math.min(Runtime.getRuntime().availableProcessors(), 8);
+  }
+
+  void start() {
+    for (Shard shard : shards) {
+      shard.start();
+    }
+  }
+
+  void stop() {
+    for (Shard shard : shards) {
+      shard.stop();
+    }
+  }
+
+  /**
+   * Registers the request for timeout tracking.
+   *
+   * @param request the request to track.
+   */
+  void register(final Request<Response> request) {
+    long id = request.id();
+    shards[(int) (id ^ (id >>> 32)) & shardMask].register(request);
+  }
+
+  /**
+   * Runs one tick of every shard on the calling thread, as their threads would when they wake up.
+   *
+   * <p>Only meant to be used with a scheduler that has not been started, so that tests can drive it through
+   * their clock instead of waiting for the shard threads.</p>
+   */
+  void tick() {
+    for (Shard shard : shards) {
+      shard.tick();
+    }
+  }
+
+  /**
+   * Returns the number of shards used.
+   */
+  int numShards() {
+    return shards.length;
+  }
+
+  /**
+   * Returns the number of requests which are currently stored in the wheels, across all shards.
+   *
+   * <p>This includes completed requests which have not been purged yet.</p>
+   */
+  int size() {
+    int size = 0;
+    for (Shard shard : shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "RequestTimeoutScheduler{shards=" + shards.length + "}";
+  }
+
+  /**
+   * A single timing wheel with its own thread.
+   *
+   * <p>The wheel is guarded by the lock, which is only taken to register requests and by the thread of the
+   * shard. The thread parks and cancels timed out requests outside of it.</p>
+   */
+  private static final class Shard implements Runnable {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+    private final int wheelMask = WHEEL_SIZE - 1;
+    private final long tickNanos;
+    private final LongSupplier clock;
+    private final long startTime;
+    private final List<Request<Response>> expired = new ArrayList<>();
+    private final Thread thread;
+
+    private volatile boolean stopped;
+
+    /**
+     * The time the thread will wake up next, {@link Long#MAX_VALUE} if it waits for a registration.
+     */
+    private volatile long nextWakeup = Long.MAX_VALUE;
+
+    /**
+     * The last tick whose bucket has been fully expired, guarded by the lock.
+     */
+    private long processedTick = -1;
+
+    /**
+     * The tick at which completed requests have last been purged from the whole wheel, guarded by the lock.
+     */
+    private long purgedTick;
+
+    /**
+     * The number of stored requests, guarded by the lock.
+     */
+    private int size;
+
+    Shard(final int index, final long tickNanos, final LongSupplier clock) {
+      this.tickNanos = tickNanos;
+      this.clock = clock;
+      this.startTime = clock.getAsLong();
+      for (int i = 0; i < wheel.length; i++) {
+        wheel[i] = new Bucket();
+      }
+      this.thread = new Thread(this, "cb-timeout-" + index);
+      this.thread.setDaemon(true);
+    }
+
+    void start() {
+      thread.start();
+    }
+
+    void stop() {
+      stopped = true;
+      LockSupport.unpark(thread);
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return size;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void register(final Request<Response> request) {
+      final long deadline = request.absoluteTimeout();
+
+      lock.lock();
+      try {
+        if (request.completed()) {
+          return;
+        }
+        long deadlineTick = (deadline - startTime) / tickNanos;
+        if (deadlineTick <= processedTick) {
+          deadlineTick = processedTick + 1;
+        }
+        wheel[(int) (deadlineTick & wheelMask)].add(request, deadline);
+        size++;
+      } finally {
+        lock.unlock();
+      }
+
+      final long wakeup = nextWakeup;
+      if (wakeup == Long.MAX_VALUE || deadline - wakeup < 0) {
+        LockSupport.unpark(thread);
+      }
+    }
+
+    @Override
+    public void run() {
+      while (!stopped) {
+        final long now = clock.getAsLong();
+        final long wakeup = tick(now);
+        if (wakeup == Long.MAX_VALUE) {
+          LockSupport.park(this);
+        } else {
+          LockSupport.parkNanos(this, wakeup - now);
+        }
+      }
+    }
+
+    void tick() {
+      tick(clock.getAsLong());
+    }
+
+    /**
+     * Expires and cancels all due requests and returns the time the thread needs to wake up next.
+     */
+    private long tick(final long now) {
+      final long wakeup = expire(now);
+      cancelExpired();
+      return wakeup;
+    }
+
+    /**
+     * Expires all buckets up to the current tick (and the whole wheel if a purge is due) and returns the time the
+     * thread needs to wake up next.
+     */
+    private long expire(final long now) {
+      lock.lock();
+      try {
+        final long nowTick = (now - startTime) / tickNanos;
+        if (size > 0 && nowTick - purgedTick >= PURGE_TICKS) {
+          // drops the completed requests of all buckets, the ones which timed out are expired with them.
+          for (Bucket bucket : wheel) {
+            if (bucket.size > 0) {
+              size -= bucket.expire(now, expired);
+            }
+          }
+          purgedTick = nowTick;
+        } else {
+          final long fromTick = Math.max(processedTick + 1, nowTick - wheelMask);
+          for (long tick = fromTick; tick <= nowTick; tick++) {
+            size -= wheel[(int) (tick & wheelMask)].expire(now, expired);
+          }
+        }
+        // the bucket of the current tick might still receive requests which expire later in this tick.
+        processedTick = Math.max(processedTick, nowTick - 1);
+
+        long wakeup = Long.MAX_VALUE;
+        if (size > 0) {
+          long earliest = startTime + (purgedTick + PURGE_TICKS) * tickNanos;
+          for (Bucket bucket : wheel) {
+            if (bucket.size > 0 && bucket.earliestDeadline - earliest < 0) {
+              earliest = bucket.earliestDeadline;
+            }
+          }
+          wakeup = Math.max(earliest - now, tickNanos) + now;
+        }
+        nextWakeup = wakeup;
+        return wakeup;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void cancelExpired() {
+      for (Request<Response> request : expired) {
+        try {
+          request.cancel(CancellationReason.TIMEOUT);
+        } catch (Throwable t) {
+          // a failing completion must not take down the shard and with it all other timeouts.
+        }
+      }
+      expired.clear();
+    }
+  }
+
+  /**
+   * Holds all requests whose deadline falls into the same slot of the wheel, across all rounds.
+   */
+  private static final class Bucket {
+
+    @SuppressWarnings("unchecked")
+    private Request<Response>[] requests = (Request<Response>[]) new Request[8];
+    private int size;
+
+    /**
+     * A lower bound of the deadlines in this bucket, only exact right after {@link #expire(long, List)}.
+     */
+    private long earliestDeadline;
+
+    void add(final Request<Response> request, final long deadline) {
+      if (size == requests.length) {
+        requests = Arrays.copyOf(requests, size << 1);
+      }
+      if (size == 0 || deadline - earliestDeadline < 0) {
+        earliestDeadline = deadline;
+      }
+      requests[size++] = request;
+    }
+
+    /**
+     * Moves all requests whose deadline has passed into the given list, drops completed ones and returns the
+     * number of requests removed from this bucket.
+     */
+    int expire(final long now, final List<Request<Response>> expired) {
+      final int before = size;
+      int kept = 0;
+      long earliest = 0;
+      for (int i = 0; i < size; i++) {
+        final Request<Response> request = requests[i];
+        if (request.completed()) {
+          continue;
+        }
+        final long deadline = request.absoluteTimeout();
+        if (deadline - now <= 0) {
+          expired.add(request);
+        } else {
+          if (kept == 0 || deadline - earliest < 0) {
+            earliest = deadline;
+          }
+          requests[kept++] = request;
+        }
+      }
+      for (int i = kept; i < size; i++) {
+        requests[i] = null;
+      }
+      size = kept;
+      earliestDeadline = earliest;
+      return before - kept;
+    }
+  }
+
+}
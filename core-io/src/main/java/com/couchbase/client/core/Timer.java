@@ -51,6 +51,11 @@ public class Timer {
    */
   private HashedWheelTimer wheelTimer;
 
+  /**
+   * Tracks the request timeouts, separate from the wheel timer so it can scale with the number of cores.
+   */
+  private final RequestTimeoutScheduler timeoutScheduler;
+
   /**
    * Set to true once stopped.
    */
@@ -100,6 +105,7 @@ public class Timer {
       DEFAULT_TICK_DURATION.toMillis(),
       TimeUnit.MILLISECONDS
     );
+    timeoutScheduler = new RequestTimeoutScheduler(RequestTimeoutScheduler.defaultNumShards(), DEFAULT_TICK_DURATION);
   }
 
   /**
@@ -145,6 +151,9 @@ public class Timer {
   /**
    * Registers the given request to be tracked with its timeout value.
    *
+   * <p>The request is cancelled with {@link CancellationReason#TIMEOUT} once its absolute timeout
+   * is reached and it has not completed by then.</p>
+   *
    * @param request the request to track.
    */
   public void register(final Request<Response> request) {
@@ -153,12 +162,7 @@ public class Timer {
       return;
     }
 
-    final Timeout registration = wheelTimer.newTimeout(
-      timeout -> request.cancel(CancellationReason.TIMEOUT),
-      request.timeout().toNanos(),
-      TimeUnit.NANOSECONDS
-    );
-    request.response().whenComplete((r, throwable) -> registration.cancel());
+    timeoutScheduler.register(request);
   }
 
   /**
@@ -166,6 +170,7 @@ public class Timer {
    */
   public void start() {
     wheelTimer.start();
+    timeoutScheduler.start();
   }
 
   /**
@@ -174,6 +179,7 @@ public class Timer {
   public void stop() {
     stopped = true;
     wheelTimer.stop();
+    timeoutScheduler.stop();
   }
 
 
@@ -188,6 +194,7 @@ public class Timer {
   public String toString() {
     return "Timer{" +
       "wheelTimer=" + wheelTimer +
+      ", timeoutScheduler=" + timeoutScheduler +
       ", stopped=" + stopped +
       ", outstandingForRetry=" + outstandingForRetry +
       ", maxNumRequestsInRetry=" + maxNumRequestsInRetry +
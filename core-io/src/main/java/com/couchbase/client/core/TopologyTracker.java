@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core;
+
+import com.couchbase.client.core.config.AlternateAddress;
+import com.couchbase.client.core.config.BucketConfig;
+import com.couchbase.client.core.config.ClusterConfig;
+import com.couchbase.client.core.config.GlobalConfig;
+import com.couchbase.client.core.config.NodeInfo;
+import com.couchbase.client.core.config.PortInfo;
+import com.couchbase.client.core.node.NodeIdentifier;
+import com.couchbase.client.core.service.ServiceType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.couchbase.client.core.util.CbCollections.isNullOrEmpty;
+
+/**
+ * Remembers the node topology which has last been applied for every bucket config and the global config, so that
+ * a reconfiguration only needs to touch the nodes and services which actually changed.
+ *
+ * <p>Bucket and global configs are immutable and replaced as a whole when they change, so a config which is
+ * still the same instance as the last applied one is skipped without looking at its nodes. Otherwise the services
+ * (and their ports) of every node are compared with the last applied ones for the same config.</p>
+ *
+ * <p>This class is not thread safe for concurrent diffs, which is fine since only one reconfiguration runs at a
+ * time. Nodes can be invalidated concurrently though, so that failed changes are applied again on the next
+ * reconfiguration.</p>
+ */
+class TopologyTracker {
+
+  private final boolean tls;
+  private final Map<String, Applied> buckets = new ConcurrentHashMap<>();
+  private final Applied global = new Applied();
+  private volatile Optional<String> alternateAddress = Optional.empty();
+
+  TopologyTracker(final boolean tls) {
+    this.tls = tls;
+  }
+
+  /**
+   * Compares the given cluster config with the last applied one and remembers it as applied.
+   *
+   * @param config the current cluster config.
+   * @param alternateAddress the alternate address network in use, if any.
+   * @return the changes which need to be applied.
+   */
+  Changes diff(final ClusterConfig config, final Optional<String> alternateAddress) {
+    if (!this.alternateAddress.equals(alternateAddress)) {
+      clear();
+      this.alternateAddress = alternateAddress;
+    }
+
+    final List<NodeChange> bucketChanges = new ArrayList<>();
+    final Map<String, BucketConfig> bucketConfigs = config.bucketConfigs();
+    boolean topologyChanged = buckets.keySet().retainAll(bucketConfigs.keySet());
+
+    for (BucketConfig bucketConfig : bucketConfigs.values()) {
+      final Applied applied = buckets.computeIfAbsent(bucketConfig.name(), name -> new Applied());
+      if (applied.config == bucketConfig) {
+        continue;
+      }
+
+      final Map<NodeIdentifier, NodeTopology> next = new HashMap<>();
+      for (NodeInfo ni : bucketConfig.nodes()) {
+        next.put(ni.identifier(), topology(
+          ni.hostname(), ni.alternateAddresses(), ni.services(), ni.sslServices(), alternateAddress
+        ));
+      }
+      topologyChanged |= diffNodes(applied, next, Optional.of(bucketConfig.name()), bucketChanges);
+      applied.config = bucketConfig;
+    }
+
+    final List<NodeChange> globalChanges = new ArrayList<>();
+    final GlobalConfig globalConfig = config.globalConfig();
+    if (global.config != globalConfig || (globalConfig == null && !global.nodes.isEmpty())) {
+      final Map<NodeIdentifier, NodeTopology> next = new HashMap<>();
+      if (globalConfig != null) {
+        for (PortInfo pi : globalConfig.portInfos()) {
+          next.put(pi.identifier(), topology(
+            pi.hostname(), pi.alternateAddresses(), pi.ports(), pi.sslPorts(), alternateAddress
+          ));
+        }
+      }
+      topologyChanged |= diffNodes(global, next, Optional.empty(), globalChanges);
+      global.config = globalConfig;
+    }
+
+    return new Changes(bucketChanges, globalChanges, topologyChanged);
+  }
+
+  /**
+   * Forgets the applied state of the node in the config the change belongs to, so it is applied again in full
+   * on the next reconfiguration.
+   *
+   * @param change the change which could not be applied.
+   */
+  void invalidate(final NodeChange change) {
+    final Applied applied = change.bucket().isPresent() ? buckets.get(change.bucket().get()) : global;
+    if (applied != null) {
+      applied.nodes.remove(change.identifier());
+      applied.config = null;
+    }
+  }
+
+  /**
+   * Forgets the applied state of the given node in all configs, usually because it has been removed.
+   *
+   * @param identifier the identifier of the node.
+   */
+  void forgetNode(final NodeIdentifier identifier) {
+    for (Applied applied : buckets.values()) {
+      if (applied.nodes.remove(identifier) != null) {
+        applied.config = null;
+      }
+    }
+    if (global.nodes.remove(identifier) != null) {
+      global.config = null;
+    }
+  }
+
+  /**
+   * Forgets all applied state.
+   */
+  void clear() {
+    buckets.clear();
+    global.nodes = new ConcurrentHashMap<>();
+    global.config = null;
+  }
+
+  private static boolean diffNodes(final Applied applied, final Map<NodeIdentifier, NodeTopology> next,
+                                   final Optional<String> bucket, final List<NodeChange> changes) {
+    final Map<NodeIdentifier, NodeTopology> previous = applied.nodes;
+    boolean changed = !previous.keySet().equals(next.keySet());
+    for (Map.Entry<NodeIdentifier, NodeTopology> entry : next.entrySet()) {
+      final NodeChange change = NodeChange.between(
+        entry.getKey(),
+        bucket,
+        previous.get(entry.getKey()),
+        entry.getValue()
+      );
+      if (change != null) {
+        changes.add(change);
+        changed = true;
+      }
+    }
+    applied.nodes = new ConcurrentHashMap<>(next);
+    return changed;
+  }
+
+  private NodeTopology topology(final String hostname, final Map<String, AlternateAddress> alternateAddresses,
+                                final Map<ServiceType, Integer> services, final Map<ServiceType, Integer> sslServices,
+                                final Optional<String> alternateAddress) {
+    Map<ServiceType, Integer> aServices = null;
+    String aHost = null;
+    if (alternateAddress.isPresent()) {
+      AlternateAddress aa = alternateAddresses.get(alternateAddress.get());
+      if (aa != null) {
+        aHost = aa.hostname();
+        aServices = tls ? aa.sslServices() : aa.services();
+      }
+    }
+
+    if (isNullOrEmpty(aServices)) {
+      aServices = tls ? sslServices : services;
+    }
+    return new NodeTopology(hostname, aHost, aServices);
+  }
+
+  /**
+   * The last applied config and topology of its nodes.
+   */
+  private static class Applied {
+    volatile Object config;
+    volatile Map<NodeIdentifier, NodeTopology> nodes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * The services (and their ports) a config expects on a node.
+   */
+  private static class NodeTopology {
+
+    final String hostname;
+    final String alternateHost;
+    final Map<ServiceType, Integer> services;
+
+    NodeTopology(final String hostname, final String alternateHost, final Map<ServiceType, Integer> services) {
+      this.hostname = hostname;
+      this.alternateHost = alternateHost;
+      this.services = services == null ? Collections.emptyMap() : services;
+    }
+  }
+
+  /**
+   * The changes of a single reconfiguration.
+   */
+  static class Changes {
+
+    private final List<NodeChange> bucketChanges;
+    private final List<NodeChange> globalChanges;
+    private final boolean topologyChanged;
+
+    Changes(final List<NodeChange> bucketChanges, final List<NodeChange> globalChanges,
+            final boolean topologyChanged) {
+      this.bucketChanges = bucketChanges;
+      this.globalChanges = globalChanges;
+      this.topologyChanged = topologyChanged;
+    }
+
+    /**
+     * The node changes from bucket configs.
+     */
+    List<NodeChange> bucketChanges() {
+      return bucketChanges;
+    }
+
+    /**
+     * The node changes from the global config.
+     */
+    List<NodeChange> globalChanges() {
+      return globalChanges;
+    }
+
+    /**
+     * True if any node or config has been added, removed or changed, so nodes might need to be removed.
+     */
+    boolean topologyChanged() {
+      return topologyChanged;
+    }
+  }
+
+  /**
+   * The services which need to be removed from and ensured at a node for one config.
+   */
+  static class NodeChange {
+
+    private final NodeIdentifier identifier;
+    private final String hostname;
+    private final Optional<String> bucket;
+    private final Optional<String> alternateHost;
+    private final Set<ServiceType> servicesToRemove;
+    private final Map<ServiceType, Integer> servicesToEnsure;
+
+    NodeChange(final NodeIdentifier identifier, final String hostname, final Optional<String> bucket,
+               final Optional<String> alternateHost, final Set<ServiceType> servicesToRemove,
+               final Map<ServiceType, Integer> servicesToEnsure) {
+      this.identifier = identifier;
+      this.hostname = hostname;
+      this.bucket = bucket;
+      this.alternateHost = alternateHost;
+      this.servicesToRemove = servicesToRemove;
+      this.servicesToEnsure = servicesToEnsure;
+    }
+
+    /**
+     * Computes the change between the previously applied and the next topology of a node.
+     *
+     * <p>If the node is new for the config (or its alternate host changed), all its services are ensured and all
+     * others are removed. Otherwise only services which are new or changed their port are ensured, and services
+     * which are gone or changed their port are removed (first).</p>
+     *
+     * @return the change, or null if nothing changed.
+     */
+    static NodeChange between(final NodeIdentifier identifier, final Optional<String> bucket,
+                              final NodeTopology previous, final NodeTopology next) {
+      if (previous != null
+        && Objects.equals(previous.alternateHost, next.alternateHost)
+        && previous.services.equals(next.services)) {
+        return null;
+      }
+
+      final Set<ServiceType> toRemove = EnumSet.noneOf(ServiceType.class);
+      final Map<ServiceType, Integer> toEnsure = new HashMap<>();
+
+      if (previous == null || !Objects.equals(previous.alternateHost, next.alternateHost)) {
+        toEnsure.putAll(next.services);
+        for (ServiceType type : ServiceType.values()) {
+          if (!next.services.containsKey(type)) {
+            toRemove.add(type);
+          }
+        }
+      } else {
+        for (Map.Entry<ServiceType, Integer> service : next.services.entrySet()) {
+          final Integer previousPort = previous.services.get(service.getKey());
+          if (!service.getValue().equals(previousPort)) {
+            toEnsure.put(service.getKey(), service.getValue());
+            if (previousPort != null) {
+              toRemove.add(service.getKey());
+            }
+          }
+        }
+        for (ServiceType type : previous.services.keySet()) {
+          if (!next.services.containsKey(type)) {
+            toRemove.add(type);
+          }
+        }
+      }
+
+      if (toRemove.isEmpty() && toEnsure.isEmpty()) {
+        return null;
+      }
+      return new NodeChange(
+        identifier,
+        next.hostname,
+        bucket,
+        Optional.ofNullable(next.alternateHost),
+        toRemove,
+        toEnsure
+      );
+    }
+
+    NodeIdentifier identifier() {
+      return identifier;
+    }
+
+    String hostname() {
+      return hostname;
+    }
+
+    /**
+     * The bucket of the config this change belongs to, or empty for the global config.
+     */
+    Optional<String> bucket() {
+      return bucket;
+    }
+
+    Optional<String> alternateHost() {
+      return alternateHost;
+    }
+
+    Set<ServiceType> servicesToRemove() {
+      return servicesToRemove;
+    }
+
+    Map<ServiceType, Integer> servicesToEnsure() {
+      return servicesToEnsure;
+    }
+  }
+
+}
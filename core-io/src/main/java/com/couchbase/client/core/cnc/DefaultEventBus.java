@@ -16,18 +16,29 @@
 
 package com.couchbase.client.core.cnc;
 
+import com.couchbase.client.core.cnc.events.core.EventsSuppressedEvent;
 import com.couchbase.client.core.deps.org.jctools.queues.QueueFactory;
 import com.couchbase.client.core.deps.org.jctools.queues.spec.ConcurrentQueueSpec;
+import com.couchbase.client.core.error.InvalidArgumentException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 
 import java.io.PrintStream;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
 /**
@@ -37,6 +48,14 @@ import java.util.function.Consumer;
  * <p>It is built on top of a very fast, bounded MPSC (multi-producer single-consumer)
  * queue which allows to quickly send events into the bus without blocking the sender.</p>
  *
+ * <p>Events are drained from the queue in batches. If the queue is empty, the event bus thread spins
+ * briefly and then parks for up to the idle sleep duration, but it is woken up as soon as a new event is
+ * published so that delivery is not delayed by the idle strategy.</p>
+ *
+ * <p>High-volume event types can be rate limited per second if configured through the {@link Builder}, no type is
+ * limited by default. Events over the limit, as well as events which could not be published because the queue is
+ * full, are only counted and summarized periodically instead of being reported one by one.</p>
+ *
  * <p>Subscribers of this API are considered to be non-blocking and if they have to blocking
  * tasks need to fan them out into their own thread pool.</p>
  *
@@ -52,11 +71,26 @@ public class DefaultEventBus implements EventBus {
   private static final int DEFAULT_QUEUE_CAPACITY = 16384;
 
   /**
-   * If there are no events to process, the event bus will sleep for 100ms before checking the queue
-   * again.
+   * If there are no events to process, the event bus will park for at most 100ms before checking the queue
+   * again (unless woken up earlier by a publisher).
    */
   private static final Duration DEFAULT_IDLE_SLEEP_DURATION = Duration.ofMillis(100);
 
+  /**
+   * Suppressed and dropped events are summarized at most every 10 seconds.
+   */
+  private static final Duration DEFAULT_SUPPRESSION_SUMMARY_INTERVAL = Duration.ofSeconds(10);
+
+  /**
+   * The maximum number of events drained from the queue before they are delivered.
+   */
+  private static final int BATCH_SIZE = 256;
+
+  /**
+   * The number of empty polls for which the thread yields before it parks.
+   */
+  private static final int IDLE_SPINS = 64;
+
   /**
    * Holds all current event subscribers.
    */
@@ -84,10 +118,35 @@ public class DefaultEventBus implements EventBus {
   private final String threadName;
 
   /**
-   * The duration to sleep when no events are consumable.
+   * The maximum duration to park when no events are consumable.
    */
   private final Duration idleSleepDuration;
 
+  /**
+   * How often suppressed and dropped events are summarized.
+   */
+  private final Duration suppressionSummaryInterval;
+
+  /**
+   * The rate limits per (exact) event type, not modified after construction.
+   */
+  private final Map<Class<?>, RateLimit> rateLimits;
+
+  /**
+   * The number of events which could not be published because the queue was full.
+   */
+  private final LongAdder overflowed = new LongAdder();
+
+  /**
+   * The last event which could not be published because the queue was full.
+   */
+  private volatile Event lastOverflowed;
+
+  /**
+   * Set by the event bus thread right before it parks, so that publishers know they need to wake it up.
+   */
+  private volatile boolean parked;
+
   /**
    * The scheduler used during i.e. shutdown.
    */
@@ -117,6 +176,12 @@ public class DefaultEventBus implements EventBus {
     errorLogging = builder.errorLogging.orElse(null);
     threadName = builder.threadName;
     idleSleepDuration = builder.idleSleepDuration;
+    suppressionSummaryInterval = builder.suppressionSummaryInterval;
+
+    rateLimits = new HashMap<>();
+    for (Map.Entry<Class<? extends Event>, Integer> limit : builder.rateLimits.entrySet()) {
+      rateLimits.put(limit.getKey(), new RateLimit(limit.getValue()));
+    }
   }
 
   @Override
@@ -130,16 +195,33 @@ public class DefaultEventBus implements EventBus {
     subscribers.remove(subscription.consumer());
   }
 
+  /**
+   * Publishes the event, unless its type is rate limited and over its limit.
+   * <p>
+   * Events which are suppressed because of their rate limit are still considered successfully published, they
+   * are summarized through an {@link EventsSuppressedEvent} instead.
+   */
   @Override
   public PublishResult publish(final Event event) {
     if (!isRunning()) {
       return PublishResult.SHUTDOWN;
-    } else if (eventQueue.offer(event)) {
+    }
+
+    if (!rateLimits.isEmpty()) {
+      RateLimit rateLimit = rateLimits.get(event.getClass());
+      if (rateLimit != null && !rateLimit.tryAcquire(System.nanoTime())) {
+        return PublishResult.SUCCESS;
+      }
+    }
+
+    if (eventQueue.offer(event)) {
+      if (parked) {
+        LockSupport.unpark(runningThread);
+      }
       return PublishResult.SUCCESS;
     } else {
-      if (errorLogging != null) {
-        errorLogging.println("Could not publish Event because the queue is full. " + event);
-      }
+      overflowed.increment();
+      lastOverflowed = event;
       return PublishResult.OVERLOADED;
     }
   }
@@ -151,39 +233,7 @@ public class DefaultEventBus implements EventBus {
   public Mono<Void> start() {
     return Mono.defer(() -> {
       if (running.compareAndSet(false, true)) {
-        runningThread = new Thread(() -> {
-          long idleSleepTime = idleSleepDuration.toMillis();
-          while (isRunning() || !eventQueue.isEmpty()) {
-            Event event = eventQueue.poll();
-            while (event != null) {
-              for (Consumer<Event> subscriber : subscribers) {
-                try {
-                  subscriber.accept(event);
-                } catch (Throwable t) {
-                  // any exception thrown in the event consumer is
-                  // ignored, since it would otherwise kill the
-                  // event bus thread!
-                  if (errorLogging != null) {
-                    errorLogging.println("Exception caught in EventBus Consumer: " + t);
-                    t.printStackTrace();
-                  }
-                }
-              }
-              event = eventQueue.poll();
-            }
-
-            try {
-              if (isRunning()) {
-                Thread.sleep(idleSleepTime);
-              }
-            } catch (InterruptedException e) {
-              // If this thread is interrupted, we continue
-              // into the loop early. so if interrupted for
-              // shutdown it completes quickly while sleeping
-            }
-          }
-        });
-
+        runningThread = new Thread(this::consume);
         runningThread.setDaemon(true);
         runningThread.setName(threadName);
         runningThread.start();
@@ -192,6 +242,111 @@ public class DefaultEventBus implements EventBus {
     });
   }
 
+  /**
+   * Runs on the event bus thread and drains the queue in batches until stopped and all events are consumed.
+   */
+  private void consume() {
+    final Event[] batch = new Event[BATCH_SIZE];
+    final long summaryIntervalNanos = suppressionSummaryInterval.toNanos();
+    long lastSummary = System.nanoTime();
+    int idleRounds = 0;
+
+    while (isRunning() || !eventQueue.isEmpty()) {
+      int size = 0;
+      Event event;
+      while (size < batch.length && (event = eventQueue.poll()) != null) {
+        batch[size++] = event;
+      }
+
+      if (size > 0) {
+        deliver(batch, size);
+        Arrays.fill(batch, 0, size, null);
+        idleRounds = 0;
+      }
+
+      long now = System.nanoTime();
+      if (now - lastSummary >= summaryIntervalNanos) {
+        summarize(Duration.ofNanos(now - lastSummary));
+        lastSummary = now;
+      }
+
+      if (size == 0 && isRunning()) {
+        idle(idleRounds++, summaryIntervalNanos - (now - lastSummary));
+      }
+    }
+
+    summarize(Duration.ofNanos(System.nanoTime() - lastSummary));
+  }
+
+  /**
+   * Delivers a batch of events to the subscribers which are present when the batch starts.
+   */
+  @SuppressWarnings("unchecked")
+  private void deliver(final Event[] batch, final int size) {
+    final Object[] currentSubscribers = subscribers.toArray();
+    for (int i = 0; i < size; i++) {
+      for (Object subscriber : currentSubscribers) {
+        try {
+          ((Consumer<Event>) subscriber).accept(batch[i]);
+        } catch (Throwable t) {
+          // any exception thrown in the event consumer is
+          // ignored, since it would otherwise kill the
+          // event bus thread!
+          if (errorLogging != null) {
+            errorLogging.println("Exception caught in EventBus Consumer: " + t);
+            t.printStackTrace();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Yields for the first couple of empty rounds, then parks until woken up by a publisher, the idle
+   * sleep duration passed or the next summary is due.
+   */
+  private void idle(final int idleRounds, final long nanosUntilSummary) {
+    if (idleRounds < IDLE_SPINS) {
+      Thread.yield();
+      return;
+    }
+
+    parked = true;
+    // Re-check after announcing the park, otherwise an event published in between could be missed
+    // until the idle sleep duration is over.
+    if (eventQueue.isEmpty() && isRunning()) {
+      LockSupport.parkNanos(this, Math.min(idleSleepDuration.toNanos(), nanosUntilSummary));
+    }
+    parked = false;
+  }
+
+  /**
+   * Reports the events suppressed by rate limits (as an event) and those dropped because the queue was
+   * full (to the error logging), if there have been any since the last summary.
+   */
+  private void summarize(final Duration interval) {
+    Map<String, Long> suppressed = null;
+    for (Map.Entry<Class<?>, RateLimit> entry : rateLimits.entrySet()) {
+      long count = entry.getValue().suppressed.sumThenReset();
+      if (count > 0) {
+        if (suppressed == null) {
+          suppressed = new TreeMap<>();
+        }
+        suppressed.merge(entry.getKey().getSimpleName(), count, Long::sum);
+      }
+    }
+    if (suppressed != null) {
+      Event event = new EventsSuppressedEvent(interval, suppressed);
+      deliver(new Event[] { event }, 1);
+    }
+
+    long dropped = overflowed.sumThenReset();
+    if (dropped > 0 && errorLogging != null) {
+      errorLogging.println("Could not publish " + dropped + " Event(s) in the last " + interval.toMillis()
+        + "ms because the queue is full. Last: " + lastOverflowed);
+    }
+  }
+
   /**
    * Stops the {@link DefaultEventBus} from running.
    */
@@ -222,6 +377,38 @@ public class DefaultEventBus implements EventBus {
     return !subscribers.isEmpty();
   }
 
+  /**
+   * Allows a fixed number of events per second and counts the ones over the limit.
+   * <p>
+   * The window is reset by the first event after a second passed, so the limit is approximate under
+   * contention, which is good enough for sampling diagnostic events.
+   */
+  private static class RateLimit {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxPerSecond;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger count = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    RateLimit(final int maxPerSecond) {
+      this.maxPerSecond = maxPerSecond;
+    }
+
+    boolean tryAcquire(final long now) {
+      long start = windowStart.get();
+      if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+        count.set(0);
+      }
+      if (count.get() < maxPerSecond && count.incrementAndGet() <= maxPerSecond) {
+        return true;
+      }
+      suppressed.increment();
+      return false;
+    }
+  }
+
   /**
    * Allows to modify the default configuration of the {@link DefaultEventBus}.
    */
@@ -233,6 +420,8 @@ public class DefaultEventBus implements EventBus {
     Optional<PrintStream> errorLogging;
     String threadName;
     Duration idleSleepDuration;
+    Duration suppressionSummaryInterval;
+    final Map<Class<? extends Event>, Integer> rateLimits = new HashMap<>();
 
     Builder(Scheduler scheduler) {
       this.scheduler = scheduler;
@@ -241,6 +430,7 @@ public class DefaultEventBus implements EventBus {
       errorLogging = Optional.of(System.err);
       threadName = "cb-events";
       idleSleepDuration = DEFAULT_IDLE_SLEEP_DURATION;
+      suppressionSummaryInterval = DEFAULT_SUPPRESSION_SUMMARY_INTERVAL;
     }
 
     public Builder queueCapacity(final int queueCapacity) {
@@ -263,6 +453,40 @@ public class DefaultEventBus implements EventBus {
       return this;
     }
 
+    /**
+     * Allows to customize how often suppressed and dropped events are summarized.
+     *
+     * @param suppressionSummaryInterval the interval to use.
+     * @return this builder for chaining.
+     */
+    public Builder suppressionSummaryInterval(final Duration suppressionSummaryInterval) {
+      if (suppressionSummaryInterval.isZero() || suppressionSummaryInterval.isNegative()) {
+        throw InvalidArgumentException.fromMessage("Suppression summary interval must be greater than 0");
+      }
+      this.suppressionSummaryInterval = suppressionSummaryInterval;
+      return this;
+    }
+
+    /**
+     * Limits how many events of the given (exact) type are published per second, the others are only counted.
+     * <p>
+     * No type is limited unless configured here. Note that publishing an event over the limit still returns
+     * {@link PublishResult#SUCCESS}, its subscribers only see it as part of an {@link EventsSuppressedEvent}.
+     * A negative value removes a previously configured limit for the type.
+     *
+     * @param eventType the type of event to limit.
+     * @param maxEventsPerSecond the number of events to publish per second.
+     * @return this builder for chaining.
+     */
+    public Builder rateLimit(final Class<? extends Event> eventType, final int maxEventsPerSecond) {
+      if (maxEventsPerSecond < 0) {
+        rateLimits.remove(eventType);
+      } else {
+        rateLimits.put(eventType, maxEventsPerSecond);
+      }
+      return this;
+    }
+
     public DefaultEventBus build() {
       return new DefaultEventBus(this);
     }
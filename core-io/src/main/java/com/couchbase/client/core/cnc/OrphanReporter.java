@@ -24,23 +24,21 @@ import com.couchbase.client.core.deps.org.jctools.queues.MpscArrayQueue;
 import com.couchbase.client.core.env.OrphanReporterConfig;
 import com.couchbase.client.core.msg.Request;
 import com.couchbase.client.core.msg.UnmonitoredRequest;
-import com.couchbase.client.core.msg.kv.KeyValueRequest;
-import com.couchbase.client.core.msg.view.ViewRequest;
 import com.couchbase.client.core.service.ServiceType;
 import com.couchbase.client.core.util.HostAndPort;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.couchbase.client.core.logging.RedactableArgument.redactSystem;
 
@@ -63,10 +61,14 @@ public class OrphanReporter {
   private static final String KEY_LAST_REMOTE_SOCKET = "last_remote_socket";
   private static final String KEY_LAST_LOCAL_ID = "last_local_id";
   private static final String KEY_TIMEOUT = "timeout_ms";
+  private static final String KEY_DROPPED_COUNT = "dropped_count";
 
   private final AtomicBoolean running = new AtomicBoolean(false);
   volatile Thread worker = null; // visible for testing
-  private final Queue<Request<?>> orphanQueue;
+  private final Queue<RequestRecord> orphanQueue;
+  private final AtomicLongArray droppedPerService = new AtomicLongArray(ServiceType.values().length);
+  private final LongAdder droppedRecords = new LongAdder();
+  private final AtomicBoolean dropEventRaised = new AtomicBoolean(false);
   private final long emitIntervalNanos;
   private final int sampleSize;
   private final EventBus eventBus;
@@ -137,8 +139,10 @@ public class OrphanReporter {
   /**
    * Reports an orphaned {@link Request}.
    * <p>
-   * If the orphan could not be recorded because the buffer is full, a {@link OrphanRecordDroppedEvent} will
-   * be raised on the event bus.
+   * Only a small {@link RequestRecord} is kept until the next emit interval, not the request itself. If the orphan
+   * could not be recorded because the buffer is full, it is counted in the dropped records of its service (which are
+   * part of the next emitted output) and a {@link OrphanRecordDroppedEvent} will be raised on the event bus for the
+   * first dropped record in each interval.
    * <p>
    * If you wish to ignore certain requests as being considered in the orphan reporting, make sure they implement
    * the {@link UnmonitoredRequest} marker interface.
@@ -150,9 +154,43 @@ public class OrphanReporter {
         return;
       }
 
-      if (!orphanQueue.offer(request)) {
-        eventBus.publish(new OrphanRecordDroppedEvent(request.getClass()));
+      if (!orphanQueue.offer(RequestRecord.from(request))) {
+        droppedRecords.increment();
+        ServiceType serviceType = request.serviceType();
+        if (serviceType != null) {
+          droppedPerService.incrementAndGet(serviceType.ordinal());
+        }
+        if (dropEventRaised.compareAndSet(false, true)) {
+          eventBus.publish(new OrphanRecordDroppedEvent(request.getClass()));
+        }
+      }
+  }
+
+  /**
+   * Returns the total number of orphan records dropped because the queue was full.
+   */
+  public long droppedRecords() {
+    return droppedRecords.sum();
+  }
+
+  /**
+   * Returns the orphans dropped per service (indexed by ordinal) since the last emit interval and resets the counts.
+   */
+  private long[] drainDroppedPerService() {
+    final long[] dropped = new long[droppedPerService.length()];
+    for (int i = 0; i < dropped.length; i++) {
+      dropped[i] = droppedPerService.getAndSet(i, 0);
+    }
+    return dropped;
+  }
+
+  private static boolean anyDropped(final long[] dropped) {
+    for (long count : dropped) {
+      if (count > 0) {
+        return true;
       }
+    }
+    return false;
   }
 
   /**
@@ -173,27 +211,14 @@ public class OrphanReporter {
       System.getProperty("com.couchbase.orphanReporterNewOutputFormat", "true")
     );
 
-    /**
-     * Compares request by their logical request latency for the priority threshold queues.
-     */
-    private final Comparator<Request<?>> THRESHOLD_COMPARATOR = Comparator.comparingLong(
-      o -> o.context().logicalRequestLatency()
-    );
-
     private long lastThresholdLog;
     private boolean hasThresholdWritten;
 
-    private final Queue<Request<?>> kvOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> queryOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> viewOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> searchOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> analyticsOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-
-    private long kvOrphanCount = 0;
-    private long queryOrphanCount = 0;
-    private long viewOrphanCount = 0;
-    private long searchOrphanCount = 0;
-    private long analyticsOrphanCount = 0;
+    private final TopRequestRecords kvOrphans = new TopRequestRecords(sampleSize);
+    private final TopRequestRecords queryOrphans = new TopRequestRecords(sampleSize);
+    private final TopRequestRecords viewOrphans = new TopRequestRecords(sampleSize);
+    private final TopRequestRecords searchOrphans = new TopRequestRecords(sampleSize);
+    private final TopRequestRecords analyticsOrphans = new TopRequestRecords(sampleSize);
 
     @Override
     public void run() {
@@ -223,121 +248,99 @@ public class OrphanReporter {
       }
 
       while (true) {
-        Request<?> request = orphanQueue.poll();
-        if (request == null) {
+        RequestRecord record = orphanQueue.poll();
+        if (record == null) {
           return;
         }
-        final ServiceType serviceType = request.serviceType();
+        final ServiceType serviceType = record.serviceType();
         if (serviceType == ServiceType.KV) {
-          updateSet(kvOrphans, request);
-          kvOrphanCount += 1;
+          updateSet(kvOrphans, record);
         } else if (serviceType == ServiceType.QUERY) {
-          updateSet(queryOrphans, request);
-          queryOrphanCount += 1;
+          updateSet(queryOrphans, record);
         } else if (serviceType == ServiceType.VIEWS) {
-          updateSet(viewOrphans, request);
-          viewOrphanCount += 1;
+          updateSet(viewOrphans, record);
         } else if (serviceType == ServiceType.SEARCH) {
-          updateSet(searchOrphans, request);
-          searchOrphanCount += 1;
+          updateSet(searchOrphans, record);
         } else if (serviceType == ServiceType.ANALYTICS) {
-          updateSet(analyticsOrphans, request);
-          analyticsOrphanCount += 1;
+          updateSet(analyticsOrphans, record);
         }
       }
     }
 
     /**
-     * Helper method which updates the list with the span and ensures that the sample
-     * size is respected.
+     * Helper method which records the orphan, only the slowest ones up to the sample size are retained.
      */
-    private void updateSet(final Queue<Request<?>> set, final Request<?> request) {
-      set.add(request);
-      // Remove the element with the lowest duration, so we only keep the highest ones consistently
-      while(set.size() > sampleSize) {
-        set.remove();
-      }
+    private void updateSet(final TopRequestRecords set, final RequestRecord record) {
+      set.offer(record);
       hasThresholdWritten = true;
     }
 
     private void prepareAndLogOrphansNew() {
-      if (!hasThresholdWritten) {
+      final long[] dropped = drainDroppedPerService();
+      if (!hasThresholdWritten && !anyDropped(dropped)) {
         return;
       }
       hasThresholdWritten = false;
+      dropEventRaised.set(false);
 
       Map<String, Object> output = new HashMap<>();
-      if (!kvOrphans.isEmpty()) {
-        output.put(TracingIdentifiers.SERVICE_KV, convertOrphanMetadataNew(kvOrphans, kvOrphanCount));
-        kvOrphans.clear();
-        kvOrphanCount = 0;
-      }
-      if (!queryOrphans.isEmpty()) {
-        output.put(TracingIdentifiers.SERVICE_QUERY, convertOrphanMetadataNew(queryOrphans, queryOrphanCount));
-        queryOrphans.clear();
-        queryOrphanCount = 0;
-      }
-      if (!viewOrphans.isEmpty()) {
-        output.put(TracingIdentifiers.SERVICE_VIEWS, convertOrphanMetadataNew(viewOrphans, viewOrphanCount));
-        viewOrphans.clear();
-        viewOrphanCount = 0;
-      }
-      if (!searchOrphans.isEmpty()) {
-        output.put(TracingIdentifiers.SERVICE_SEARCH, convertOrphanMetadataNew(searchOrphans, searchOrphanCount));
-        searchOrphans.clear();
-        searchOrphanCount = 0;
-      }
-      if (!analyticsOrphans.isEmpty()) {
-        output.put(TracingIdentifiers.SERVICE_ANALYTICS, convertOrphanMetadataNew(analyticsOrphans, analyticsOrphanCount));
-        analyticsOrphans.clear();
-        analyticsOrphanCount = 0;
-      }
+      addNew(output, kvOrphans, ServiceType.KV, TracingIdentifiers.SERVICE_KV, dropped);
+      addNew(output, queryOrphans, ServiceType.QUERY, TracingIdentifiers.SERVICE_QUERY, dropped);
+      addNew(output, viewOrphans, ServiceType.VIEWS, TracingIdentifiers.SERVICE_VIEWS, dropped);
+      addNew(output, searchOrphans, ServiceType.SEARCH, TracingIdentifiers.SERVICE_SEARCH, dropped);
+      addNew(output, analyticsOrphans, ServiceType.ANALYTICS, TracingIdentifiers.SERVICE_ANALYTICS, dropped);
       logOrphans(output, null);
     }
 
     private void prepareAndLogOrphansOld() {
-      if (!hasThresholdWritten) {
+      final long[] dropped = drainDroppedPerService();
+      if (!hasThresholdWritten && !anyDropped(dropped)) {
         return;
       }
       hasThresholdWritten = false;
+      dropEventRaised.set(false);
 
       List<Map<String, Object>> output = new ArrayList<>();
-      if (!kvOrphans.isEmpty()) {
-        output.add(convertOrphanMetadataOld(kvOrphans, kvOrphanCount, TracingIdentifiers.SERVICE_KV));
-        kvOrphans.clear();
-        kvOrphanCount = 0;
-      }
-      if (!queryOrphans.isEmpty()) {
-        output.add(convertOrphanMetadataOld(queryOrphans, queryOrphanCount, TracingIdentifiers.SERVICE_QUERY));
-        queryOrphans.clear();
-        queryOrphanCount = 0;
-      }
-      if (!viewOrphans.isEmpty()) {
-        output.add(convertOrphanMetadataOld(viewOrphans, viewOrphanCount, TracingIdentifiers.SERVICE_VIEWS));
-        viewOrphans.clear();
-        viewOrphanCount = 0;
-      }
-      if (!searchOrphans.isEmpty()) {
-        output.add(convertOrphanMetadataOld(searchOrphans, searchOrphanCount, TracingIdentifiers.SERVICE_SEARCH));
-        searchOrphans.clear();
-        searchOrphanCount = 0;
+      addOld(output, kvOrphans, ServiceType.KV, TracingIdentifiers.SERVICE_KV, dropped);
+      addOld(output, queryOrphans, ServiceType.QUERY, TracingIdentifiers.SERVICE_QUERY, dropped);
+      addOld(output, viewOrphans, ServiceType.VIEWS, TracingIdentifiers.SERVICE_VIEWS, dropped);
+      addOld(output, searchOrphans, ServiceType.SEARCH, TracingIdentifiers.SERVICE_SEARCH, dropped);
+      addOld(output, analyticsOrphans, ServiceType.ANALYTICS, TracingIdentifiers.SERVICE_ANALYTICS, dropped);
+      logOrphans(null, output);
+    }
+
+    /**
+     * Adds the orphans of the service, and how many have been dropped, to the output if there is anything to report.
+     */
+    private void addNew(final Map<String, Object> output, final TopRequestRecords records,
+                        final ServiceType serviceType, final String ident, final long[] dropped) {
+      final long droppedCount = dropped[serviceType.ordinal()];
+      if (!records.isEmpty() || droppedCount > 0) {
+        output.put(ident, convertOrphanMetadataNew(records, droppedCount));
+        records.clear();
       }
-      if (!analyticsOrphans.isEmpty()) {
-        output.add(convertOrphanMetadataOld(analyticsOrphans, analyticsOrphanCount, TracingIdentifiers.SERVICE_ANALYTICS));
-        analyticsOrphans.clear();
-        analyticsOrphanCount = 0;
+    }
+
+    /**
+     * Same as {@link #addNew}, but for the old output format.
+     */
+    private void addOld(final List<Map<String, Object>> output, final TopRequestRecords records,
+                        final ServiceType serviceType, final String ident, final long[] dropped) {
+      final long droppedCount = dropped[serviceType.ordinal()];
+      if (!records.isEmpty() || droppedCount > 0) {
+        output.add(convertOrphanMetadataOld(records, ident, droppedCount));
+        records.clear();
       }
-      logOrphans(null,  output);
     }
 
-    private Map<String, Object> convertOrphanMetadataNew(Queue<Request<?>> requests, long count) {
+    private Map<String, Object> convertOrphanMetadataNew(TopRequestRecords records, long dropped) {
       Map<String, Object> output = new HashMap<>();
       List<Map<String, Object>> top = new ArrayList<>();
-      for (Request<?> request : requests) {
+      for (RequestRecord request : records.records()) {
         HashMap<String, Object> fieldMap = new HashMap<>();
 
         if (request != null) {
-          fieldMap.put(KEY_TOTAL_MICROS, TimeUnit.NANOSECONDS.toMicros(request.context().logicalRequestLatency()));
+          fieldMap.put(KEY_TOTAL_MICROS, TimeUnit.NANOSECONDS.toMicros(request.logicalRequestLatency()));
 
           fieldMap.put(KEY_OPERATION_NAME, request.name());
 
@@ -346,27 +349,27 @@ public class OrphanReporter {
             fieldMap.put(KEY_OPERATION_ID, operationId);
           }
 
-          String localId = request.context().lastChannelId();
+          String localId = request.lastChannelId();
           if (localId != null) {
             fieldMap.put(KEY_LAST_LOCAL_ID, redactSystem(localId));
           }
 
-          long encodeDuration = request.context().encodeLatency();
+          long encodeDuration = request.encodeLatency();
           if (encodeDuration > 0) {
             fieldMap.put(KEY_ENCODE_MICROS, TimeUnit.NANOSECONDS.toMicros(encodeDuration));
           }
 
-          long dispatchDuration = request.context().dispatchLatency();
+          long dispatchDuration = request.dispatchLatency();
           if (dispatchDuration > 0) {
             fieldMap.put(KEY_DISPATCH_MICROS, TimeUnit.NANOSECONDS.toMicros(dispatchDuration));
           }
-          long totalDispatchDuration = request.context().totalDispatchLatency();
+          long totalDispatchDuration = request.totalDispatchLatency();
           if (totalDispatchDuration > 0) {
             fieldMap.put(KEY_TOTAL_DISPATCH_MICROS, TimeUnit.NANOSECONDS.toMicros(totalDispatchDuration));
           }
 
-          HostAndPort local = request.context().lastDispatchedFrom();
-          HostAndPort peer = request.context().lastDispatchedTo();
+          HostAndPort local = request.lastDispatchedFrom();
+          HostAndPort peer = request.lastDispatchedTo();
           if (local != null) {
             fieldMap.put(KEY_LAST_LOCAL_SOCKET, redactSystem(local.toString()));
           }
@@ -374,51 +377,53 @@ public class OrphanReporter {
             fieldMap.put(KEY_LAST_REMOTE_SOCKET, redactSystem(peer.toString()));
           }
 
-          long serverDuration = request.context().serverLatency();
+          long serverDuration = request.serverLatency();
           if (serverDuration > 0) {
             fieldMap.put(KEY_SERVER_MICROS, serverDuration);
           }
-          long totalServerDuration = request.context().totalServerLatency();
+          long totalServerDuration = request.totalServerLatency();
           if (totalServerDuration > 0) {
             fieldMap.put(KEY_TOTAL_SERVER_MICROS, totalServerDuration);
           }
 
-          fieldMap.put(KEY_TIMEOUT, request.timeout().toMillis());
+          fieldMap.put(KEY_TIMEOUT, request.timeoutMillis());
         }
 
         top.add(fieldMap);
       }
-      output.put("total_count", count);
+      output.put("total_count", records.totalCount());
+      if (dropped > 0) {
+        output.put(KEY_DROPPED_COUNT, dropped);
+      }
       output.put("top_requests", top);
       return output;
     }
 
-    private Map<String, Object> convertOrphanMetadataOld(Queue<Request<?>> requests, long count, String serviceType) {
+    private Map<String, Object> convertOrphanMetadataOld(TopRequestRecords records, String serviceType,
+                                                         long dropped) {
       Map<String, Object> output = new HashMap<>();
       List<Map<String, Object>> top = new ArrayList<>();
-      for (Request<?> request : requests) {
+      for (RequestRecord request : records.records()) {
         HashMap<String, Object> fieldMap = new HashMap<>();
 
         if (request != null) {
-          String name = request.getClass().getSimpleName().replace("Request", "").toLowerCase();
+          String name = request.className().replace("Request", "").toLowerCase();
           fieldMap.put("s", name);
 
           String operationId = request.operationId();
           if (operationId != null) {
             fieldMap.put("i", operationId);
           }
-          if (request instanceof KeyValueRequest) {
-            fieldMap.put("b", ((KeyValueRequest<?>) request).bucket());
-          } else if (request instanceof ViewRequest) {
-            fieldMap.put("b", ((ViewRequest) request).bucket());
+          if (request.bucket() != null) {
+            fieldMap.put("b", request.bucket());
           }
-          String localId = request.context().lastChannelId();
+          String localId = request.lastChannelId();
           if (localId != null) {
             fieldMap.put("c", redactSystem(localId));
           }
 
-          HostAndPort local = request.context().lastDispatchedFrom();
-          HostAndPort peer = request.context().lastDispatchedTo();
+          HostAndPort local = request.lastDispatchedFrom();
+          HostAndPort peer = request.lastDispatchedTo();
           if (local != null) {
             fieldMap.put("l", redactSystem(local.toString()));
           }
@@ -426,19 +431,22 @@ public class OrphanReporter {
             fieldMap.put("r", redactSystem(peer.toString()));
           }
 
-          long serverDuration = request.context().serverLatency();
+          long serverDuration = request.serverLatency();
           if (serverDuration > 0) {
             fieldMap.put("d", serverDuration);
           }
 
-          long timeout = request.timeout().toMillis();
+          long timeout = request.timeoutMillis();
           fieldMap.put("t", timeout);
         }
 
         top.add(fieldMap);
       }
       output.put("service", serviceType);
-      output.put("count", count);
+      output.put("count", records.totalCount());
+      if (dropped > 0) {
+        output.put(KEY_DROPPED_COUNT, dropped);
+      }
       output.put("top", top);
       return output;
     }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.msg.kv.KeyValueRequest;
+import com.couchbase.client.core.msg.view.ViewRequest;
+import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.core.util.HostAndPort;
+
+/**
+ * An immutable snapshot of the fields of a request which are reported by the threshold and orphan reporters.
+ *
+ * <p>The reporters hold on to their records until the next emit interval, so they must not keep the request
+ * itself alive (together with its content, context and span) for that long.</p>
+ */
+@Stability.Internal
+public class RequestRecord {
+
+  private final ServiceType serviceType;
+  private final String name;
+  private final String className;
+  private final String operationId;
+  private final String bucket;
+  private final String lastChannelId;
+  private final HostAndPort lastDispatchedFrom;
+  private final HostAndPort lastDispatchedTo;
+  private final long logicalRequestLatency;
+  private final long encodeLatency;
+  private final long dispatchLatency;
+  private final long totalDispatchLatency;
+  private final long serverLatency;
+  private final long totalServerLatency;
+  private final long timeoutMillis;
+
+  private RequestRecord(final Request<?> request) {
+    final RequestContext ctx = request.context();
+    this.serviceType = request.serviceType();
+    this.name = request.name();
+    this.className = request.getClass().getSimpleName();
+    this.operationId = request.operationId();
+    if (request instanceof KeyValueRequest) {
+      this.bucket = ((KeyValueRequest<?>) request).bucket();
+    } else if (request instanceof ViewRequest) {
+      this.bucket = ((ViewRequest) request).bucket();
+    } else {
+      this.bucket = null;
+    }
+    this.lastChannelId = ctx.lastChannelId();
+    this.lastDispatchedFrom = ctx.lastDispatchedFrom();
+    this.lastDispatchedTo = ctx.lastDispatchedTo();
+    this.logicalRequestLatency = ctx.logicalRequestLatency();
+    this.encodeLatency = ctx.encodeLatency();
+    this.dispatchLatency = ctx.dispatchLatency();
+    this.totalDispatchLatency = ctx.totalDispatchLatency();
+    this.serverLatency = ctx.serverLatency();
+    this.totalServerLatency = ctx.totalServerLatency();
+    this.timeoutMillis = request.timeout().toMillis();
+  }
+
+  /**
+   * Captures the reported fields of the given request.
+   *
+   * @param request the request to capture.
+   * @return the immutable record.
+   */
+  public static RequestRecord from(final Request<?> request) {
+    return new RequestRecord(request);
+  }
+
+  public ServiceType serviceType() {
+    return serviceType;
+  }
+
+  /**
+   * The name of the request as used in tracing.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * The simple class name of the request.
+   */
+  public String className() {
+    return className;
+  }
+
+  public String operationId() {
+    return operationId;
+  }
+
+  /**
+   * The bucket of the request, or null if it is not bucket-scoped.
+   */
+  public String bucket() {
+    return bucket;
+  }
+
+  public String lastChannelId() {
+    return lastChannelId;
+  }
+
+  public HostAndPort lastDispatchedFrom() {
+    return lastDispatchedFrom;
+  }
+
+  public HostAndPort lastDispatchedTo() {
+    return lastDispatchedTo;
+  }
+
+  public long logicalRequestLatency() {
+    return logicalRequestLatency;
+  }
+
+  public long encodeLatency() {
+    return encodeLatency;
+  }
+
+  public long dispatchLatency() {
+    return dispatchLatency;
+  }
+
+  public long totalDispatchLatency() {
+    return totalDispatchLatency;
+  }
+
+  public long serverLatency() {
+    return serverLatency;
+  }
+
+  public long totalServerLatency() {
+    return totalServerLatency;
+  }
+
+  public long timeoutMillis() {
+    return timeoutMillis;
+  }
+
+}
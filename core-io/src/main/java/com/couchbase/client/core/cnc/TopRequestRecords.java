@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc;
+
+import com.couchbase.client.core.annotation.Stability;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the N slowest {@link RequestRecord RequestRecords} offered since the last clear, plus the total number of
+ * records offered.
+ *
+ * <p>The records are held in a binary min-heap over a fixed array, so a record which is faster than all of the
+ * retained ones is rejected by a single comparison and nothing is allocated after construction. This class is not
+ * thread safe, it is meant to be owned by a single reporter thread.</p>
+ */
+@Stability.Internal
+public class TopRequestRecords {
+
+  private final RequestRecord[] heap;
+  private int size;
+  private long totalCount;
+
+  /**
+   * Creates a new top-N structure.
+   *
+   * @param capacity the number of records to retain.
+   */
+  public TopRequestRecords(final int capacity) {
+    this.heap = new RequestRecord[Math.max(capacity, 0)];
+  }
+
+  /**
+   * Counts the record and retains it if it is among the N slowest.
+   *
+   * @param record the record to offer.
+   */
+  public void offer(final RequestRecord record) {
+    totalCount++;
+    if (size < heap.length) {
+      heap[size] = record;
+      siftUp(size++);
+    } else if (size > 0 && record.logicalRequestLatency() > heap[0].logicalRequestLatency()) {
+      heap[0] = record;
+      siftDown(0);
+    }
+  }
+
+  /**
+   * Returns true if no record has been offered since the last clear.
+   */
+  public boolean isEmpty() {
+    return totalCount == 0;
+  }
+
+  /**
+   * Returns the total number of records offered since the last clear, including the ones not retained.
+   */
+  public long totalCount() {
+    return totalCount;
+  }
+
+  /**
+   * Returns the retained records, slowest first.
+   */
+  public List<RequestRecord> records() {
+    RequestRecord[] sorted = Arrays.copyOf(heap, size);
+    Arrays.sort(sorted, (o1, o2) -> Long.compare(o2.logicalRequestLatency(), o1.logicalRequestLatency()));
+    return Arrays.asList(sorted);
+  }
+
+  /**
+   * Removes all records and resets the count.
+   */
+  public void clear() {
+    Arrays.fill(heap, 0, size, null);
+    size = 0;
+    totalCount = 0;
+  }
+
+  private void siftUp(int index) {
+    RequestRecord record = heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (heap[parent].logicalRequestLatency() <= record.logicalRequestLatency()) {
+        break;
+      }
+      heap[index] = heap[parent];
+      index = parent;
+    }
+    heap[index] = record;
+  }
+
+  private void siftDown(int index) {
+    RequestRecord record = heap[index];
+    int half = size >>> 1;
+    while (index < half) {
+      int child = 2 * index + 1;
+      int right = child + 1;
+      if (right < size && heap[right].logicalRequestLatency() < heap[child].logicalRequestLatency()) {
+        child = right;
+      }
+      if (record.logicalRequestLatency() <= heap[child].logicalRequestLatency()) {
+        break;
+      }
+      heap[index] = heap[child];
+      index = child;
+    }
+    heap[index] = record;
+  }
+
+}
@@ -226,6 +226,28 @@ public class TracingIdentifiers {
 
   public static final String METER_OPERATIONS = "db.couchbase.operations";
 
+  public static final String METER_REQUESTS = "db.couchbase.requests";
+
+  public static final String METER_RETRIES = "db.couchbase.requests.retries";
+
+  public static final String METER_TIMEOUTS = "db.couchbase.requests.timeouts";
+
+  public static final String METER_BYTES_SENT = "db.couchbase.io.bytes_sent";
+
+  public static final String METER_BYTES_RECEIVED = "db.couchbase.io.bytes_received";
+
+  public static final String METER_RETRY_BUDGET_DENIED = "db.couchbase.retry_budget.denied";
+
+  public static final String METER_PREPARED_CACHE_HITS = "db.couchbase.query.prepared_cache.hits";
+
+  public static final String METER_PREPARED_CACHE_MISSES = "db.couchbase.query.prepared_cache.misses";
+
+  public static final String METER_PREPARED_CACHE_EVICTIONS = "db.couchbase.query.prepared_cache.evictions";
+
+  public static final String METER_CONFIGS_STALE_SKIPPED = "db.couchbase.config.stale_skipped";
+
+  public static final String METER_CONFIGS_IN_FLIGHT_SKIPPED = "db.couchbase.config.in_flight_skipped";
+
   public static final String ATTR_DURABILITY = "db.couchbase.durability";
 
   public static final String ATTR_RETRIES = "db.couchbase.retries";
@@ -48,6 +48,10 @@ public class CollectionMapRefreshFailedEvent extends AbstractEvent {
     return cause;
   }
 
+  public Reason reason() {
+    return reason;
+  }
+
   @Override
   public String description() {
     return "Collection Map refresh (" + collectionIdentifier + ") failed: " + reason;
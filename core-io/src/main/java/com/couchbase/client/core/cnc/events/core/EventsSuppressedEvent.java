@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc.events.core;
+
+import com.couchbase.client.core.cnc.AbstractEvent;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Raised periodically by the event bus if events have been suppressed because their type is rate limited.
+ */
+public class EventsSuppressedEvent extends AbstractEvent {
+
+  private final Map<String, Long> suppressed;
+
+  public EventsSuppressedEvent(final Duration duration, final Map<String, Long> suppressed) {
+    super(Severity.INFO, Category.SYSTEM, duration, null);
+    this.suppressed = suppressed;
+  }
+
+  /**
+   * Returns the number of suppressed events per (simple) event type name.
+   */
+  public Map<String, Long> suppressed() {
+    return suppressed;
+  }
+
+  @Override
+  public String description() {
+    long total = 0;
+    for (long count : suppressed.values()) {
+      total += count;
+    }
+    return "Suppressed " + total + " rate limited events in the last " + duration().toMillis() + "ms: " + suppressed;
+  }
+}
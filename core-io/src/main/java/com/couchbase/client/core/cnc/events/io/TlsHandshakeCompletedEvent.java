@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc.events.io;
+
+import com.couchbase.client.core.cnc.AbstractEvent;
+import com.couchbase.client.core.cnc.Context;
+
+import java.time.Duration;
+
+/**
+ * This event is emitted once a TLS handshake completed, reporting if a previous session has been resumed.
+ *
+ * <p>Resumption is told from the session id, which is only meaningful up to TLS 1.2. TLS 1.3 resumes through
+ * pre-shared keys and only echoes a legacy session id, so those handshakes are reported as
+ * {@link Resumption#UNKNOWN}.</p>
+ */
+public class TlsHandshakeCompletedEvent extends AbstractEvent {
+
+  private final Resumption resumption;
+  private final long fullHandshakes;
+  private final long resumedHandshakes;
+  private final long unknownHandshakes;
+
+  public TlsHandshakeCompletedEvent(final Duration duration, final Context context, final Resumption resumption,
+                                    final long fullHandshakes, final long resumedHandshakes,
+                                    final long unknownHandshakes) {
+    super(Severity.DEBUG, Category.IO, duration, context);
+    this.resumption = resumption;
+    this.fullHandshakes = fullHandshakes;
+    this.resumedHandshakes = resumedHandshakes;
+    this.unknownHandshakes = unknownHandshakes;
+  }
+
+  /**
+   * Whether a previous session has been resumed by this handshake.
+   */
+  public Resumption resumption() {
+    return resumption;
+  }
+
+  /**
+   * The total number of full handshakes completed in this environment so far.
+   */
+  public long fullHandshakes() {
+    return fullHandshakes;
+  }
+
+  /**
+   * The total number of resumed handshakes completed in this environment so far.
+   */
+  public long resumedHandshakes() {
+    return resumedHandshakes;
+  }
+
+  /**
+   * The total number of handshakes completed so far for which resumption could not be detected.
+   */
+  public long unknownHandshakes() {
+    return unknownHandshakes;
+  }
+
+  @Override
+  public String description() {
+    return "TLS handshake completed (" + resumption + ", full: " + fullHandshakes + ", resumed: "
+      + resumedHandshakes + ", unknown: " + unknownHandshakes + ")";
+  }
+
+  /**
+   * Describes if a handshake resumed a previous session.
+   */
+  public enum Resumption {
+    /**
+     * A full handshake has been performed.
+     */
+    FULL,
+    /**
+     * The previous session to the same host and port has been resumed.
+     */
+    RESUMED,
+    /**
+     * The protocol version does not allow to tell if a session has been resumed.
+     */
+    UNKNOWN
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc.events.request;
+
+import com.couchbase.client.core.cnc.AbstractEvent;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.node.NodeIdentifier;
+import com.couchbase.client.core.service.ServiceType;
+
+import java.time.Duration;
+
+import static com.couchbase.client.core.logging.RedactableArgument.redactSystem;
+
+/**
+ * This event is raised if the retry budget of a service or node runs dry and retries start to be denied.
+ * <p>
+ * It is only raised once until the budget allows retries again, every denied retry is also counted on the meter.
+ */
+public class RetryBudgetExhaustedEvent extends AbstractEvent {
+
+  private final ServiceType serviceType;
+  private final NodeIdentifier node;
+  private final long deniedRetries;
+
+  public RetryBudgetExhaustedEvent(final RequestContext context, final ServiceType serviceType,
+                                   final NodeIdentifier node, final long deniedRetries) {
+    super(Severity.WARN, Category.REQUEST, Duration.ZERO, context);
+    this.serviceType = serviceType;
+    this.node = node;
+    this.deniedRetries = deniedRetries;
+  }
+
+  public ServiceType serviceType() {
+    return serviceType;
+  }
+
+  /**
+   * The node whose budget is exhausted, or null if the budget of the whole service is exhausted.
+   */
+  public NodeIdentifier node() {
+    return node;
+  }
+
+  /**
+   * The total number of retries denied so far.
+   */
+  public long deniedRetries() {
+    return deniedRetries;
+  }
+
+  @Override
+  public String description() {
+    return "Retry budget exhausted for service " + serviceType
+      + (node != null ? " on node " + redactSystem(node.address()) : "")
+      + ", denying further retries (total denied: " + deniedRetries + ")";
+  }
+
+}
@@ -38,7 +38,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * The default metrics implementation which aggregates latency information and emits it at a regular interval.
+ * The default metrics implementation which aggregates latency information and counters and emits them at a
+ * regular interval.
+ *
+ * <p>For every operation the configured latency percentiles and the throughput over the interval are emitted,
+ * counters are reported with their increase and rate over the interval, summed up per service.</p>
  */
 @Stability.Volatile
 public class LoggingMeter implements Meter {
@@ -50,8 +54,10 @@ public class LoggingMeter implements Meter {
   private final AtomicBoolean running = new AtomicBoolean(false);
 
   private final Map<NameAndTags, AggregatingValueRecorder> valueRecorders = new ConcurrentHashMap<>();
+  private final Map<NameAndTags, AggregatingCounter> counters = new ConcurrentHashMap<>();
 
   private final long emitIntervalMs;
+  private final double[] percentiles;
   private final LoggingMeterConfig config;
 
   public static LoggingMeter create(EventBus eventBus, LoggingMeterConfig config) {
@@ -61,6 +67,7 @@ public class LoggingMeter implements Meter {
   private LoggingMeter(LoggingMeterConfig config, EventBus eventBus) {
     this.eventBus = eventBus;
     this.emitIntervalMs = config.emitInterval().toMillis();
+    this.percentiles = config.percentiles();
     this.config = config;
 
     worker = new Thread(new Worker());
@@ -75,25 +82,33 @@ public class LoggingMeter implements Meter {
   }
 
   /**
-   * Note that since we are not performing any aggregations on the counter type, this pretty much
-   * is a NOOP for performance reasons.
+   * Returns the counter for the name and tags, which aggregates its increments until the next emit interval.
+   * <p>
+   * Callers on the hot path are expected to hold on to the returned counter instead of looking it up every time.
    *
-   * @param name the name of the counter (unused).
-   * @param tags the tags to apply (unused).
-   * @return a cached noop instance of the counter.
+   * @param name the name of the counter.
+   * @param tags the tags to apply.
+   * @return the (cached) counter.
    */
   @Override
   public Counter counter(String name, Map<String, String> tags) {
-    return AggregatingCounter.INSTANCE;
+    try {
+      NameAndTags key = new NameAndTags(name, tags);
+      AggregatingCounter counter = counters.get(key);
+      return counter != null ? counter : counters.computeIfAbsent(key, k -> new AggregatingCounter(name, tags));
+    } catch (Exception ex) {
+      throw new MeterException("Failed to create/access Counter", ex);
+    }
   }
 
   @Override
-  public synchronized ValueRecorder valueRecorder(String name, Map<String, String> tags) {
+  public ValueRecorder valueRecorder(String name, Map<String, String> tags) {
     try {
-      return valueRecorders.computeIfAbsent(
-        new NameAndTags(name, tags),
-        key -> new AggregatingValueRecorder(name, tags)
-      );
+      NameAndTags key = new NameAndTags(name, tags);
+      AggregatingValueRecorder recorder = valueRecorders.get(key);
+      return recorder != null
+        ? recorder
+        : valueRecorders.computeIfAbsent(key, k -> new AggregatingValueRecorder(name, tags));
     } catch (Exception ex) {
       throw new MeterException("Failed to create/access ValueRecorder", ex);
     }
@@ -121,6 +136,8 @@ public class LoggingMeter implements Meter {
 
   private class Worker implements Runnable {
 
+    private long lastDump = System.nanoTime();
+
     @Override
     public void run() {
       Thread.currentThread().setName("cb-metrics-" + METER_ID.incrementAndGet());
@@ -144,6 +161,10 @@ public class LoggingMeter implements Meter {
 
     @SuppressWarnings("unchecked")
     private synchronized void dumpMetrics() {
+      long now = System.nanoTime();
+      double intervalSeconds = Math.max(now - lastDump, 1) / 1_000_000_000.0;
+      lastDump = now;
+
       Map<String,  Object> output = new HashMap<>();
 
       Map<String, Object> meta = new HashMap<>();
@@ -172,24 +193,46 @@ public class LoggingMeter implements Meter {
         Map<String, Object> operationMap = (Map<String, Object>) serviceMap.computeIfAbsent(operation, k -> new HashMap<>());
 
         operationMap.put("total_count", histogram.getTotalCount());
+        operationMap.put("throughput_per_s", histogram.getTotalCount() / intervalSeconds);
 
         Map<String, Object> percentiles = new LinkedHashMap<>();
-        percentiles.put("50.0", histogram.getValueAtPercentile(50.0) / 1000.0);
-        percentiles.put("90.0", histogram.getValueAtPercentile(90.0) / 1000.0);
-        percentiles.put("99.0", histogram.getValueAtPercentile(99.0) / 1000.0);
-        percentiles.put("99.9", histogram.getValueAtPercentile(99.9) / 1000.0);
-        percentiles.put("100.0", histogram.getMaxValue() / 1000.0);
+        for (double percentile : LoggingMeter.this.percentiles) {
+          long value = percentile >= 100.0 ? histogram.getMaxValue() : histogram.getValueAtPercentile(percentile);
+          percentiles.put(String.valueOf(percentile), value / 1000.0);
+        }
 
         operationMap.put("percentiles_us", percentiles);
       }
 
       output.put("operations", operations);
 
+      Map<String, Map<String, Object>> counterOutput = new HashMap<>();
+      for (AggregatingCounter counter : counters.values()) {
+        long count = counter.sumThenReset();
+        if (count == 0) {
+          continue;
+        }
+        wroteRow = true;
+
+        String service = counter.tags() == null ? null : counter.tags().get(TracingIdentifiers.ATTR_SERVICE);
+        Map<String, Object> byService = counterOutput.computeIfAbsent(counter.name(), k -> new HashMap<>());
+        Map<String, Object> counterMap = (Map<String, Object>) byService.computeIfAbsent(
+          service == null ? "total" : service,
+          k -> new HashMap<>()
+        );
+        long total = (Long) counterMap.getOrDefault("total_count", 0L) + count;
+        counterMap.put("total_count", total);
+        counterMap.put("rate_per_s", total / intervalSeconds);
+      }
+
+      if (!counterOutput.isEmpty()) {
+        output.put("counters", counterOutput);
+      }
+
       if (wroteRow) {
         eventBus.publish(new LatencyMetricsAggregatedEvent(Duration.ofMillis(emitIntervalMs), output));
       }
     }
   }
 
-
 }
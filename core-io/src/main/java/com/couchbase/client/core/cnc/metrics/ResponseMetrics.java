@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc.metrics;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import com.couchbase.client.core.msg.CancellationReason;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.kv.KeyValueRequest;
+import com.couchbase.client.core.msg.view.ViewRequest;
+import com.couchbase.client.core.node.NodeIdentifier;
+import com.couchbase.client.core.service.ServiceType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Resolves the {@link ValueRecorder} for the latency of a completed request without allocating on the hot path.
+ *
+ * <p>Every request class gets a small, process-wide id the first time it is seen. Per meter, the resolved recorders
+ * are kept in an array per {@link ServiceType} indexed by that id, so looking up the recorder of a request is a
+ * couple of array reads and a check that the operation name still matches. Requests whose name is not the same
+ * for every instance of their class fall back to a map keyed by the name, which does not allocate either.</p>
+ *
+ * <p>Optionally the recorders can be split by the node the request has been dispatched to and by its bucket. Those
+ * dimensions are looked up in maps keyed by the (already existing) node identifier and bucket name, so a new
+ * recorder and its tags are only allocated the first time a combination is seen. The recorders of a node are
+ * dropped once it is {@link #removeNode(NodeIdentifier) removed}.</p>
+ *
+ * <p>In addition, the number of requests, retries and timeouts are counted per service, with the counters also
+ * resolved only once per service.</p>
+ */
+@Stability.Internal
+public class ResponseMetrics {
+
+  private static final AtomicInteger NEXT_CLASS_ID = new AtomicInteger();
+
+  private static final ClassValue<Integer> CLASS_IDS = new ClassValue<Integer>() {
+    @Override
+    protected Integer computeValue(final Class<?> type) {
+      return NEXT_CLASS_ID.getAndIncrement();
+    }
+  };
+
+  /**
+   * Used as the map key for requests which do not belong to a bucket (or are not dispatched to a node yet).
+   */
+  private static final String NONE = "";
+
+  private final Meter meter;
+  private final boolean nodeDimension;
+  private final boolean bucketDimension;
+
+  /**
+   * The handles per service ordinal and request class id, replaced as a whole when a slot is added.
+   */
+  private volatile Handle[][] handles = new Handle[ServiceType.values().length][0];
+
+  /**
+   * The handles per service ordinal and operation name, used if the name does not match the class slot.
+   */
+  private final Map<String, Handle>[] handlesByName;
+
+  private final AtomicReferenceArray<Counter> requestCounters = new AtomicReferenceArray<>(ServiceType.values().length);
+  private final AtomicReferenceArray<Counter> retryCounters = new AtomicReferenceArray<>(ServiceType.values().length);
+  private final AtomicReferenceArray<Counter> timeoutCounters = new AtomicReferenceArray<>(ServiceType.values().length);
+
+  /**
+   * Creates the response metrics without any additional dimensions.
+   *
+   * @param meter the meter to resolve the recorders from.
+   */
+  public ResponseMetrics(final Meter meter) {
+    this(meter, false, false);
+  }
+
+  /**
+   * Creates the response metrics.
+   *
+   * @param meter the meter to resolve the recorders from.
+   * @param nodeDimension if the recorders should be split by the node a request has been dispatched to.
+   * @param bucketDimension if the recorders should be split by the bucket of a request.
+   */
+  @SuppressWarnings("unchecked")
+  public ResponseMetrics(final Meter meter, final boolean nodeDimension, final boolean bucketDimension) {
+    this.meter = meter;
+    this.nodeDimension = nodeDimension;
+    this.bucketDimension = bucketDimension;
+    this.handlesByName = new Map[ServiceType.values().length];
+    for (int i = 0; i < handlesByName.length; i++) {
+      handlesByName[i] = new ConcurrentHashMap<>();
+    }
+  }
+
+  /**
+   * Returns the value recorder for the latency of the given request.
+   *
+   * @param request the completed request.
+   * @return the recorder to record its latency into.
+   */
+  public ValueRecorder recorder(final Request<?> request) {
+    final Handle handle = handle(request);
+    if (!nodeDimension && !bucketDimension) {
+      return handle.recorder;
+    }
+
+    final NodeIdentifier node = nodeDimension ? request.context().lastDispatchedToNode() : null;
+    final String bucket = bucketDimension ? bucket(request) : null;
+    Map<String, ValueRecorder> byBucket = node == null ? handle.withoutNode : handle.byNode.get(node);
+    if (byBucket == null) {
+      byBucket = handle.byNode.computeIfAbsent(node, n -> new ConcurrentHashMap<>());
+    }
+
+    final String bucketKey = bucket == null ? NONE : bucket;
+    final ValueRecorder recorder = byBucket.get(bucketKey);
+    return recorder != null
+      ? recorder
+      : byBucket.computeIfAbsent(bucketKey, k -> createRecorder(handle.serviceType, handle.name, node, bucket));
+  }
+
+  /**
+   * Drops the recorders of the given node, so that they are not retained once the node left the cluster.
+   * <p>
+   * This only has an effect if the recorders are split by node.
+   *
+   * @param node the node which has been removed.
+   */
+  public void removeNode(final NodeIdentifier node) {
+    if (!nodeDimension) {
+      return;
+    }
+    for (Map<String, Handle> byName : handlesByName) {
+      for (Handle handle : byName.values()) {
+        handle.byNode.remove(node);
+      }
+    }
+  }
+
+  /**
+   * Counts the logically completed request, its retries and if it timed out against its service.
+   *
+   * @param request the completed request.
+   */
+  public void countCompleted(final Request<?> request) {
+    final ServiceType serviceType = request.serviceType();
+    if (serviceType == null) {
+      return;
+    }
+
+    counter(requestCounters, TracingIdentifiers.METER_REQUESTS, serviceType).incrementBy(1);
+    final int retries = request.context().retryAttempts();
+    if (retries > 0) {
+      counter(retryCounters, TracingIdentifiers.METER_RETRIES, serviceType).incrementBy(retries);
+    }
+    if (request.cancellationReason() == CancellationReason.TIMEOUT) {
+      counter(timeoutCounters, TracingIdentifiers.METER_TIMEOUTS, serviceType).incrementBy(1);
+    }
+  }
+
+  private Counter counter(final AtomicReferenceArray<Counter> counters, final String name,
+                          final ServiceType serviceType) {
+    final Counter counter = counters.get(serviceType.ordinal());
+    if (counter != null) {
+      return counter;
+    }
+    final Counter created = meter.counter(
+      name,
+      Collections.singletonMap(TracingIdentifiers.ATTR_SERVICE, serviceType.ident())
+    );
+    return counters.compareAndSet(serviceType.ordinal(), null, created) ? created : counters.get(serviceType.ordinal());
+  }
+
+  private Handle handle(final Request<?> request) {
+    final ServiceType serviceType = request.serviceType();
+    final String name = request.name();
+    final int classId = CLASS_IDS.get(request.getClass());
+
+    final Handle[] forService = handles[serviceType.ordinal()];
+    if (classId < forService.length) {
+      final Handle handle = forService[classId];
+      if (handle != null && (handle.name == name || handle.name.equals(name))) {
+        return handle;
+      }
+    }
+    return slowHandle(serviceType, name, classId);
+  }
+
+  /**
+   * Resolves the handle by name and stores it in the class slot, unless the slot is already taken by another name.
+   */
+  private Handle slowHandle(final ServiceType serviceType, final String name, final int classId) {
+    final Handle handle = handlesByName[serviceType.ordinal()].computeIfAbsent(
+      name,
+      n -> new Handle(serviceType, n, nodeDimension || bucketDimension ? null : createRecorder(serviceType, n, null, null))
+    );
+
+    synchronized (this) {
+      final Handle[][] current = handles;
+      Handle[] forService = current[serviceType.ordinal()];
+      if (classId < forService.length && forService[classId] != null) {
+        return handle;
+      }
+      forService = Arrays.copyOf(forService, Math.max(forService.length, classId + 1));
+      forService[classId] = handle;
+      final Handle[][] updated = current.clone();
+      updated[serviceType.ordinal()] = forService;
+      handles = updated;
+    }
+    return handle;
+  }
+
+  private ValueRecorder createRecorder(final ServiceType serviceType, final String name,
+                                       final NodeIdentifier node, final String bucket) {
+    final Map<String, String> tags = new HashMap<>(8);
+    tags.put(TracingIdentifiers.ATTR_SERVICE, serviceType.ident());
+    tags.put(TracingIdentifiers.ATTR_OPERATION, name);
+    if (node != null) {
+      tags.put(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, node.address());
+    }
+    if (bucket != null) {
+      tags.put(TracingIdentifiers.ATTR_NAME, bucket);
+    }
+    return meter.valueRecorder(TracingIdentifiers.METER_OPERATIONS, tags);
+  }
+
+  private static String bucket(final Request<?> request) {
+    if (request instanceof KeyValueRequest) {
+      return ((KeyValueRequest<?>) request).bucket();
+    } else if (request instanceof ViewRequest) {
+      return ((ViewRequest) request).bucket();
+    }
+    return null;
+  }
+
+  /**
+   * Holds the recorder of an operation of a service, or the maps to the recorders per dimension.
+   */
+  private static class Handle {
+
+    final ServiceType serviceType;
+    final String name;
+    final ValueRecorder recorder;
+    final Map<NodeIdentifier, Map<String, ValueRecorder>> byNode = new ConcurrentHashMap<>();
+    final Map<String, ValueRecorder> withoutNode = new ConcurrentHashMap<>();
+
+    Handle(final ServiceType serviceType, final String name, final ValueRecorder recorder) {
+      this.serviceType = serviceType;
+      this.name = name;
+      this.recorder = recorder;
+    }
+  }
+
+}
@@ -17,8 +17,10 @@
 package com.couchbase.client.core.cnc.tracing;
 
 import com.couchbase.client.core.cnc.EventBus;
+import com.couchbase.client.core.cnc.RequestRecord;
 import com.couchbase.client.core.cnc.RequestSpan;
 import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.TopRequestRecords;
 import com.couchbase.client.core.cnc.TracingIdentifiers;
 import com.couchbase.client.core.cnc.events.tracing.OverThresholdRequestsRecordedEvent;
 import com.couchbase.client.core.deps.org.jctools.queues.MpscArrayQueue;
@@ -31,15 +33,15 @@ import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.couchbase.client.core.logging.RedactableArgument.redactSystem;
 
@@ -62,9 +64,12 @@ public class ThresholdLoggingTracer implements RequestTracer {
   private static final String KEY_LAST_LOCAL_SOCKET = "last_local_socket";
   private static final String KEY_LAST_REMOTE_SOCKET = "last_remote_socket";
   private static final String KEY_LAST_LOCAL_ID = "last_local_id";
+  private static final String KEY_DROPPED_COUNT = "dropped_count";
 
   private final AtomicBoolean running = new AtomicBoolean(false);
-  private final Queue<Request<?>> overThresholdQueue;
+  private final Queue<RequestRecord> overThresholdQueue;
+  private final AtomicLongArray droppedPerService = new AtomicLongArray(ServiceType.values().length);
+  private final LongAdder droppedRecords = new LongAdder();
   private final EventBus eventBus;
   private final Thread worker;
 
@@ -148,7 +153,36 @@ public class ThresholdLoggingTracer implements RequestTracer {
   }
 
   /**
-   * Finishes the span (sends it off into the queue when over threshold).
+   * Returns the total number of over threshold records dropped because the queue was full.
+   */
+  public long droppedRecords() {
+    return droppedRecords.sum();
+  }
+
+  /**
+   * Returns the records dropped per service (indexed by ordinal) since the last call and resets the counts.
+   */
+  private long[] drainDroppedPerService() {
+    final long[] dropped = new long[droppedPerService.length()];
+    for (int i = 0; i < dropped.length; i++) {
+      dropped[i] = droppedPerService.getAndSet(i, 0);
+    }
+    return dropped;
+  }
+
+  private static boolean anyDropped(final long[] dropped) {
+    for (long count : dropped) {
+      if (count > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finishes the span (sends a snapshot of the request off into the queue when over threshold).
+   * <p>
+   * If the queue is full, the record is dropped and counted, the count per service is part of the next output.
    *
    * @param span the finished internal span from the toplevel request.
    */
@@ -156,10 +190,9 @@ public class ThresholdLoggingTracer implements RequestTracer {
     try {
       if (span.requestContext() != null) {
         final Request<?> request = span.requestContext().request();
-        if (isOverThreshold(request)) {
-          if (!overThresholdQueue.offer(request)) {
-            // TODO: what to do if dropped because queue full? raise event?
-          }
+        if (isOverThreshold(request) && !overThresholdQueue.offer(RequestRecord.from(request))) {
+          droppedRecords.increment();
+          droppedPerService.incrementAndGet(request.serviceType().ordinal());
         }
       }
     } catch (Exception ex) {
@@ -227,24 +260,11 @@ public class ThresholdLoggingTracer implements RequestTracer {
       System.getProperty("com.couchbase.thresholdRequestTracerNewOutputFormat", "true")
     );
 
-    /**
-     * Compares request by their logical request latency for the priority threshold queues.
-     */
-    private final Comparator<Request<?>> THRESHOLD_COMPARATOR = Comparator.comparingLong(
-      o -> o.context().logicalRequestLatency()
-    );
-
-    private final Queue<Request<?>> kvThresholds = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> n1qlThresholds = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> viewThresholds = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> ftsThresholds = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> analyticsThresholds = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-
-    private long kvThresholdCount = 0;
-    private long n1qlThresholdCount = 0;
-    private long viewThresholdCount = 0;
-    private long ftsThresholdCount = 0;
-    private long analyticsThresholdCount = 0;
+    private final TopRequestRecords kvThresholds = new TopRequestRecords(sampleSize);
+    private final TopRequestRecords n1qlThresholds = new TopRequestRecords(sampleSize);
+    private final TopRequestRecords viewThresholds = new TopRequestRecords(sampleSize);
+    private final TopRequestRecords ftsThresholds = new TopRequestRecords(sampleSize);
+    private final TopRequestRecords analyticsThresholds = new TopRequestRecords(sampleSize);
 
     private long lastThresholdLog;
     private boolean hasThresholdWritten;
@@ -285,26 +305,21 @@ public class ThresholdLoggingTracer implements RequestTracer {
       }
 
       while (true) {
-        Request<?> request = overThresholdQueue.poll();
-        if (request == null) {
+        RequestRecord record = overThresholdQueue.poll();
+        if (record == null) {
           return;
         }
-        final ServiceType serviceType = request.serviceType();
+        final ServiceType serviceType = record.serviceType();
         if (serviceType == ServiceType.KV) {
-          updateThreshold(kvThresholds, request);
-          kvThresholdCount += 1;
+          updateThreshold(kvThresholds, record);
         } else if (serviceType == ServiceType.QUERY) {
-          updateThreshold(n1qlThresholds, request);
-          n1qlThresholdCount += 1;
+          updateThreshold(n1qlThresholds, record);
         } else if (serviceType == ServiceType.VIEWS) {
-          updateThreshold(viewThresholds, request);
-          viewThresholdCount += 1;
+          updateThreshold(viewThresholds, record);
         } else if (serviceType == ServiceType.SEARCH) {
-          updateThreshold(ftsThresholds, request);
-          ftsThresholdCount += 1;
+          updateThreshold(ftsThresholds, record);
         } else if (serviceType == ServiceType.ANALYTICS) {
-          updateThreshold(analyticsThresholds, request);
-          analyticsThresholdCount += 1;
+          updateThreshold(analyticsThresholds, record);
         } else {
           // TODO: log error
           // LOGGER.warn("Unknown service in span {}", service);
@@ -316,88 +331,60 @@ public class ThresholdLoggingTracer implements RequestTracer {
      * Logs the over threshold data and resets the sets.
      */
     private void prepareAndlogOverThresholdNew() {
-      if (!hasThresholdWritten) {
+      final long[] dropped = drainDroppedPerService();
+      if (!hasThresholdWritten && !anyDropped(dropped)) {
         return;
       }
       hasThresholdWritten = false;
 
       Map<String, Object> output = new HashMap<>();
-      if (!kvThresholds.isEmpty()) {
-        output.put(
-          TracingIdentifiers.SERVICE_KV,
-          convertThresholdMetadataNew(kvThresholds, kvThresholdCount)
-        );
-        kvThresholds.clear();
-        kvThresholdCount = 0;
-      }
-      if (!n1qlThresholds.isEmpty()) {
-        output.put(
-          TracingIdentifiers.SERVICE_QUERY,
-          convertThresholdMetadataNew(n1qlThresholds, n1qlThresholdCount)
-        );
-        n1qlThresholds.clear();
-        n1qlThresholdCount = 0;
-      }
-      if (!viewThresholds.isEmpty()) {
-        output.put(
-          TracingIdentifiers.SERVICE_VIEWS,
-          convertThresholdMetadataNew(viewThresholds, viewThresholdCount)
-        );
-        viewThresholds.clear();
-        viewThresholdCount = 0;
-      }
-      if (!ftsThresholds.isEmpty()) {
-        output.put(
-          TracingIdentifiers.SERVICE_SEARCH,
-          convertThresholdMetadataNew(ftsThresholds, ftsThresholdCount)
-        );
-        ftsThresholds.clear();
-        ftsThresholdCount = 0;
-      }
-      if (!analyticsThresholds.isEmpty()) {
-        output.put(
-          TracingIdentifiers.SERVICE_ANALYTICS,
-          convertThresholdMetadataNew(analyticsThresholds, analyticsThresholdCount)
-        );
-        analyticsThresholds.clear();
-        analyticsThresholdCount = 0;
-      }
+      addNew(output, kvThresholds, ServiceType.KV, TracingIdentifiers.SERVICE_KV, dropped);
+      addNew(output, n1qlThresholds, ServiceType.QUERY, TracingIdentifiers.SERVICE_QUERY, dropped);
+      addNew(output, viewThresholds, ServiceType.VIEWS, TracingIdentifiers.SERVICE_VIEWS, dropped);
+      addNew(output, ftsThresholds, ServiceType.SEARCH, TracingIdentifiers.SERVICE_SEARCH, dropped);
+      addNew(output, analyticsThresholds, ServiceType.ANALYTICS, TracingIdentifiers.SERVICE_ANALYTICS, dropped);
       logOverThreshold(output, null);
     }
 
     private void prepareAndlogOverThresholdOld() {
-      if (!hasThresholdWritten) {
+      final long[] dropped = drainDroppedPerService();
+      if (!hasThresholdWritten && !anyDropped(dropped)) {
         return;
       }
       hasThresholdWritten = false;
 
       List<Map<String, Object>> output = new ArrayList<>();
-      if (!kvThresholds.isEmpty()) {
-        output.add(convertThresholdMetadataOld(kvThresholds, kvThresholdCount, TracingIdentifiers.SERVICE_KV));
-        kvThresholds.clear();
-        kvThresholdCount = 0;
-      }
-      if (!n1qlThresholds.isEmpty()) {
-        output.add(convertThresholdMetadataOld(n1qlThresholds, n1qlThresholdCount, TracingIdentifiers.SERVICE_QUERY));
-        n1qlThresholds.clear();
-        n1qlThresholdCount = 0;
-      }
-      if (!viewThresholds.isEmpty()) {
-        output.add(convertThresholdMetadataOld(viewThresholds, viewThresholdCount, TracingIdentifiers.SERVICE_VIEWS));
-        viewThresholds.clear();
-        viewThresholdCount = 0;
-      }
-      if (!ftsThresholds.isEmpty()) {
-        output.add(convertThresholdMetadataOld(ftsThresholds, ftsThresholdCount, TracingIdentifiers.SERVICE_SEARCH));
-        ftsThresholds.clear();
-        ftsThresholdCount = 0;
+      addOld(output, kvThresholds, ServiceType.KV, TracingIdentifiers.SERVICE_KV, dropped);
+      addOld(output, n1qlThresholds, ServiceType.QUERY, TracingIdentifiers.SERVICE_QUERY, dropped);
+      addOld(output, viewThresholds, ServiceType.VIEWS, TracingIdentifiers.SERVICE_VIEWS, dropped);
+      addOld(output, ftsThresholds, ServiceType.SEARCH, TracingIdentifiers.SERVICE_SEARCH, dropped);
+      addOld(output, analyticsThresholds, ServiceType.ANALYTICS, TracingIdentifiers.SERVICE_ANALYTICS, dropped);
+      logOverThreshold(null, output);
+    }
+
+    /**
+     * Converts the over threshold records of the service into the output and resets them, if any were recorded or
+     * dropped.
+     */
+    private void addNew(final Map<String, Object> output, final TopRequestRecords records,
+                        final ServiceType serviceType, final String ident, final long[] dropped) {
+      final long droppedCount = dropped[serviceType.ordinal()];
+      if (!records.isEmpty() || droppedCount > 0) {
+        output.put(ident, convertThresholdMetadataNew(records, droppedCount));
+        records.clear();
       }
-      if (!analyticsThresholds.isEmpty()) {
-        output.add(convertThresholdMetadataOld(analyticsThresholds, analyticsThresholdCount, TracingIdentifiers.SERVICE_ANALYTICS));
-        analyticsThresholds.clear();
-        analyticsThresholdCount = 0;
+    }
+
+    /**
+     * Same as {@link #addNew}, but for the old output format.
+     */
+    private void addOld(final List<Map<String, Object>> output, final TopRequestRecords records,
+                        final ServiceType serviceType, final String ident, final long[] dropped) {
+      final long droppedCount = dropped[serviceType.ordinal()];
+      if (!records.isEmpty() || droppedCount > 0) {
+        output.add(convertThresholdMetadataOld(records, ident, droppedCount));
+        records.clear();
       }
-      logOverThreshold(null, output);
     }
 
     /**
@@ -407,12 +394,13 @@ public class ThresholdLoggingTracer implements RequestTracer {
      * @param count the total count
      * @return the converted map
      */
-    private Map<String, Object> convertThresholdMetadataNew(final Queue<Request<?>> requests, final long count) {
+    private Map<String, Object> convertThresholdMetadataNew(final TopRequestRecords records,
+                                                            final long dropped) {
       Map<String, Object> output = new HashMap<>();
       List<Map<String, Object>> top = new ArrayList<>();
-      for (Request<?> request : requests) {
+      for (RequestRecord request : records.records()) {
         Map<String, Object> entry = new HashMap<>();
-        entry.put(KEY_TOTAL_MICROS, TimeUnit.NANOSECONDS.toMicros(request.context().logicalRequestLatency()));
+        entry.put(KEY_TOTAL_MICROS, TimeUnit.NANOSECONDS.toMicros(request.logicalRequestLatency()));
 
         String operationId = request.operationId();
         if (operationId != null) {
@@ -421,8 +409,8 @@ public class ThresholdLoggingTracer implements RequestTracer {
 
         entry.put(KEY_OPERATION_NAME, request.name());
 
-        HostAndPort local = request.context().lastDispatchedFrom();
-        HostAndPort peer = request.context().lastDispatchedTo();
+        HostAndPort local = request.lastDispatchedFrom();
+        HostAndPort peer = request.lastDispatchedTo();
         if (local != null) {
           entry.put(KEY_LAST_LOCAL_SOCKET, redactSystem(local).toString());
         }
@@ -430,30 +418,30 @@ public class ThresholdLoggingTracer implements RequestTracer {
           entry.put(KEY_LAST_REMOTE_SOCKET, redactSystem(peer).toString());
         }
 
-        String localId = request.context().lastChannelId();
+        String localId = request.lastChannelId();
         if (localId != null) {
           entry.put(KEY_LAST_LOCAL_ID, redactSystem(localId).toString());
         }
 
-        long encodeDuration = request.context().encodeLatency();
+        long encodeDuration = request.encodeLatency();
         if (encodeDuration > 0) {
           entry.put(KEY_ENCODE_MICROS, TimeUnit.NANOSECONDS.toMicros(encodeDuration));
         }
 
-        long dispatchDuration = request.context().dispatchLatency();
+        long dispatchDuration = request.dispatchLatency();
         if (dispatchDuration > 0) {
           entry.put(KEY_DISPATCH_MICROS, TimeUnit.NANOSECONDS.toMicros(dispatchDuration));
         }
-        long totalDispatchDuration = request.context().totalDispatchLatency();
+        long totalDispatchDuration = request.totalDispatchLatency();
         if (totalDispatchDuration > 0) {
           entry.put(KEY_TOTAL_DISPATCH_MICROS, TimeUnit.NANOSECONDS.toMicros(totalDispatchDuration));
         }
 
-        long serverDuration = request.context().serverLatency();
+        long serverDuration = request.serverLatency();
         if (serverDuration > 0) {
           entry.put(KEY_SERVER_MICROS, serverDuration);
         }
-        long totalServerDuration = request.context().totalServerLatency();
+        long totalServerDuration = request.totalServerLatency();
         if (totalServerDuration > 0) {
           entry.put(KEY_TOTAL_SERVER_MICROS, totalServerDuration);
         }
@@ -461,33 +449,31 @@ public class ThresholdLoggingTracer implements RequestTracer {
         top.add(entry);
       }
 
-      // The queue will keep the most expensive at the top, but sorted in ascending order.
-      // this final sort will bring it into descending order as per spec so that the longest
-      // calls will be shown first.
-      top.sort((o1, o2) -> ((Long) o2.get(KEY_TOTAL_MICROS)).compareTo((Long) o1.get(KEY_TOTAL_MICROS)));
-
-      output.put("total_count", count);
+      output.put("total_count", records.totalCount());
+      if (dropped > 0) {
+        output.put(KEY_DROPPED_COUNT, dropped);
+      }
       output.put("top_requests", top);
       return output;
     }
 
-    private Map<String, Object> convertThresholdMetadataOld(final Queue<Request<?>> requests, final long count,
-                                                            final String ident) {
+    private Map<String, Object> convertThresholdMetadataOld(final TopRequestRecords records, final String ident,
+                                                            final long dropped) {
       Map<String, Object> output = new HashMap<>();
       List<Map<String, Object>> top = new ArrayList<>();
-      for (Request<?> request : requests) {
+      for (RequestRecord request : records.records()) {
         Map<String, Object> entry = new HashMap<>();
-        entry.put("total_us", TimeUnit.NANOSECONDS.toMicros(request.context().logicalRequestLatency()));
+        entry.put("total_us", TimeUnit.NANOSECONDS.toMicros(request.logicalRequestLatency()));
 
         String operationId = request.operationId();
         if (operationId != null) {
           entry.put("last_operation_id", operationId);
         }
 
-        entry.put("operation_name", request.getClass().getSimpleName());
+        entry.put("operation_name", request.className());
 
-        HostAndPort local = request.context().lastDispatchedFrom();
-        HostAndPort peer = request.context().lastDispatchedTo();
+        HostAndPort local = request.lastDispatchedFrom();
+        HostAndPort peer = request.lastDispatchedTo();
         if (local != null) {
           entry.put("last_local_address", redactSystem(local).toString());
         }
@@ -495,22 +481,22 @@ public class ThresholdLoggingTracer implements RequestTracer {
           entry.put("last_remote_address", redactSystem(peer).toString());
         }
 
-        String localId = request.context().lastChannelId();
+        String localId = request.lastChannelId();
         if (localId != null) {
           entry.put("last_local_id", redactSystem(localId).toString());
         }
 
-        long encodeDuration = request.context().encodeLatency();
+        long encodeDuration = request.encodeLatency();
         if (encodeDuration > 0) {
           entry.put("encode_us", TimeUnit.NANOSECONDS.toMicros(encodeDuration));
         }
 
-        long dispatchDuration = request.context().dispatchLatency();
+        long dispatchDuration = request.dispatchLatency();
         if (dispatchDuration > 0) {
           entry.put("last_dispatch_us", TimeUnit.NANOSECONDS.toMicros(dispatchDuration));
         }
 
-        long serverDuration = request.context().serverLatency();
+        long serverDuration = request.serverLatency();
         if (serverDuration > 0) {
           entry.put("server_us", serverDuration);
         }
@@ -518,13 +504,11 @@ public class ThresholdLoggingTracer implements RequestTracer {
         top.add(entry);
       }
 
-      // The queue will keep the most expensive at the top, but sorted in ascending order.
-      // this final sort will bring it into descending order as per spec so that the longest
-      // calls will be shown first.
-      top.sort((o1, o2) -> ((Long) o2.get("total_us")).compareTo((Long) o1.get("total_us")));
-
       output.put("service", ident);
-      output.put("count", count);
+      output.put("count", records.totalCount());
+      if (dropped > 0) {
+        output.put(KEY_DROPPED_COUNT, dropped);
+      }
       output.put("top", top);
       return output;
     }
@@ -538,15 +522,11 @@ public class ThresholdLoggingTracer implements RequestTracer {
     }
 
     /**
-     * Helper method which updates the list with the span and ensures that the sample
-     * size is respected.
+     * Helper method which records the request, only the slowest ones up to the sample size are retained
+     * (and are returned slowest first, as per spec).
      */
-    private void updateThreshold(final Queue<Request<?>> thresholds, final Request<?> request) {
-      thresholds.add(request);
-      // Remove the element with the lowest duration, so we only keep the highest ones consistently
-      while(thresholds.size() > sampleSize) {
-        thresholds.remove();
-      }
+    private void updateThreshold(final TopRequestRecords thresholds, final RequestRecord record) {
+      thresholds.offer(record);
       hasThresholdWritten = true;
     }
   }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.config;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The revision (and revision epoch) of a raw, not yet parsed config.
+ *
+ * <p>The revision is extracted by a single pass over the raw JSON which only looks at the top level fields and stops
+ * as soon as both the "rev" and the "revEpoch" fields are found. This is much cheaper than fully parsing the config
+ * and allows to discard configs which are not newer than the current one (i.e. during a "not my vbucket" storm)
+ * before they are even decoded into a string.</p>
+ */
+@Stability.Internal
+public final class ConfigRevision {
+
+  private static final byte[] REV = "rev".getBytes(UTF_8);
+  private static final byte[] REV_EPOCH = "revEpoch".getBytes(UTF_8);
+
+  private final long revEpoch;
+  private final long rev;
+
+  ConfigRevision(final long revEpoch, final long rev) {
+    this.revEpoch = revEpoch;
+    this.rev = rev;
+  }
+
+  /**
+   * Extracts the revision from the readable bytes of the raw config.
+   *
+   * @param config the raw config, the reader index is not modified.
+   * @return the revision or null if the config does not contain a revision at the top level.
+   */
+  public static ConfigRevision from(final ByteBuf config) {
+    return scan(new Source() {
+      final int offset = config.readerIndex();
+
+      @Override
+      int length() {
+        return config.readableBytes();
+      }
+
+      @Override
+      int at(final int index) {
+        return config.getByte(offset + index);
+      }
+    });
+  }
+
+  /**
+   * Extracts the revision from the raw config.
+   *
+   * @param config the raw config.
+   * @return the revision or null if the config does not contain a revision at the top level.
+   */
+  public static ConfigRevision from(final String config) {
+    return scan(new Source() {
+      @Override
+      int length() {
+        return config.length();
+      }
+
+      @Override
+      int at(final int index) {
+        return config.charAt(index);
+      }
+    });
+  }
+
+  /**
+   * The revision epoch, 0 if not present in the config.
+   */
+  public long revEpoch() {
+    return revEpoch;
+  }
+
+  /**
+   * The revision of the config.
+   */
+  public long rev() {
+    return rev;
+  }
+
+  /**
+   * Checks if this revision is newer than the one of the given config.
+   *
+   * <p>This mirrors the checks performed when a parsed config is applied, so a config which is not newer
+   * would be ignored anyways.</p>
+   *
+   * @param config the config to compare against, can be null.
+   * @return true if newer (or the given config is null).
+   */
+  public boolean newerThan(final BucketConfig config) {
+    return config == null || newerThan(config.revEpoch(), config.rev());
+  }
+
+  /**
+   * Checks if this revision is newer than the given revision.
+   *
+   * @param other the revision to compare against, can be null.
+   * @return true if newer (or the given revision is null).
+   */
+  public boolean newerThan(final ConfigRevision other) {
+    return other == null || newerThan(other.revEpoch, other.rev);
+  }
+
+  private boolean newerThan(final long otherRevEpoch, final long otherRev) {
+    if (revEpoch != otherRevEpoch) {
+      return revEpoch > otherRevEpoch;
+    }
+    return rev <= 0 || rev > otherRev;
+  }
+
+  /**
+   * Walks the raw JSON and picks the numeric "rev" and "revEpoch" fields of the top level object.
+   */
+  private static ConfigRevision scan(final Source source) {
+    final int length = source.length();
+    long rev = -1;
+    long revEpoch = 0;
+    boolean epochFound = false;
+    int depth = 0;
+
+    for (int i = 0; i < length; i++) {
+      int c = source.at(i);
+      if (c == '{' || c == '[') {
+        depth++;
+      } else if (c == '}' || c == ']') {
+        depth--;
+      } else if (c == '"') {
+        int start = i + 1;
+        i = skipString(source, start, length);
+        if (depth != 1) {
+          continue;
+        }
+        int colon = skipWhitespace(source, i + 1, length);
+        if (colon >= length || source.at(colon) != ':') {
+          continue;
+        }
+        boolean isRev = matches(source, start, i, REV);
+        boolean isRevEpoch = !isRev && matches(source, start, i, REV_EPOCH);
+        if (isRev || isRevEpoch) {
+          int numberStart = skipWhitespace(source, colon + 1, length);
+          long value = 0;
+          int n = numberStart;
+          while (n < length && source.at(n) >= '0' && source.at(n) <= '9') {
+            value = value * 10 + (source.at(n) - '0');
+            n++;
+          }
+          if (n > numberStart) {
+            if (isRev) {
+              rev = value;
+            } else {
+              revEpoch = value;
+              epochFound = true;
+            }
+          }
+          i = n - 1;
+          if (rev >= 0 && epochFound) {
+            break;
+          }
+        } else {
+          i = colon;
+        }
+      }
+    }
+
+    return rev >= 0 ? new ConfigRevision(revEpoch, rev) : null;
+  }
+
+  /**
+   * Returns the index of the closing quote of the string starting at the given index.
+   */
+  private static int skipString(final Source source, int index, final int length) {
+    while (index < length) {
+      int c = source.at(index);
+      if (c == '\\') {
+        index += 2;
+      } else if (c == '"') {
+        return index;
+      } else {
+        index++;
+      }
+    }
+    return length;
+  }
+
+  private static int skipWhitespace(final Source source, int index, final int length) {
+    while (index < length) {
+      int c = source.at(index);
+      if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+        break;
+      }
+      index++;
+    }
+    return index;
+  }
+
+  private static boolean matches(final Source source, final int start, final int end, final byte[] expected) {
+    if (end - start != expected.length) {
+      return false;
+    }
+    for (int i = 0; i < expected.length; i++) {
+      if (source.at(start + i) != expected[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "ConfigRevision{" +
+      "revEpoch=" + revEpoch +
+      ", rev=" + rev +
+      '}';
+  }
+
+  /**
+   * Abstracts over the raw representation of the config.
+   */
+  private abstract static class Source {
+    abstract int length();
+    abstract int at(int index);
+  }
+
+}
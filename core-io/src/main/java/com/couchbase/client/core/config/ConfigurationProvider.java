@@ -17,6 +17,7 @@
 package com.couchbase.client.core.config;
 
 import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
 import com.couchbase.client.core.env.SeedNode;
 import com.couchbase.client.core.io.CollectionIdentifier;
 import com.couchbase.client.core.io.CollectionMap;
@@ -24,6 +25,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The {@link ConfigurationProvider} is responsible for grabbing, converting and managing
@@ -102,6 +104,20 @@ public interface ConfigurationProvider  {
    */
   void proposeBucketConfig(ProposedBucketConfigContext ctx);
 
+  /**
+   * Allows to propose a raw, not yet decoded bucket config from the IO layer.
+   *
+   * <p>The provider is free to skip the config (i.e. if it is not newer than the current one) and to parse it
+   * asynchronously. The buffer is not retained, so the caller keeps ownership and can release it afterwards.</p>
+   *
+   * @param bucketName the name of the bucket.
+   * @param config the raw config.
+   * @param origin the host from where the config has been received.
+   * @return a future which completes once the config (or the same or a newer revision proposed earlier) has been
+   *   applied or ignored.
+   */
+  CompletableFuture<Void> proposeBucketConfig(String bucketName, ByteBuf config, String origin);
+
   /**
    * Allows to propose a global config to the provider from an external context.
    *
@@ -109,6 +125,25 @@ public interface ConfigurationProvider  {
    */
   void proposeGlobalConfig(ProposedGlobalConfigContext ctx);
 
+  /**
+   * Signals that a KV connection has been opened which receives server-pushed cluster map change
+   * notifications for the given bucket.
+   *
+   * <p>As long as at least one such connection is open, the provider can rely on the pushed configs
+   * and reduce polling for the bucket to a minimum.</p>
+   *
+   * @param bucketName the name of the bucket the connection is bound to.
+   */
+  void clusterMapNotificationsActive(String bucketName);
+
+  /**
+   * Signals that a KV connection which received cluster map change notifications for the given bucket
+   * has been closed.
+   *
+   * @param bucketName the name of the bucket the connection was bound to.
+   */
+  void clusterMapNotificationsInactive(String bucketName);
+
   /**
    * Instructs the provider to try and load the global config, and then manage it.
    */
@@ -27,10 +27,12 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.couchbase.client.core.logging.RedactableArgument.redactMeta;
 import static com.couchbase.client.core.logging.RedactableArgument.redactSystem;
+import static com.couchbase.client.core.util.CbStrings.isNullOrEmpty;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class CouchbaseBucketConfig extends AbstractBucketConfig {
@@ -43,6 +45,7 @@ public class CouchbaseBucketConfig extends AbstractBucketConfig {
 
     private final boolean tainted;
     private final boolean ephemeral;
+    private final Optional<Long> collectionsManifestUid;
 
     /**
      * Creates a new {@link CouchbaseBucketConfig}.
@@ -54,6 +57,7 @@ public class CouchbaseBucketConfig extends AbstractBucketConfig {
      * @param partitionInfo partition info for this bucket.
      * @param nodeInfos related node information.
      * @param portInfos port info for the nodes, including services.
+     * @param collectionsManifestUid the uid of the current collections manifest in hex, if present.
      */
     @JsonCreator
     public CouchbaseBucketConfig(
@@ -68,6 +72,7 @@ public class CouchbaseBucketConfig extends AbstractBucketConfig {
       @JsonProperty("nodesExt") List<PortInfo> portInfos,
       @JsonProperty("bucketCapabilities") List<BucketCapabilities> bucketCapabilities,
       @JsonProperty("clusterCapabilities") Map<String, Set<ClusterCapabilities>> clusterCapabilities,
+      @JsonProperty("collectionsManifestUid") String collectionsManifestUid,
       @JacksonInject("origin") String origin) {
         super(uuid, name, BucketNodeLocator.VBUCKET, uri, streamingUri, nodeInfos, portInfos, bucketCapabilities,
           origin, clusterCapabilities, rev, revEpoch);
@@ -80,6 +85,9 @@ public class CouchbaseBucketConfig extends AbstractBucketConfig {
         // Use bucket capabilities to identify if couchapi is missing (then its ephemeral). If its null then
         // we are running an old version of couchbase which doesn't have ephemeral buckets at all.
         this.ephemeral = bucketCapabilities != null && !bucketCapabilities.contains(BucketCapabilities.COUCHAPI);
+        this.collectionsManifestUid = isNullOrEmpty(collectionsManifestUid)
+          ? Optional.empty()
+          : Optional.of(Long.parseUnsignedLong(collectionsManifestUid, 16));
     }
 
     /**
@@ -229,6 +237,13 @@ public class CouchbaseBucketConfig extends AbstractBucketConfig {
         return ephemeral;
     }
 
+    /**
+     * Returns the uid of the collections manifest which was current when this config was generated, if present.
+     */
+    public Optional<Long> collectionsManifestUid() {
+        return collectionsManifestUid;
+    }
+
     @Override
     public String toString() {
         return "CouchbaseBucketConfig{"
@@ -17,7 +17,11 @@
 package com.couchbase.client.core.config;
 
 import com.couchbase.client.core.Core;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.Counter;
 import com.couchbase.client.core.cnc.EventBus;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
 import com.couchbase.client.core.cnc.events.config.BucketConfigUpdatedEvent;
 import com.couchbase.client.core.cnc.events.config.BucketOpenRetriedEvent;
 import com.couchbase.client.core.cnc.events.config.CollectionMapRefreshFailedEvent;
@@ -35,6 +39,7 @@ import com.couchbase.client.core.config.refresher.ClusterManagerBucketRefresher;
 import com.couchbase.client.core.config.refresher.GlobalRefresher;
 import com.couchbase.client.core.config.refresher.KeyValueBucketRefresher;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
 import com.couchbase.client.core.env.NetworkResolution;
 import com.couchbase.client.core.env.SeedNode;
 import com.couchbase.client.core.error.AlreadyShutdownException;
@@ -51,6 +56,7 @@ import com.couchbase.client.core.json.Mapper;
 import com.couchbase.client.core.msg.CancellationReason;
 import com.couchbase.client.core.msg.ResponseStatus;
 import com.couchbase.client.core.msg.kv.GetCollectionIdRequest;
+import com.couchbase.client.core.msg.kv.GetCollectionManifestRequest;
 import com.couchbase.client.core.node.NodeIdentifier;
 import com.couchbase.client.core.retry.BestEffortRetryStrategy;
 import com.couchbase.client.core.service.ServiceType;
@@ -63,19 +69,27 @@ import reactor.core.publisher.ReplayProcessor;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.couchbase.client.core.util.CbCollections.copyToUnmodifiableSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.unmodifiableSet;
 
 /**
@@ -132,6 +146,37 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
 
   private final AtomicBoolean alternateAddrChecked = new AtomicBoolean(false);
 
+  /**
+   * Makes concurrent callers wait until the alternate address has been determined, without pinning the carrier
+   * thread if called from a virtual thread.
+   */
+  private final ReentrantLock alternateAddrLock = new ReentrantLock();
+
+  /**
+   * Holds, per bucket, the highest revision which is currently decoded and parsed from a raw proposal.
+   */
+  private final Map<String, InFlightConfig> inFlightConfigs = new ConcurrentHashMap<>();
+
+  /**
+   * Counts proposed configs which have been skipped before parsing since they are not newer than the current one.
+   */
+  private final LongAdder staleConfigsSkipped = new LongAdder();
+
+  /**
+   * Counts raw proposed configs which have been skipped since the same or a newer revision is already in flight.
+   */
+  private final LongAdder inFlightConfigsSkipped = new LongAdder();
+
+  /**
+   * Reports {@link #staleConfigsSkipped} to the meter of the environment.
+   */
+  private final Counter staleConfigsSkippedCounter;
+
+  /**
+   * Reports {@link #inFlightConfigsSkipped} to the meter of the environment.
+   */
+  private final Counter inFlightConfigsSkippedCounter;
+
   private volatile boolean globalConfigLoadInProgress = false;
   private final AtomicInteger bucketConfigLoadInProgress = new AtomicInteger();
 
@@ -140,6 +185,16 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
    */
   final Set<CollectionIdentifier> collectionMapRefreshInProgress = ConcurrentHashMap.newKeySet();
 
+  /**
+   * Holds, per bucket, the collection identifiers waiting for the collections manifest fetch currently in flight.
+   */
+  private final Map<String, Set<CollectionIdentifier>> collectionManifestRefreshInProgress = new ConcurrentHashMap<>();
+
+  /**
+   * Holds, per bucket, the uid of the collections manifest the collection map has last been populated from.
+   */
+  private final Map<String, Long> collectionManifestUids = new ConcurrentHashMap<>();
+
   /**
    * Stores the current seed nodes used to bootstrap buckets and global configs.
    */
@@ -155,6 +210,12 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
   public DefaultConfigurationProvider(final Core core, final Set<SeedNode> seedNodes) {
     this.core = core;
     eventBus = core.context().environment().eventBus();
+    Meter meter = core.context().environment().meter();
+    staleConfigsSkippedCounter = meter.counter(TracingIdentifiers.METER_CONFIGS_STALE_SKIPPED, Collections.emptyMap());
+    inFlightConfigsSkippedCounter = meter.counter(
+      TracingIdentifiers.METER_CONFIGS_IN_FLIGHT_SKIPPED,
+      Collections.emptyMap()
+    );
 
     // Don't publish the initial seed nodes, since they probably came from the user
     // and might not be KV nodes, or might have incomplete port information.
@@ -259,6 +320,11 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
             return ctx;
           })
           .then(registerRefresher(name))
+          .doOnSuccess(v -> {
+            if (core.context().environment().ioConfig().collectionWarmupEnabled()) {
+              warmupCollections(name);
+            }
+          })
           .doOnTerminate(bucketConfigLoadInProgress::decrementAndGet)
           .onErrorResume(t -> closeBucketIgnoreShutdown(name).then(Mono.error(t)));
       } else {
@@ -418,6 +484,20 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
   @Override
   public void proposeBucketConfig(final ProposedBucketConfigContext ctx) {
     if (!shutdown.get()) {
+      ConfigRevision revision = ConfigRevision.from(ctx.config());
+      if (revision != null && !revision.newerThan(currentConfig.bucketConfig(ctx.bucketName()))) {
+        staleConfigsSkipped.increment();
+        staleConfigsSkippedCounter.incrementBy(1);
+        eventBus.publish(new ConfigIgnoredEvent(
+          core.context(),
+          ConfigIgnoredEvent.Reason.OLD_OR_SAME_REVISION,
+          Optional.empty(),
+          Optional.empty(),
+          Optional.of(ctx.bucketName())
+        ));
+        return;
+      }
+
       try {
         BucketConfig config = BucketConfigParser.parse(
           ctx.config(),
@@ -445,6 +525,111 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
     }
   }
 
+  /**
+   * Proposes a raw bucket config, usually straight from the IO layer.
+   *
+   * <p>Only the revision is extracted on the calling thread. If the config is not newer than the current one, or the
+   * same or a newer revision is already being parsed for the bucket, it is skipped without decoding. Otherwise it is
+   * decoded and then parsed and applied on the environment scheduler, so that at most one parse per revision happens
+   * and the event loops are not held up by large configs.</p>
+   *
+   * <p>The returned future completes once the config has been applied or ignored. If it has been skipped because an
+   * equal or newer revision is in flight, it completes once that one has been applied.</p>
+   */
+  @Override
+  public CompletableFuture<Void> proposeBucketConfig(final String bucketName, final ByteBuf config,
+                                                     final String origin) {
+    if (shutdown.get()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final ConfigRevision revision = ConfigRevision.from(config);
+    if (revision == null) {
+      // without a revision there is nothing to deduplicate on, so propose it as-is.
+      final String raw = config.toString(UTF_8).trim();
+      if (!raw.startsWith("{")) {
+        return CompletableFuture.completedFuture(null);
+      }
+      final CompletableFuture<Void> applied = new CompletableFuture<>();
+      try {
+        core.context().environment().scheduler().schedule(() -> {
+          try {
+            proposeBucketConfig(new ProposedBucketConfigContext(bucketName, raw, origin));
+          } finally {
+            applied.complete(null);
+          }
+        });
+      } catch (RuntimeException ex) {
+        // i.e. rejected because the scheduler is shutting down, the config is ignored like after shutdown.
+        applied.complete(null);
+      }
+      return applied;
+    }
+
+    if (!revision.newerThan(currentConfig.bucketConfig(bucketName))) {
+      staleConfigsSkipped.increment();
+      staleConfigsSkippedCounter.incrementBy(1);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final InFlightConfig proposed = new InFlightConfig(revision);
+    final InFlightConfig claimed = inFlightConfigs.merge(
+      bucketName,
+      proposed,
+      (inFlight, p) -> p.revision.newerThan(inFlight.revision) ? p : inFlight
+    );
+    if (claimed != proposed) {
+      inFlightConfigsSkipped.increment();
+      inFlightConfigsSkippedCounter.incrementBy(1);
+      return claimed.applied;
+    }
+
+    final String raw = config.toString(UTF_8);
+    try {
+      core.context().environment().scheduler().schedule(() -> {
+        try {
+          proposeBucketConfig(new ProposedBucketConfigContext(bucketName, raw, origin));
+        } finally {
+          completeInFlight(bucketName, proposed);
+        }
+      });
+    } catch (RuntimeException ex) {
+      // the claim must be released, otherwise later proposals for this bucket would wait on it forever.
+      completeInFlight(bucketName, proposed);
+    }
+    return proposed.applied;
+  }
+
+  /**
+   * Releases the claim of an in-flight config and completes the proposals waiting for it.
+   */
+  private void completeInFlight(final String bucketName, final InFlightConfig inFlight) {
+    inFlightConfigs.remove(bucketName, inFlight);
+    inFlight.applied.complete(null);
+  }
+
+  /**
+   * Returns the number of proposed bucket configs which have been skipped before parsing because they were not newer
+   * than the current config.
+   *
+   * <p>The same count is reported to the meter as {@link TracingIdentifiers#METER_CONFIGS_STALE_SKIPPED}.</p>
+   */
+  @Stability.Internal
+  public long staleConfigsSkipped() {
+    return staleConfigsSkipped.sum();
+  }
+
+  /**
+   * Returns the number of raw proposed bucket configs which have been skipped because the same or a newer revision
+   * was already being parsed.
+   *
+   * <p>The same count is reported to the meter as {@link TracingIdentifiers#METER_CONFIGS_IN_FLIGHT_SKIPPED}.</p>
+   */
+  @Stability.Internal
+  public long inFlightConfigsSkipped() {
+    return inFlightConfigsSkipped.sum();
+  }
+
   @Override
   public void proposeGlobalConfig(final ProposedGlobalConfigContext ctx) {
     if (!shutdown.get()) {
@@ -471,6 +656,16 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
     }
   }
 
+  @Override
+  public void clusterMapNotificationsActive(final String bucketName) {
+    keyValueRefresher.clusterMapNotificationsActive(bucketName);
+  }
+
+  @Override
+  public void clusterMapNotificationsInactive(final String bucketName) {
+    keyValueRefresher.clusterMapNotificationsInactive(bucketName);
+  }
+
   @Override
   public Mono<Void> closeBucket(final String name) {
     return Mono.defer(() -> shutdown.get()
@@ -494,6 +689,7 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
     return Mono
       .defer(() -> {
         currentConfig.deleteBucketConfig(name);
+        collectionManifestUids.remove(name);
         pushConfig();
         return Mono.empty();
       })
@@ -532,13 +728,25 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
   }
 
   @Override
-  public synchronized void refreshCollectionId(final CollectionIdentifier identifier) {
-    if (collectionRefreshInProgress(identifier)) {
+  public void refreshCollectionId(final CollectionIdentifier identifier) {
+    if (!collectionMapRefreshInProgress.add(identifier)) {
       eventBus.publish(new CollectionMapRefreshIgnoredEvent(core.context(), identifier));
       return;
     }
-    collectionMapRefreshInProgress.add(identifier);
 
+    if (core.context().environment().ioConfig().collectionManifestRefreshEnabled()) {
+      refreshCollectionManifest(identifier.bucket(), identifier);
+    } else {
+      fetchCollectionId(identifier);
+    }
+  }
+
+  /**
+   * Resolves the collection ID of a single collection identifier and stores it in the collection map.
+   *
+   * @param identifier the identifier to resolve, already marked as in progress.
+   */
+  private void fetchCollectionId(final CollectionIdentifier identifier) {
     long start = System.nanoTime();
     GetCollectionIdRequest request = new GetCollectionIdRequest(
       core.context().environment().timeoutConfig().kvTimeout(),
@@ -607,14 +815,188 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
     });
   }
 
+  /**
+   * Loads the collections manifest of the bucket (if enabled for collections) to populate the collection map
+   * before the first operation needs it.
+   *
+   * @param name the name of the bucket.
+   */
+  private void warmupCollections(final String name) {
+    final BucketConfig config = currentConfig.bucketConfig(name);
+    if (config instanceof CouchbaseBucketConfig
+      && config.bucketCapabilities().contains(BucketCapabilities.COLLECTIONS)) {
+      refreshCollectionManifest(name, null);
+    }
+  }
+
+  /**
+   * Fetches the collections manifest of the bucket and stores all collection IDs it contains in the collection map.
+   *
+   * <p>Only one fetch per bucket is in flight at any time. If one is already in flight, the identifier (if present)
+   * is attached to it and its refresh event is published once the manifest has been applied.</p>
+   *
+   * @param bucket the name of the bucket.
+   * @param identifier the identifier which triggered the refresh, already marked as in progress (may be null).
+   */
+  private void refreshCollectionManifest(final String bucket, final CollectionIdentifier identifier) {
+    final AtomicBoolean started = new AtomicBoolean(false);
+    collectionManifestRefreshInProgress.compute(bucket, (b, waiting) -> {
+      if (waiting == null) {
+        waiting = new HashSet<>();
+        started.set(true);
+      }
+      if (identifier != null) {
+        waiting.add(identifier);
+      }
+      return waiting;
+    });
+    if (!started.get()) {
+      return;
+    }
+
+    long start = System.nanoTime();
+    GetCollectionManifestRequest request = new GetCollectionManifestRequest(
+      core.context().environment().timeoutConfig().kvTimeout(),
+      core.context(),
+      BestEffortRetryStrategy.INSTANCE,
+      CollectionIdentifier.fromDefault(bucket)
+    );
+    core.send(request);
+    request.response().whenComplete((response, throwable) -> {
+      final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+      Throwable cause = throwable;
+      CollectionMapRefreshFailedEvent.Reason reason = CollectionMapRefreshFailedEvent.Reason.FAILED;
+      CollectionsManifest manifest = null;
+
+      if (throwable == null && response.status().success() && response.manifest().isPresent()) {
+        try {
+          manifest = Mapper.decodeInto(response.manifest().get(), CollectionsManifest.class);
+          applyCollectionsManifest(bucket, manifest);
+        } catch (Exception ex) {
+          manifest = null;
+          cause = ex;
+        }
+      } else if (throwable == null) {
+        if (response.status() == ResponseStatus.UNKNOWN
+          || response.status() == ResponseStatus.NO_COLLECTIONS_MANIFEST) {
+          reason = CollectionMapRefreshFailedEvent.Reason.NOT_SUPPORTED;
+        } else {
+          cause = new CouchbaseException(response.toString());
+          reason = CollectionMapRefreshFailedEvent.Reason.UNKNOWN;
+        }
+      }
+
+      // Only released once the manifest is applied, so operations arriving in the meantime keep waiting on this
+      // fetch instead of triggering another one.
+      final Set<CollectionIdentifier> waiting = collectionManifestRefreshInProgress.remove(bucket);
+      try {
+        if (manifest != null) {
+          publishManifestRefreshResults(duration, manifest, waiting);
+        } else {
+          for (CollectionIdentifier waiter : waiting) {
+            eventBus.publish(new CollectionMapRefreshFailedEvent(duration, core.context(), waiter, cause, reason));
+          }
+        }
+      } finally {
+        collectionMapRefreshInProgress.removeAll(waiting);
+      }
+    });
+  }
+
+  /**
+   * Stores the collection IDs of the manifest and removes the ones of the same bucket which are not part of it
+   * anymore, unless a manifest with a higher uid has already been applied.
+   *
+   * @param bucket the name of the bucket.
+   * @param manifest the decoded collections manifest.
+   */
+  private void applyCollectionsManifest(final String bucket, final CollectionsManifest manifest) {
+    final long uid = Long.parseUnsignedLong(manifest.uid(), 16);
+    final Long current = collectionManifestUids.get(bucket);
+    if (current != null && Long.compareUnsigned(uid, current) < 0) {
+      return;
+    }
+
+    final Map<CollectionIdentifier, byte[]> ids = new HashMap<>();
+    for (CollectionsManifestScope scope : manifest.scopes()) {
+      for (CollectionsManifestCollection collection : scope.collections()) {
+        ids.put(
+          new CollectionIdentifier(bucket, Optional.of(scope.name()), Optional.of(collection.name())),
+          UnsignedLEB128.encode(Long.parseUnsignedLong(collection.uid(), 16))
+        );
+      }
+    }
+
+    for (Map.Entry<CollectionIdentifier, byte[]> entry : ids.entrySet()) {
+      if (!Arrays.equals(entry.getValue(), collectionMap.get(entry.getKey()))) {
+        collectionMap.put(entry.getKey(), entry.getValue());
+      }
+    }
+    for (CollectionIdentifier existing : collectionMap.inner().keySet()) {
+      if (bucket.equals(existing.bucket()) && !ids.containsKey(existing)) {
+        collectionMap.remove(existing);
+      }
+    }
+    collectionManifestUids.put(bucket, uid);
+  }
+
+  /**
+   * Publishes the refresh result for every identifier which waited on the manifest fetch.
+   */
+  private void publishManifestRefreshResults(final Duration duration, final CollectionsManifest manifest,
+                                             final Set<CollectionIdentifier> waiting) {
+    for (CollectionIdentifier waiter : waiting) {
+      byte[] cid = collectionMap.get(waiter);
+      if (cid != null) {
+        eventBus.publish(new CollectionMapRefreshSucceededEvent(
+          duration,
+          core.context(),
+          waiter,
+          UnsignedLEB128.decode(cid)
+        ));
+      } else {
+        boolean scopeExists = manifest
+          .scopes()
+          .stream()
+          .anyMatch(scope -> scope.name().equals(waiter.scope().orElse(CollectionIdentifier.DEFAULT_SCOPE)));
+        eventBus.publish(new CollectionMapRefreshFailedEvent(
+          duration,
+          core.context(),
+          waiter,
+          null,
+          scopeExists
+            ? CollectionMapRefreshFailedEvent.Reason.UNKNOWN_COLLECTION
+            : CollectionMapRefreshFailedEvent.Reason.UNKNOWN_SCOPE
+        ));
+      }
+    }
+  }
+
+  /**
+   * Fetches the collections manifest again if the bucket config announces a newer one than the applied manifest.
+   *
+   * @param config the bucket config which has just been applied.
+   */
+  private void checkCollectionsManifestUid(final CouchbaseBucketConfig config) {
+    if (!config.collectionsManifestUid().isPresent()
+      || !core.context().environment().ioConfig().collectionManifestRefreshEnabled()) {
+      return;
+    }
+    final Long current = collectionManifestUids.get(config.name());
+    if (current != null && Long.compareUnsigned(config.collectionsManifestUid().get(), current) > 0) {
+      refreshCollectionManifest(config.name(), null);
+    }
+  }
+
   @Override
   public boolean collectionRefreshInProgress() {
-    return !collectionMapRefreshInProgress.isEmpty();
+    return !collectionMapRefreshInProgress.isEmpty() || !collectionManifestRefreshInProgress.isEmpty();
   }
 
   @Override
   public boolean collectionRefreshInProgress(final CollectionIdentifier identifier) {
-    return collectionMapRefreshInProgress.contains(identifier);
+    return collectionMapRefreshInProgress.contains(identifier)
+      || collectionManifestRefreshInProgress.containsKey(identifier.bucket());
   }
 
   /**
@@ -650,6 +1032,10 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
     checkAlternateAddress();
     updateSeedNodeList();
     pushConfig();
+
+    if (newConfig instanceof CouchbaseBucketConfig) {
+      checkCollectionsManifestUid((CouchbaseBucketConfig) newConfig);
+    }
   }
 
   /**
@@ -764,14 +1150,19 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
   /**
    * Check and apply alternate address setting if it hasn't been done already.
    */
-  private synchronized void checkAlternateAddress() {
-    if (alternateAddrChecked.compareAndSet(false, true)) {
-      String resolved = determineNetworkResolution(
-        extractAlternateAddressInfos(currentConfig),
-        core.context().environment().ioConfig().networkResolution(),
-        currentSeedNodes().stream().map(SeedNode::address).collect(Collectors.toSet())
-      );
-      core.context().alternateAddress(Optional.ofNullable(resolved));
+  private void checkAlternateAddress() {
+    alternateAddrLock.lock();
+    try {
+      if (alternateAddrChecked.compareAndSet(false, true)) {
+        String resolved = determineNetworkResolution(
+          extractAlternateAddressInfos(currentConfig),
+          core.context().environment().ioConfig().networkResolution(),
+          currentSeedNodes().stream().map(SeedNode::address).collect(Collectors.toSet())
+        );
+        core.context().alternateAddress(Optional.ofNullable(resolved));
+      }
+    } finally {
+      alternateAddrLock.unlock();
     }
   }
 
@@ -922,4 +1313,17 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
     }
   }
 
+  /**
+   * A raw bucket config proposal which is currently parsed and applied.
+   */
+  private static class InFlightConfig {
+
+    private final ConfigRevision revision;
+    private final CompletableFuture<Void> applied = new CompletableFuture<>();
+
+    InFlightConfig(final ConfigRevision revision) {
+      this.revision = revision;
+    }
+  }
+
 }
@@ -75,6 +75,15 @@ public class KeyValueBucketRefresher implements BucketRefresher {
    */
   static final int MAX_PARALLEL_FETCH = 3;
 
+  /**
+   * The minimum interval at which configs are still polled for a bucket while the server pushes cluster map
+   * change notifications for it.
+   *
+   * <p>Polling is not stopped completely, so that a notification which got lost (i.e. because the connection
+   * closed right when the map changed) is eventually caught up with.</p>
+   */
+  static final Duration PUSH_ACTIVE_POLL_INTERVAL = Duration.ofSeconds(10);
+
   /**
    * Holds the core as a reference.
    */
@@ -108,11 +117,21 @@ public class KeyValueBucketRefresher implements BucketRefresher {
    */
   private final Set<String> tainted = ConcurrentHashMap.newKeySet();
 
+  /**
+   * Holds the number of open connections per bucket which receive cluster map change notifications.
+   */
+  private final Map<String, Integer> notifyingConnections = new ConcurrentHashMap<>();
+
   /**
    * Holds the allowable config poll interval in nanoseconds.
    */
   private final long configPollIntervalNanos;
 
+  /**
+   * Holds the poll interval in nanoseconds used while cluster map change notifications are active.
+   */
+  private final long pushActivePollIntervalNanos;
+
   /**
    * Stores the timeout used for config refresh requests, keeping it in reasonable bounds (between 1 and 5s).
    */
@@ -129,6 +148,7 @@ public class KeyValueBucketRefresher implements BucketRefresher {
     this.eventBus = core.context().environment().eventBus();
     this.provider = provider;
     this.configPollIntervalNanos = core.context().environment().ioConfig().configPollInterval().toNanos();
+    this.pushActivePollIntervalNanos = Math.max(configPollIntervalNanos, PUSH_ACTIVE_POLL_INTERVAL.toNanos());
     this.configRequestTimeout = clampConfigRequestTimeout(configPollIntervalNanos);
 
     pollRegistration = Flux
@@ -183,8 +203,11 @@ public class KeyValueBucketRefresher implements BucketRefresher {
    */
   private Mono<ProposedBucketConfigContext> maybeUpdateBucket(final String name) {
     Long last = registrations.get(name);
-    boolean overInterval = last != null && (System.nanoTime() - last) >= configPollIntervalNanos;
-    boolean allowed = tainted.contains(name) || overInterval;
+    boolean pushActive = hasClusterMapNotifications(name);
+    long interval = pushActive ? pushActivePollIntervalNanos : configPollIntervalNanos;
+    boolean overInterval = last != null && (System.nanoTime() - last) >= interval;
+    // the server pushes every change during a rebalance as well, so there is no need to poll more aggressively
+    boolean allowed = (!pushActive && tainted.contains(name)) || overInterval;
 
     return allowed
       ? fetchConfigPerNode(name, filterEligibleNodes(name))
@@ -318,6 +341,35 @@ public class KeyValueBucketRefresher implements BucketRefresher {
     tainted.remove(name);
   }
 
+  /**
+   * Signals that a connection receiving cluster map change notifications for the bucket has been opened.
+   *
+   * <p>As long as at least one such connection is open, the bucket is only polled at a slow safety interval.</p>
+   *
+   * @param name the name of the bucket.
+   */
+  public void clusterMapNotificationsActive(final String name) {
+    notifyingConnections.merge(name, 1, Integer::sum);
+  }
+
+  /**
+   * Signals that a connection receiving cluster map change notifications for the bucket has been closed.
+   *
+   * @param name the name of the bucket.
+   */
+  public void clusterMapNotificationsInactive(final String name) {
+    notifyingConnections.computeIfPresent(name, (k, v) -> v > 1 ? v - 1 : null);
+  }
+
+  /**
+   * Returns true if at least one connection receives cluster map change notifications for the bucket.
+   *
+   * @param name the name of the bucket.
+   */
+  boolean hasClusterMapNotifications(final String name) {
+    return notifyingConnections.containsKey(name);
+  }
+
   @Override
   public Mono<Void> shutdown() {
     return Mono.defer(() -> {
@@ -69,10 +69,28 @@ public class EndpointDiagnostics {
      */
     private final Optional<String> namespace;
 
+    /**
+     * The number of requests written but not yet completed.
+     */
+    private final long outstandingRequests;
+
+    /**
+     * The number of bytes queued in the outbound buffer.
+     */
+    private final long pendingWriteBytes;
+
     @Stability.Internal
     public EndpointDiagnostics(final ServiceType type, final EndpointState state, final String local,
                                final String remote, final Optional<String> namespace,
                                final Optional<Long> lastActivityUs, final Optional<String> id) {
+        this(type, state, local, remote, namespace, lastActivityUs, id, 0, 0);
+    }
+
+    @Stability.Internal
+    public EndpointDiagnostics(final ServiceType type, final EndpointState state, final String local,
+                               final String remote, final Optional<String> namespace,
+                               final Optional<Long> lastActivityUs, final Optional<String> id,
+                               final long outstandingRequests, final long pendingWriteBytes) {
         this.type = type;
         this.state = state;
         this.id = id;
@@ -80,6 +98,8 @@ public class EndpointDiagnostics {
         this.remote = remote;
         this.lastActivityUs = lastActivityUs;
         this.namespace = namespace;
+        this.outstandingRequests = outstandingRequests;
+        this.pendingWriteBytes = pendingWriteBytes;
     }
 
     /**
@@ -131,6 +151,22 @@ public class EndpointDiagnostics {
         return namespace;
     }
 
+    /**
+     * The number of requests which have been written to this endpoint but are not completed yet.
+     */
+    @Stability.Volatile
+    public long outstandingRequests() {
+        return outstandingRequests;
+    }
+
+    /**
+     * The number of bytes which are queued in the outbound buffer and not yet written to the socket.
+     */
+    @Stability.Volatile
+    public long pendingWriteBytes() {
+        return pendingWriteBytes;
+    }
+
     Map<String, Object> toMap() {
         Map<String, Object> map = new HashMap<>();
         if (remote != null) {
@@ -156,6 +192,8 @@ public class EndpointDiagnostics {
           ", lastActivityUs=" + lastActivityUs +
           ", id='" + id + '\'' +
           ", namespace=" + namespace +
+          ", outstandingRequests=" + outstandingRequests +
+          ", pendingWriteBytes=" + pendingWriteBytes +
           '}';
     }
 
@@ -29,6 +29,7 @@ import com.couchbase.client.core.cnc.events.endpoint.EndpointStateChangedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.EndpointWriteFailedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.UnexpectedEndpointConnectionFailedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.UnexpectedEndpointDisconnectedEvent;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
 import com.couchbase.client.core.deps.io.netty.channel.DefaultEventLoopGroup;
 import com.couchbase.client.core.deps.io.netty.channel.epoll.EpollChannelOption;
 import com.couchbase.client.core.deps.io.netty.channel.local.LocalChannel;
@@ -37,6 +38,7 @@ import com.couchbase.client.core.env.SecurityConfig;
 import com.couchbase.client.core.error.BucketNotFoundException;
 import com.couchbase.client.core.error.InvalidArgumentException;
 import com.couchbase.client.core.error.SecurityException;
+import com.couchbase.client.core.io.netty.ByteCountingHandler;
 import com.couchbase.client.core.io.netty.PipelineErrorHandler;
 import com.couchbase.client.core.io.netty.SslHandlerFactory;
 import com.couchbase.client.core.io.netty.TrafficCaptureHandler;
@@ -55,6 +57,7 @@ import com.couchbase.client.core.deps.io.netty.channel.Channel;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelFuture;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelFutureListener;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelInitializer;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelOutboundBuffer;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelOption;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelPipeline;
 import com.couchbase.client.core.deps.io.netty.channel.EventLoopGroup;
@@ -313,6 +316,9 @@ public abstract class BaseEndpoint implements Endpoint {
                   throw new SecurityException("Could not instantiate SSL Handler", e);
                 }
               }
+              if (!(env.meter() instanceof NoopMeter)) {
+                pipeline.addFirst(new ByteCountingHandler(endpointContext));
+              }
               if (env.ioConfig().servicesToCapture().contains(serviceType)) {
                 pipeline.addLast(new TrafficCaptureHandler(endpointContext));
               }
@@ -588,6 +594,22 @@ public abstract class BaseEndpoint implements Endpoint {
     return outstandingRequests.get();
   }
 
+  @Override
+  public boolean writable() {
+    final Channel channel = this.channel;
+    return channel != null && channel.isWritable();
+  }
+
+  @Override
+  public long pendingWriteBytes() {
+    final Channel channel = this.channel;
+    if (channel == null) {
+      return 0;
+    }
+    final ChannelOutboundBuffer outboundBuffer = channel.unsafe().outboundBuffer();
+    return outboundBuffer == null ? 0 : outboundBuffer.totalPendingWriteBytes();
+  }
+
   @Override
   public long lastResponseReceived() {
     return lastResponseTimestamp;
@@ -705,7 +727,7 @@ public abstract class BaseEndpoint implements Endpoint {
 
     final Optional<String> id = Optional.ofNullable(channel).map(c -> "0x" + c.id().asShortText());
     return new EndpointDiagnostics(context().serviceType(), state(), local, remote, context().bucket(),
-      lastActivity, id);
+      lastActivity, id, outstandingRequests(), pendingWriteBytes());
   }
 
 }
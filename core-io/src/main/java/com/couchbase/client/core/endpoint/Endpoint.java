@@ -74,6 +74,20 @@ public interface Endpoint extends Stateful<EndpointState> {
    */
   long outstandingRequests();
 
+  /**
+   * If the underlying channel is writable, that is the outbound buffer is below its high watermark.
+   *
+   * @return true if writable, false if not connected or the outbound buffer is above its high watermark.
+   */
+  boolean writable();
+
+  /**
+   * The number of bytes which are queued in the outbound buffer and not yet written to the socket.
+   *
+   * @return the number of pending write bytes, 0 if not connected.
+   */
+  long pendingWriteBytes();
+
   /**
    * Holds the timestamp of the last response received (or 0 if no request ever sent).
    *
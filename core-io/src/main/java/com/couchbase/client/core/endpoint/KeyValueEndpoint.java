@@ -19,6 +19,7 @@ package com.couchbase.client.core.endpoint;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelPipeline;
 import com.couchbase.client.core.deps.io.netty.handler.flush.FlushConsolidationHandler;
 import com.couchbase.client.core.env.Authenticator;
+import com.couchbase.client.core.env.IoConfig;
 import com.couchbase.client.core.io.netty.kv.ErrorMapLoadingHandler;
 import com.couchbase.client.core.io.netty.kv.FeatureNegotiatingHandler;
 import com.couchbase.client.core.io.netty.kv.KeyValueMessageHandler;
@@ -38,11 +39,6 @@ public class KeyValueEndpoint extends BaseEndpoint {
   private final Optional<String> bucketname;
   private final Authenticator authenticator;
 
-  private static final int FLUSH_CONSOLIDATION_LIMIT = Integer.parseInt(System.getProperty(
-    "com.couchbase.experimental.flushConsolidationLimit",
-    Integer.toString(FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES)
-  ));
-
   public KeyValueEndpoint(final ServiceContext ctx, final String hostname,
                           final int port, final Optional<String> bucketname, final Authenticator authenticator) {
     super(hostname, port, ctx.environment().ioEnvironment().kvEventLoopGroup().get(),
@@ -70,8 +66,9 @@ public class KeyValueEndpoint extends BaseEndpoint {
 
     @Override
     public void init(BaseEndpoint endpoint, ChannelPipeline pipeline) {
-      if (FLUSH_CONSOLIDATION_LIMIT > 0) {
-        pipeline.addLast(new FlushConsolidationHandler(FLUSH_CONSOLIDATION_LIMIT, true));
+      IoConfig ioConfig = ctx.environment().ioConfig();
+      if (ioConfig.flushConsolidationEnabled()) {
+        pipeline.addLast(new FlushConsolidationHandler(ioConfig.flushConsolidationMaxFlushes(), true));
       }
 
       pipeline.addLast(new MemcacheProtocolDecodeHandler());
@@ -132,6 +129,11 @@ public class KeyValueEndpoint extends BaseEndpoint {
         features.add(ServerFeature.CREATE_AS_DELETED);
       }
 
+      if (ctx.environment().ioConfig().clusterMapNotificationsEnabled()) {
+        features.add(ServerFeature.DUPLEX);
+        features.add(ServerFeature.CLUSTERMAP_CHANGE_NOTIFICATION);
+      }
+
       return features;
     }
   }
@@ -33,8 +33,11 @@ import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
 import com.couchbase.client.core.cnc.tracing.ThresholdLoggingTracer;
 import com.couchbase.client.core.deps.io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import com.couchbase.client.core.error.InvalidArgumentException;
+import com.couchbase.client.core.io.netty.SslContextCache;
 import com.couchbase.client.core.msg.CancellationReason;
+import com.couchbase.client.core.msg.ResponseCompleter;
 import com.couchbase.client.core.retry.BestEffortRetryStrategy;
+import com.couchbase.client.core.retry.RetryBudget;
 import com.couchbase.client.core.retry.RetryStrategy;
 import com.couchbase.client.core.service.AbstractPooledEndpointServiceConfig;
 import reactor.core.publisher.Mono;
@@ -52,6 +55,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.jar.Attributes;
@@ -73,6 +77,16 @@ public class CoreEnvironment {
    * Default maximum requests being queued in retry before performing backpressure cancellations.
    */
   public static final long DEFAULT_MAX_NUM_REQUESTS_IN_RETRY = 32768;
+
+  /**
+   * By default the retry budget is disabled (retries are only limited by the retry strategy and the timeout).
+   */
+  public static final double DEFAULT_RETRY_BUDGET_RATIO = 0;
+
+  /**
+   * Default number of retries the retry budget allows per service and node without any successful traffic.
+   */
+  public static final int DEFAULT_RETRY_BUDGET_BURST = 100;
   private static final Map<String, Attributes> MANIFEST_INFOS = new ConcurrentHashMap<>();
 
   static {
@@ -120,8 +134,11 @@ public class CoreEnvironment {
   private final RetryStrategy retryStrategy;
   private final Supplier<Scheduler> scheduler;
   private final OrphanReporter orphanReporter;
+  private final Supplier<ResponseCompleter> responseCompleter;
   private final long maxNumRequestsInRetry;
+  private final RetryBudget retryBudget;
   private final List<RequestCallback> requestCallbacks;
+  private final SslContextCache sslContextCache = new SslContextCache();
 
   public static CoreEnvironment create() {
     return builder().build();
@@ -137,6 +154,7 @@ public class CoreEnvironment {
 
     this.userAgent = defaultUserAgent();
     this.maxNumRequestsInRetry = builder.maxNumRequestsInRetry;
+    this.retryBudget = RetryBudget.create(builder.retryBudgetRatio, builder.retryBudgetBurst);
     this.scheduler = Optional
       .ofNullable(builder.scheduler)
       .orElse(new OwnedSupplier<>(
@@ -159,6 +177,9 @@ public class CoreEnvironment {
     this.orphanReporterConfig = builder.orphanReporterConfig.build();
     this.thresholdLoggingTracerConfig = builder.thresholdLoggingTracerConfig.build();
     this.loggingMeterConfig = builder.loggingMeterConfig.build();
+    this.responseCompleter = Optional
+      .ofNullable(builder.responseCompleter)
+      .orElseGet(() -> new OwnedSupplier<>(ResponseCompleter.create(ioConfig)));
 
     if (eventBus instanceof OwnedSupplier) {
       eventBus.get().start().block();
@@ -369,6 +390,14 @@ public class CoreEnvironment {
     return requestCallbacks;
   }
 
+  /**
+   * Holds the TLS contexts built from the {@link #securityConfig()}, shared by all endpoints of this environment.
+   */
+  @Stability.Internal
+  public SslContextCache sslContextCache() {
+    return sslContextCache;
+  }
+
   /**
    * Returns the timer used to schedule timeouts and retries amongst other tasks.
    */
@@ -397,6 +426,23 @@ public class CoreEnvironment {
     return maxNumRequestsInRetry;
   }
 
+  /**
+   * Returns the retry budget which limits the retry traffic per service and node.
+   */
+  @Stability.Volatile
+  public RetryBudget retryBudget() {
+    return retryBudget;
+  }
+
+  /**
+   * Returns the completer which completes the responses of requests, depending on the configured
+   * {@link IoConfig#responseCompletion()} or custom executor.
+   */
+  @Stability.Internal
+  public ResponseCompleter responseCompleter() {
+    return responseCompleter.get();
+  }
+
   /**
    * Shuts down this Environment with the default disconnect timeout.
    *
@@ -451,6 +497,12 @@ public class CoreEnvironment {
         return Mono.empty();
       }))
       .then(Mono.defer(orphanReporter::stop))
+      .then(Mono.defer(() -> {
+        if (responseCompleter instanceof OwnedSupplier) {
+          responseCompleter.get().shutdown();
+        }
+        return Mono.empty();
+      }))
       .then(Mono.defer(() -> {
         if (scheduler instanceof OwnedSupplier) {
           scheduler.get().dispose();
@@ -499,6 +551,7 @@ public class CoreEnvironment {
 
     input.put("userAgent", userAgent.formattedLong());
     input.put("maxNumRequestsInRetry", maxNumRequestsInRetry);
+    input.put("retryBudget", retryBudget.toString());
 
     input.put("ioEnvironment", ioEnvironment.exportAsMap());
     input.put("ioConfig", ioConfig.exportAsMap());
@@ -538,8 +591,11 @@ public class CoreEnvironment {
     private Supplier<Scheduler> scheduler = null;
     private Supplier<RequestTracer> requestTracer = null;
     private Supplier<Meter> meter = null;
+    private Supplier<ResponseCompleter> responseCompleter = null;
     private RetryStrategy retryStrategy = null;
     private long maxNumRequestsInRetry = DEFAULT_MAX_NUM_REQUESTS_IN_RETRY;
+    private double retryBudgetRatio = DEFAULT_RETRY_BUDGET_RATIO;
+    private int retryBudgetBurst = DEFAULT_RETRY_BUDGET_BURST;
     private final List<RequestCallback> requestCallbacks = new ArrayList<>();
 
     protected Builder() { }
@@ -567,6 +623,43 @@ public class CoreEnvironment {
       return self();
     }
 
+    /**
+     * Enables the retry budget and limits retries to the given fraction of the successful traffic.
+     * <p>
+     * Every successful response earns this fraction of a retry for its service and node, and every retry proposed
+     * by the retry strategy needs a full one from both. If the budget is exhausted the request is cancelled instead
+     * of being retried, so that a sick node does not multiply the load on the rest of the cluster. A ratio of 0.1
+     * caps retries at about 10% of the successful traffic. Disabled by default (0).
+     *
+     * @param retryBudgetRatio the ratio between 0 (disabled) and 1.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public SELF retryBudgetRatio(final double retryBudgetRatio) {
+      if (retryBudgetRatio < 0 || retryBudgetRatio > 1) {
+        throw InvalidArgumentException.fromMessage("retryBudgetRatio must be between 0 and 1");
+      }
+      this.retryBudgetRatio = retryBudgetRatio;
+      return self();
+    }
+
+    /**
+     * Allows to customize how many retries the retry budget holds per service and node (defaults to 100).
+     * <p>
+     * This is the number of retries allowed in a burst, regardless of the successful traffic before.
+     *
+     * @param retryBudgetBurst the number of retries, must be at least 1.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public SELF retryBudgetBurst(final int retryBudgetBurst) {
+      if (retryBudgetBurst < 1) {
+        throw InvalidArgumentException.fromMessage("retryBudgetBurst must be at least 1");
+      }
+      this.retryBudgetBurst = retryBudgetBurst;
+      return self();
+    }
+
     /**
      * Immediately loads the properties from the given loader into the environment.
      *
@@ -824,6 +917,25 @@ public class CoreEnvironment {
       return self();
     }
 
+    /**
+     * Completes the responses of requests on the given executor instead of the IO threads.
+     * <p>
+     * Responses are handed off to the executor in batches, and this setting takes precedence over the
+     * {@link IoConfig.Builder#responseCompletion(ResponseCompletion)} strategy. The executor is not shut down when
+     * the environment is shut down, and responses are completed on the IO threads again if it rejects them.
+     *
+     * @param executor the executor to complete responses on.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public SELF responseCompletionExecutor(final Executor executor) {
+      this.responseCompleter = new ExternalSupplier<>(ResponseCompleter.batching(
+        notNull(executor, "Executor"),
+        IoConfig.DEFAULT_RESPONSE_COMPLETION_POOL_SIZE
+      ));
+      return self();
+    }
+
     /**
      * Allows to customize the default retry strategy.
      * <p>
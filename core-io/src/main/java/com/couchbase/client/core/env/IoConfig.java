@@ -19,6 +19,7 @@ package com.couchbase.client.core.env;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.endpoint.CircuitBreaker;
 import com.couchbase.client.core.endpoint.CircuitBreakerConfig;
+import com.couchbase.client.core.error.InvalidArgumentException;
 import com.couchbase.client.core.service.AbstractPooledEndpointServiceConfig;
 import com.couchbase.client.core.service.ServiceType;
 
@@ -40,9 +41,29 @@ public class IoConfig {
   public static final Duration DEFAULT_CONFIG_POLL_INTERVAL = Duration.ofMillis(2500);
   public static final NetworkResolution DEFAULT_NETWORK_RESOLUTION = NetworkResolution.AUTO;
   public static final int DEFAULT_NUM_KV_CONNECTIONS = 1;
+  public static final int DEFAULT_MAX_NUM_KV_CONNECTIONS = 0;
   public static final int DEFAULT_MAX_HTTP_CONNECTIONS = AbstractPooledEndpointServiceConfig.DEFAULT_MAX_ENDPOINTS;
   public static final Duration DEFAULT_IDLE_HTTP_CONNECTION_TIMEOUT = AbstractPooledEndpointServiceConfig.DEFAULT_IDLE_TIME;
   public static final Duration DEFAULT_CONFIG_IDLE_REDIAL_TIMEOUT = Duration.ofMinutes(5);
+  public static final int DEFAULT_FLUSH_CONSOLIDATION_MAX_FLUSHES = 256;
+
+  /**
+   * Legacy system property which was used to configure the flush consolidation limit before it became part of
+   * this config, still honored for the defaults (a value of 0 or less disables flush consolidation).
+   */
+  private static final int LEGACY_FLUSH_CONSOLIDATION_LIMIT = Integer.parseInt(System.getProperty(
+    "com.couchbase.experimental.flushConsolidationLimit",
+    Integer.toString(DEFAULT_FLUSH_CONSOLIDATION_MAX_FLUSHES)
+  ));
+  public static final boolean DEFAULT_FLUSH_CONSOLIDATION_ENABLED = LEGACY_FLUSH_CONSOLIDATION_LIMIT > 0;
+  public static final boolean DEFAULT_CLUSTER_MAP_NOTIFICATIONS_ENABLED = false;
+  public static final boolean DEFAULT_LOAD_AWARE_SERVICE_SELECTION_ENABLED = false;
+  public static final boolean DEFAULT_COLLECTION_MANIFEST_REFRESH_ENABLED = false;
+  public static final boolean DEFAULT_COLLECTION_WARMUP_ENABLED = false;
+  public static final ResponseCompletion DEFAULT_RESPONSE_COMPLETION = ResponseCompletion.IO_THREAD;
+  public static final int DEFAULT_RESPONSE_COMPLETION_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+  public static final boolean DEFAULT_NODE_METRIC_DIMENSION_ENABLED = false;
+  public static final boolean DEFAULT_BUCKET_METRIC_DIMENSION_ENABLED = false;
 
   private final boolean mutationTokensEnabled;
   private final Duration configPollInterval;
@@ -59,9 +80,20 @@ public class IoConfig {
   private final boolean tcpKeepAlivesEnabled;
   private final Duration tcpKeepAliveTime;
   private final int numKvConnections;
+  private final int maxNumKvConnections;
   private final int maxHttpConnections;
   private final Duration idleHttpConnectionTimeout;
   private final Duration configIdleRedialTimeout;
+  private final boolean flushConsolidationEnabled;
+  private final int flushConsolidationMaxFlushes;
+  private final boolean clusterMapNotificationsEnabled;
+  private final boolean loadAwareServiceSelectionEnabled;
+  private final boolean collectionManifestRefreshEnabled;
+  private final boolean collectionWarmupEnabled;
+  private final ResponseCompletion responseCompletion;
+  private final int responseCompletionPoolSize;
+  private final boolean nodeMetricDimensionEnabled;
+  private final boolean bucketMetricDimensionEnabled;
 
   private IoConfig(Builder builder) {
     mutationTokensEnabled = builder.mutationTokensEnabled;
@@ -83,9 +115,20 @@ public class IoConfig {
     tcpKeepAlivesEnabled = builder.tcpKeepAlivesEnabled;
     tcpKeepAliveTime = builder.tcpKeepAliveTime;
     numKvConnections = builder.numKvConnections;
+    maxNumKvConnections = Math.max(builder.numKvConnections, builder.maxNumKvConnections);
     maxHttpConnections = builder.maxHttpConnections;
     idleHttpConnectionTimeout = builder.idleHttpConnectionTimeout;
     configIdleRedialTimeout = builder.configIdleRedialTimeout;
+    flushConsolidationEnabled = builder.flushConsolidationEnabled;
+    flushConsolidationMaxFlushes = builder.flushConsolidationMaxFlushes;
+    clusterMapNotificationsEnabled = builder.clusterMapNotificationsEnabled;
+    loadAwareServiceSelectionEnabled = builder.loadAwareServiceSelectionEnabled;
+    collectionManifestRefreshEnabled = builder.collectionManifestRefreshEnabled;
+    collectionWarmupEnabled = builder.collectionWarmupEnabled;
+    responseCompletion = builder.responseCompletion;
+    responseCompletionPoolSize = builder.responseCompletionPoolSize;
+    nodeMetricDimensionEnabled = builder.nodeMetricDimensionEnabled;
+    bucketMetricDimensionEnabled = builder.bucketMetricDimensionEnabled;
   }
 
   public static IoConfig create() {
@@ -167,6 +210,17 @@ public class IoConfig {
     return builder().numKvConnections(numKvConnections);
   }
 
+  /**
+   * Allows to grow the number of key-value connections per node up to this maximum under load.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#maxNumKvConnections(int)
+   */
+  @Stability.Volatile
+  public static Builder maxNumKvConnections(int maxNumKvConnections) {
+    return builder().maxNumKvConnections(maxNumKvConnections);
+  }
+
   public static Builder maxHttpConnections(int maxHttpConnections) {
     return builder().maxHttpConnections(maxHttpConnections);
   }
@@ -179,6 +233,116 @@ public class IoConfig {
     return builder().configIdleRedialTimeout(configIdleRedialTimeout);
   }
 
+  /**
+   * Enables or disables flush consolidation on pipelined (key-value) endpoints.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#enableFlushConsolidation(boolean)
+   */
+  @Stability.Volatile
+  public static Builder enableFlushConsolidation(boolean flushConsolidationEnabled) {
+    return builder().enableFlushConsolidation(flushConsolidationEnabled);
+  }
+
+  /**
+   * Configures the maximum number of flushes which are consolidated into one if flush consolidation is enabled.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#flushConsolidationMaxFlushes(int)
+   */
+  @Stability.Volatile
+  public static Builder flushConsolidationMaxFlushes(int flushConsolidationMaxFlushes) {
+    return builder().flushConsolidationMaxFlushes(flushConsolidationMaxFlushes);
+  }
+
+  /**
+   * Enables or disables server-pushed cluster map change notifications on key-value connections.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#enableClusterMapNotifications(boolean)
+   */
+  @Stability.Volatile
+  public static Builder enableClusterMapNotifications(boolean clusterMapNotificationsEnabled) {
+    return builder().enableClusterMapNotifications(clusterMapNotificationsEnabled);
+  }
+
+  /**
+   * Configures if query, search and analytics requests should be dispatched to the least loaded node.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#enableLoadAwareServiceSelection(boolean)
+   */
+  @Stability.Volatile
+  public static Builder enableLoadAwareServiceSelection(boolean loadAwareServiceSelectionEnabled) {
+    return builder().enableLoadAwareServiceSelection(loadAwareServiceSelectionEnabled);
+  }
+
+  /**
+   * Configures if collection IDs should be resolved in bulk from the collections manifest of the bucket.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#enableCollectionManifestRefresh(boolean)
+   */
+  @Stability.Volatile
+  public static Builder enableCollectionManifestRefresh(boolean collectionManifestRefreshEnabled) {
+    return builder().enableCollectionManifestRefresh(collectionManifestRefreshEnabled);
+  }
+
+  /**
+   * Configures if the collection IDs of a bucket should be loaded as soon as the bucket is opened.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#enableCollectionWarmup(boolean)
+   */
+  @Stability.Volatile
+  public static Builder enableCollectionWarmup(boolean collectionWarmupEnabled) {
+    return builder().enableCollectionWarmup(collectionWarmupEnabled);
+  }
+
+  /**
+   * Configures on which threads the responses of requests are completed.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#responseCompletion(ResponseCompletion)
+   */
+  @Stability.Volatile
+  public static Builder responseCompletion(ResponseCompletion responseCompletion) {
+    return builder().responseCompletion(responseCompletion);
+  }
+
+  /**
+   * Configures the number of threads which complete responses if {@link ResponseCompletion#BOUNDED_POOL} is used.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#responseCompletionPoolSize(int)
+   */
+  @Stability.Volatile
+  public static Builder responseCompletionPoolSize(int responseCompletionPoolSize) {
+    return builder().responseCompletionPoolSize(responseCompletionPoolSize);
+  }
+
+  /**
+   * Configures if the operation latency metrics should be split by the node a request has been dispatched to.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#enableNodeMetricDimension(boolean)
+   */
+  @Stability.Volatile
+  public static Builder enableNodeMetricDimension(boolean nodeMetricDimensionEnabled) {
+    return builder().enableNodeMetricDimension(nodeMetricDimensionEnabled);
+  }
+
+  /**
+   * Configures if the operation latency metrics should be split by the bucket of a request.
+   *
+   * @return this {@link Builder} for chaining purposes.
+   * @see Builder#enableBucketMetricDimension(boolean)
+   */
+  @Stability.Volatile
+  public static Builder enableBucketMetricDimension(boolean bucketMetricDimensionEnabled) {
+    return builder().enableBucketMetricDimension(bucketMetricDimensionEnabled);
+  }
+
   public CircuitBreakerConfig kvCircuitBreakerConfig() {
     return kvCircuitBreakerConfig;
   }
@@ -244,6 +408,14 @@ public class IoConfig {
     return numKvConnections;
   }
 
+  /**
+   * Returns the maximum number of key-value connections per node, never lower than {@link #numKvConnections()}.
+   */
+  @Stability.Volatile
+  public int maxNumKvConnections() {
+    return maxNumKvConnections;
+  }
+
   public int maxHttpConnections() {
     return maxHttpConnections;
   }
@@ -256,6 +428,56 @@ public class IoConfig {
     return configIdleRedialTimeout;
   }
 
+  @Stability.Volatile
+  public boolean flushConsolidationEnabled() {
+    return flushConsolidationEnabled;
+  }
+
+  @Stability.Volatile
+  public int flushConsolidationMaxFlushes() {
+    return flushConsolidationMaxFlushes;
+  }
+
+  @Stability.Volatile
+  public boolean clusterMapNotificationsEnabled() {
+    return clusterMapNotificationsEnabled;
+  }
+
+  @Stability.Volatile
+  public boolean loadAwareServiceSelectionEnabled() {
+    return loadAwareServiceSelectionEnabled;
+  }
+
+  @Stability.Volatile
+  public boolean collectionManifestRefreshEnabled() {
+    return collectionManifestRefreshEnabled;
+  }
+
+  @Stability.Volatile
+  public boolean collectionWarmupEnabled() {
+    return collectionWarmupEnabled;
+  }
+
+  @Stability.Volatile
+  public ResponseCompletion responseCompletion() {
+    return responseCompletion;
+  }
+
+  @Stability.Volatile
+  public int responseCompletionPoolSize() {
+    return responseCompletionPoolSize;
+  }
+
+  @Stability.Volatile
+  public boolean nodeMetricDimensionEnabled() {
+    return nodeMetricDimensionEnabled;
+  }
+
+  @Stability.Volatile
+  public boolean bucketMetricDimensionEnabled() {
+    return bucketMetricDimensionEnabled;
+  }
+
   /**
    * Returns this config as a map so it can be exported into i.e. JSON for display.
    */
@@ -277,9 +499,20 @@ public class IoConfig {
     export.put("managerCircuitBreakerConfig", managerCircuitBreakerConfig.enabled() ? managerCircuitBreakerConfig.exportAsMap() : "disabled");
     export.put("eventingCircuitBreakerConfig", eventingCircuitBreakerConfig.enabled() ? eventingCircuitBreakerConfig.exportAsMap() : "disabled");
     export.put("numKvConnections", numKvConnections);
+    export.put("maxNumKvConnections", maxNumKvConnections);
     export.put("maxHttpConnections", maxHttpConnections);
     export.put("idleHttpConnectionTimeoutMs", idleHttpConnectionTimeout.toMillis());
     export.put("configIdleRedialTimeoutMs", configIdleRedialTimeout.toMillis());
+    export.put("flushConsolidationEnabled", flushConsolidationEnabled);
+    export.put("flushConsolidationMaxFlushes", flushConsolidationMaxFlushes);
+    export.put("clusterMapNotificationsEnabled", clusterMapNotificationsEnabled);
+    export.put("loadAwareServiceSelectionEnabled", loadAwareServiceSelectionEnabled);
+    export.put("collectionManifestRefreshEnabled", collectionManifestRefreshEnabled);
+    export.put("collectionWarmupEnabled", collectionWarmupEnabled);
+    export.put("responseCompletion", responseCompletion.name());
+    export.put("responseCompletionPoolSize", responseCompletionPoolSize);
+    export.put("nodeMetricDimensionEnabled", nodeMetricDimensionEnabled);
+    export.put("bucketMetricDimensionEnabled", bucketMetricDimensionEnabled);
     return export;
   }
 
@@ -300,9 +533,22 @@ public class IoConfig {
     private boolean tcpKeepAlivesEnabled = DEFAULT_TCP_KEEPALIVE_ENABLED;
     private Duration tcpKeepAliveTime = DEFAULT_TCP_KEEPALIVE_TIME;
     private int numKvConnections = DEFAULT_NUM_KV_CONNECTIONS;
+    private int maxNumKvConnections = DEFAULT_MAX_NUM_KV_CONNECTIONS;
     private int maxHttpConnections = DEFAULT_MAX_HTTP_CONNECTIONS;
     private Duration idleHttpConnectionTimeout = DEFAULT_IDLE_HTTP_CONNECTION_TIMEOUT;
     private Duration configIdleRedialTimeout = DEFAULT_CONFIG_IDLE_REDIAL_TIMEOUT;
+    private boolean flushConsolidationEnabled = DEFAULT_FLUSH_CONSOLIDATION_ENABLED;
+    private int flushConsolidationMaxFlushes = LEGACY_FLUSH_CONSOLIDATION_LIMIT > 0
+      ? LEGACY_FLUSH_CONSOLIDATION_LIMIT
+      : DEFAULT_FLUSH_CONSOLIDATION_MAX_FLUSHES;
+    private boolean clusterMapNotificationsEnabled = DEFAULT_CLUSTER_MAP_NOTIFICATIONS_ENABLED;
+    private boolean loadAwareServiceSelectionEnabled = DEFAULT_LOAD_AWARE_SERVICE_SELECTION_ENABLED;
+    private boolean collectionManifestRefreshEnabled = DEFAULT_COLLECTION_MANIFEST_REFRESH_ENABLED;
+    private boolean collectionWarmupEnabled = DEFAULT_COLLECTION_WARMUP_ENABLED;
+    private ResponseCompletion responseCompletion = DEFAULT_RESPONSE_COMPLETION;
+    private int responseCompletionPoolSize = DEFAULT_RESPONSE_COMPLETION_POOL_SIZE;
+    private boolean nodeMetricDimensionEnabled = DEFAULT_NODE_METRIC_DIMENSION_ENABLED;
+    private boolean bucketMetricDimensionEnabled = DEFAULT_BUCKET_METRIC_DIMENSION_ENABLED;
 
     public IoConfig build() {
       return new IoConfig(this);
@@ -474,6 +720,23 @@ public class IoConfig {
       return this;
     }
 
+    /**
+     * Allows the number of key-value connections per node to grow beyond {@link #numKvConnections(int)} under load.
+     * <p>
+     * If set higher than {@link #numKvConnections(int)}, an additional connection is opened (up to this maximum)
+     * when the outbound buffer of a connection fills up or too many requests are in-flight on it. Requests are
+     * then dispatched to the connection with the least outstanding requests, and the additional connections are
+     * closed again once they have been idle for a while. By default (0) the number of connections is fixed.
+     *
+     * @param maxNumKvConnections the maximum number of key-value connections per node.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder maxNumKvConnections(int maxNumKvConnections) {
+      this.maxNumKvConnections = maxNumKvConnections;
+      return this;
+    }
+
     public Builder maxHttpConnections(int maxHttpConnections) {
       this.maxHttpConnections = maxHttpConnections;
       return this;
@@ -488,5 +751,182 @@ public class IoConfig {
       this.configIdleRedialTimeout = configIdleRedialTimeout;
       return this;
     }
+
+    /**
+     * Enables or disables flush consolidation on pipelined (key-value) endpoints (enabled by default).
+     * <p>
+     * If disabled, every request is written and flushed to the socket on its own, which results in one syscall
+     * (and one TLS record if enabled) per operation. If enabled, flushes are deferred until the event loop has
+     * processed all currently pending writes (or {@link #flushConsolidationMaxFlushes(int)} flushes have been
+     * deferred), so that many concurrent operations can be written to the socket at once.
+     *
+     * @param flushConsolidationEnabled true if flushes should be consolidated.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder enableFlushConsolidation(final boolean flushConsolidationEnabled) {
+      this.flushConsolidationEnabled = flushConsolidationEnabled;
+      return this;
+    }
+
+    /**
+     * Configures the maximum number of flushes which are consolidated into one if flush consolidation is enabled.
+     * <p>
+     * Every request which is written also asks for a flush. Once this many flushes have been deferred, the next one
+     * goes to the socket even if the event loop still has pending writes.
+     *
+     * @param flushConsolidationMaxFlushes the number of flushes after which a flush is forced, must be greater than 0.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder flushConsolidationMaxFlushes(final int flushConsolidationMaxFlushes) {
+      if (flushConsolidationMaxFlushes <= 0) {
+        throw InvalidArgumentException.fromMessage("flushConsolidationMaxFlushes must be greater than 0");
+      }
+      this.flushConsolidationMaxFlushes = flushConsolidationMaxFlushes;
+      return this;
+    }
+
+    /**
+     * Enables or disables server-pushed cluster map change notifications (disabled by default).
+     * <p>
+     * If enabled and supported by the server, each key-value connection negotiates duplex mode and the server
+     * pushes a new cluster map as soon as it changes. While at least one such connection is open for a bucket,
+     * the regular config polling for it is backed off to a slow safety interval.
+     *
+     * @param clusterMapNotificationsEnabled true if cluster map change notifications should be negotiated.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder enableClusterMapNotifications(final boolean clusterMapNotificationsEnabled) {
+      this.clusterMapNotificationsEnabled = clusterMapNotificationsEnabled;
+      return this;
+    }
+
+    /**
+     * Configures if query, search and analytics requests should be dispatched to the least loaded node
+     * instead of round-robin.
+     *
+     * <p>If enabled, two eligible nodes are picked at random for every request and the one with the lower
+     * load is used. The load of a node is its recent (exponentially weighted) dispatch latency multiplied by the
+     * number of requests currently outstanding against it, so a slow or overloaded node receives less traffic
+     * until it recovers. Defaults to false, which keeps the round-robin distribution.</p>
+     *
+     * @param loadAwareServiceSelectionEnabled true if the least loaded node should be preferred.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder enableLoadAwareServiceSelection(final boolean loadAwareServiceSelectionEnabled) {
+      this.loadAwareServiceSelectionEnabled = loadAwareServiceSelectionEnabled;
+      return this;
+    }
+
+    /**
+     * Configures if collection IDs should be resolved in bulk from the collections manifest of the bucket
+     * (disabled by default).
+     *
+     * <p>If disabled, every collection which is not yet known is resolved with its own request to the server. If
+     * enabled, the collections manifest of the bucket is fetched once instead and all collection IDs it contains are
+     * stored at the same time, so operations against other unknown collections of the same bucket wait for this
+     * single fetch. The manifest is fetched again when the server reports an unknown collection or when the
+     * manifest uid in a new bucket config is higher than the one currently loaded.</p>
+     *
+     * @param collectionManifestRefreshEnabled true if collection IDs should be loaded from the manifest.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder enableCollectionManifestRefresh(final boolean collectionManifestRefreshEnabled) {
+      this.collectionManifestRefreshEnabled = collectionManifestRefreshEnabled;
+      return this;
+    }
+
+    /**
+     * Configures if the collection IDs of a bucket should be loaded from its collections manifest as soon as the
+     * bucket is opened (disabled by default).
+     *
+     * <p>This avoids that the first operation against each collection has to be retried until its ID is known,
+     * which is helpful if an application uses many collections.</p>
+     *
+     * @param collectionWarmupEnabled true if the collection IDs should be loaded when the bucket is opened.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder enableCollectionWarmup(final boolean collectionWarmupEnabled) {
+      this.collectionWarmupEnabled = collectionWarmupEnabled;
+      return this;
+    }
+
+    /**
+     * Configures on which threads the responses of requests are completed (completed on the IO thread by default).
+     *
+     * <p>By default, responses are completed directly on the IO thread which received them. This is the fastest
+     * option, but everything chained onto a response (async callbacks, reactive operators) also runs on that IO
+     * thread, so slow or blocking application code delays all other responses of the connections it serves. With
+     * {@link ResponseCompletion#BOUNDED_POOL} responses are handed off in batches to a dedicated pool of threads
+     * instead, and with {@link ResponseCompletion#VIRTUAL_THREADS} every response is completed on its own virtual
+     * thread (requires Java 21 or later).</p>
+     *
+     * <p>Note that a custom executor can also be provided through the environment, see
+     * {@link CoreEnvironment.Builder#responseCompletionExecutor(java.util.concurrent.Executor)}.</p>
+     *
+     * @param responseCompletion the strategy used to complete responses.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder responseCompletion(final ResponseCompletion responseCompletion) {
+      if (responseCompletion == null) {
+        throw InvalidArgumentException.fromMessage("responseCompletion cannot be null");
+      }
+      this.responseCompletion = responseCompletion;
+      return this;
+    }
+
+    /**
+     * Configures the number of threads which complete responses if {@link ResponseCompletion#BOUNDED_POOL} is used
+     * (defaults to the number of available processors).
+     *
+     * @param responseCompletionPoolSize the number of completion threads, must be greater than 0.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder responseCompletionPoolSize(final int responseCompletionPoolSize) {
+      if (responseCompletionPoolSize <= 0) {
+        throw InvalidArgumentException.fromMessage("responseCompletionPoolSize must be greater than 0");
+      }
+      this.responseCompletionPoolSize = responseCompletionPoolSize;
+      return this;
+    }
+
+    /**
+     * Configures if the operation latency metrics should be split by the node a request has been dispatched to
+     * (disabled by default).
+     *
+     * <p>If enabled, every recorder is tagged with the hostname of the node, which helps to spot a single slow
+     * node. Note that this multiplies the number of recorders by the number of nodes. The recorders of a node are
+     * dropped once it is removed from the cluster.</p>
+     *
+     * @param nodeMetricDimensionEnabled true if the latency metrics should be split by node.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder enableNodeMetricDimension(final boolean nodeMetricDimensionEnabled) {
+      this.nodeMetricDimensionEnabled = nodeMetricDimensionEnabled;
+      return this;
+    }
+
+    /**
+     * Configures if the operation latency metrics should be split by the bucket of a request (disabled by default).
+     *
+     * <p>If enabled, the recorders of key-value and view operations are tagged with the name of their bucket. Note
+     * that this multiplies the number of recorders by the number of buckets in use.</p>
+     *
+     * @param bucketMetricDimensionEnabled true if the latency metrics should be split by bucket.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder enableBucketMetricDimension(final boolean bucketMetricDimensionEnabled) {
+      this.bucketMetricDimensionEnabled = bucketMetricDimensionEnabled;
+      return this;
+    }
   }
 }
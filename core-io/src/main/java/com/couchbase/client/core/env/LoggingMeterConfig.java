@@ -21,6 +21,7 @@ import com.couchbase.client.core.cnc.metrics.LoggingMeter;
 import com.couchbase.client.core.error.InvalidArgumentException;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -37,10 +38,19 @@ public class LoggingMeterConfig {
   public static class Defaults {
     public static final boolean DEFAULT_ENABLED = true;
     public static final Duration DEFAULT_EMIT_INTERVAL = Duration.ofSeconds(600);
+    private static final double[] DEFAULT_PERCENTILES = new double[] { 50.0, 90.0, 99.0, 99.9, 100.0 };
+
+    /**
+     * Returns a copy of the latency percentiles which are emitted by default.
+     */
+    public static double[] defaultPercentiles() {
+      return DEFAULT_PERCENTILES.clone();
+    }
   }
 
   private final Duration emitInterval;
   private final boolean enabled;
+  private final double[] percentiles;
 
   public static Builder builder() {
     return new Builder();
@@ -57,6 +67,7 @@ public class LoggingMeterConfig {
   LoggingMeterConfig(final Builder builder) {
     emitInterval = builder.emitInterval;
     enabled = builder.enabled;
+    percentiles = builder.percentiles.clone();
   }
 
   /**
@@ -73,6 +84,16 @@ public class LoggingMeterConfig {
     return builder().enabled(enabled);
   }
 
+  /**
+   * Allows to customize the latency percentiles which are emitted.
+   *
+   * @param percentiles the percentiles to use (i.e. 99.9).
+   * @return this builder for chaining.
+   */
+  public static Builder percentiles(final double... percentiles) {
+    return builder().percentiles(percentiles);
+  }
+
   public Duration emitInterval() {
     return emitInterval;
   }
@@ -81,12 +102,20 @@ public class LoggingMeterConfig {
     return enabled;
   }
 
+  /**
+   * Returns the latency percentiles which are emitted, in ascending order.
+   */
+  public double[] percentiles() {
+    return percentiles.clone();
+  }
+
   @Stability.Volatile
   Map<String, Object> exportAsMap() {
     Map<String, Object> export = new LinkedHashMap<>();
 
     export.put("enabled", enabled);
     export.put("emitIntervalMs", emitInterval.toMillis());
+    export.put("percentiles", Arrays.toString(percentiles));
 
     return export;
   }
@@ -95,6 +124,7 @@ public class LoggingMeterConfig {
 
     private Duration emitInterval = Defaults.DEFAULT_EMIT_INTERVAL;
     private boolean enabled = Defaults.DEFAULT_ENABLED;
+    private double[] percentiles = Defaults.defaultPercentiles();
 
     /**
      * Allows to customize the emit interval
@@ -116,6 +146,27 @@ public class LoggingMeterConfig {
       return this;
     }
 
+    /**
+     * Allows to customize the latency percentiles which are emitted.
+     *
+     * @param percentiles the percentiles to use (i.e. 99.9), each between 0 (exclusive) and 100 (inclusive).
+     * @return this builder for chaining.
+     */
+    public Builder percentiles(final double... percentiles) {
+      if (percentiles == null || percentiles.length == 0) {
+        throw InvalidArgumentException.fromMessage("At least one percentile must be provided");
+      }
+      for (double percentile : percentiles) {
+        if (percentile <= 0 || percentile > 100) {
+          throw InvalidArgumentException.fromMessage("Percentiles must be between 0 (exclusive) and 100 (inclusive)");
+        }
+      }
+      double[] sorted = percentiles.clone();
+      Arrays.sort(sorted);
+      this.percentiles = sorted;
+      return this;
+    }
+
     public LoggingMeterConfig build() {
       return new LoggingMeterConfig(this);
     }
@@ -21,6 +21,7 @@ import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpRequest;
 import com.couchbase.client.core.endpoint.EndpointContext;
 import com.couchbase.client.core.io.netty.kv.SaslAuthenticationHandler;
 import com.couchbase.client.core.io.netty.kv.SaslListMechanismsHandler;
+import com.couchbase.client.core.io.netty.kv.sasl.ScramCredentialCache;
 import com.couchbase.client.core.service.ServiceType;
 
 import java.util.Base64;
@@ -45,6 +46,11 @@ public class PasswordAuthenticator implements Authenticator {
   private final Set<SaslMechanism> allowedSaslMechanisms;
   private final String cachedHttpAuthHeader;
 
+  /**
+   * Caches the keys derived from the salted password so that new connections can skip the PBKDF2 iterations.
+   */
+  private final ScramCredentialCache scramCredentialCache = new ScramCredentialCache();
+
   /**
    * Creates a new {@link Builder} which allows to customize this authenticator.
    */
@@ -110,7 +116,8 @@ public class PasswordAuthenticator implements Authenticator {
       ctx,
       username.get(),
       password.get(),
-      tls ? EnumSet.of(SaslMechanism.PLAIN) : allowedSaslMechanisms
+      tls ? EnumSet.of(SaslMechanism.PLAIN) : allowedSaslMechanisms,
+      scramCredentialCache
     ));
   }
 
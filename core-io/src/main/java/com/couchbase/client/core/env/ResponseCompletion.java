@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.env;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * Describes on which threads the response of a request is completed, and as a result on which threads the code
+ * chained onto the response (i.e. application callbacks and operators) runs.
+ */
+@Stability.Volatile
+public enum ResponseCompletion {
+
+  /**
+   * Completes the response directly on the IO thread which received it (the default).
+   * <p>
+   * This has the lowest latency, but application code chained onto the response must never block since it stalls
+   * all other connections served by the same IO thread.
+   */
+  IO_THREAD,
+
+  /**
+   * Hands the responses off to a dedicated, bounded pool of threads which completes them in batches.
+   * <p>
+   * The size of the pool can be configured through {@link IoConfig.Builder#responseCompletionPoolSize(int)}. If
+   * the pool cannot keep up, responses are completed on the IO thread instead of queuing up without bounds.
+   */
+  BOUNDED_POOL,
+
+  /**
+   * Completes every response on its own virtual thread, which requires Java 21 or later.
+   * <p>
+   * This isolates application callbacks which block from each other, at the cost of starting a virtual thread per
+   * response.
+   */
+  VIRTUAL_THREADS
+
+}
@@ -62,6 +62,15 @@ public class CollectionMap {
     inner.put(key, value);
   }
 
+  /**
+   * Removes the collection ID stored with the given identifier.
+   *
+   * @param key the key to remove.
+   */
+  public void remove(final CollectionIdentifier key) {
+    inner.remove(key);
+  }
+
   /**
    * Checks if the given bucket is at all present in the map.
    *
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelDuplexHandler;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelHandlerContext;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelPromise;
+import com.couchbase.client.core.endpoint.EndpointContext;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Counts the bytes read from and written to the socket into the meter of the environment.
+ *
+ * <p>The counters are resolved once when the handler is created, so counting only adds the readable bytes of the
+ * buffers passing through. The handler is placed in front of the SSL handler (if any) so it counts the bytes
+ * actually transferred over the wire.</p>
+ *
+ * <p>Since counting is pointless without a real meter, the handler is only installed if the environment is not
+ * configured with the {@link com.couchbase.client.core.cnc.metrics.NoopMeter}.</p>
+ */
+@Stability.Internal
+public class ByteCountingHandler extends ChannelDuplexHandler {
+
+  private final Counter bytesReceived;
+  private final Counter bytesSent;
+
+  public ByteCountingHandler(final EndpointContext endpointContext) {
+    Meter meter = endpointContext.environment().meter();
+    Map<String, String> tags = Collections.singletonMap(
+      TracingIdentifiers.ATTR_SERVICE,
+      endpointContext.serviceType().ident()
+    );
+    this.bytesReceived = meter.counter(TracingIdentifiers.METER_BYTES_RECEIVED, tags);
+    this.bytesSent = meter.counter(TracingIdentifiers.METER_BYTES_SENT, tags);
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    if (msg instanceof ByteBuf) {
+      bytesReceived.incrementBy(((ByteBuf) msg).readableBytes());
+    }
+    ctx.fireChannelRead(msg);
+  }
+
+  @Override
+  public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+    if (msg instanceof ByteBuf) {
+      bytesSent.incrementBy(((ByteBuf) msg).readableBytes());
+    }
+    ctx.write(msg, promise);
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.events.io.TlsHandshakeCompletedEvent.Resumption;
+import com.couchbase.client.core.deps.io.netty.handler.ssl.SslContext;
+import com.couchbase.client.core.env.Authenticator;
+
+import javax.net.ssl.SSLSession;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the {@link SslContext SslContexts} built for the security config of one environment, one per authenticator.
+ *
+ * <p>Sharing the context across all endpoints (and their reconnects) avoids rebuilding the trust and key material
+ * for every channel. It also shares the client session cache of the context, so a reconnect to the same host and
+ * port can resume the previous TLS session instead of performing a full handshake.</p>
+ *
+ * <p>The cache also counts the handshakes performed with its contexts, split by whether they resumed the previous
+ * session to the same host and port. This is told by comparing the session id with the one last seen for the remote,
+ * which only works up to TLS 1.2 (see {@link Resumption#UNKNOWN}).</p>
+ */
+@Stability.Internal
+public class SslContextCache {
+
+  private final Map<Authenticator, SslContext> contexts = new ConcurrentHashMap<>();
+  private final Map<String, byte[]> lastSessionIds = new ConcurrentHashMap<>();
+  private final LongAdder fullHandshakes = new LongAdder();
+  private final LongAdder resumedHandshakes = new LongAdder();
+  private final LongAdder unknownHandshakes = new LongAdder();
+
+  /**
+   * Returns the cached context for the authenticator, building it with the factory if not present yet.
+   *
+   * <p>No lock is held while building, since this might be called from an event loop. If multiple callers race to
+   * build the context for the same authenticator, the first one to finish is cached and returned to all of them.
+   * Usually the context is built ahead of time when the core is created, so endpoints only need to look it up.</p>
+   *
+   * @param authenticator the authenticator which is applied to the context.
+   * @param factory builds the context if not cached yet.
+   * @return the cached or built context.
+   * @throws Exception if building the context failed, in which case nothing is cached.
+   */
+  public SslContext get(final Authenticator authenticator, final Callable<SslContext> factory) throws Exception {
+    SslContext context = contexts.get(authenticator);
+    if (context == null) {
+      final SslContext built = factory.call();
+      context = contexts.putIfAbsent(authenticator, built);
+      if (context == null) {
+        context = built;
+      }
+    }
+    return context;
+  }
+
+  /**
+   * Records a successfully completed handshake and returns if it resumed the previous session to the remote.
+   *
+   * @param remote the host and port the handshake was performed with.
+   * @param session the session negotiated by the handshake.
+   * @return whether the previous session has been resumed.
+   */
+  public Resumption recordHandshake(final String remote, final SSLSession session) {
+    final Resumption resumption = resumption(remote, session);
+    switch (resumption) {
+      case FULL:
+        fullHandshakes.increment();
+        break;
+      case RESUMED:
+        resumedHandshakes.increment();
+        break;
+      default:
+        unknownHandshakes.increment();
+    }
+    return resumption;
+  }
+
+  private Resumption resumption(final String remote, final SSLSession session) {
+    final byte[] id = session.getId();
+    if (id == null || id.length == 0 || "TLSv1.3".equals(session.getProtocol())) {
+      return Resumption.UNKNOWN;
+    }
+    final byte[] previous = lastSessionIds.put(remote, id);
+    return Arrays.equals(previous, id) ? Resumption.RESUMED : Resumption.FULL;
+  }
+
+  /**
+   * Returns the number of full handshakes completed so far.
+   */
+  public long fullHandshakes() {
+    return fullHandshakes.sum();
+  }
+
+  /**
+   * Returns the number of handshakes completed so far which resumed a previous session.
+   */
+  public long resumedHandshakes() {
+    return resumedHandshakes.sum();
+  }
+
+  /**
+   * Returns the number of handshakes completed so far for which resumption could not be detected.
+   */
+  public long unknownHandshakes() {
+    return unknownHandshakes.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "SslContextCache{" +
+      "contexts=" + contexts.size() +
+      ", fullHandshakes=" + fullHandshakes +
+      ", resumedHandshakes=" + resumedHandshakes +
+      ", unknownHandshakes=" + unknownHandshakes +
+      '}';
+  }
+
+}
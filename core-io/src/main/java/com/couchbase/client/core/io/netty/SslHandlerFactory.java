@@ -16,12 +16,16 @@
 
 package com.couchbase.client.core.io.netty;
 
+import com.couchbase.client.core.CoreContext;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.events.io.CustomTlsCiphersEnabledEvent;
+import com.couchbase.client.core.cnc.events.io.TlsHandshakeCompletedEvent;
+import com.couchbase.client.core.cnc.events.io.TlsHandshakeCompletedEvent.Resumption;
 import com.couchbase.client.core.endpoint.EndpointContext;
 import com.couchbase.client.core.env.SecurityConfig;
 import com.couchbase.client.core.deps.io.netty.buffer.ByteBufAllocator;
 import com.couchbase.client.core.deps.io.netty.handler.ssl.OpenSsl;
+import com.couchbase.client.core.deps.io.netty.handler.ssl.SslContext;
 import com.couchbase.client.core.deps.io.netty.handler.ssl.SslContextBuilder;
 import com.couchbase.client.core.deps.io.netty.handler.ssl.SslHandler;
 import com.couchbase.client.core.deps.io.netty.handler.ssl.SslProvider;
@@ -31,6 +35,7 @@ import com.couchbase.client.core.error.InvalidArgumentException;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLParameters;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -46,8 +51,73 @@ public class SslHandlerFactory {
    */
   private static final boolean OPENSSL_AVAILABLE = OpenSsl.isAvailable();
 
+  /**
+   * Creates a new {@link SslHandler} for the endpoint.
+   * <p>
+   * The underlying {@link SslContext} is built only once per authenticator and cached on the environment (usually
+   * ahead of time, see {@link #prepareSslContext(SecurityConfig, CoreContext)}), so that reconnects to the same host
+   * and port can resume the previous TLS session through the shared session cache.
+   */
   public static SslHandler get(final ByteBufAllocator allocator, final SecurityConfig config,
                                final EndpointContext endpointContext) throws Exception {
+    final SslContextCache cache = endpointContext.environment().sslContextCache();
+    final SslContext context = cache.get(endpointContext.authenticator(), () -> sslContext(config, endpointContext));
+
+    final String hostname = endpointContext.remoteSocket().hostname();
+    final int port = endpointContext.remoteSocket().port();
+    final SslHandler sslHandler = context.newHandler(allocator, hostname, port);
+
+    SSLEngine sslEngine = sslHandler.engine();
+    SSLParameters sslParameters = sslEngine.getSSLParameters();
+
+    if (config.hostnameVerificationEnabled()) {
+      sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+    }
+
+    sslEngine.setSSLParameters(sslParameters);
+
+    final long handshakeStart = System.nanoTime();
+    sslHandler.handshakeFuture().addListener(future -> {
+      if (future.isSuccess()) {
+        Resumption resumption = cache.recordHandshake(hostname + ":" + port, sslEngine.getSession());
+        endpointContext.environment().eventBus().publish(new TlsHandshakeCompletedEvent(
+          Duration.ofNanos(System.nanoTime() - handshakeStart),
+          endpointContext,
+          resumption,
+          cache.fullHandshakes(),
+          cache.resumedHandshakes(),
+          cache.unknownHandshakes()
+        ));
+      }
+    });
+
+    return sslHandler;
+  }
+
+  /**
+   * Builds the shared {@link SslContext} for the core ahead of time, so that its endpoints do not need to build it
+   * on their event loops when they connect.
+   * <p>
+   * If building fails, the error is not propagated here: the endpoints try to build it again once they connect and
+   * report the failure through their usual connect error handling.
+   *
+   * @param config the security config of the environment.
+   * @param coreContext the context of the core the context is built for.
+   */
+  public static void prepareSslContext(final SecurityConfig config, final CoreContext coreContext) {
+    try {
+      final SslContextCache cache = coreContext.environment().sslContextCache();
+      cache.get(coreContext.authenticator(), () -> sslContext(config, coreContext));
+    } catch (Exception ex) {
+      // reported by the endpoints, see above.
+    }
+  }
+
+  /**
+   * Builds the shared {@link SslContext} from the security config and the authenticator of the core.
+   */
+  private static SslContext sslContext(final SecurityConfig config, final CoreContext coreContext)
+    throws Exception {
     SslContextBuilder context = sslContextBuilder(config.nativeTlsEnabled());
 
     if (config.trustManagerFactory() != null) {
@@ -59,29 +129,13 @@ public class SslHandlerFactory {
     List<String> ciphers = config.ciphers();
     if (ciphers != null  && !ciphers.isEmpty()) {
       context.ciphers(ciphers);
-      endpointContext.environment().eventBus().publish(
-        new CustomTlsCiphersEnabledEvent(ciphers, endpointContext)
+      coreContext.environment().eventBus().publish(
+        new CustomTlsCiphersEnabledEvent(ciphers, coreContext)
       );
     }
 
-    endpointContext.authenticator().applyTlsProperties(context);
-
-    final SslHandler sslHandler = context.build().newHandler(
-      allocator,
-      endpointContext.remoteSocket().hostname(),
-      endpointContext.remoteSocket().port()
-    );
-
-    SSLEngine sslEngine = sslHandler.engine();
-    SSLParameters sslParameters = sslEngine.getSSLParameters();
-
-    if (config.hostnameVerificationEnabled()) {
-      sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
-    }
-
-    sslEngine.setSSLParameters(sslParameters);
-
-    return sslHandler;
+    coreContext.authenticator().applyTlsProperties(context);
+    return context.build();
   }
 
   private static SslContextBuilder sslContextBuilder(final boolean nativeTlsEnabled) {
@@ -28,14 +28,14 @@ import com.couchbase.client.core.msg.RequestContext;
 import com.couchbase.client.core.msg.chunk.ChunkHeader;
 import com.couchbase.client.core.msg.chunk.ChunkRow;
 import com.couchbase.client.core.msg.chunk.ChunkTrailer;
-import reactor.core.publisher.EmitterProcessor;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxProcessor;
-import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.Operators;
+import reactor.core.publisher.Sinks;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -44,6 +44,12 @@ import java.util.concurrent.atomic.AtomicLong;
 public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends ChunkRow,
   T extends ChunkTrailer> implements ChunkResponseParser<H, ROW, T> {
 
+  /**
+   * The number of rows which are buffered beyond the demand of the subscriber before reading from the channel
+   * is paused.
+   */
+  static final int ROW_PREFETCH = 128;
+
   /**
    * Holds the current stream parser created by the child.
    */
@@ -64,30 +70,20 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
    */
   private boolean headerComplete;
 
-  /**
-   * Holds the current channel config.
-   */
-  private ChannelConfig channelConfig;
-
   /**
    * Holds the current associated trailer.
    */
   private MonoProcessor<T> trailer;
 
-  /**
-   * Holds the current associated rows.
-   */
-  private FluxProcessor<ROW, ROW> rows;
-
   /**
    * Holds the current associated row sink.
    */
-  private FluxSink<ROW> rowSink;
+  private Sinks.Many<ROW> rowSink;
 
   /**
-   * Holds the currently user-requested rows for backpressure handling.
+   * Holds the demand of the current row subscriber for backpressure handling.
    */
-  private final AtomicLong requested = new AtomicLong(0);
+  private RowDemand demand;
 
   /**
    * Subclass implements this to return the "meat" of the decoding, the chunk parser.
@@ -105,6 +101,9 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
     parser = null;
     decodingFailure = null;
     headerComplete = false;
+    if (demand != null) {
+      demand.completed();
+    }
     doCleanup();
   }
 
@@ -168,24 +167,31 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
   public void initialize(final ChannelConfig channelConfig) {
     cleanup();
     parser = parserBuilder().build(scratchBuffer, new CopyingStreamWindow(channelConfig.getAllocator()));
-    this.channelConfig = channelConfig;
     this.trailer = MonoProcessor.create();
-    this.requested.set(0);
-    this.rows = EmitterProcessor.create();
-    this.rowSink = this.rows
-      .sink(FluxSink.OverflowStrategy.BUFFER)
-      .onRequest(v -> {
-        requested.addAndGet(v);
-        if (!channelConfig.isAutoRead()) {
-          channelConfig.setAutoRead(true);
-        }
-      })
-      .onDispose(() -> channelConfig.setAutoRead(true));
+    this.rowSink = Sinks.many().unicast().onBackpressureBuffer();
+    this.demand = new RowDemand(channelConfig);
   }
 
+  /**
+   * Returns the rows, which can only be subscribed to once.
+   *
+   * <p>Only the demand of the first subscriber drives the backpressure, every further subscriber is failed by the
+   * sink with an {@link IllegalStateException}.</p>
+   */
   @Override
   public Flux<ROW> rows() {
-    return rows;
+    final RowDemand demand = this.demand;
+    final Sinks.Many<ROW> rowSink = this.rowSink;
+    return Flux.defer(() -> {
+      if (!demand.claim()) {
+        return rowSink.asFlux();
+      }
+      return rowSink
+        .asFlux()
+        .doOnSubscribe(s -> demand.subscribed())
+        .doOnRequest(demand::request)
+        .doOnCancel(demand::cancel);
+    });
   }
 
   @Override
@@ -226,17 +232,16 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
    * Emits a single row into the rows flux.
    *
    * <p>Note that this method also handles the backpressure stalling side. If we find that someone
-   * is subscribed to this flux but has not requested any further rows, the channel auto-read
-   * is going to be paused until further rows are requested or the subscriber unsubscribes.</p>
+   * is subscribed to this flux and more than {@link #ROW_PREFETCH} rows are buffered beyond what it
+   * requested, the channel auto-read is going to be paused until further rows are requested or the
+   * subscriber unsubscribes.</p>
    *
    * @param row the row to emit.
    */
   protected void emitRow(final ROW row) {
-    rowSink.next(row);
-    requested.decrementAndGet();
-    if (requested.get() <= 0 && channelConfig.isAutoRead() && rows.downstreamCount() > 0) {
-      channelConfig.setAutoRead(false);
-    }
+    // fails only if the subscriber cancelled, in which case the row is dropped on purpose
+    rowSink.tryEmitNext(row);
+    demand.emitted();
   }
 
   /**
@@ -245,14 +250,16 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
    * @param t the throwable with which to fail the rows.
    */
   protected void failRows(Throwable t) {
-    rowSink.error(t);
+    demand.completed();
+    rowSink.tryEmitError(t);
   }
 
   /**
    * Completes the row flux.
    */
   protected void completeRows() {
-    rowSink.complete();
+    demand.completed();
+    rowSink.tryEmitComplete();
   }
 
   /**
@@ -272,4 +279,75 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
     this.trailer.onComplete();
   }
 
+  /**
+   * Tracks the rows requested by the subscriber against the rows emitted for a single response and toggles the
+   * channel auto-read accordingly.
+   *
+   * <p>Rows are emitted from the event loop while the subscriber requests more from any thread, so after pausing
+   * the demand is checked again to not miss a request which raced with it. As long as nobody subscribed to the
+   * rows, reading is not paused, since the caller might only be interested in the trailer.</p>
+   */
+  private static class RowDemand {
+
+    private final ChannelConfig channelConfig;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private volatile boolean subscribed;
+    private volatile boolean cancelled;
+    private volatile boolean completed;
+
+    RowDemand(final ChannelConfig channelConfig) {
+      this.channelConfig = channelConfig;
+    }
+
+    /**
+     * Returns true only for the first subscriber, which is the one whose demand is tracked.
+     */
+    boolean claim() {
+      return claimed.compareAndSet(false, true);
+    }
+
+    void subscribed() {
+      subscribed = true;
+    }
+
+    void emitted() {
+      long buffered = emitted.incrementAndGet() - requested.get();
+      if (buffered >= ROW_PREFETCH && subscribed && !cancelled && !completed && channelConfig.isAutoRead()) {
+        channelConfig.setAutoRead(false);
+        maybeResume();
+      }
+    }
+
+    void request(final long n) {
+      requested.accumulateAndGet(n, Operators::addCap);
+      maybeResume();
+    }
+
+    void cancel() {
+      cancelled = true;
+      maybeResume();
+    }
+
+    /**
+     * Marks the response as done, which always resumes reading so the channel can be reused.
+     */
+    void completed() {
+      completed = true;
+      if (!channelConfig.isAutoRead()) {
+        channelConfig.setAutoRead(true);
+      }
+    }
+
+    private void maybeResume() {
+      if (completed || channelConfig.isAutoRead()) {
+        return;
+      }
+      if (cancelled || emitted.get() - requested.get() < ROW_PREFETCH) {
+        channelConfig.setAutoRead(true);
+      }
+    }
+  }
+
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty.kv;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.msg.Response;
+import com.couchbase.client.core.msg.kv.KeyValueRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tracks all in-flight KV requests of a single channel, keyed by their opaque.
+ *
+ * <p>Every slot holds the request itself, the (primitive) dispatch timestamp and the optional dispatch span, so
+ * that writing and completing a request only needs a single lookup each and no boxing. The table uses open
+ * addressing with linear probing and backward-shift deletion, which means the backing arrays are reused for the
+ * lifetime of the channel and only grow if more requests are outstanding than ever before.</p>
+ *
+ * <p>Note that this class is not thread safe and must only be accessed from the event loop owning the channel.</p>
+ */
+final class InFlightRequestTable {
+
+  /**
+   * Returned from {@link #slotOf(int)} if no request is stored for the given opaque.
+   */
+  static final int NOT_FOUND = -1;
+
+  /**
+   * The default number of slots if none is provided.
+   */
+  static final int DEFAULT_INITIAL_CAPACITY = 64;
+
+  private int[] opaques;
+  private KeyValueRequest<Response>[] requests;
+  private long[] dispatchTimings;
+  private RequestSpan[] dispatchSpans;
+  private int mask;
+  private int size;
+
+  InFlightRequestTable() {
+    this(DEFAULT_INITIAL_CAPACITY);
+  }
+
+  InFlightRequestTable(final int initialCapacity) {
+    allocate(capacityFor(initialCapacity));
+  }
+
+  /**
+   * Stores the request for the given opaque and returns the slot it has been placed into.
+   *
+   * <p>The returned slot can be used to attach dispatch information via {@link #dispatched(int, long, RequestSpan)}
+   * as long as the table is not modified in-between.</p>
+   *
+   * @param opaque the opaque of the request.
+   * @param request the request to store.
+   * @return the slot where the request is stored.
+   */
+  int put(final int opaque, final KeyValueRequest<Response> request) {
+    if ((size + 1) << 1 > opaques.length) {
+      resize(opaques.length << 1);
+    }
+
+    int slot = hash(opaque) & mask;
+    while (requests[slot] != null) {
+      if (opaques[slot] == opaque) {
+        requests[slot] = request;
+        dispatchTimings[slot] = 0;
+        dispatchSpans[slot] = null;
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    opaques[slot] = opaque;
+    requests[slot] = request;
+    size++;
+    return slot;
+  }
+
+  /**
+   * Attaches the dispatch timestamp and the (optional) dispatch span to an already stored request.
+   *
+   * @param slot the slot as returned by {@link #put(int, KeyValueRequest)}.
+   * @param dispatchTiming the dispatch timestamp in nanoseconds.
+   * @param dispatchSpan the dispatch span, can be null.
+   */
+  void dispatched(final int slot, final long dispatchTiming, final RequestSpan dispatchSpan) {
+    dispatchTimings[slot] = dispatchTiming;
+    dispatchSpans[slot] = dispatchSpan;
+  }
+
+  /**
+   * Returns the slot for the given opaque, or {@link #NOT_FOUND} if not present.
+   *
+   * @param opaque the opaque to look up.
+   * @return the slot or {@link #NOT_FOUND}.
+   */
+  int slotOf(final int opaque) {
+    int slot = hash(opaque) & mask;
+    while (requests[slot] != null) {
+      if (opaques[slot] == opaque) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return NOT_FOUND;
+  }
+
+  KeyValueRequest<Response> request(final int slot) {
+    return requests[slot];
+  }
+
+  long dispatchTiming(final int slot) {
+    return dispatchTimings[slot];
+  }
+
+  RequestSpan dispatchSpan(final int slot) {
+    return dispatchSpans[slot];
+  }
+
+  /**
+   * Removes the request for the given opaque if present.
+   *
+   * @param opaque the opaque to remove.
+   * @return the removed request, or null if not present.
+   */
+  KeyValueRequest<Response> remove(final int opaque) {
+    int slot = slotOf(opaque);
+    if (slot == NOT_FOUND) {
+      return null;
+    }
+    KeyValueRequest<Response> request = requests[slot];
+    removeAt(slot);
+    return request;
+  }
+
+  /**
+   * Clears the given slot and shifts back all entries of the probe sequence so that no tombstones are needed.
+   *
+   * @param slot the slot to clear.
+   */
+  void removeAt(int slot) {
+    size--;
+    int next = (slot + 1) & mask;
+    while (requests[next] != null) {
+      int ideal = hash(opaques[next]) & mask;
+      // move the entry back if its ideal slot is not cyclically within (slot, next]
+      if (((next - ideal) & mask) >= ((next - slot) & mask)) {
+        opaques[slot] = opaques[next];
+        requests[slot] = requests[next];
+        dispatchTimings[slot] = dispatchTimings[next];
+        dispatchSpans[slot] = dispatchSpans[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    requests[slot] = null;
+    dispatchSpans[slot] = null;
+    dispatchTimings[slot] = 0;
+  }
+
+  /**
+   * Returns a snapshot of all requests currently stored.
+   */
+  List<KeyValueRequest<Response>> requests() {
+    List<KeyValueRequest<Response>> result = new ArrayList<>(size);
+    for (KeyValueRequest<Response> request : requests) {
+      if (request != null) {
+        result.add(request);
+      }
+    }
+    return result;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all requests, but keeps the backing arrays around for reuse.
+   */
+  void clear() {
+    Arrays.fill(requests, null);
+    Arrays.fill(dispatchSpans, null);
+    Arrays.fill(dispatchTimings, 0);
+    size = 0;
+  }
+
+  /**
+   * Opaques are usually sequential, so they are spread with a multiplicative hash to avoid long probe chains.
+   */
+  private static int hash(final int opaque) {
+    int h = opaque * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static int capacityFor(final int expected) {
+    int capacity = Integer.highestOneBit(Math.max(expected, 2) - 1) << 1;
+    return Math.max(capacity, 4);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void allocate(final int capacity) {
+    opaques = new int[capacity];
+    requests = (KeyValueRequest<Response>[]) new KeyValueRequest[capacity];
+    dispatchTimings = new long[capacity];
+    dispatchSpans = new RequestSpan[capacity];
+    mask = capacity - 1;
+    size = 0;
+  }
+
+  private void resize(final int newCapacity) {
+    int[] oldOpaques = opaques;
+    KeyValueRequest<Response>[] oldRequests = requests;
+    long[] oldTimings = dispatchTimings;
+    RequestSpan[] oldSpans = dispatchSpans;
+
+    allocate(newCapacity);
+    for (int i = 0; i < oldRequests.length; i++) {
+      if (oldRequests[i] != null) {
+        int slot = hash(oldOpaques[i]) & mask;
+        while (requests[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        opaques[slot] = oldOpaques[i];
+        requests[slot] = oldRequests[i];
+        dispatchTimings[slot] = oldTimings[i];
+        dispatchSpans[slot] = oldSpans[i];
+        size++;
+      }
+    }
+  }
+
+}
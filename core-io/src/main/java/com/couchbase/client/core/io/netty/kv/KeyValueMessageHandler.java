@@ -30,15 +30,13 @@ import com.couchbase.client.core.cnc.events.io.UnknownResponseStatusReceivedEven
 import com.couchbase.client.core.cnc.events.io.UnsupportedResponseTypeReceivedEvent;
 import com.couchbase.client.core.config.ConfigurationProvider;
 import com.couchbase.client.core.config.MemcachedBucketConfig;
-import com.couchbase.client.core.config.ProposedBucketConfigContext;
+import com.couchbase.client.core.config.ProposedGlobalConfigContext;
 import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
 import com.couchbase.client.core.deps.io.netty.buffer.ByteBufUtil;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelDuplexHandler;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelHandlerContext;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelPromise;
 import com.couchbase.client.core.deps.io.netty.util.ReferenceCountUtil;
-import com.couchbase.client.core.deps.io.netty.util.collection.IntObjectHashMap;
-import com.couchbase.client.core.deps.io.netty.util.collection.IntObjectMap;
 import com.couchbase.client.core.endpoint.BaseEndpoint;
 import com.couchbase.client.core.endpoint.EndpointContext;
 import com.couchbase.client.core.env.CompressionConfig;
@@ -64,6 +62,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -94,19 +93,9 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
   private final EndpointContext endpointContext;
 
   /**
-   * Holds all outstanding requests based on their opaque.
+   * Holds all outstanding requests, their dispatch timings and spans based on their opaque.
    */
-  private final IntObjectMap<KeyValueRequest<Response>> writtenRequests;
-
-  /**
-   * Holds all outstanding requests based on their opaque.
-   */
-  private final IntObjectMap<RequestSpan> writtenRequestDispatchSpans;
-
-  /**
-   * Holds the start timestamps for the outstanding dispatched requests.
-   */
-  private final IntObjectMap<Long> writtenRequestDispatchTimings;
+  private final InFlightRequestTable writtenRequests;
 
   /**
    * The compression config used for this handler.
@@ -143,6 +132,11 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
    */
   private ErrorMap errorMap;
 
+  /**
+   * True if the server pushes cluster map change notifications on this channel.
+   */
+  private boolean clusterMapNotifications;
+
   /**
    * Creates a new {@link KeyValueMessageHandler}.
    *
@@ -152,9 +146,7 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
                                 final Optional<String> bucketName) {
     this.endpoint = endpoint;
     this.endpointContext = endpointContext;
-    this.writtenRequests = new IntObjectHashMap<>();
-    this.writtenRequestDispatchTimings = new IntObjectHashMap<>();
-    this.writtenRequestDispatchSpans = new IntObjectHashMap<>();
+    this.writtenRequests = new InFlightRequestTable();
     this.compressionConfig = endpointContext.environment().compressionConfig();
     this.eventBus = endpointContext.environment().eventBus();
     this.bucketName = bucketName;
@@ -209,6 +201,13 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
       preserveTtl
     );
 
+    clusterMapNotifications = bucketName.isPresent()
+      && features != null
+      && features.contains(ServerFeature.CLUSTERMAP_CHANGE_NOTIFICATION);
+    if (clusterMapNotifications) {
+      ioContext.core().configurationProvider().clusterMapNotificationsActive(bucketName.get());
+    }
+
     ctx.fireChannelActive();
   }
 
@@ -219,12 +218,13 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
       KeyValueRequest<Response> request = (KeyValueRequest<Response>) msg;
 
       int opaque = request.opaque();
-      writtenRequests.put(opaque, request);
+      int slot = writtenRequests.put(opaque, request);
       try {
         ctx.write(request.encode(ctx.alloc(), opaque, channelContext), promise);
-        writtenRequestDispatchTimings.put(opaque, (Long) System.nanoTime());
+        long dispatchTiming = System.nanoTime();
+        RequestSpan dispatchSpan = null;
         if (request.requestSpan() != null) {
-          RequestSpan dispatchSpan = endpointContext
+          dispatchSpan = endpointContext
             .environment()
             .requestTracer()
             .requestSpan(TracingIdentifiers.SPAN_DISPATCH, request.requestSpan());
@@ -239,9 +239,8 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
             null
           );
           setNumericOperationId(dispatchSpan, request.opaque());
-
-          writtenRequestDispatchSpans.put(opaque, dispatchSpan);
         }
+        writtenRequests.dispatched(slot, dispatchTiming, dispatchSpan);
 
       } catch (Throwable err) {
         writtenRequests.remove(opaque);
@@ -271,6 +270,16 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
 
   @Override
   public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+    if (msg instanceof ByteBuf && MemcacheProtocol.isServerRequest((ByteBuf) msg)) {
+      // server requests do not belong to any outstanding request, so they must not count as a completion.
+      try {
+        handleServerRequest((ByteBuf) msg);
+      } finally {
+        ReferenceCountUtil.release(msg);
+      }
+      return;
+    }
+
     try {
       if (msg instanceof ByteBuf) {
         decode(ctx, (ByteBuf) msg);
@@ -290,12 +299,43 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
 
   @Override
   public void channelInactive(final ChannelHandlerContext ctx) {
-    for (KeyValueRequest<Response> request : writtenRequests.values()) {
+    for (KeyValueRequest<Response> request : writtenRequests.requests()) {
       RetryOrchestrator.maybeRetry(ioContext, request, RetryReason.CHANNEL_CLOSED_WHILE_IN_FLIGHT);
     }
+    if (clusterMapNotifications) {
+      clusterMapNotifications = false;
+      ioContext.core().configurationProvider().clusterMapNotificationsInactive(bucketName.get());
+    }
     ctx.fireChannelInactive();
   }
 
+  /**
+   * Handles a request which has been initiated by the server (only sent if duplex mode is negotiated).
+   *
+   * <p>At the moment only cluster map change notifications are handled, which carry the bucket name as the key
+   * and the new config as the body. They do not need to be acknowledged, and all other server requests are
+   * ignored.</p>
+   *
+   * @param request the server request to handle.
+   */
+  private void handleServerRequest(final ByteBuf request) {
+    if (MemcacheProtocol.opcode(request) != MemcacheProtocol.ServerOpcode.CLUSTERMAP_CHANGE_NOTIFICATION.opcode()) {
+      return;
+    }
+
+    final String origin = endpointContext.remoteSocket().hostname();
+    final Optional<String> bucket = MemcacheProtocol.keyAsString(request);
+    ConfigurationProvider provider = ioContext.core().configurationProvider();
+    if (bucket.isPresent()) {
+      body(request).ifPresent(c -> provider.proposeBucketConfig(bucket.get(), c, origin));
+    } else {
+      body(request)
+        .map(b -> b.toString(UTF_8).trim())
+        .filter(c -> c.startsWith("{"))
+        .ifPresent(c -> provider.proposeGlobalConfig(new ProposedGlobalConfigContext(c, origin)));
+    }
+  }
+
   /**
    * Main method to start dispatching the decode.
    *
@@ -304,20 +344,22 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
    */
   private void decode(final ChannelHandlerContext ctx, final ByteBuf response) {
     int opaque = MemcacheProtocol.opaque(response);
-    KeyValueRequest<Response> request = writtenRequests.remove(opaque);
+    int slot = writtenRequests.slotOf(opaque);
 
-    if (request == null) {
+    if (slot == InFlightRequestTable.NOT_FOUND) {
       handleUnknownResponseReceived(ctx, response);
       return;
     }
 
+    KeyValueRequest<Response> request = writtenRequests.request(slot);
+    long start = writtenRequests.dispatchTiming(slot);
+    RequestSpan dispatchSpan = writtenRequests.dispatchSpan(slot);
+    writtenRequests.removeAt(slot);
+
     long serverTime = MemcacheProtocol.parseServerDurationFromResponse(response);
     request.context().serverLatency(serverTime);
-
-    long start = writtenRequestDispatchTimings.remove(opaque);
     request.context().dispatchLatency(System.nanoTime() - start);
 
-    RequestSpan dispatchSpan = writtenRequestDispatchSpans.remove(opaque);
     if (dispatchSpan != null) {
       TracingUtils.setServerDurationAttribute(dispatchSpan, serverTime);
       dispatchSpan.end();
@@ -490,14 +532,19 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
     eventBus.publish(new NotMyVbucketReceivedEvent(ioContext, request.partition()));
 
     final String origin = request.context().lastDispatchedTo() != null ? request.context().lastDispatchedTo().hostname() : null;
-    RetryOrchestrator.maybeRetry(ioContext, request, RetryReason.KV_NOT_MY_VBUCKET);
 
-    body(response)
-      .map(b -> b.toString(UTF_8).trim())
-      .filter(c -> c.startsWith("{"))
-      .ifPresent(c -> ioContext.core().configurationProvider().proposeBucketConfig(
-        new ProposedBucketConfigContext(request.bucket(), c, origin)
-      ));
+    // the provider checks the revision before decoding, since during a rebalance most of them carry the same config.
+    // Since a newer config is applied asynchronously, the retry waits for it so it is not routed with the old one.
+    final Optional<CompletableFuture<Void>> applied = body(response).map(c ->
+      ioContext.core().configurationProvider().proposeBucketConfig(request.bucket(), c, origin)
+    );
+    if (applied.isPresent() && !applied.get().isDone()) {
+      applied.get().whenComplete((v, t) ->
+        RetryOrchestrator.maybeRetry(ioContext, request, RetryReason.KV_NOT_MY_VBUCKET)
+      );
+    } else {
+      RetryOrchestrator.maybeRetry(ioContext, request, RetryReason.KV_NOT_MY_VBUCKET);
+    }
   }
 
   /**
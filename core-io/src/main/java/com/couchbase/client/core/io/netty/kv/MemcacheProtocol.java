@@ -53,6 +53,8 @@ import com.couchbase.client.core.msg.kv.SubDocumentOpResponseStatus;
 import java.time.Duration;
 import java.util.Optional;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * The {@link MemcacheProtocol} class holds static helpers that deal with the encoding
  * and decoding as well as access of the memcache binary protocol.
@@ -128,6 +130,11 @@ public enum MemcacheProtocol {
    */
   public static final byte FRAMING_EXTRAS_TRACING = 0x00;
 
+  /**
+   * Request bodies of at least this size are not copied into the request frame but added as a separate component.
+   */
+  static final int COMPOSITE_BODY_THRESHOLD = 1024;
+
   /**
    * Create a flexible memcached protocol request with all fields necessary.
    */
@@ -142,9 +149,10 @@ public enum MemcacheProtocol {
     int keySize = key.readableBytes();
     int extrasSize = extras.readableBytes();
     int framingExtrasSize = framingExtras.readableBytes();
-    int totalBodySize = framingExtrasSize + extrasSize + keySize + body.readableBytes();
-    return alloc
-      .buffer(HEADER_SIZE + totalBodySize)
+    int bodySize = body.readableBytes();
+    int totalBodySize = framingExtrasSize + extrasSize + keySize + bodySize;
+    ByteBuf header = alloc
+      .buffer(HEADER_SIZE + totalBodySize - (copyBody(bodySize) ? 0 : bodySize))
       .writeByte(Magic.FLEXIBLE_REQUEST.magic())
       .writeByte(opcode.opcode())
       .writeByte(framingExtrasSize)
@@ -157,8 +165,8 @@ public enum MemcacheProtocol {
       .writeLong(cas)
       .writeBytes(framingExtras)
       .writeBytes(extras)
-      .writeBytes(key)
-      .writeBytes(body);
+      .writeBytes(key);
+    return appendBody(alloc, header, body);
   }
 
   /**
@@ -169,9 +177,10 @@ public enum MemcacheProtocol {
                                 final ByteBuf key, final ByteBuf body) {
     int keySize = key.readableBytes();
     int extrasSize = extras.readableBytes();
-    int totalBodySize = extrasSize + keySize + body.readableBytes();
-    return alloc
-      .buffer(HEADER_SIZE + totalBodySize)
+    int bodySize = body.readableBytes();
+    int totalBodySize = extrasSize + keySize + bodySize;
+    ByteBuf header = alloc
+      .buffer(HEADER_SIZE + totalBodySize - (copyBody(bodySize) ? 0 : bodySize))
       .writeByte(Magic.REQUEST.magic())
       .writeByte(opcode.opcode())
       .writeShort(keySize)
@@ -182,8 +191,30 @@ public enum MemcacheProtocol {
       .writeInt(opaque)
       .writeLong(cas)
       .writeBytes(extras)
-      .writeBytes(key)
-      .writeBytes(body);
+      .writeBytes(key);
+    return appendBody(alloc, header, body);
+  }
+
+  /**
+   * Checks if a request body of the given size should be copied into the same buffer as the header.
+   */
+  private static boolean copyBody(final int bodySize) {
+    return bodySize < COMPOSITE_BODY_THRESHOLD;
+  }
+
+  /**
+   * Appends the body to the already written header (including framing extras, extras and key).
+   *
+   * <p>Small bodies are copied, since a single contiguous buffer is cheaper to write than multiple components. Large
+   * bodies (i.e. document content) are added as a separate component of a composite buffer so that they are not
+   * copied again before being written to the socket. Since the body is retained, the caller still needs to release
+   * its own reference.</p>
+   */
+  private static ByteBuf appendBody(final ByteBufAllocator alloc, final ByteBuf header, final ByteBuf body) {
+    if (copyBody(body.readableBytes())) {
+      return header.writeBytes(body);
+    }
+    return alloc.compositeBuffer(2).addComponents(true, header, body.retain());
   }
 
   /**
@@ -416,10 +447,36 @@ public enum MemcacheProtocol {
     int bodyPlusHeader = response.getInt(TOTAL_LENGTH_OFFSET) + MemcacheProtocol.HEADER_SIZE;
 
     return
-      (magic == Magic.RESPONSE.magic() || magic == Magic.FLEXIBLE_RESPONSE.magic())
+      (magic == Magic.RESPONSE.magic() || magic == Magic.FLEXIBLE_RESPONSE.magic()
+        || magic == Magic.SERVER_REQUEST.magic())
       && readableBytes == bodyPlusHeader;
   }
 
+  /**
+   * Checks if the given message is a request initiated by the server (only sent if duplex mode is negotiated).
+   *
+   * @param message the message to check.
+   * @return true if it is a server request.
+   */
+  static boolean isServerRequest(final ByteBuf message) {
+    return message.getByte(MAGIC_OFFSET) == Magic.SERVER_REQUEST.magic();
+  }
+
+  /**
+   * Returns the key of a (non-flexible) message as a string if present.
+   *
+   * @param message the message to extract the key from.
+   * @return the key if set, empty otherwise.
+   */
+  static Optional<String> keyAsString(final ByteBuf message) {
+    int keyLength = message.getShort(2) & 0xFFFF;
+    if (keyLength == 0) {
+      return Optional.empty();
+    }
+    byte extrasLength = message.getByte(4);
+    return Optional.of(message.toString(MemcacheProtocol.HEADER_SIZE + extrasLength, keyLength, UTF_8));
+  }
+
   /**
    * Helper to express no key is used for this message.
    */
@@ -787,16 +844,30 @@ public enum MemcacheProtocol {
   /**
    * Try to compress the input, but if it is below the min ratio then it will return null.
    *
+   * <p>The input is compressed straight into a (pooled) buffer of the given allocator, so no intermediate array
+   * is needed. If the compressed result is not used, the buffer is released right away.</p>
+   *
+   * @param alloc the allocator for the compressed buffer.
    * @param input the input array.
    * @param minRatio the minimum ratio to accept and return the buffer.
    * @return a {@link ByteBuf} if compressed, or null if below the min ratio.
    */
-  public static ByteBuf tryCompression(byte[] input, double minRatio) {
-    byte[] compressed = Snappy.compress(input);
-    if (((double) compressed.length / input.length) > minRatio) {
-      return null;
+  public static ByteBuf tryCompression(final ByteBufAllocator alloc, final byte[] input, final double minRatio) {
+    ByteBuf compressed = alloc.heapBuffer(Snappy.maxCompressedLength(input.length));
+    try {
+      int writerIndex = compressed.writerIndex();
+      int compressedLength = Snappy.compress(
+        input, 0, input.length, compressed.array(), compressed.arrayOffset() + writerIndex
+      );
+      if (((double) compressedLength / input.length) > minRatio) {
+        compressed.release();
+        return null;
+      }
+      return compressed.writerIndex(writerIndex + compressedLength);
+    } catch (RuntimeException ex) {
+      compressed.release();
+      throw ex;
     }
-    return Unpooled.wrappedBuffer(compressed);
   }
 
   /**
@@ -810,12 +881,22 @@ public enum MemcacheProtocol {
    * @return the byte array, either decoded or the input straight.
    */
   public static byte[] tryDecompression(byte[] input, byte datatype) {
-    if ((datatype & Datatype.SNAPPY.datatype()) == Datatype.SNAPPY.datatype()) {
+    if (isCompressed(datatype)) {
       return Snappy.uncompress(input, 0, input.length);
     }
     return input;
   }
 
+  /**
+   * Checks if the datatype has the snappy flag enabled.
+   *
+   * @param datatype the datatype for the response.
+   * @return true if the content is snappy compressed.
+   */
+  public static boolean isCompressed(byte datatype) {
+    return (datatype & Datatype.SNAPPY.datatype()) == Datatype.SNAPPY.datatype();
+  }
+
   /**
    * Helper method during development and debugging to dump the raw message as a
    * verbose string.
@@ -876,7 +957,9 @@ public enum MemcacheProtocol {
     REQUEST((byte) 0x80),
     RESPONSE((byte) 0x81),
     FLEXIBLE_REQUEST((byte) 0x08),
-    FLEXIBLE_RESPONSE((byte) 0x18);
+    FLEXIBLE_RESPONSE((byte) 0x18),
+    SERVER_REQUEST((byte) 0x82),
+    SERVER_RESPONSE((byte) 0x83);
 
     private final byte magic;
 
@@ -903,6 +986,10 @@ public enum MemcacheProtocol {
           return Magic.FLEXIBLE_REQUEST;
         case 0x18:
           return Magic.FLEXIBLE_RESPONSE;
+        case (byte) 0x82:
+          return Magic.SERVER_REQUEST;
+        case (byte) 0x83:
+          return Magic.SERVER_RESPONSE;
       }
       return null;
     }
@@ -917,6 +1004,31 @@ public enum MemcacheProtocol {
 
   }
 
+  /**
+   * Contains all known/used opcodes of requests which are initiated by the server.
+   */
+  public enum ServerOpcode {
+    /**
+     * The server notifies the client that the cluster map has changed.
+     */
+    CLUSTERMAP_CHANGE_NOTIFICATION((byte) 0x01);
+
+    private final byte opcode;
+
+    ServerOpcode(byte opcode) {
+      this.opcode = opcode;
+    }
+
+    /**
+     * Returns the opcode for the given command.
+     *
+     * @return the opcode for the command.
+     */
+    public byte opcode() {
+      return opcode;
+    }
+  }
+
   /**
    * Contains all known/used kv protocol opcodes.
    */
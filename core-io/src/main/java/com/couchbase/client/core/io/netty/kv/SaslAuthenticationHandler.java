@@ -35,6 +35,7 @@ import com.couchbase.client.core.error.AuthenticationFailureException;
 import com.couchbase.client.core.error.context.KeyValueIoErrorContext;
 import com.couchbase.client.core.io.IoContext;
 import com.couchbase.client.core.io.netty.kv.sasl.CouchbaseSaslClientFactory;
+import com.couchbase.client.core.io.netty.kv.sasl.ScramCredentialCache;
 import com.couchbase.client.core.json.Mapper;
 import com.couchbase.client.core.msg.kv.BaseKeyValueRequest;
 import com.couchbase.client.core.util.Bytes;
@@ -48,6 +49,7 @@ import javax.security.sasl.SaslClient;
 import javax.security.sasl.SaslException;
 import java.net.SocketAddress;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -102,6 +104,11 @@ public class SaslAuthenticationHandler extends ChannelDuplexHandler implements C
   private final Set<SaslMechanism> allowedMechanisms;
   private final EndpointContext endpointContext;
 
+  /**
+   * If present, caches the keys derived during SCRAM authentication across connections.
+   */
+  private final ScramCredentialCache credentialCache;
+
   /**
    * Once connected, holds the io context for more debug information.
    */
@@ -126,7 +133,14 @@ public class SaslAuthenticationHandler extends ChannelDuplexHandler implements C
 
   public SaslAuthenticationHandler(final EndpointContext endpointContext, final String username,
                                    final String password, final Set<SaslMechanism> allowedSaslMechanisms) {
+    this(endpointContext, username, password, allowedSaslMechanisms, null);
+  }
+
+  public SaslAuthenticationHandler(final EndpointContext endpointContext, final String username,
+                                   final String password, final Set<SaslMechanism> allowedSaslMechanisms,
+                                   final ScramCredentialCache credentialCache) {
     this.endpointContext = endpointContext;
+    this.credentialCache = credentialCache;
     this.username = username;
     this.password = password;
     this.allowedMechanisms = allowedSaslMechanisms;
@@ -354,7 +368,7 @@ public class SaslAuthenticationHandler extends ChannelDuplexHandler implements C
       null,
       "couchbase",
       ioContext.remoteSocket().toString(),
-      null,
+      credentialCache == null ? null : Collections.singletonMap(ScramCredentialCache.SASL_PROPERTY, credentialCache),
       this
     );
   }
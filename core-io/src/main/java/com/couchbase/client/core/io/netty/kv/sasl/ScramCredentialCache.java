@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty.kv.sasl;
+
+import com.couchbase.client.core.annotation.Stability;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A bounded cache for the keys derived from the salted password during SCRAM authentication.
+ *
+ * <p>Deriving the salted password runs thousands of HMAC iterations, but the salt and the iteration count returned
+ * by the server stay the same for a given user. Caching the derived client and server keys (keyed by mechanism,
+ * user, salt and iterations) allows subsequent connections to skip this step.</p>
+ *
+ * <p>The salted password itself is never stored. The password is only kept as an HMAC fingerprint under a random
+ * per-cache key, which is used to detect if the password has changed since the keys have been derived.</p>
+ */
+@Stability.Internal
+public class ScramCredentialCache {
+
+  /**
+   * The name of the SASL property under which the cache is passed to the {@link ScramSaslClientFactory}.
+   */
+  public static final String SASL_PROPERTY = "com.couchbase.client.core.scramCredentialCache";
+
+  /**
+   * The default maximum number of entries held.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 32;
+
+  private static final String FINGERPRINT_ALGORITHM = "HmacSHA256";
+
+  private final Map<Key, Entry> entries;
+  private final byte[] fingerprintKey;
+
+  public ScramCredentialCache() {
+    this(DEFAULT_MAX_ENTRIES);
+  }
+
+  public ScramCredentialCache(final int maxEntries) {
+    this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+    this.fingerprintKey = new byte[32];
+    new SecureRandom().nextBytes(fingerprintKey);
+  }
+
+  /**
+   * Returns the cached keys if present and derived from the same password.
+   *
+   * @return the keys (copies which can be modified by the caller) or null if not cached.
+   */
+  Keys get(final String mechanism, final String username, final byte[] salt, final int iterations,
+           final String password) {
+    final Entry entry;
+    synchronized (entries) {
+      entry = entries.get(new Key(mechanism, username, salt, iterations));
+    }
+    if (entry == null || !MessageDigest.isEqual(entry.passwordFingerprint, fingerprint(password))) {
+      return null;
+    }
+    return new Keys(entry.clientKey.clone(), entry.serverKey.clone());
+  }
+
+  /**
+   * Stores the derived keys, replacing the ones from a previous password if present.
+   */
+  void put(final String mechanism, final String username, final byte[] salt, final int iterations,
+           final String password, final byte[] clientKey, final byte[] serverKey) {
+    final Entry entry = new Entry(fingerprint(password), clientKey.clone(), serverKey.clone());
+    synchronized (entries) {
+      entries.put(new Key(mechanism, username, salt.clone(), iterations), entry);
+    }
+  }
+
+  /**
+   * Returns the number of currently cached entries.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private byte[] fingerprint(final String password) {
+    try {
+      Mac mac = Mac.getInstance(FINGERPRINT_ALGORITHM);
+      mac.init(new SecretKeySpec(fingerprintKey, FINGERPRINT_ALGORITHM));
+      return mac.doFinal(password == null ? new byte[0] : password.getBytes(UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Could not fingerprint the password", e);
+    }
+  }
+
+  /**
+   * The keys derived from the salted password.
+   */
+  static class Keys {
+    private final byte[] clientKey;
+    private final byte[] serverKey;
+
+    Keys(final byte[] clientKey, final byte[] serverKey) {
+      this.clientKey = clientKey;
+      this.serverKey = serverKey;
+    }
+
+    byte[] clientKey() {
+      return clientKey;
+    }
+
+    byte[] serverKey() {
+      return serverKey;
+    }
+  }
+
+  private static class Entry {
+    private final byte[] passwordFingerprint;
+    private final byte[] clientKey;
+    private final byte[] serverKey;
+
+    Entry(final byte[] passwordFingerprint, final byte[] clientKey, final byte[] serverKey) {
+      this.passwordFingerprint = passwordFingerprint;
+      this.clientKey = clientKey;
+      this.serverKey = serverKey;
+    }
+  }
+
+  private static class Key {
+    private final String mechanism;
+    private final String username;
+    private final byte[] salt;
+    private final int iterations;
+
+    Key(final String mechanism, final String username, final byte[] salt, final int iterations) {
+      this.mechanism = mechanism;
+      this.username = username;
+      this.salt = salt;
+      this.iterations = iterations;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return iterations == key.iterations &&
+        Objects.equals(mechanism, key.mechanism) &&
+        Objects.equals(username, key.username) &&
+        Arrays.equals(salt, key.salt);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Objects.hash(mechanism, username, iterations) + Arrays.hashCode(salt);
+    }
+  }
+
+}
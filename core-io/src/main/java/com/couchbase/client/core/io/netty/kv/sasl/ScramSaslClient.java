@@ -35,6 +35,7 @@ import java.security.Key;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
@@ -50,10 +51,13 @@ class ScramSaslClient implements SaslClient  {
   private final String hmacAlgorithm;
   private final CallbackHandler callbacks;
   private final MessageDigest digest;
+  private final ScramCredentialCache credentialCache;
 
   private String clientNonce;
+  private String username;
   private byte[] salt;
-  private byte[] saltedPassword;
+  private byte[] clientKey;
+  private byte[] serverKey;
   private int iterationCount;
   private String clientFirstMessage;
   private String clientFirstMessageBare;
@@ -64,7 +68,20 @@ class ScramSaslClient implements SaslClient  {
 
   ScramSaslClient(final ScramSaslClientFactory.Mode mode, final CallbackHandler callbackHandler)
     throws NoSuchAlgorithmException  {
+    this(mode, callbackHandler, null);
+  }
+
+  /**
+   * Creates a new client.
+   *
+   * @param mode the SCRAM mode to use.
+   * @param callbackHandler the handler for the username and password callbacks.
+   * @param credentialCache if not null, used to skip the salted password derivation on repeat authentications.
+   */
+  ScramSaslClient(final ScramSaslClientFactory.Mode mode, final CallbackHandler callbackHandler,
+                  final ScramCredentialCache credentialCache) throws NoSuchAlgorithmException  {
     callbacks = callbackHandler;
+    this.credentialCache = credentialCache;
 
     switch (mode) {
       case SCRAM_SHA512:
@@ -110,7 +127,8 @@ class ScramSaslClient implements SaslClient  {
         throw new SaslException("Initial challenge should be without input data");
       }
 
-      clientFirstMessage = "n,,n=" + getUserName() + ",r=" + clientNonce;
+      username = getUserName();
+      clientFirstMessage = "n,,n=" + username + ",r=" + clientNonce;
       clientFirstMessageBare = clientFirstMessage.substring(3);
       return clientFirstMessage.getBytes(UTF_8);
     } else if (serverFirstMessage == null) {
@@ -145,8 +163,8 @@ class ScramSaslClient implements SaslClient  {
         throw InvalidArgumentException.fromMessage("missing mandatory key in serverFirstMessage");
       }
 
-      // We have the salt, time to generate the salted password
-      generateSaltedPassword();
+      // We have the salt, time to derive the keys from the salted password
+      deriveKeys();
 
       clientFinalMessageNoProof = "c=biws,r=" + nonce;
       String client_final_message = clientFinalMessageNoProof + ",p=" + Base64.getEncoder().encodeToString(getClientProof());
@@ -300,7 +318,11 @@ class ScramSaslClient implements SaslClient  {
     }
   }
 
-  private void generateSaltedPassword() throws SaslException {
+  /**
+   * Derives the client and server keys from the salted password, or takes them from the credential cache
+   * if they have been derived for the same user, salt, iteration count and password already.
+   */
+  private void deriveKeys() throws SaslException {
     final PasswordCallback passwordCallback = new PasswordCallback("Password", false);
     try {
       callbacks.handle(new Callback[]{passwordCallback});
@@ -314,8 +336,25 @@ class ScramSaslClient implements SaslClient  {
     }
 
     String password = new String(pw);
-    saltedPassword = pbkdf2(password, salt, iterationCount);
     passwordCallback.clearPassword();
+
+    if (credentialCache != null) {
+      ScramCredentialCache.Keys keys = credentialCache.get(name, username, salt, iterationCount, password);
+      if (keys != null) {
+        clientKey = keys.clientKey();
+        serverKey = keys.serverKey();
+        return;
+      }
+    }
+
+    byte[] saltedPassword = pbkdf2(password, salt, iterationCount);
+    clientKey = hmac(saltedPassword, CLIENT_KEY);
+    serverKey = hmac(saltedPassword, SERVER_KEY);
+    Arrays.fill(saltedPassword, (byte) 0);
+
+    if (credentialCache != null) {
+      credentialCache.put(name, username, salt, iterationCount, password, clientKey, serverKey);
+    }
   }
 
   /**
@@ -326,7 +365,6 @@ class ScramSaslClient implements SaslClient  {
    * ServerSignature := HMAC(ServerKey, AuthMessage)</p>
    */
   private byte[] getServerSignature() {
-    byte[] serverKey = hmac(saltedPassword, SERVER_KEY);
     return hmac(serverKey, getAuthMessage().getBytes(UTF_8));
   }
 
@@ -343,12 +381,12 @@ class ScramSaslClient implements SaslClient  {
    * ClientProof     := ClientKey XOR ClientSignature</p>
    */
   private byte[] getClientProof() {
-    byte[] clientKey = hmac(saltedPassword, CLIENT_KEY);
     byte[] storedKey = digest.digest(clientKey);
     byte[] clientSignature = hmac(storedKey, getAuthMessage().getBytes(UTF_8));
 
-    xor(clientKey, clientSignature);
-    return clientKey;
+    byte[] clientProof = clientKey.clone();
+    xor(clientProof, clientSignature);
+    return clientProof;
   }
 
   private static void decodeAttributes(HashMap<String, String> attributes, String string) {
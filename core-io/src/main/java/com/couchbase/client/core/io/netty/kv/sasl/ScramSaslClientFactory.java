@@ -56,7 +56,12 @@ public class ScramSaslClientFactory implements SaslClientFactory {
     }
 
     try {
-      return new ScramSaslClient(mode.get(), cbh);
+      Object credentialCache = props == null ? null : props.get(ScramCredentialCache.SASL_PROPERTY);
+      return new ScramSaslClient(
+        mode.get(),
+        cbh,
+        credentialCache instanceof ScramCredentialCache ? (ScramCredentialCache) credentialCache : null
+      );
     } catch (NoSuchAlgorithmException e) {
       throw new SaslException("Selected algorithm not supported.", e);
     }
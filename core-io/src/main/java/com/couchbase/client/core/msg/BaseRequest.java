@@ -19,6 +19,7 @@ package com.couchbase.client.core.msg;
 import com.couchbase.client.core.CoreContext;
 import com.couchbase.client.core.cnc.RequestSpan;
 import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.error.AmbiguousTimeoutException;
 import com.couchbase.client.core.error.InvalidArgumentException;
 import com.couchbase.client.core.error.RequestCanceledException;
@@ -75,6 +76,11 @@ public abstract class BaseRequest<R extends Response> implements Request<R> {
    */
   private final CompletableFuture<R> response;
 
+  /**
+   * Completes the response, either directly or on a different thread.
+   */
+  private final ResponseCompleter completer;
+
   /**
    * Holds the current retry strategy in use.
    */
@@ -126,6 +132,7 @@ public abstract class BaseRequest<R extends Response> implements Request<R> {
     this.createdAt = System.nanoTime();
     this.absoluteTimeout = createdAt + timeout.toNanos();
     this.response = new CompletableFuture<>();
+    this.completer = completerFrom(ctx.environment());
     this.id = REQUEST_ID.incrementAndGet();
     this.ctx = new RequestContext(ctx, this);
     this.retryStrategy = retryStrategy == null ? ctx.environment().retryStrategy() : retryStrategy;
@@ -138,6 +145,14 @@ public abstract class BaseRequest<R extends Response> implements Request<R> {
     this.requestSpan = requestSpan;
   }
 
+  /**
+   * Returns the completer of the environment, falling back to inline completion if there is none.
+   */
+  private static ResponseCompleter completerFrom(final CoreEnvironment environment) {
+    final ResponseCompleter completer = environment == null ? null : environment.responseCompleter();
+    return completer == null ? ResponseCompleter.INLINE : completer;
+  }
+
   @Override
   public CompletableFuture<R> response() {
     return response;
@@ -146,14 +161,14 @@ public abstract class BaseRequest<R extends Response> implements Request<R> {
   @Override
   public void succeed(R result) {
     if (STATE_UPDATER.compareAndSet(this, State.INCOMPLETE, State.SUCCEEDED)) {
-      response.complete(result);
+      completer.complete(response, result);
     }
   }
 
   @Override
   public void fail(Throwable error) {
     if (STATE_UPDATER.compareAndSet(this, State.INCOMPLETE, State.FAILED)) {
-      response.completeExceptionally(error);
+      completer.completeExceptionally(response, error);
     }
   }
 
@@ -171,7 +186,7 @@ public abstract class BaseRequest<R extends Response> implements Request<R> {
         exception = new RequestCanceledException(msg, reason, ctx);
       }
 
-      response.completeExceptionally(exception);
+      completer.completeExceptionally(response, exception);
     }
   }
 
@@ -96,6 +96,17 @@ public class CancellationReason {
     return new CancellationReason("NO_MORE_RETRIES", retryReason);
   }
 
+  /**
+   * This cancellation reason indicates that the retry strategy would have retried, but the retry budget of the
+   * service or node is exhausted.
+   *
+   * @param retryReason the retry reason why it got sent into retry.
+   * @return the cancellation reason instance.
+   */
+  public static CancellationReason retryBudgetExhausted(final RetryReason retryReason) {
+    return new CancellationReason("RETRY_BUDGET_EXHAUSTED", retryReason);
+  }
+
   /**
    * If applicable, returns an inner reason for the cancellation for additional context.
    */
@@ -210,8 +210,13 @@ public class RequestContext extends CoreContext {
       span.attribute(TracingIdentifiers.ATTR_RETRIES, retryAttempts());
       span.end();
     }
+    core().countRequest(request);
     if (lastDispatchedTo() != null) {
       core().responseMetric(request).recordValue(logicalRequestLatency());
+      core().requestCompleted(request);
+      if (request.succeeded()) {
+        environment().retryBudget().deposit(request);
+      }
     }
     return this;
   }
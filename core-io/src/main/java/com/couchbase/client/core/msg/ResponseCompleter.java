@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.msg;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.io.netty.util.concurrent.DefaultThreadFactory;
+import com.couchbase.client.core.deps.org.jctools.queues.MpscArrayQueue;
+import com.couchbase.client.core.env.IoConfig;
+import com.couchbase.client.core.env.ResponseCompletion;
+import com.couchbase.client.core.error.InvalidArgumentException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Completes the response futures of {@link BaseRequest BaseRequests}, either directly on the calling thread or by
+ * handing them off to an {@link Executor}.
+ *
+ * <p>If the completion is handed off, it is guaranteed to happen at most once but not in any particular order
+ * relative to other responses. If the executor rejects the completion (i.e. because it has been shut down), the
+ * response is completed on the calling thread instead so it never gets lost.</p>
+ */
+@Stability.Internal
+public abstract class ResponseCompleter {
+
+  /**
+   * Completes every response directly on the calling thread.
+   */
+  public static final ResponseCompleter INLINE = new Inline();
+
+  /**
+   * The maximum number of responses a lane can hold before completions fall back to the calling thread.
+   */
+  static final int LANE_CAPACITY = 4096;
+
+  /**
+   * The maximum number of responses a lane completes before it yields its thread to other lanes.
+   */
+  static final int MAX_BATCH_SIZE = 256;
+
+  /**
+   * Creates the completer for the strategy configured in the given {@link IoConfig}.
+   *
+   * @param config the config which holds the strategy.
+   * @return the completer, which needs to be {@link #shutdown() shut down} once no longer used.
+   */
+  public static ResponseCompleter create(final IoConfig config) {
+    final ResponseCompletion strategy = config.responseCompletion();
+    switch (strategy) {
+      case IO_THREAD:
+        return INLINE;
+      case BOUNDED_POOL:
+        return batching(
+          Executors.newFixedThreadPool(
+            config.responseCompletionPoolSize(),
+            new DefaultThreadFactory("cb-completion", true)
+          ),
+          config.responseCompletionPoolSize()
+        );
+      case VIRTUAL_THREADS:
+        return perTask(newVirtualThreadPerTaskExecutor());
+      default:
+        throw InvalidArgumentException.fromMessage("Unsupported response completion strategy: " + strategy);
+    }
+  }
+
+  /**
+   * Creates a completer which hands responses off to the executor in batches.
+   * <p>
+   * Responses are spread over the given number of lanes, and each lane only occupies one thread of the executor at
+   * a time, no matter how many responses it holds. So the cost of the handoff is only paid once per burst of
+   * responses, and not for every single one.
+   *
+   * @param executor the executor to complete the responses on.
+   * @param numLanes the number of lanes, usually the number of threads of the executor.
+   * @return the created completer.
+   */
+  public static ResponseCompleter batching(final Executor executor, final int numLanes) {
+    if (numLanes <= 0) {
+      throw InvalidArgumentException.fromMessage("The number of lanes must be greater than 0");
+    }
+    return new Batching(executor, numLanes);
+  }
+
+  /**
+   * Creates a completer which hands every response off to the executor on its own.
+   *
+   * @param executor the executor to complete the responses on.
+   * @return the created completer.
+   */
+  public static ResponseCompleter perTask(final Executor executor) {
+    return new PerTask(executor);
+  }
+
+  /**
+   * Completes the future with the given result.
+   *
+   * @param future the future to complete.
+   * @param result the result to complete it with.
+   */
+  public abstract <T> void complete(CompletableFuture<T> future, T result);
+
+  /**
+   * Completes the future with the given error.
+   *
+   * @param future the future to complete.
+   * @param error the error to complete it with.
+   */
+  public abstract void completeExceptionally(CompletableFuture<?> future, Throwable error);
+
+  /**
+   * Shuts down the executor of this completer, if it has one which can be shut down.
+   * <p>
+   * Responses which still arrive afterwards are completed on the calling thread.
+   */
+  public void shutdown() { }
+
+  /**
+   * Uses {@code Executors.newVirtualThreadPerTaskExecutor()} through reflection, so that the SDK can still be
+   * compiled and run on older Java versions as long as virtual threads are not used.
+   */
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (Exception ex) {
+      throw InvalidArgumentException.fromMessage(
+        "Completing responses on virtual threads requires Java 21 or later",
+        ex
+      );
+    }
+  }
+
+  private static void shutdownIfPossible(final Executor executor) {
+    if (executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdown();
+    }
+  }
+
+  /**
+   * A single response which still needs to be completed.
+   */
+  private static final class Completion implements Runnable {
+
+    private final CompletableFuture<Object> future;
+    private final Object result;
+    private final Throwable error;
+
+    @SuppressWarnings("unchecked")
+    Completion(final CompletableFuture<?> future, final Object result, final Throwable error) {
+      this.future = (CompletableFuture<Object>) future;
+      this.result = result;
+      this.error = error;
+    }
+
+    @Override
+    public void run() {
+      if (error != null) {
+        future.completeExceptionally(error);
+      } else {
+        future.complete(result);
+      }
+    }
+  }
+
+  private static final class Inline extends ResponseCompleter {
+
+    @Override
+    public <T> void complete(final CompletableFuture<T> future, final T result) {
+      future.complete(result);
+    }
+
+    @Override
+    public void completeExceptionally(final CompletableFuture<?> future, final Throwable error) {
+      future.completeExceptionally(error);
+    }
+  }
+
+  private static final class PerTask extends ResponseCompleter {
+
+    private final Executor executor;
+
+    PerTask(final Executor executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public <T> void complete(final CompletableFuture<T> future, final T result) {
+      dispatch(new Completion(future, result, null));
+    }
+
+    @Override
+    public void completeExceptionally(final CompletableFuture<?> future, final Throwable error) {
+      dispatch(new Completion(future, null, error));
+    }
+
+    private void dispatch(final Completion completion) {
+      try {
+        executor.execute(completion);
+      } catch (RejectedExecutionException ex) {
+        completion.run();
+      }
+    }
+
+    @Override
+    public void shutdown() {
+      shutdownIfPossible(executor);
+    }
+  }
+
+  private static final class Batching extends ResponseCompleter {
+
+    private final Executor executor;
+    private final Lane[] lanes;
+
+    Batching(final Executor executor, final int numLanes) {
+      this.executor = executor;
+      this.lanes = new Lane[numLanes];
+      for (int i = 0; i < numLanes; i++) {
+        lanes[i] = new Lane(executor);
+      }
+    }
+
+    @Override
+    public <T> void complete(final CompletableFuture<T> future, final T result) {
+      dispatch(new Completion(future, result, null));
+    }
+
+    @Override
+    public void completeExceptionally(final CompletableFuture<?> future, final Throwable error) {
+      dispatch(new Completion(future, null, error));
+    }
+
+    private void dispatch(final Completion completion) {
+      final Lane lane = lanes.length == 1 ? lanes[0] : lanes[ThreadLocalRandom.current().nextInt(lanes.length)];
+      lane.offer(completion);
+    }
+
+    @Override
+    public void shutdown() {
+      shutdownIfPossible(executor);
+    }
+  }
+
+  /**
+   * A queue of completions which is drained by at most one thread of the executor at a time.
+   */
+  private static final class Lane implements Runnable {
+
+    private final Executor executor;
+    private final MpscArrayQueue<Completion> queue = new MpscArrayQueue<>(LANE_CAPACITY);
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    Lane(final Executor executor) {
+      this.executor = executor;
+    }
+
+    void offer(final Completion completion) {
+      if (!queue.offer(completion)) {
+        completion.run();
+        return;
+      }
+      if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+        schedule();
+      }
+    }
+
+    @Override
+    public void run() {
+      for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+        final Completion completion = queue.poll();
+        if (completion == null) {
+          break;
+        }
+        completion.run();
+      }
+
+      if (!queue.isEmpty()) {
+        schedule();
+        return;
+      }
+
+      scheduled.set(false);
+      // A completion might have been added after the queue was found empty but before the flag was cleared.
+      if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+        schedule();
+      }
+    }
+
+    private void schedule() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException ex) {
+        do {
+          Completion completion;
+          while ((completion = queue.poll()) != null) {
+            completion.run();
+          }
+          scheduled.set(false);
+        } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+      }
+    }
+  }
+
+}
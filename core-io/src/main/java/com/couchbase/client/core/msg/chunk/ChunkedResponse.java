@@ -37,6 +37,9 @@ public interface ChunkedResponse<H extends ChunkHeader, R extends ChunkRow, T ex
 
   /**
    * Returns the rows for this response, available pushed as they come streaming in.
+   * <p>
+   * Only a single subscriber is supported, since its demand controls how fast the rows are read from the
+   * network. Further subscribers are failed with an {@link IllegalStateException}.
    */
   Flux<R> rows();
 
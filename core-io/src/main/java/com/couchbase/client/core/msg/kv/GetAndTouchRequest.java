@@ -75,10 +75,11 @@ public class GetAndTouchRequest extends BaseKeyValueRequest<GetAndTouchResponse>
     ResponseStatus status = decodeStatus(response);
     long cas = cas(response);
     if (status.success()) {
+      // Decompression (if needed) is deferred until the content is accessed, to keep it off the event loop.
       byte[] bytes = bodyAsBytes(response);
-      byte[] content = bytes != null ? tryDecompression(bytes, datatype(response)) : Bytes.EMPTY_BYTE_ARRAY;
+      byte[] content = bytes != null ? bytes : Bytes.EMPTY_BYTE_ARRAY;
       int flags = extrasAsInt(response, 0, 0);
-      return new GetAndTouchResponse(status, content, cas, flags);
+      return new GetAndTouchResponse(status, content, cas, flags, bytes != null ? datatype(response) : 0);
     } else {
       return new GetAndTouchResponse(status, null, cas, 0);
     }
@@ -16,33 +16,61 @@
 
 package com.couchbase.client.core.msg.kv;
 
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.io.netty.kv.MemcacheProtocol;
 import com.couchbase.client.core.msg.BaseResponse;
 import com.couchbase.client.core.msg.ResponseStatus;
 
 /**
  * Represents the response of a {@link GetAndTouchRequest}.
+ * <p>
+ * The content is kept as received from the server. If it is snappy compressed, it is only decompressed on the
+ * first call to {@link #content()} so that this does not happen on the event loop.
  *
  * @since 2.0.0
  */
 public class GetAndTouchResponse extends BaseResponse {
 
-  private final byte[] content;
+  private final LazyDecompressedContent content;
   private final long cas;
   private final int flags;
 
-  GetAndTouchResponse(final ResponseStatus status, final byte[] content, final long cas,
-                      final int flags) {
+  GetAndTouchResponse(final ResponseStatus status, final byte[] content, final long cas, final int flags) {
+    this(status, content, cas, flags, (byte) 0);
+  }
+
+  GetAndTouchResponse(final ResponseStatus status, final byte[] encodedContent, final long cas, final int flags,
+                      final byte datatype) {
     super(status);
-    this.content = content;
+    this.content = new LazyDecompressedContent(encodedContent, datatype);
     this.cas = cas;
     this.flags = flags;
   }
 
   /**
    * Returns the content, but might be empty or null.
+   * <p>
+   * If the content has been compressed on the wire, it is decompressed (once) when this method is first called.
    */
   public byte[] content() {
-    return content;
+    return content.content();
+  }
+
+  /**
+   * Returns the content as received from the server, which might still be compressed.
+   */
+  @Stability.Internal
+  public byte[] encodedContent() {
+    return content.encoded();
+  }
+
+  /**
+   * Returns the datatype of the encoded content, to be used with
+   * {@link MemcacheProtocol#tryDecompression(byte[], byte)}.
+   */
+  @Stability.Internal
+  public byte datatype() {
+    return content.datatype();
   }
 
   /**
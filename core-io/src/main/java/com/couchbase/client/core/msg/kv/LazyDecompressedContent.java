@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.msg.kv;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.io.netty.kv.MemcacheProtocol;
+
+/**
+ * Holds document content as received from the server and decompresses it on first access if it is snappy
+ * compressed, so that this happens on the thread consuming the content rather than on the event loop.
+ */
+@Stability.Internal
+public final class LazyDecompressedContent {
+
+  private final byte[] encoded;
+  private final byte datatype;
+  private volatile byte[] decoded;
+
+  /**
+   * Creates a new holder for the content.
+   *
+   * @param encoded the content as received from the server, might be null.
+   * @param datatype the datatype of the content.
+   */
+  public LazyDecompressedContent(final byte[] encoded, final byte datatype) {
+    this.encoded = encoded;
+    this.datatype = datatype;
+    this.decoded = MemcacheProtocol.isCompressed(datatype) ? null : encoded;
+  }
+
+  /**
+   * Returns the (no longer compressed) content, decompressing it when first called if needed.
+   * <p>
+   * Concurrent first calls might decompress more than once, but all of them return equal content.
+   */
+  public byte[] content() {
+    byte[] content = decoded;
+    if (content == null && encoded != null) {
+      content = MemcacheProtocol.tryDecompression(encoded, datatype);
+      decoded = content;
+    }
+    return content;
+  }
+
+  /**
+   * Returns the content as received from the server, which might still be compressed.
+   */
+  public byte[] encoded() {
+    return encoded;
+  }
+
+  /**
+   * Returns the datatype of the content as received from the server.
+   */
+  public byte datatype() {
+    return datatype;
+  }
+
+}
@@ -35,10 +35,12 @@ import com.couchbase.client.core.msg.kv.ReplicaGetRequest;
 import com.couchbase.client.core.msg.kv.SyncDurabilityRequest;
 import com.couchbase.client.core.retry.RetryOrchestrator;
 import com.couchbase.client.core.retry.RetryReason;
+import com.couchbase.client.core.util.Crc32;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.zip.CRC32;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Objects.requireNonNull;
 
@@ -53,6 +55,60 @@ import static java.util.Objects.requireNonNull;
  */
 public class KeyValueLocator implements Locator {
 
+  /**
+   * Holds the precomputed routing table per bucket name, each one is replaced individually.
+   */
+  private final Map<String, KeyValueRoutingTable> routingTables = new ConcurrentHashMap<>();
+
+  /**
+   * Rebuilds the routing tables of all couchbase buckets whose config changed against the currently managed nodes.
+   *
+   * <p>This should be called whenever a new config is applied. Tables of buckets whose config instance did not
+   * change are kept as they are. Requests for configs without (or with an outdated) routing table still work,
+   * they just take the slower path.</p>
+   *
+   * @param config the current cluster config.
+   * @param nodes the currently managed nodes.
+   */
+  public void updateRoutingTables(final ClusterConfig config, final List<Node> nodes) {
+    Map<String, BucketConfig> bucketConfigs = config.bucketConfigs();
+    routingTables.keySet().retainAll(bucketConfigs.keySet());
+    for (BucketConfig bucketConfig : bucketConfigs.values()) {
+      if (bucketConfig instanceof CouchbaseBucketConfig) {
+        CouchbaseBucketConfig couchbaseConfig = (CouchbaseBucketConfig) bucketConfig;
+        routingTables.compute(bucketConfig.name(), (name, existing) -> existing != null
+          && existing.config() == couchbaseConfig ? existing : KeyValueRoutingTable.create(couchbaseConfig, nodes));
+      } else {
+        routingTables.remove(bucketConfig.name());
+      }
+    }
+  }
+
+  /**
+   * Rebuilds the routing tables of all buckets whose config references the given node.
+   *
+   * <p>This should be called whenever a node is added to or removed from the managed nodes. The tables are
+   * rebuilt from the config they have been built from, so that a concurrently applied newer config is not
+   * overridden.</p>
+   *
+   * @param identifier the identifier of the node which has been added or removed.
+   * @param nodes the currently managed nodes.
+   */
+  public void updateRoutingTables(final NodeIdentifier identifier, final List<Node> nodes) {
+    for (String bucket : routingTables.keySet()) {
+      routingTables.computeIfPresent(bucket, (name, existing) -> existing.references(identifier)
+        ? KeyValueRoutingTable.create(existing.config(), nodes)
+        : existing);
+    }
+  }
+
+  /**
+   * Drops all routing tables, requests take the regular path until they are rebuilt.
+   */
+  public void clearRoutingTables() {
+    routingTables.clear();
+  }
+
   @Override
   public void dispatch(final Request<? extends Response> request, final List<Node> nodes,
                        final ClusterConfig config, final CoreContext ctx) {
@@ -73,7 +129,7 @@ public class KeyValueLocator implements Locator {
       }
 
       if (bucketConfig instanceof CouchbaseBucketConfig) {
-        couchbaseBucket(r, nodes, (CouchbaseBucketConfig) bucketConfig, ctx);
+        couchbaseBucket(r, nodes, (CouchbaseBucketConfig) bucketConfig, routingTables.get(bucket), ctx);
       } else if (bucketConfig instanceof MemcachedBucketConfig) {
         memcacheBucket(r, nodes, (MemcachedBucketConfig) bucketConfig, ctx);
       } else {
@@ -125,7 +181,8 @@ public class KeyValueLocator implements Locator {
   }
 
   private static void couchbaseBucket(final KeyValueRequest<?> request, final List<Node> nodes,
-                                      final CouchbaseBucketConfig config, CoreContext ctx) {
+                                      final CouchbaseBucketConfig config, final KeyValueRoutingTable routingTable,
+                                      final CoreContext ctx) {
     if(!precheckCouchbaseBucket(request, config)) {
       return;
     }
@@ -133,6 +190,14 @@ public class KeyValueLocator implements Locator {
     int partitionId = partitionForKey(request.key(), config.numberOfPartitions());
     request.partition((short) partitionId);
 
+    if (routingTable != null && routingTable.config() == config) {
+      Node node = routingTable.node(partitionId, replicaIndex(request), useFastForward(request, config));
+      if (node != null) {
+        node.send(request);
+        return;
+      }
+    }
+
     int nodeId = calculateNodeId(partitionId, request, config);
     if (nodeId < 0) {
       RetryOrchestrator.maybeRetry(ctx, request, RetryReason.NODE_NOT_AVAILABLE);
@@ -182,19 +247,36 @@ public class KeyValueLocator implements Locator {
    */
   private static int calculateNodeId(int partitionId, final KeyValueRequest<?> request,
                                      final CouchbaseBucketConfig config) {
+    boolean useFastForward = useFastForward(request, config);
+    int replica = replicaIndex(request);
+
+    if (replica >= 0) {
+      return config.nodeIndexForReplica(partitionId, replica, useFastForward);
+    } else {
+      return config.nodeIndexForActive(partitionId, useFastForward);
+    }
+  }
 
-    // Only use the Fast-Forward node if we have a map in the first place, and more importantly,
-    // if the request at least got rejected once from a different node with a "not my vbucket"
-    // response. This prevents the client going to the newer node prematurely and potentially
-    // having the request being stuck on the server side during rebalance.
-    boolean useFastForward = config.hasFastForwardMap() && request.rejectedWithNotMyVbucket() > 0;
+  /**
+   * Only use the Fast-Forward node if we have a map in the first place, and more importantly,
+   * if the request at least got rejected once from a different node with a "not my vbucket"
+   * response. This prevents the client going to the newer node prematurely and potentially
+   * having the request being stuck on the server side during rebalance.
+   */
+  private static boolean useFastForward(final KeyValueRequest<?> request, final CouchbaseBucketConfig config) {
+    return config.hasFastForwardMap() && request.rejectedWithNotMyVbucket() > 0;
+  }
 
+  /**
+   * Returns the (0-based) replica index the request needs to be sent to, or -1 if it targets the active.
+   */
+  private static int replicaIndex(final KeyValueRequest<?> request) {
     if (request instanceof ReplicaGetRequest) {
-      return config.nodeIndexForReplica(partitionId, ((ReplicaGetRequest) request).replica() - 1, useFastForward);
+      return ((ReplicaGetRequest) request).replica() - 1;
     } else if (request instanceof ObserveViaSeqnoRequest && ((ObserveViaSeqnoRequest) request).replica() > 0) {
-      return config.nodeIndexForReplica(partitionId, ((ObserveViaSeqnoRequest) request).replica() - 1, useFastForward);
+      return ((ObserveViaSeqnoRequest) request).replica() - 1;
     } else {
-      return config.nodeIndexForActive(partitionId, useFastForward);
+      return -1;
     }
   }
 
@@ -272,9 +354,7 @@ public class KeyValueLocator implements Locator {
    * @return the calculated partition.
    */
   public static int partitionForKey(final byte[] id, final int numPartitions) {
-    CRC32 crc32 = new CRC32();
-    crc32.update(id, 0, id.length);
-    long rv = (crc32.getValue() >> 16) & 0x7fff;
+    long rv = (Crc32.crc32(id) >> 16) & 0x7fff;
     return (int) rv &numPartitions - 1;
   }
 
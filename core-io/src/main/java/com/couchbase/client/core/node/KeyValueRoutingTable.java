@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.node;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.config.CouchbaseBucketConfig;
+import com.couchbase.client.core.config.NodeInfo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot which maps every partition of a {@link CouchbaseBucketConfig} directly to the
+ * managed {@link Node} that owns it.
+ *
+ * <p>The table is built once per config (and whenever a node referenced by the config is added or removed) so that the
+ * {@link KeyValueLocator} only needs a single array access per request instead of resolving the node index
+ * and scanning the node list on every dispatch. If a partition cannot be resolved (i.e. the node is not
+ * part of the managed nodes yet) the slot is left empty and the locator falls back to the regular path.</p>
+ */
+@Stability.Internal
+public class KeyValueRoutingTable {
+
+  private final CouchbaseBucketConfig config;
+  private final Node[] active;
+  private final Node[][] replicas;
+  private final Node[] activeFastForward;
+  private final Node[][] replicasFastForward;
+
+  private KeyValueRoutingTable(final CouchbaseBucketConfig config, final Node[] active, final Node[][] replicas,
+                               final Node[] activeFastForward, final Node[][] replicasFastForward) {
+    this.config = config;
+    this.active = active;
+    this.replicas = replicas;
+    this.activeFastForward = activeFastForward;
+    this.replicasFastForward = replicasFastForward;
+  }
+
+  /**
+   * Builds a new routing table for the given config and currently managed nodes.
+   *
+   * @param config the bucket config to build the table from.
+   * @param nodes the currently managed nodes.
+   * @return the created routing table.
+   */
+  public static KeyValueRoutingTable create(final CouchbaseBucketConfig config, final List<Node> nodes) {
+    int numPartitions = config.numberOfPartitions();
+    int numReplicas = config.numberOfReplicas();
+    boolean fastForward = config.hasFastForwardMap();
+    Map<Integer, Node> resolved = new HashMap<>();
+
+    Node[] active = new Node[numPartitions];
+    Node[][] replicas = new Node[numReplicas][numPartitions];
+    Node[] activeFastForward = fastForward ? new Node[numPartitions] : null;
+    Node[][] replicasFastForward = fastForward ? new Node[numReplicas][numPartitions] : null;
+
+    for (int partition = 0; partition < numPartitions; partition++) {
+      active[partition] = resolve(config.nodeIndexForActive(partition, false), config, nodes, resolved);
+      for (int replica = 0; replica < numReplicas; replica++) {
+        replicas[replica][partition] = resolve(
+          config.nodeIndexForReplica(partition, replica, false), config, nodes, resolved
+        );
+      }
+
+      if (fastForward) {
+        activeFastForward[partition] = resolve(config.nodeIndexForActive(partition, true), config, nodes, resolved);
+        for (int replica = 0; replica < numReplicas; replica++) {
+          replicasFastForward[replica][partition] = resolve(
+            config.nodeIndexForReplica(partition, replica, true), config, nodes, resolved
+          );
+        }
+      }
+    }
+
+    return new KeyValueRoutingTable(config, active, replicas, activeFastForward, replicasFastForward);
+  }
+
+  /**
+   * Resolves the node index from the partition map into the managed node, caching the result per index.
+   */
+  private static Node resolve(final int nodeIndex, final CouchbaseBucketConfig config, final List<Node> nodes,
+                              final Map<Integer, Node> resolved) {
+    if (nodeIndex < 0) {
+      return null;
+    }
+    if (resolved.containsKey(nodeIndex)) {
+      return resolved.get(nodeIndex);
+    }
+
+    Node found = null;
+    try {
+      NodeInfo nodeInfo = config.nodeAtIndex(nodeIndex);
+      for (Node node : nodes) {
+        if (node.identifier().equals(nodeInfo.identifier())) {
+          found = node;
+          break;
+        }
+      }
+    } catch (IndexOutOfBoundsException ex) {
+      // malformed partition map, leave the slot empty and let the locator deal with it.
+    }
+    resolved.put(nodeIndex, found);
+    return found;
+  }
+
+  /**
+   * Returns the config this table has been built from.
+   */
+  public CouchbaseBucketConfig config() {
+    return config;
+  }
+
+  /**
+   * Returns true if the config of this table references the node with the given identifier.
+   *
+   * @param identifier the identifier of the node.
+   * @return true if a change of this node potentially changes the table.
+   */
+  public boolean references(final NodeIdentifier identifier) {
+    for (NodeInfo nodeInfo : config.nodes()) {
+      if (nodeInfo.identifier().equals(identifier)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the node for the given partition and replica, or null if it cannot be resolved from this table.
+   *
+   * @param partition the partition id.
+   * @param replica the replica index (0-based), or a negative number for the active.
+   * @param useFastForward if the fast forward map should be used.
+   * @return the node if resolved, null otherwise.
+   */
+  public Node node(final int partition, final int replica, final boolean useFastForward) {
+    if (partition < 0 || partition >= active.length) {
+      return null;
+    }
+
+    if (useFastForward) {
+      if (activeFastForward == null) {
+        return null;
+      }
+      if (replica < 0) {
+        return activeFastForward[partition];
+      }
+      return replica < replicasFastForward.length ? replicasFastForward[replica][partition] : null;
+    }
+
+    if (replica < 0) {
+      return active[partition];
+    }
+    return replica < replicas.length ? replicas[replica][partition] : null;
+  }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.node;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.msg.Response;
+import com.couchbase.client.core.service.ServiceType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Locator} which dispatches untargeted requests to the least loaded of two randomly picked nodes.
+ *
+ * <p>The load of a node is its exponentially weighted moving average of the dispatch latency, multiplied by the
+ * number of requests currently outstanding against the service on that node (plus one). Comparing only two random
+ * candidates ("power of two choices") avoids that all clients pile onto the same node which just happened to look
+ * best, while still steering the traffic away from slow or overloaded nodes.</p>
+ *
+ * <p>The moving average decays with time, so a single slow response is forgotten quickly. If no response has been
+ * observed from a node for a while, its latency is considered unknown again so that it gets probed and can pick up
+ * its share of the traffic once it recovered.</p>
+ */
+@Stability.Internal
+public class LoadAwareLocator extends RoundRobinLocator {
+
+  /**
+   * The time after which a latency sample has lost roughly two thirds of its weight.
+   */
+  static final long DECAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * If no response has been observed for this long, the latency of the node is considered unknown.
+   */
+  static final long STALE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  /**
+   * The lower bound for the latency of a node, also used when the latency is not known.
+   */
+  static final long MIN_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Map<NodeIdentifier, NodeLatency> latencies = new ConcurrentHashMap<>();
+
+  public LoadAwareLocator(final ServiceType serviceType) {
+    super(serviceType);
+  }
+
+  @Override
+  protected Node selectNode(final Request<? extends Response> request, final Node[] nodes) {
+    if (nodes.length == 1) {
+      return nodes[0];
+    }
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(nodes.length);
+    int second = random.nextInt(nodes.length - 1);
+    if (second >= first) {
+      second++;
+    }
+
+    long now = System.nanoTime();
+    return load(nodes[first], now) <= load(nodes[second], now) ? nodes[first] : nodes[second];
+  }
+
+  @Override
+  public void requestCompleted(final Request<? extends Response> request) {
+    RequestContext ctx = request.context();
+    NodeIdentifier node = ctx.lastDispatchedToNode();
+    long latency = ctx.dispatchLatency();
+    if (node == null || latency <= 0) {
+      return;
+    }
+    latencies.computeIfAbsent(node, k -> new NodeLatency()).record(latency, System.nanoTime());
+  }
+
+  @Override
+  protected void eligibleNodesChanged(final Node[] nodes) {
+    latencies.keySet().removeIf(identifier -> {
+      for (Node node : nodes) {
+        if (node.identifier().equals(identifier)) {
+          return false;
+        }
+      }
+      return true;
+    });
+  }
+
+  /**
+   * Calculates the load of the given node, lower is better.
+   */
+  double load(final Node node, final long now) {
+    NodeLatency latency = latencies.get(node.identifier());
+    double average = latency == null ? 0 : latency.average(now);
+    return Math.max(average, MIN_LATENCY_NANOS) * (node.outstandingRequests(serviceType()) + 1);
+  }
+
+  /**
+   * Returns the current average dispatch latency of the given node in nanoseconds, or 0 if not known.
+   */
+  double averageLatency(final NodeIdentifier node) {
+    NodeLatency latency = latencies.get(node);
+    return latency == null ? 0 : latency.average(System.nanoTime());
+  }
+
+  /**
+   * Holds the time-decayed moving average of the dispatch latency of a single node.
+   */
+  static class NodeLatency {
+
+    private volatile double average;
+    private volatile long lastRecorded;
+
+    synchronized void record(final long latency, final long now) {
+      if (lastRecorded == 0 || now - lastRecorded >= STALE_NANOS) {
+        average = latency;
+      } else {
+        double weight = Math.exp(-(double) Math.max(now - lastRecorded, 0) / DECAY_NANOS);
+        average = average * weight + latency * (1 - weight);
+      }
+      lastRecorded = now;
+    }
+
+    double average(final long now) {
+      long last = lastRecorded;
+      return last == 0 || now - last >= STALE_NANOS ? 0 : average;
+    }
+  }
+
+}
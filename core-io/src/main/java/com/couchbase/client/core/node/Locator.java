@@ -34,4 +34,15 @@ public interface Locator {
      * @param ctx the core context.
      */
     void dispatch(Request<? extends Response> request, List<Node> nodes, ClusterConfig config, CoreContext ctx);
+
+    /**
+     * Called once a request which has been dispatched through this locator is logically complete.
+     *
+     * <p>Locators which take the observed latencies into account when selecting a node can use this to update
+     * their view of the nodes. The default implementation does nothing.</p>
+     *
+     * @param request the completed request.
+     */
+    default void requestCompleted(Request<? extends Response> request) {
+    }
 }
@@ -415,6 +415,21 @@ public class Node implements Stateful<NodeState> {
     return enabledServices.get() != 0;
   }
 
+  /**
+   * Returns the number of requests currently in-flight against the given cluster-level service on this node.
+   *
+   * @param type the service type to check, must be a cluster-level service.
+   * @return the number of outstanding requests, 0 if the service is not enabled.
+   */
+  public long outstandingRequests(final ServiceType type) {
+    Map<ServiceType, Service> scope = services.get(GLOBAL_SCOPE);
+    if (scope == null) {
+      return 0;
+    }
+    Service service = scope.get(type);
+    return service == null ? 0 : service.outstandingRequests();
+  }
+
   /**
    * Helper method to create the {@link Service} based on the service type provided.
    *
@@ -431,7 +446,10 @@ public class Node implements Stateful<NodeState> {
     switch (serviceType) {
       case KV:
         return new KeyValueService(
-          KeyValueServiceConfig.endpoints(env.ioConfig().numKvConnections()).build(), ctx, address, port, bucket, authenticator);
+          KeyValueServiceConfig
+            .endpoints(env.ioConfig().numKvConnections())
+            .maxEndpoints(env.ioConfig().maxNumKvConnections())
+            .build(), ctx, address, port, bucket, authenticator);
       case MANAGER:
         return new ManagerService(ctx, address, port);
       case QUERY:
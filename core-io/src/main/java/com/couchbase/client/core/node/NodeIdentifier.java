@@ -63,7 +63,7 @@ public class NodeIdentifier {
 
   @Override
   public int hashCode() {
-    return Objects.hash(address, managerPort);
+    return 31 * Objects.hashCode(address) + managerPort;
   }
 
 }
@@ -32,7 +32,7 @@ import com.couchbase.client.core.retry.RetryOrchestrator;
 import com.couchbase.client.core.retry.RetryReason;
 import com.couchbase.client.core.service.ServiceType;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -46,6 +46,10 @@ import static java.util.Objects.requireNonNull;
  * nodes provided. The list of nodes is filtered to make sure that only nodes with the specific
  * service are taken into account.</p>
  *
+ * <p>Unless a subclass opts out through {@link #nodeEligibilityCacheable()}, the filtered nodes only depend
+ * on the managed nodes and their enabled services, so they are cached and only rebuilt once either of them
+ * changes instead of being filtered again for every request.</p>
+ *
  * @since 1.0.0
  */
 public class RoundRobinLocator implements Locator {
@@ -60,6 +64,11 @@ public class RoundRobinLocator implements Locator {
    */
   private final ServiceType serviceType;
 
+  /**
+   * The eligible nodes computed for the last seen list of nodes, null if not computed yet.
+   */
+  private volatile EligibleNodes eligibleNodes;
+
   public RoundRobinLocator(final ServiceType serviceType) {
     this(serviceType, new Random().nextInt(1024));
   }
@@ -69,6 +78,13 @@ public class RoundRobinLocator implements Locator {
     this.serviceType = serviceType;
   }
 
+  /**
+   * Returns the service type this locator dispatches to.
+   */
+  protected ServiceType serviceType() {
+    return serviceType;
+  }
+
   @Override
   public void dispatch(final Request<? extends Response> request, final List<Node> nodes,
                        final ClusterConfig config, final CoreContext ctx) {
@@ -95,8 +111,8 @@ public class RoundRobinLocator implements Locator {
       return;
     }
 
-    List<Node> filteredNodes = filterNodes(nodes, request, config);
-    if (filteredNodes.isEmpty()) {
+    Node[] filteredNodes = eligibleNodes(nodes, request, config);
+    if (filteredNodes.length == 0) {
       if (serviceShowsUpInConfig(config)) {
         // No node has the service enabled, but it shows up in the config. This is a race condition,
         // likely the node/service is currently in progress of being configured, so let's send it into
@@ -161,7 +177,7 @@ public class RoundRobinLocator implements Locator {
     return true;
   }
 
-  private void dispatchTargeted(final Request<? extends Response> request, final List<Node> nodes,
+  private void dispatchTargeted(final Request<? extends Response> request, final Node[] nodes,
                                 final CoreContext ctx) {
     for (Node n : nodes) {
       if (n.identifier().equals(request.target())) {
@@ -185,7 +201,7 @@ public class RoundRobinLocator implements Locator {
    * @param nodes the nodes list to check against.
    * @param ctx the core context.
    */
-  private static void handleTargetNotAvailable(final Request<?> request, final List<Node> nodes,
+  private static void handleTargetNotAvailable(final Request<?> request, final Node[] nodes,
                                                final CoreContext ctx) {
     NodeIdentifier target = requireNonNull(request.target());
     for (Node node : nodes) {
@@ -198,11 +214,9 @@ public class RoundRobinLocator implements Locator {
     request.cancel(CancellationReason.TARGET_NODE_REMOVED);
   }
 
-  private void dispatchUntargeted(final Request<? extends Response> request, final List<Node> nodes,
+  private void dispatchUntargeted(final Request<? extends Response> request, final Node[] nodes,
                                   final CoreContext ctx) {
-    int nodeSize = nodes.size();
-    int offset = (int) Math.floorMod(counter.getAndIncrement(), (long) nodeSize);
-    Node node = nodes.get(offset);
+    Node node = selectNode(request, nodes);
     if (node != null) {
       node.send(request);
     } else {
@@ -211,23 +225,72 @@ public class RoundRobinLocator implements Locator {
     }
   }
 
+  /**
+   * Selects the node an untargeted request is dispatched to.
+   *
+   * <p>The default implementation picks the nodes in a round-robin fashion, this method can be overridden to
+   * apply a different selection strategy.</p>
+   *
+   * @param request the request in scope.
+   * @param nodes the eligible nodes, never empty.
+   * @return the selected node.
+   */
+  protected Node selectNode(final Request<? extends Response> request, final Node[] nodes) {
+    int offset = (int) Math.floorMod(counter.getAndIncrement(), (long) nodes.length);
+    return nodes[offset];
+  }
+
+  /**
+   * Returns the nodes which can be used for the given request, either from the cache or freshly filtered.
+   *
+   * @param allNodes all nodes as a source.
+   * @param request the request in scope.
+   * @param config the cluster-level config.
+   * @return the eligible nodes.
+   */
+  private Node[] eligibleNodes(final List<Node> allNodes, final Request<? extends Response> request,
+                               final ClusterConfig config) {
+    if (!nodeEligibilityCacheable()) {
+      return filterNodes(allNodes, request, config);
+    }
+
+    EligibleNodes cached = eligibleNodes;
+    if (cached == null || !cached.matches(allNodes, serviceType)) {
+      cached = new EligibleNodes(allNodes, serviceType);
+      eligibleNodes = cached;
+      eligibleNodesChanged(cached.eligible);
+    }
+    return cached.eligible;
+  }
+
   /**
    * Filters the list of nodes by the {@link ServiceType}.
    *
    * @param allNodes all nodes as a source.
    * @param request the request in scope.
    * @param config the cluster-level config.
-   * @return the list of filtered nodes.
+   * @return the filtered nodes.
    */
-  private List<Node> filterNodes(final List<Node> allNodes, final Request<? extends Response> request,
-                                 final ClusterConfig config) {
-    List<Node> result = new ArrayList<>(allNodes.size());
+  private Node[] filterNodes(final List<Node> allNodes, final Request<? extends Response> request,
+                             final ClusterConfig config) {
+    Node[] result = new Node[allNodes.size()];
+    int size = 0;
     for (Node n : allNodes) {
-      if (n.serviceEnabled(serviceType) && nodeCanBeUsed(n, request, config)) {
-        result.add(n);
+      if (n.serviceEnabled(serviceType) && nodeCanBeUsed(n, request, config) && size < result.length) {
+        result[size++] = n;
       }
     }
-    return result;
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+
+  /**
+   * Called when the cached eligible nodes have been rebuilt because the managed nodes or their services changed.
+   *
+   * <p>This is only called if the eligible nodes are cached, the default implementation does nothing.</p>
+   *
+   * @param nodes the new eligible nodes.
+   */
+  protected void eligibleNodesChanged(final Node[] nodes) {
   }
 
   /**
@@ -235,7 +298,8 @@ public class RoundRobinLocator implements Locator {
    * based check already performed in {@link #filterNodes(List, Request, ClusterConfig)}.
    *
    * <p>This method will be called for each node in the list to find out if it can be used in principle
-   * for dispatching the request.</p>
+   * for dispatching the request. If the result depends on the request or the config, the subclass also needs to
+   * override {@link #nodeEligibilityCacheable()} to disable the caching of the eligible nodes.</p>
    *
    * @param node the node to check against.
    * @param request the request in scope.
@@ -247,4 +311,68 @@ public class RoundRobinLocator implements Locator {
     return true;
   }
 
+  /**
+   * Returns true if the eligible nodes only depend on the managed nodes and their enabled services, so that they
+   * can be cached instead of being filtered for every request.
+   *
+   * <p>Subclasses which override {@link #nodeCanBeUsed(Node, Request, ClusterConfig)} with checks that depend on
+   * the request or the config need to return false here.</p>
+   *
+   * @return true if the eligible nodes can be cached.
+   */
+  protected boolean nodeEligibilityCacheable() {
+    return true;
+  }
+
+  /**
+   * Caches the nodes which have the service enabled, together with the snapshot of nodes they were computed from.
+   */
+  private static class EligibleNodes {
+
+    private final Node[] nodes;
+    private final boolean[] enabled;
+    private final Node[] eligible;
+
+    EligibleNodes(final List<Node> allNodes, final ServiceType serviceType) {
+      Node[] snapshot = allNodes.toArray(new Node[0]);
+      boolean[] enabled = new boolean[snapshot.length];
+      int size = 0;
+      for (int i = 0; i < snapshot.length; i++) {
+        enabled[i] = snapshot[i].serviceEnabled(serviceType);
+        if (enabled[i]) {
+          size++;
+        }
+      }
+
+      Node[] eligible = new Node[size];
+      int next = 0;
+      for (int i = 0; i < snapshot.length; i++) {
+        if (enabled[i]) {
+          eligible[next++] = snapshot[i];
+        }
+      }
+
+      this.nodes = snapshot;
+      this.enabled = enabled;
+      this.eligible = eligible;
+    }
+
+    /**
+     * Checks, without allocating, if the given nodes are still the same ones with the same services enabled.
+     */
+    boolean matches(final List<Node> allNodes, final ServiceType serviceType) {
+      if (allNodes.size() != nodes.length) {
+        return false;
+      }
+      int i = 0;
+      for (Node node : allNodes) {
+        if (i >= nodes.length || node != nodes[i] || node.serviceEnabled(serviceType) != enabled[i]) {
+          return false;
+        }
+        i++;
+      }
+      return i == nodes.length;
+    }
+  }
+
 }
@@ -51,6 +51,14 @@ public class ViewLocator extends RoundRobinLocator {
     return true;
   }
 
+  /**
+   * The eligible nodes depend on the bucket of the request, so they cannot be cached.
+   */
+  @Override
+  protected boolean nodeEligibilityCacheable() {
+    return false;
+  }
+
   /**
    * In addition to checking that the view service is enabled, for view dispatching it is vital that
    * a request is only ever sent to a node which has active primary KV partitions.
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.retry;
+
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.events.request.RetryBudgetExhaustedEvent;
+import com.couchbase.client.core.error.InvalidArgumentException;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.node.NodeIdentifier;
+import com.couchbase.client.core.service.ServiceType;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the retry traffic to a fraction of the successful traffic, per service and per node.
+ *
+ * <p>Each service and each node of a service has a token bucket which starts full. Every successful response
+ * deposits a fraction of a token (the ratio) into the bucket of its service and node, and every retry scheduled
+ * by a retry strategy needs to take a full token out of both buckets. With a ratio of 0.1 retries are therefore
+ * capped at about 10% of the successful traffic, while the burst capacity allows short spikes of retries without
+ * any prior traffic. Retries which are required for correctness (see {@link RetryReason#alwaysRetry()}) are not
+ * subject to the budget.</p>
+ *
+ * <p>If no token is available, the retry is denied and the request is cancelled right away instead of adding even
+ * more load to a cluster which is already in trouble.</p>
+ */
+@Stability.Internal
+public class RetryBudget {
+
+  /**
+   * A full token, buckets track fractions of it so that the ratio can be applied without rounding.
+   */
+  private static final long TOKEN = 1000;
+
+  private static final RetryBudget DISABLED = new RetryBudget(0, 0);
+
+  private final long depositPerSuccess;
+  private final long capacity;
+  private final Map<ServiceType, TokenBucket> serviceBuckets = new ConcurrentHashMap<>();
+  private final Map<ServiceType, Map<NodeIdentifier, TokenBucket>> nodeBuckets = new ConcurrentHashMap<>();
+  private final Map<ServiceType, Counter> deniedCounters = new ConcurrentHashMap<>();
+  private final LongAdder deniedRetries = new LongAdder();
+
+  private RetryBudget(final double ratio, final int burst) {
+    this.depositPerSuccess = (long) (ratio * TOKEN);
+    this.capacity = burst * TOKEN;
+  }
+
+  /**
+   * Creates a new retry budget.
+   *
+   * @param ratio the fraction of a retry each successful response earns (i.e. 0.1 for 10% of the traffic).
+   * @param burst the maximum number of retries a bucket can hold (and starts with).
+   * @return the created budget, or a disabled one if the ratio is 0.
+   */
+  public static RetryBudget create(final double ratio, final int burst) {
+    if (ratio < 0 || ratio > 1) {
+      throw InvalidArgumentException.fromMessage("The retry budget ratio must be between 0 and 1");
+    }
+    if (burst < 1) {
+      throw InvalidArgumentException.fromMessage("The retry budget burst must be at least 1");
+    }
+    return ratio == 0 ? DISABLED : new RetryBudget(ratio, burst);
+  }
+
+  /**
+   * Returns a budget which allows all retries.
+   */
+  public static RetryBudget disabled() {
+    return DISABLED;
+  }
+
+  /**
+   * Returns true if retries are limited by this budget.
+   */
+  public boolean enabled() {
+    return depositPerSuccess > 0;
+  }
+
+  /**
+   * Deposits the share of a successful response into the buckets of its service and node.
+   *
+   * @param request the request which completed successfully.
+   */
+  public void deposit(final Request<?> request) {
+    if (!enabled()) {
+      return;
+    }
+    final ServiceType serviceType = request.serviceType();
+    if (serviceType == null) {
+      return;
+    }
+    serviceBucket(serviceType).deposit(depositPerSuccess);
+    final NodeIdentifier node = request.context().lastDispatchedToNode();
+    if (node != null) {
+      nodeBucket(serviceType, node).deposit(depositPerSuccess);
+    }
+  }
+
+  /**
+   * Tries to take one retry out of the buckets of the service and the last node of the request.
+   * <p>
+   * If the retry is denied, this is recorded on the meter and an event is raised once a bucket runs dry.
+   *
+   * @param ctx the core context, used to publish events and metrics.
+   * @param request the request which should be retried.
+   * @return true if the retry is allowed, false if the budget is exhausted.
+   */
+  public boolean tryAcquire(final CoreContext ctx, final Request<?> request) {
+    if (!enabled()) {
+      return true;
+    }
+    final ServiceType serviceType = request.serviceType();
+    if (serviceType == null) {
+      return true;
+    }
+
+    final TokenBucket service = serviceBucket(serviceType);
+    final NodeIdentifier node = request.context().lastDispatchedToNode();
+    final TokenBucket nodeBucket = node == null ? null : nodeBucket(serviceType, node);
+
+    TokenBucket exhausted = null;
+    if (!service.tryAcquire()) {
+      exhausted = service;
+    } else if (nodeBucket != null && !nodeBucket.tryAcquire()) {
+      service.deposit(TOKEN);
+      exhausted = nodeBucket;
+    }
+
+    if (exhausted == null) {
+      return true;
+    }
+
+    deniedRetries.increment();
+    deniedCounters.computeIfAbsent(serviceType, st -> ctx.environment().meter().counter(
+      TracingIdentifiers.METER_RETRY_BUDGET_DENIED,
+      Collections.singletonMap(TracingIdentifiers.ATTR_SERVICE, st.ident())
+    )).incrementBy(1);
+    if (exhausted.markExhausted()) {
+      ctx.environment().eventBus().publish(new RetryBudgetExhaustedEvent(
+        request.context(),
+        serviceType,
+        exhausted == nodeBucket ? node : null,
+        deniedRetries.sum()
+      ));
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of full retries currently available for the service.
+   */
+  public long availableRetries(final ServiceType serviceType) {
+    return enabled() ? serviceBucket(serviceType).available() / TOKEN : Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns the number of full retries currently available for the node of the service.
+   */
+  public long availableRetries(final ServiceType serviceType, final NodeIdentifier node) {
+    return enabled() ? nodeBucket(serviceType, node).available() / TOKEN : Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns the total number of retries denied by this budget.
+   */
+  public long deniedRetries() {
+    return deniedRetries.sum();
+  }
+
+  private TokenBucket serviceBucket(final ServiceType serviceType) {
+    return serviceBuckets.computeIfAbsent(serviceType, st -> new TokenBucket(capacity));
+  }
+
+  private TokenBucket nodeBucket(final ServiceType serviceType, final NodeIdentifier node) {
+    return nodeBuckets
+      .computeIfAbsent(serviceType, st -> new ConcurrentHashMap<>())
+      .computeIfAbsent(node, n -> new TokenBucket(capacity));
+  }
+
+  @Override
+  public String toString() {
+    return "RetryBudget{" +
+      "ratio=" + ((double) depositPerSuccess / TOKEN) +
+      ", burst=" + (capacity / TOKEN) +
+      ", deniedRetries=" + deniedRetries +
+      '}';
+  }
+
+  /**
+   * A single bucket which holds fractions of tokens, bounded by its capacity.
+   */
+  private static class TokenBucket {
+
+    private final long capacity;
+    private final AtomicLong tokens;
+    private volatile boolean exhausted;
+
+    TokenBucket(final long capacity) {
+      this.capacity = capacity;
+      this.tokens = new AtomicLong(capacity);
+    }
+
+    void deposit(final long amount) {
+      long current;
+      do {
+        current = tokens.get();
+        if (current >= capacity) {
+          return;
+        }
+      } while (!tokens.compareAndSet(current, Math.min(capacity, current + amount)));
+    }
+
+    boolean tryAcquire() {
+      long current;
+      do {
+        current = tokens.get();
+        if (current < TOKEN) {
+          return false;
+        }
+      } while (!tokens.compareAndSet(current, current - TOKEN));
+      exhausted = false;
+      return true;
+    }
+
+    long available() {
+      return tokens.get();
+    }
+
+    /**
+     * Marks the bucket as exhausted and returns true if it has not been exhausted before.
+     */
+    boolean markExhausted() {
+      if (exhausted) {
+        return false;
+      }
+      exhausted = true;
+      return true;
+    }
+  }
+
+}
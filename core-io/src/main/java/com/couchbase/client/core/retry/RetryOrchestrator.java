@@ -68,6 +68,14 @@ public class RetryOrchestrator {
 
       Optional<Duration> duration = retryAction.duration();
       if (duration.isPresent()) {
+        if (!ctx.environment().retryBudget().tryAcquire(ctx, request)) {
+          Event.Severity severity = request instanceof UnmonitoredRequest ? Event.Severity.DEBUG : Event.Severity.INFO;
+          ctx.environment().eventBus().publish(
+            new RequestNotRetriedEvent(severity, request.getClass(), request.context(), reason, null)
+          );
+          request.cancel(CancellationReason.retryBudgetExhausted(reason));
+          return;
+        }
         final Duration cappedDuration = capDuration(duration.get(), request);
         retryWithDuration(ctx, request, cappedDuration, reason);
       } else {
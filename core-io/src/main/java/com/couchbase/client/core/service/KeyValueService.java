@@ -20,6 +20,7 @@ import com.couchbase.client.core.CoreContext;
 import com.couchbase.client.core.endpoint.Endpoint;
 import com.couchbase.client.core.endpoint.KeyValueEndpoint;
 import com.couchbase.client.core.env.Authenticator;
+import com.couchbase.client.core.service.strategy.LeastOutstandingSelectionStrategy;
 import com.couchbase.client.core.service.strategy.PartitionSelectionStrategy;
 
 import java.util.Optional;
@@ -30,6 +31,14 @@ public class KeyValueService extends PooledService {
 
   private static final EndpointSelectionStrategy STRATEGY = new PartitionSelectionStrategy();
 
+  private static final EndpointSelectionStrategy ADAPTIVE_STRATEGY = new LeastOutstandingSelectionStrategy();
+
+  /**
+   * If an endpoint has more outstanding requests than this, the pool grows (if allowed to).
+   */
+  static final int GROW_OUTSTANDING_THRESHOLD = 256;
+
+  private final EndpointSelectionStrategy strategy;
   private final String hostname;
   private final int port;
   private final Optional<String> bucketName;
@@ -43,6 +52,9 @@ public class KeyValueService extends PooledService {
       new ServiceContext(coreContext, hostname, port, ServiceType.KV, bucketName)
     );
 
+    this.strategy = bucketName.isPresent() && serviceConfig.maxEndpoints() > serviceConfig.minEndpoints()
+      ? ADAPTIVE_STRATEGY
+      : STRATEGY;
     this.hostname = hostname;
     this.port = port;
     this.bucketName = bucketName;
@@ -68,9 +80,30 @@ public class KeyValueService extends PooledService {
     return new KeyValueEndpoint(serviceContext(), hostname, port, bucketName, authenticator);
   }
 
+  /**
+   * Selects the endpoint for a request.
+   * <p>
+   * With a fixed number of endpoints, requests for the same partition always go through the same endpoint. If the
+   * pool can grow, the endpoint with the least outstanding requests is used instead, which trades the per-partition
+   * ordering for spreading the load across the endpoints added on demand.
+   */
   @Override
   protected EndpointSelectionStrategy selectionStrategy() {
-    return STRATEGY;
+    return strategy;
+  }
+
+  @Override
+  protected boolean shouldGrow(final Endpoint endpoint) {
+    return !endpoint.writable() || endpoint.outstandingRequests() >= GROW_OUTSTANDING_THRESHOLD;
+  }
+
+  /**
+   * The key-value pool always connects its minimum endpoints upfront and only grows based on load, so no
+   * endpoints are reserved while the initial ones are still connecting.
+   */
+  @Override
+  protected boolean reserveEndpointIfNoneAvailable() {
+    return false;
   }
 
   @Override
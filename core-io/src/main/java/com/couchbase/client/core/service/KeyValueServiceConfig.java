@@ -22,7 +22,15 @@ public class KeyValueServiceConfig implements ServiceConfig {
 
   public static final int DEFAULT_ENDPOINTS = 1;
 
+  /**
+   * How long additional endpoints (beyond the configured {@link #minEndpoints()}) may stay idle before they are
+   * closed again.
+   */
+  public static final Duration DEFAULT_IDLE_TIME = Duration.ofSeconds(30);
+
   private final int endpoints;
+  private final int maxEndpoints;
+  private final Duration idleTime;
 
   public static Builder builder() {
     return new Builder().endpoints(DEFAULT_ENDPOINTS);
@@ -34,6 +42,8 @@ public class KeyValueServiceConfig implements ServiceConfig {
 
   private KeyValueServiceConfig(Builder builder) {
     this.endpoints = builder.endpoints;
+    this.maxEndpoints = Math.max(builder.endpoints, builder.maxEndpoints);
+    this.idleTime = builder.idleTime;
   }
 
   @Override
@@ -43,12 +53,12 @@ public class KeyValueServiceConfig implements ServiceConfig {
 
   @Override
   public int maxEndpoints() {
-    return endpoints;
+    return maxEndpoints;
   }
 
   @Override
   public Duration idleTime() {
-    return Duration.ZERO;
+    return maxEndpoints > endpoints ? idleTime : Duration.ZERO;
   }
 
   @Override
@@ -58,12 +68,30 @@ public class KeyValueServiceConfig implements ServiceConfig {
 
   public static class Builder {
     private int endpoints;
+    private int maxEndpoints;
+    private Duration idleTime = DEFAULT_IDLE_TIME;
 
     public Builder endpoints(int endpoints) {
       this.endpoints = endpoints;
       return this;
     }
 
+    /**
+     * Allows the pool to grow up to this number of endpoints under load (ignored if lower than the endpoints).
+     */
+    public Builder maxEndpoints(int maxEndpoints) {
+      this.maxEndpoints = maxEndpoints;
+      return this;
+    }
+
+    /**
+     * The idle time after which additional endpoints are closed again, only used if the pool can grow.
+     */
+    public Builder idleTime(Duration idleTime) {
+      this.idleTime = idleTime;
+      return this;
+    }
+
     public KeyValueServiceConfig build() {
       return new KeyValueServiceConfig(this);
     }
@@ -73,6 +101,8 @@ public class KeyValueServiceConfig implements ServiceConfig {
   public String toString() {
     return "KeyValueServiceConfig{" +
       "endpoints=" + endpoints +
+      ", maxEndpoints=" + maxEndpoints +
+      ", idleTime=" + idleTime +
       '}';
   }
 }
@@ -40,6 +40,7 @@ import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 /**
@@ -60,6 +61,11 @@ abstract class PooledService implements Service {
    */
   public static final Duration DEFAULT_IDLE_TIME_CHECK_INTERVAL = Duration.ofMillis(100);
 
+  /**
+   * The minimum interval between two attempts to grow the pool on load.
+   */
+  public static final Duration DEFAULT_GROW_INTERVAL = Duration.ofSeconds(1);
+
   /**
    * Holds the config for this service.
    */
@@ -95,6 +101,19 @@ abstract class PooledService implements Service {
    */
   private final List<Endpoint> reservedEndpoints;
 
+  /**
+   * Guards all changes to the pool.
+   * <p>
+   * Since requests are sent from application threads, a lock is used instead of the object monitor so that virtual
+   * threads which need to reserve an endpoint do not pin their carrier thread while waiting for it.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /**
+   * The timestamp (in nanoseconds) when the pool has last been grown because of load, 0 if never.
+   */
+  private volatile long lastGrownAt;
+
   /**
    * Creates a new {@link PooledService}.
    *
@@ -181,6 +200,13 @@ abstract class PooledService implements Service {
     return DEFAULT_IDLE_TIME_CHECK_INTERVAL;
   }
 
+  /**
+   * Can be overridden for unit tests.
+   */
+  protected Duration growInterval() {
+    return DEFAULT_GROW_INTERVAL;
+  }
+
   /**
    * Go through the connections and clean up all the idle connections.
    * <p>
@@ -188,50 +214,55 @@ abstract class PooledService implements Service {
    * into our endpoint pool when connected, or fall out of the pool when they are disconnected immediately. We only need
    * to take them into account when checking how many endpoints we have flying around to clean up at max.
    */
-  private synchronized void cleanIdleConnections() {
-    if (disconnected.get()) {
-      return;
-    }
+  private void cleanIdleConnections() {
+    lock.lock();
+    try {
+      if (disconnected.get()) {
+        return;
+      }
 
-    final List<Endpoint> endpoints = new ArrayList<>(this.endpoints);
-    Collections.shuffle(endpoints);
+      final List<Endpoint> endpoints = new ArrayList<>(this.endpoints);
+      Collections.shuffle(endpoints);
 
-    for (Endpoint endpoint : endpoints) {
-      if ((this.endpoints.size() + this.reservedEndpoints.size()) == serviceConfig.minEndpoints()) {
-        break;
-      }
+      for (Endpoint endpoint : endpoints) {
+        if ((this.endpoints.size() + this.reservedEndpoints.size()) == serviceConfig.minEndpoints()) {
+          break;
+        }
 
-      long lastResponseReceived = endpoint.lastResponseReceived();
-      long actualIdleTime;
-      if (lastResponseReceived != 0) {
-        actualIdleTime = System.nanoTime() - endpoint.lastResponseReceived();
-      } else {
-        // If we did not receive a last response timestamp, it could be the case that a socket is
-        // connected but no request has been sent into it yet. If this is the case, take the timestamp
-        // when the socket got last connected as a reference point to determine if it is idle.
-        long lastConnected = endpoint.lastConnectedAt();
-        if (lastConnected != 0) {
-          actualIdleTime = System.nanoTime() - lastConnected;
+        long lastResponseReceived = endpoint.lastResponseReceived();
+        long actualIdleTime;
+        if (lastResponseReceived != 0) {
+          actualIdleTime = System.nanoTime() - endpoint.lastResponseReceived();
         } else {
-          // No last connected timestamp, so the endpoint isn't even fully connected yet
-          continue;
+          // If we did not receive a last response timestamp, it could be the case that a socket is
+          // connected but no request has been sent into it yet. If this is the case, take the timestamp
+          // when the socket got last connected as a reference point to determine if it is idle.
+          long lastConnected = endpoint.lastConnectedAt();
+          if (lastConnected != 0) {
+            actualIdleTime = System.nanoTime() - lastConnected;
+          } else {
+            // No last connected timestamp, so the endpoint isn't even fully connected yet
+            continue;
+          }
         }
-      }
 
-      // we also check if an endpoint received a hard disconnect signal and is still lingering around
-      boolean receivedDisconnect = endpoint.receivedDisconnectSignal();
-      boolean idleTooLong = endpoint.outstandingRequests() == 0 && actualIdleTime >= serviceConfig.idleTime().toNanos();
-      if (receivedDisconnect || idleTooLong) {
-        this.endpoints.remove(endpoint);
-        endpointStates.deregister(endpoint);
-        if (!receivedDisconnect) {
-          endpoint.disconnect();
+        // we also check if an endpoint received a hard disconnect signal and is still lingering around
+        boolean receivedDisconnect = endpoint.receivedDisconnectSignal();
+        boolean idleTooLong = endpoint.outstandingRequests() == 0 && actualIdleTime >= serviceConfig.idleTime().toNanos();
+        if (receivedDisconnect || idleTooLong) {
+          this.endpoints.remove(endpoint);
+          endpointStates.deregister(endpoint);
+          if (!receivedDisconnect) {
+            endpoint.disconnect();
+          }
+          publishIdleEndpointRemovedEvent(endpoint, actualIdleTime);
         }
-        publishIdleEndpointRemovedEvent(endpoint, actualIdleTime);
       }
-    }
 
-    scheduleCleanIdleConnections();
+      scheduleCleanIdleConnections();
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -273,6 +304,29 @@ abstract class PooledService implements Service {
    */
   protected abstract EndpointSelectionStrategy selectionStrategy();
 
+  /**
+   * Subclasses can override this method to signal that the endpoint a request has just been sent into is
+   * overloaded, which grows the pool by one endpoint (if below the max endpoints).
+   *
+   * @param endpoint the endpoint the request has been sent into.
+   * @return true if the pool should grow, false otherwise.
+   */
+  protected boolean shouldGrow(final Endpoint endpoint) {
+    return false;
+  }
+
+  /**
+   * If a new endpoint should be reserved and connected for a request if no endpoint is available to serve it.
+   * <p>
+   * Subclasses which grow their pool based on load instead can override this method. In this case the request
+   * is retried and the pool grows by one endpoint only if all current endpoints are connected.
+   *
+   * @return true if an endpoint should be reserved for the request, false otherwise.
+   */
+  protected boolean reserveEndpointIfNoneAvailable() {
+    return true;
+  }
+
   @Override
   public <R extends Request<? extends Response>> void send(final R request) {
     if (request.completed()) {
@@ -283,99 +337,165 @@ abstract class PooledService implements Service {
 
     if (found != null) {
       found.send(request);
+      if (!fixedPool && shouldGrow(found)) {
+        growPool();
+      }
       return;
     }
 
     if (!fixedPool && (endpoints.size() + reservedEndpoints.size()) < serviceConfig.maxEndpoints()) {
-      connectReservedEndpoint(request);
-    } else {
-      RetryOrchestrator.maybeRetry(serviceContext, request, RetryReason.ENDPOINT_NOT_AVAILABLE);
+      if (reserveEndpointIfNoneAvailable()) {
+        connectReservedEndpoint(request);
+        return;
+      }
+      growPool();
     }
+    RetryOrchestrator.maybeRetry(serviceContext, request, RetryReason.ENDPOINT_NOT_AVAILABLE);
+  }
+
+  /**
+   * Adds one more endpoint to the pool because the current ones are under load.
+   * <p>
+   * The pool grows at most once per {@link #growInterval()} and only if all current endpoints are connected,
+   * so that a burst of requests while an endpoint is still connecting does not open all endpoints at once.
+   * Endpoints added this way are removed again by the idle connection cleanup.
+   */
+  private void growPool() {
+    final long now = System.nanoTime();
+    if (recentlyGrown(now)) {
+      return;
+    }
+
+    lock.lock();
+    try {
+      if (disconnected.get()
+        || recentlyGrown(now)
+        || !reservedEndpoints.isEmpty()
+        || endpoints.size() >= serviceConfig.maxEndpoints()) {
+        return;
+      }
+      for (Endpoint endpoint : endpoints) {
+        if (endpoint.state() != EndpointState.CONNECTED) {
+          return;
+        }
+      }
+
+      lastGrownAt = now;
+      Endpoint endpoint = createEndpoint();
+      endpointStates.register(endpoint, endpoint);
+      endpoint.connect();
+      endpoints.add(endpoint);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean recentlyGrown(final long now) {
+    final long lastGrownAt = this.lastGrownAt;
+    return lastGrownAt != 0 && now - lastGrownAt < growInterval().toNanos();
   }
 
   /**
    * Connect the reserved endpoint and dispatch the request into it if possible.
    * <p>
-   * Note that there are two synchronized sections in this method, because the subscription callback works on
+   * Note that there are two locked sections in this method, because the subscription callback works on
    * a different thread.
    *
    * @param request the request that needs to bee dispatched.
    */
-  private synchronized <R extends Request<? extends Response>> void connectReservedEndpoint(final R request) {
-    if (!disconnected.get()) {
-      Endpoint endpoint = createEndpoint();
-      endpointStates.register(endpoint, endpoint);
+  private <R extends Request<? extends Response>> void connectReservedEndpoint(final R request) {
+    lock.lock();
+    try {
+      if (!disconnected.get()) {
+        Endpoint endpoint = createEndpoint();
+        endpointStates.register(endpoint, endpoint);
 
-      endpoint
-        .states()
-        // The endpoint always starts DISCONNECT, so wait for first CONNECTING
-        .skipUntil(s -> s == EndpointState.CONNECTING)
-        // We only care about CONNECTED and DISCONNECTED events
-        .filter(s -> s == EndpointState.CONNECTED || s == EndpointState.DISCONNECTED)
-        // Once we see the first CONNECTED or DISCONNECTED, unsubscribe
-        .takeUntil(s -> s == EndpointState.CONNECTED || s == EndpointState.DISCONNECTED)
-        // We MUST move it to another scheduler, or the netty IO thread is blocked of the send below
-        .publishOn(context().environment().scheduler())
-        .subscribe(s -> {
-          synchronized (PooledService.this) {
-            reservedEndpoints.remove(endpoint);
-
-            if (disconnected.get()) {
-              endpoint.disconnect();
-              endpointStates.deregister(endpoint);
-              RetryOrchestrator.maybeRetry(serviceContext, request, RetryReason.ENDPOINT_NOT_AVAILABLE);
-            } else {
-              endpoints.add(endpoint);
-
-              if (s == EndpointState.CONNECTED) {
-                endpoint.send(request);
-              } else if (s == EndpointState.DISCONNECTED) {
+        endpoint
+          .states()
+          // The endpoint always starts DISCONNECT, so wait for first CONNECTING
+          .skipUntil(s -> s == EndpointState.CONNECTING)
+          // We only care about CONNECTED and DISCONNECTED events
+          .filter(s -> s == EndpointState.CONNECTED || s == EndpointState.DISCONNECTED)
+          // Once we see the first CONNECTED or DISCONNECTED, unsubscribe
+          .takeUntil(s -> s == EndpointState.CONNECTED || s == EndpointState.DISCONNECTED)
+          // We MUST move it to another scheduler, or the netty IO thread is blocked of the send below
+          .publishOn(context().environment().scheduler())
+          .subscribe(s -> {
+            lock.lock();
+            try {
+              reservedEndpoints.remove(endpoint);
+
+              if (disconnected.get()) {
+                endpoint.disconnect();
+                endpointStates.deregister(endpoint);
                 RetryOrchestrator.maybeRetry(serviceContext, request, RetryReason.ENDPOINT_NOT_AVAILABLE);
+              } else {
+                endpoints.add(endpoint);
+
+                if (s == EndpointState.CONNECTED) {
+                  endpoint.send(request);
+                } else if (s == EndpointState.DISCONNECTED) {
+                  RetryOrchestrator.maybeRetry(serviceContext, request, RetryReason.ENDPOINT_NOT_AVAILABLE);
+                }
               }
+            } finally {
+              lock.unlock();
             }
-          }
-        });
+          });
 
-      endpoint.connect();
-      reservedEndpoints.add(endpoint);
+        endpoint.connect();
+        reservedEndpoints.add(endpoint);
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
-  public synchronized void connect() {
-    if (state() == ServiceState.DISCONNECTED && !disconnected.get()) {
-      serviceContext.environment().eventBus().publish(new ServiceConnectInitiatedEvent(
-        serviceContext,
-        serviceConfig.minEndpoints()
-      ));
-
-      for (int i = 0; i < serviceConfig.minEndpoints(); i++) {
-        Endpoint endpoint = createEndpoint();
-        endpointStates.register(endpoint, endpoint);
-        endpoint.connect();
-        endpoints.add(endpoint);
+  public void connect() {
+    lock.lock();
+    try {
+      if (state() == ServiceState.DISCONNECTED && !disconnected.get()) {
+        serviceContext.environment().eventBus().publish(new ServiceConnectInitiatedEvent(
+          serviceContext,
+          serviceConfig.minEndpoints()
+        ));
+
+        for (int i = 0; i < serviceConfig.minEndpoints(); i++) {
+          Endpoint endpoint = createEndpoint();
+          endpointStates.register(endpoint, endpoint);
+          endpoint.connect();
+          endpoints.add(endpoint);
+        }
       }
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
-  public synchronized void disconnect() {
-    if (disconnected.compareAndSet(false, true)) {
-      serviceContext.environment().eventBus().publish(new ServiceDisconnectInitiatedEvent(
-        serviceContext,
-        endpoints.size() + reservedEndpoints.size()
-      ));
-
-      for (Endpoint endpoint : endpoints) {
-        endpoint.disconnect();
-        endpointStates.deregister(endpoint);
-      }
-      for (Endpoint endpoint : reservedEndpoints) {
-        endpoint.disconnect();;
-        endpointStates.deregister(endpoint);
+  public void disconnect() {
+    lock.lock();
+    try {
+      if (disconnected.compareAndSet(false, true)) {
+        serviceContext.environment().eventBus().publish(new ServiceDisconnectInitiatedEvent(
+          serviceContext,
+          endpoints.size() + reservedEndpoints.size()
+        ));
+
+        for (Endpoint endpoint : endpoints) {
+          endpoint.disconnect();
+          endpointStates.deregister(endpoint);
+        }
+        for (Endpoint endpoint : reservedEndpoints) {
+          endpoint.disconnect();;
+          endpointStates.deregister(endpoint);
+        }
+        endpoints.clear();
+        reservedEndpoints.clear();
       }
-      endpoints.clear();
-      reservedEndpoints.clear();
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -401,4 +521,13 @@ abstract class PooledService implements Service {
       .map(Endpoint::diagnostics);
   }
 
+  @Override
+  public long outstandingRequests() {
+    long outstanding = 0;
+    for (Endpoint endpoint : endpoints) {
+      outstanding += endpoint.outstandingRequests();
+    }
+    return outstanding;
+  }
+
 }
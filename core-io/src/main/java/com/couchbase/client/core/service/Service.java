@@ -76,4 +76,11 @@ public interface Service extends Stateful<ServiceState> {
    * Returns diagnostics information for this service.
    */
   Stream<EndpointDiagnostics> diagnostics();
+
+  /**
+   * Returns the number of requests which are currently in-flight across all endpoints of this service.
+   */
+  default long outstandingRequests() {
+    return 0;
+  }
 }
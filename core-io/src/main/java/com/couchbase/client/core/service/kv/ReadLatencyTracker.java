@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.kv;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.node.NodeIdentifier;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps track of the recent KV read latencies per node, so that percentiles can be looked up on the hot path.
+ *
+ * <p>Latencies are recorded into a histogram per node with four buckets per power of two (so a value is accurate
+ * to within roughly 25%), which is plenty for deciding when to hedge a read. The histograms are rotated every
+ * {@link #WINDOW_NANOS} and a percentile is computed over the current and the previous window, so it follows
+ * changes in the latency of a node quickly without being based on just a handful of samples.</p>
+ */
+@Stability.Internal
+public class ReadLatencyTracker {
+
+  /**
+   * The length of a single histogram window.
+   */
+  static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  /**
+   * The minimum number of samples before a percentile is reported.
+   */
+  static final int MIN_SAMPLES = 20;
+
+  private final Map<NodeIdentifier, Histogram> histograms = new ConcurrentHashMap<>();
+
+  /**
+   * Records a read latency against the given node.
+   *
+   * @param node the node which served the read.
+   * @param latencyNanos the latency in nanoseconds.
+   */
+  public void record(final NodeIdentifier node, final long latencyNanos) {
+    histograms.computeIfAbsent(node, k -> new Histogram()).record(latencyNanos, System.nanoTime());
+  }
+
+  /**
+   * Returns the given percentile of the recent read latencies of a node.
+   *
+   * @param node the node to look up.
+   * @param percentile the percentile, between 0 and 1 (i.e. 0.95).
+   * @return the latency in nanoseconds, or 0 if not enough recent samples are available.
+   */
+  public long percentile(final NodeIdentifier node, final double percentile) {
+    Histogram histogram = histograms.get(node);
+    return histogram == null ? 0 : histogram.percentile(percentile, System.nanoTime());
+  }
+
+  /**
+   * Removes the latencies of a node which is not part of the cluster anymore.
+   *
+   * @param node the removed node.
+   */
+  public void remove(final NodeIdentifier node) {
+    histograms.remove(node);
+  }
+
+  /**
+   * A histogram with log-linear buckets over microseconds, split into the current and the previous window.
+   */
+  static class Histogram {
+
+    /**
+     * Values up to 2^40 microseconds (about 12 days) are tracked, everything larger goes into the last bucket.
+     */
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT + 1) * 4;
+
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS);
+    private volatile long windowStart = System.nanoTime();
+
+    void record(final long latencyNanos, final long now) {
+      if (now - windowStart >= WINDOW_NANOS) {
+        rotate(now);
+      }
+      current.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+
+    private synchronized void rotate(final long now) {
+      if (now - windowStart < WINDOW_NANOS) {
+        return;
+      }
+      previous = now - windowStart >= 2 * WINDOW_NANOS ? new AtomicLongArray(BUCKETS) : current;
+      current = new AtomicLongArray(BUCKETS);
+      windowStart = now;
+    }
+
+    long percentile(final double percentile, final long now) {
+      long age = now - windowStart;
+      if (age >= 2 * WINDOW_NANOS) {
+        return 0;
+      }
+      AtomicLongArray current = this.current;
+      AtomicLongArray previous = age >= WINDOW_NANOS ? null : this.previous;
+
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        total += current.get(i) + (previous == null ? 0 : previous.get(i));
+      }
+      if (total < MIN_SAMPLES) {
+        return 0;
+      }
+
+      long target = (long) Math.ceil(total * percentile);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += current.get(i) + (previous == null ? 0 : previous.get(i));
+        if (seen >= target) {
+          return TimeUnit.MICROSECONDS.toNanos(upperBound(i));
+        }
+      }
+      return TimeUnit.MICROSECONDS.toNanos(upperBound(BUCKETS - 1));
+    }
+
+    /**
+     * Maps a value to its bucket, values below 4 get their own bucket and everything above is split into four
+     * buckets per power of two.
+     */
+    static int bucket(final long micros) {
+      if (micros < 4) {
+        return (int) Math.max(micros, 0);
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(micros);
+      if (exponent > MAX_EXPONENT) {
+        return BUCKETS - 1;
+      }
+      return exponent * 4 + (int) ((micros >>> (exponent - 2)) & 3);
+    }
+
+    /**
+     * Returns the (exclusive) upper bound of the values in the given bucket.
+     */
+    static long upperBound(final int bucket) {
+      if (bucket < 4) {
+        return bucket + 1;
+      }
+      int exponent = bucket / 4;
+      int sub = bucket % 4;
+      return (long) (5 + sub) << (exponent - 2);
+    }
+  }
+
+}
@@ -25,17 +25,21 @@ import com.couchbase.client.core.cnc.TracingIdentifiers;
 import com.couchbase.client.core.cnc.events.request.IndividualReplicaGetFailedEvent;
 import com.couchbase.client.core.config.BucketConfig;
 import com.couchbase.client.core.config.CouchbaseBucketConfig;
+import com.couchbase.client.core.deps.io.netty.util.Timeout;
 import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.error.CommonExceptions;
 import com.couchbase.client.core.error.CouchbaseException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
 import com.couchbase.client.core.error.DocumentUnretrievableException;
 import com.couchbase.client.core.error.context.AggregateErrorContext;
 import com.couchbase.client.core.error.context.ErrorContext;
 import com.couchbase.client.core.error.context.ReducedKeyValueErrorContext;
 import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.msg.CancellationReason;
 import com.couchbase.client.core.msg.kv.GetRequest;
 import com.couchbase.client.core.msg.kv.GetResponse;
 import com.couchbase.client.core.msg.kv.ReplicaGetRequest;
+import com.couchbase.client.core.node.NodeIdentifier;
 import com.couchbase.client.core.retry.RetryStrategy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -45,6 +49,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -55,10 +60,16 @@ import java.util.stream.Stream;
 
 import static com.couchbase.client.core.error.DefaultErrorUtil.keyValueStatusToException;
 import static com.couchbase.client.core.util.Validators.notNullOrEmpty;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
 @Stability.Internal
 public class ReplicaHelper {
+  /**
+   * The percentile of the recent read latencies of the active node after which a hedged read is sent.
+   */
+  public static final double HEDGE_PERCENTILE = 0.95;
+
   private ReplicaHelper() {
     throw new AssertionError("not instantiable");
   }
@@ -230,6 +241,195 @@ public class ReplicaHelper {
   }
 
 
+  /**
+   * Reads from the active and, only if it did not respond in time, additionally from the first replica.
+   *
+   * <p>The read is hedged after the given maximum delay, or earlier if the recent 95th percentile read latency of the
+   * node the active request has been dispatched to is lower. The first successful response wins and the other
+   * request is cancelled. If the active reports that the document does not exist this is authoritative and the
+   * replica response is not waited for, other errors of the active are only propagated if the replica read failed
+   * as well. Cancelling the active request (other than through its timeout) cancels the replica request too.</p>
+   *
+   * <p>If the bucket has no replicas configured this is the same as a regular get against the active.</p>
+   *
+   * @param core the core to execute the requests.
+   * @param request the request against the active, not yet dispatched.
+   * @param maxHedgeDelay the maximum time to wait for the active before reading from a replica.
+   * @param parentSpan (nullable) the parent span for the replica request.
+   * @param responseMapper converts the GetReplicaResponse to the client's native result type.
+   * @return a future completing with the first successful result.
+   */
+  public static <R> CompletableFuture<R> getHedgedAsync(
+      final Core core,
+      final GetRequest request,
+      final Duration maxHedgeDelay,
+      final RequestSpan parentSpan,
+      final Function<GetReplicaResponse, R> responseMapper
+  ) {
+    final BucketConfig config = core.clusterConfig().bucketConfig(request.bucket());
+    if (!(config instanceof CouchbaseBucketConfig) || ((CouchbaseBucketConfig) config).numberOfReplicas() < 1) {
+      return get(core, request).thenApply(response -> responseMapper.apply(new GetReplicaResponse(response, false)));
+    }
+
+    final HedgedGet<R> hedgedGet = new HedgedGet<>(request, responseMapper);
+    get(core, request).whenComplete((response, error) -> {
+      if (error == null) {
+        hedgedGet.activeSucceeded(response);
+      } else {
+        hedgedGet.activeFailed(error);
+      }
+    });
+
+    long delay = maxHedgeDelay.toNanos();
+    NodeIdentifier node = request.context().lastDispatchedToNode();
+    if (node != null) {
+      long percentile = core.readLatencies().percentile(node, HEDGE_PERCENTILE);
+      if (percentile > 0) {
+        delay = Math.min(delay, percentile);
+      }
+    }
+
+    hedgedGet.timer(core.context().environment().timer().schedule(
+      () -> hedgeRequest(core, request, parentSpan).ifPresent(replica -> {
+        if (hedgedGet.hedging(replica)) {
+          get(core, replica).whenComplete((response, error) -> {
+            if (error == null) {
+              hedgedGet.hedgeSucceeded(response);
+            } else {
+              core.context().environment().eventBus().publish(new IndividualReplicaGetFailedEvent(replica.context()));
+              hedgedGet.hedgeFailed();
+            }
+          });
+        }
+      }),
+      Duration.ofNanos(delay)
+    ));
+
+    return hedgedGet.result;
+  }
+
+  /**
+   * Creates the request against the first replica with the time left until the active request times out.
+   */
+  private static Optional<ReplicaGetRequest> hedgeRequest(final Core core, final GetRequest request,
+                                                          final RequestSpan parentSpan) {
+    long remaining = request.absoluteTimeout() - System.nanoTime();
+    if (remaining <= 0 || request.completed()) {
+      return Optional.empty();
+    }
+
+    RequestSpan span = core.context().environment().requestTracer()
+        .requestSpan(TracingIdentifiers.SPAN_REQUEST_KV_GET_REPLICA, parentSpan);
+    ReplicaGetRequest replica = new ReplicaGetRequest(
+        new String(request.key(), UTF_8), Duration.ofNanos(remaining), core.context(),
+        request.collectionIdentifier(), request.retryStrategy(), (short) 1, span
+    );
+    replica.context().clientContext(request.context().clientContext());
+    return Optional.of(replica);
+  }
+
+  /**
+   * Coordinates the outcome of a hedged get between the active and the replica request.
+   */
+  private static class HedgedGet<R> {
+
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+    private final GetRequest active;
+    private final Function<GetReplicaResponse, R> responseMapper;
+
+    private Timeout timer;
+    private ReplicaGetRequest hedge;
+    private boolean hedgeFailed;
+    private Throwable activeError;
+
+    HedgedGet(final GetRequest active, final Function<GetReplicaResponse, R> responseMapper) {
+      this.active = active;
+      this.responseMapper = responseMapper;
+    }
+
+    synchronized void timer(final Timeout timer) {
+      this.timer = timer;
+      if (timer != null && (result.isDone() || activeError != null)) {
+        timer.cancel();
+      }
+    }
+
+    /**
+     * Registers the replica request, returns false if it should not be sent because the outcome is already known.
+     */
+    synchronized boolean hedging(final ReplicaGetRequest hedge) {
+      if (result.isDone() || activeError != null) {
+        return false;
+      }
+      this.hedge = hedge;
+      return true;
+    }
+
+    synchronized void activeSucceeded(final GetResponse response) {
+      if (complete(response, false) && hedge != null) {
+        hedge.cancel(CancellationReason.STOPPED_LISTENING);
+      }
+    }
+
+    synchronized void activeFailed(final Throwable error) {
+      if (result.isDone()) {
+        return;
+      }
+      Throwable cause = unwrap(error);
+      if (hedge == null || hedgeFailed || cause instanceof DocumentNotFoundException || cancelledByCaller()) {
+        if (timer != null) {
+          timer.cancel();
+        }
+        if (hedge != null) {
+          hedge.cancel(active.cancelled() ? active.cancellationReason() : CancellationReason.STOPPED_LISTENING);
+        }
+        result.completeExceptionally(cause);
+      } else {
+        activeError = cause;
+      }
+    }
+
+    synchronized void hedgeSucceeded(final GetResponse response) {
+      if (complete(response, true)) {
+        active.cancel(CancellationReason.STOPPED_LISTENING);
+      }
+    }
+
+    synchronized void hedgeFailed() {
+      hedgeFailed = true;
+      if (activeError != null && !result.isDone()) {
+        result.completeExceptionally(activeError);
+      }
+    }
+
+    private boolean complete(final GetResponse response, final boolean fromReplica) {
+      if (result.isDone()) {
+        return false;
+      }
+      if (timer != null) {
+        timer.cancel();
+      }
+      try {
+        result.complete(responseMapper.apply(new GetReplicaResponse(response, fromReplica)));
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      }
+      return true;
+    }
+
+    /**
+     * Returns true if the active request has been cancelled for a reason other than its timeout, i.e. because the
+     * caller is no longer interested in the result (and so not in the result of the replica either).
+     */
+    private boolean cancelledByCaller() {
+      return active.cancelled() && active.cancellationReason() != CancellationReason.TIMEOUT;
+    }
+
+    private static Throwable unwrap(final Throwable error) {
+      return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+  }
+
   /**
    * Helper method to assemble a stream of requests to the active and all replicas
    *
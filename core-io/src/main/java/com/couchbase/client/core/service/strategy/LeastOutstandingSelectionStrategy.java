@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.strategy;
+
+import com.couchbase.client.core.endpoint.Endpoint;
+import com.couchbase.client.core.endpoint.EndpointState;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.Response;
+import com.couchbase.client.core.service.EndpointSelectionStrategy;
+
+import java.util.List;
+
+/**
+ * Selects the connected endpoint with the least outstanding requests, skipping endpoints whose outbound buffer is
+ * above its high watermark.
+ *
+ * <p>If multiple endpoints have the same number of outstanding requests, the one which comes first in the list
+ * is picked. This keeps the load on the long-lived endpoints at the start of the list under light load, so that
+ * endpoints which have been added to cope with a spike become idle again and can be cleaned up.</p>
+ *
+ * <p>If none of the connected endpoints is writable, the one with the fewest pending outbound bytes is picked
+ * instead. Returning no endpoint would put the request into a retry loop which the retry budget might deny, while
+ * the channel just buffers the write until it drains.</p>
+ */
+public class LeastOutstandingSelectionStrategy implements EndpointSelectionStrategy {
+
+  @Override
+  public <R extends Request<? extends Response>> Endpoint select(final R request, final List<Endpoint> endpoints) {
+    Endpoint selected = null;
+    long leastOutstanding = Long.MAX_VALUE;
+    Endpoint leastBacklogged = null;
+    long leastPendingBytes = Long.MAX_VALUE;
+
+    for (Endpoint endpoint : endpoints) {
+      if (endpoint.state() != EndpointState.CONNECTED || !endpoint.freeToWrite()) {
+        continue;
+      }
+      if (!endpoint.writable()) {
+        long pendingBytes = endpoint.pendingWriteBytes();
+        if (pendingBytes < leastPendingBytes) {
+          leastBacklogged = endpoint;
+          leastPendingBytes = pendingBytes;
+        }
+        continue;
+      }
+      long outstanding = endpoint.outstandingRequests();
+      if (outstanding < leastOutstanding) {
+        selected = endpoint;
+        leastOutstanding = outstanding;
+        if (outstanding == 0) {
+          break;
+        }
+      }
+    }
+
+    return selected != null ? selected : leastBacklogged;
+  }
+
+}
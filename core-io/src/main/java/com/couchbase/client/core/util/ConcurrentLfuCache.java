@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.util;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.error.InvalidArgumentException;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * A bounded cache for concurrent access which keeps the frequently used entries.
+ *
+ * <p>The entries are spread over a number of independently locked LRU segments, so concurrent readers only contend
+ * if they hit the same segment. On top of the LRU order, an approximate frequency of every key is tracked in a
+ * small count-min sketch (TinyLFU). Once a segment is full, a new entry is only admitted if its key has been
+ * requested at least as often as the least recently used entry which would need to be evicted. This keeps a burst
+ * of one-off keys from flushing out the entries which are used all the time. The frequencies are halved
+ * periodically so that the cache adapts when the popular keys change.</p>
+ */
+@Stability.Internal
+public class ConcurrentLfuCache<K, V> {
+
+  private static final int MAX_SEGMENTS = 16;
+
+  private final Segment<K, V>[] segments;
+  private final FrequencySketch sketch;
+  private final BiConsumer<K, V> evictionListener;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maxSize the maximum number of entries.
+   */
+  public ConcurrentLfuCache(final int maxSize) {
+    this(maxSize, (k, v) -> { });
+  }
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maxSize the maximum number of entries.
+   * @param evictionListener called (outside of any lock) with every entry evicted because the cache is full.
+   */
+  @SuppressWarnings("unchecked")
+  public ConcurrentLfuCache(final int maxSize, final BiConsumer<K, V> evictionListener) {
+    if (maxSize < 1) {
+      throw InvalidArgumentException.fromMessage("The maximum size must be at least 1");
+    }
+
+    int numSegments = 1;
+    while (numSegments < MAX_SEGMENTS && numSegments * 2 <= maxSize) {
+      numSegments *= 2;
+    }
+    this.segments = new Segment[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      segments[i] = new Segment<>(maxSize / numSegments + (i < maxSize % numSegments ? 1 : 0));
+    }
+    this.sketch = new FrequencySketch(maxSize);
+    this.evictionListener = evictionListener;
+  }
+
+  /**
+   * Returns the value for the given key, or null if not cached.
+   *
+   * @param key the key to look up.
+   * @return the value or null.
+   */
+  public V get(final K key) {
+    int hash = spread(key.hashCode());
+    sketch.increment(hash);
+
+    V value = segmentFor(hash).get(key);
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  /**
+   * Stores the value for the given key, if it is frequent enough to be admitted into the cache.
+   *
+   * @param key the key to store.
+   * @param value the value to store.
+   * @return true if the entry has been stored, false if it has not been admitted.
+   */
+  public boolean put(final K key, final V value) {
+    int hash = spread(key.hashCode());
+    Segment<K, V> segment = segmentFor(hash);
+
+    Map.Entry<K, V> evicted;
+    synchronized (segment) {
+      if (segment.map.containsKey(key) || segment.map.size() < segment.capacity) {
+        segment.map.put(key, value);
+        return true;
+      }
+
+      Iterator<Map.Entry<K, V>> eldest = segment.map.entrySet().iterator();
+      Map.Entry<K, V> victim = eldest.next();
+      if (sketch.frequency(hash) < sketch.frequency(spread(victim.getKey().hashCode()))) {
+        rejections.increment();
+        return false;
+      }
+      evicted = new AbstractMap.SimpleImmutableEntry<>(victim.getKey(), victim.getValue());
+      eldest.remove();
+      segment.map.put(key, value);
+    }
+
+    evictions.increment();
+    evictionListener.accept(evicted.getKey(), evicted.getValue());
+    return true;
+  }
+
+  /**
+   * Removes the entry for the given key.
+   *
+   * @param key the key to remove.
+   * @return the removed value or null if not present.
+   */
+  public V remove(final K key) {
+    Segment<K, V> segment = segmentFor(spread(key.hashCode()));
+    synchronized (segment) {
+      return segment.map.remove(key);
+    }
+  }
+
+  /**
+   * Removes all entries from the cache, the frequencies are kept.
+   */
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.map.clear();
+      }
+    }
+  }
+
+  /**
+   * Returns the current number of entries.
+   */
+  public int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.map.size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * The number of lookups which found a value.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * The number of lookups which did not find a value.
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * The number of entries evicted to make room for new ones.
+   */
+  public long evictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * The number of entries which have not been admitted since they are less frequent than the eviction candidate.
+   */
+  public long rejections() {
+    return rejections.sum();
+  }
+
+  private Segment<K, V> segmentFor(final int hash) {
+    return segments[(hash >>> 16) & (segments.length - 1)];
+  }
+
+  private static int spread(final int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * A single LRU segment of the cache, guarded by its own monitor.
+   */
+  private static class Segment<K, V> {
+
+    final int capacity;
+    final LinkedHashMap<K, V> map;
+
+    Segment(final int capacity) {
+      this.capacity = capacity;
+      this.map = new LinkedHashMap<>(capacity + 1, 1.0f, true);
+    }
+
+    synchronized V get(final K key) {
+      return map.get(key);
+    }
+  }
+
+  /**
+   * A count-min sketch with four hash functions over small counters (capped at 15) to estimate the frequency of
+   * the keys, which are halved once the number of increments reaches ten times the cache size.
+   */
+  static class FrequencySketch {
+
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = { 0x97CB3127, 0xB7E15163, 0x8F1BBCDC, 0xCA62C1D6 };
+
+    private final AtomicIntegerArray table;
+    private final int mask;
+    private final long resetAt;
+    private final AtomicLong additions = new AtomicLong();
+
+    FrequencySketch(final int maxSize) {
+      int width = 16;
+      while (width < maxSize * 4L && width < (1 << 24)) {
+        width <<= 1;
+      }
+      this.table = new AtomicIntegerArray(width);
+      this.mask = width - 1;
+      this.resetAt = 10L * maxSize;
+    }
+
+    int frequency(final int hash) {
+      int frequency = MAX_COUNT;
+      for (int seed : SEEDS) {
+        frequency = Math.min(frequency, table.get(index(hash, seed)));
+      }
+      return frequency;
+    }
+
+    void increment(final int hash) {
+      boolean added = false;
+      for (int seed : SEEDS) {
+        int index = index(hash, seed);
+        int count = table.get(index);
+        if (count < MAX_COUNT && table.compareAndSet(index, count, count + 1)) {
+          added = true;
+        }
+      }
+      if (added && additions.incrementAndGet() == resetAt) {
+        reset();
+      }
+    }
+
+    /**
+     * Halves all counters, so that old popularity fades out over time.
+     */
+    private void reset() {
+      for (int i = 0; i < table.length(); i++) {
+        int count;
+        do {
+          count = table.get(i);
+        } while (!table.compareAndSet(i, count, count >>> 1));
+      }
+      additions.set(resetAt / 2);
+    }
+
+    private int index(final int hash, final int seed) {
+      int h = (hash ^ seed) * seed;
+      return (h ^ (h >>> 15)) & mask;
+    }
+  }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.util;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * Allocation-free and thread-safe CRC32 checksum calculation.
+ *
+ * <p>Produces the same result as {@link java.util.zip.CRC32}, but does not require a new (stateful) instance
+ * for every computation. Since it is used to calculate the partition for every KV request and document ids are
+ * short, a simple table-driven implementation is more than adequate.</p>
+ */
+@Stability.Internal
+public class Crc32 {
+
+  private static final int[] TABLE = new int[256];
+
+  static {
+    for (int i = 0; i < TABLE.length; i++) {
+      int c = i;
+      for (int k = 0; k < 8; k++) {
+        c = (c & 1) != 0 ? 0xEDB88320 ^ (c >>> 1) : c >>> 1;
+      }
+      TABLE[i] = c;
+    }
+  }
+
+  private Crc32() {
+    throw new AssertionError("not instantiable");
+  }
+
+  /**
+   * Calculates the CRC32 checksum over the full array.
+   *
+   * @param input the input to checksum.
+   * @return the checksum as an unsigned 32 bit value.
+   */
+  public static long crc32(final byte[] input) {
+    return crc32(input, 0, input.length);
+  }
+
+  /**
+   * Calculates the CRC32 checksum over a region of the array.
+   *
+   * @param input the input to checksum.
+   * @param offset the offset where to start.
+   * @param length the number of bytes to include.
+   * @return the checksum as an unsigned 32 bit value.
+   */
+  public static long crc32(final byte[] input, final int offset, final int length) {
+    int c = 0xFFFFFFFF;
+    for (int i = offset; i < offset + length; i++) {
+      c = TABLE[(c ^ input[i]) & 0xFF] ^ (c >>> 8);
+    }
+    return (c ^ 0xFFFFFFFF) & 0xFFFFFFFFL;
+  }
+
+}
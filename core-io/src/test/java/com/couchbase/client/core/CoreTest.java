@@ -94,6 +94,7 @@ class CoreTest {
     when(mock101.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock101.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock101.hasServicesEnabled()).thenReturn(true);
     when(mock101.disconnect()).thenReturn(Mono.empty());
 
 
@@ -104,6 +105,7 @@ class CoreTest {
     when(mock102.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock102.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock102.hasServicesEnabled()).thenReturn(true);
     when(mock102.disconnect()).thenReturn(Mono.empty());
 
     final Map<String, Node> mocks = new HashMap<>();
@@ -153,14 +155,15 @@ class CoreTest {
     clusterConfig.setBucketConfig(twoNodeConfig);
     configs.onNext(clusterConfig);
 
+    // 101 did not change, so it is not touched again
 
-    verify(mock101, times(2))
+    verify(mock101, times(1))
       .addService(ServiceType.VIEWS, 8092, Optional.empty());
-    verify(mock101, times(2))
+    verify(mock101, times(1))
       .addService(ServiceType.MANAGER, 8091, Optional.empty());
-    verify(mock101, times(2))
+    verify(mock101, times(1))
       .addService(ServiceType.QUERY, 8093, Optional.empty());
-    verify(mock101, times(2))
+    verify(mock101, times(1))
       .addService(ServiceType.KV, 11210, Optional.of("travel-sample"));
 
     verify(mock102, times(1))
@@ -189,6 +192,7 @@ class CoreTest {
     when(mock101.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock101.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock101.hasServicesEnabled()).thenReturn(true);
     when(mock101.disconnect()).thenReturn(Mono.empty());
 
 
@@ -199,6 +203,7 @@ class CoreTest {
     when(mock102.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock102.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock102.hasServicesEnabled()).thenReturn(true);
     when(mock102.disconnect()).thenReturn(Mono.empty());
 
 
@@ -252,22 +257,23 @@ class CoreTest {
     clusterConfig.setBucketConfig(twoNodesConfigMore);
     configs.onNext(clusterConfig);
 
-    verify(mock101, times(2))
+    // only the search service on 102 changed, so nothing else is touched again
+    verify(mock101, times(1))
       .addService(ServiceType.VIEWS, 8092, Optional.empty());
-    verify(mock101, times(2))
+    verify(mock101, times(1))
       .addService(ServiceType.MANAGER, 8091, Optional.empty());
-    verify(mock101, times(2))
+    verify(mock101, times(1))
       .addService(ServiceType.QUERY, 8093, Optional.empty());
-    verify(mock101, times(2))
+    verify(mock101, times(1))
       .addService(ServiceType.KV, 11210, Optional.of("travel-sample"));
 
-    verify(mock102, times(2))
+    verify(mock102, times(1))
       .addService(ServiceType.VIEWS, 8092, Optional.empty());
-    verify(mock102, times(2))
+    verify(mock102, times(1))
       .addService(ServiceType.MANAGER, 8091, Optional.empty());
-    verify(mock102, times(2))
+    verify(mock102, times(1))
       .addService(ServiceType.QUERY, 8093, Optional.empty());
-    verify(mock102, times(2))
+    verify(mock102, times(1))
       .addService(ServiceType.KV, 11210, Optional.of("travel-sample"));
 
     verify(mock102, times(1))
@@ -290,6 +296,7 @@ class CoreTest {
     when(mock101.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock101.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock101.hasServicesEnabled()).thenReturn(true);
     when(mock101.disconnect()).thenReturn(Mono.empty());
 
     Node mock102 = mock(Node.class);
@@ -299,6 +306,7 @@ class CoreTest {
     when(mock102.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock102.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock102.hasServicesEnabled()).thenReturn(true);
     when(mock102.disconnect()).thenReturn(Mono.empty());
 
 
@@ -374,6 +382,7 @@ class CoreTest {
     when(mock101.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock101.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock101.hasServicesEnabled()).thenReturn(true);
     when(mock101.disconnect()).thenReturn(Mono.empty());
 
     Node mock102 = mock(Node.class);
@@ -383,6 +392,7 @@ class CoreTest {
     when(mock102.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock102.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock102.hasServicesEnabled()).thenReturn(true);
     when(mock102.disconnect()).thenReturn(Mono.empty());
 
     final Map<String, Node> mocks = new HashMap<>();
@@ -460,6 +470,7 @@ class CoreTest {
     when(mock101.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock101.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock101.hasServicesEnabled()).thenReturn(true);
     when(mock101.disconnect()).thenReturn(Mono.empty());
 
 
@@ -470,6 +481,7 @@ class CoreTest {
     when(mock102.removeService(any(ServiceType.class), any(Optional.class)))
       .thenReturn(Mono.empty());
     when(mock102.serviceEnabled(any(ServiceType.class))).thenReturn(true);
+    when(mock102.hasServicesEnabled()).thenReturn(true);
     when(mock102.disconnect()).thenReturn(Mono.empty());
 
     final Map<String, Node> mocks = new HashMap<>();
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core;
+
+import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.msg.CancellationReason;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.msg.Response;
+import com.couchbase.client.core.msg.kv.NoopRequest;
+import com.couchbase.client.core.msg.kv.NoopResponse;
+import com.couchbase.client.core.retry.RetryStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.couchbase.client.test.Util.waitUntilCondition;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verifies the functionality of the {@link RequestTimeoutScheduler}.
+ *
+ * <p>Unless noted otherwise, the scheduler is not started and driven through its clock and
+ * {@link RequestTimeoutScheduler#tick()} instead.</p>
+ */
+class RequestTimeoutSchedulerTest {
+
+  private static final Duration TICK = Duration.ofMillis(10);
+
+  private final AtomicLong clock = new AtomicLong(System.nanoTime());
+
+  @Test
+  void cancelsRequestOnceDeadlinePassed() {
+    RequestTimeoutScheduler scheduler = new RequestTimeoutScheduler(1, TICK, clock::get);
+    NoopRequest request = request(Duration.ofMillis(50));
+    register(scheduler, request);
+
+    advance(scheduler, Duration.ofMillis(40));
+    assertFalse(request.completed());
+
+    advance(scheduler, Duration.ofMillis(20));
+    assertTrue(request.cancelled());
+    assertEquals(CancellationReason.TIMEOUT, request.cancellationReason());
+    assertEquals(0, scheduler.size());
+  }
+
+  @Test
+  void cancelsRequestWhoseDeadlinePassedBeforeRegistration() {
+    RequestTimeoutScheduler scheduler = new RequestTimeoutScheduler(1, TICK, clock::get);
+    NoopRequest request = request(Duration.ZERO);
+    register(scheduler, request);
+
+    advance(scheduler, TICK);
+    assertTrue(request.timeoutElapsed());
+    assertEquals(0, scheduler.size());
+  }
+
+  /**
+   * Completing a request does not remove it from the wheel, it is only dropped once the wheel purges it.
+   */
+  @Test
+  void dropsCompletedRequestsLazily() {
+    RequestTimeoutScheduler scheduler = new RequestTimeoutScheduler(2, TICK, clock::get);
+    NoopRequest first = request(Duration.ofSeconds(30));
+    NoopRequest second = request(Duration.ofSeconds(30));
+    register(scheduler, first);
+    register(scheduler, second);
+
+    first.succeed(mock(NoopResponse.class));
+    assertEquals(2, scheduler.size());
+
+    advance(scheduler, TICK.multipliedBy(10));
+    assertEquals(1, scheduler.size());
+    assertFalse(second.completed());
+
+    second.cancel(CancellationReason.STOPPED_LISTENING);
+    advance(scheduler, TICK.multipliedBy(10));
+    assertEquals(0, scheduler.size());
+  }
+
+  @Test
+  void cancelsRequestsRegisteredWhileIdle() {
+    RequestTimeoutScheduler scheduler = new RequestTimeoutScheduler(1, TICK);
+    scheduler.start();
+    try {
+      NoopRequest shortTimeout = request(Duration.ofMillis(50));
+      NoopRequest longTimeout = request(Duration.ofSeconds(30));
+      register(scheduler, longTimeout);
+      register(scheduler, shortTimeout);
+
+      waitUntilCondition(shortTimeout::cancelled);
+      assertEquals(CancellationReason.TIMEOUT, shortTimeout.cancellationReason());
+      assertFalse(longTimeout.completed());
+    } finally {
+      scheduler.stop();
+    }
+  }
+
+  /**
+   * Moves the clock forward and lets the scheduler catch up, like its threads would once they wake up.
+   */
+  private void advance(final RequestTimeoutScheduler scheduler, final Duration duration) {
+    clock.addAndGet(duration.toNanos());
+    scheduler.tick();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void register(final RequestTimeoutScheduler scheduler, final NoopRequest request) {
+    scheduler.register((Request<Response>) (Request<?>) request);
+  }
+
+  private static NoopRequest request(final Duration timeout) {
+    return new NoopRequest(timeout, mock(RequestContext.class), mock(RetryStrategy.class),
+      mock(CollectionIdentifier.class));
+  }
+
+}
@@ -23,11 +23,14 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 
+import static com.couchbase.client.test.Util.waitUntilCondition;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class TimerTest {
 
@@ -55,9 +58,7 @@ class TimerTest {
       verify(request, times(1)).cancel(CancellationReason.TOO_MANY_REQUESTS_IN_RETRY);
       assertEquals(2, timer.outstandingForRetry());
 
-      Thread.sleep(1000);
-
-      assertEquals(0, timer.outstandingForRetry());
+      waitUntilCondition(() -> timer.outstandingForRetry() == 0);
       request = mock(Request.class);
       timer.scheduleForRetry(core, request, Duration.ofMillis(500));
       verify(request, never()).cancel(CancellationReason.TOO_MANY_REQUESTS_IN_RETRY);
@@ -67,4 +68,29 @@ class TimerTest {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  @SuppressWarnings("unchecked")
+  void cancelsRequestOnceAbsoluteTimeoutReached() {
+    Timer timer = Timer.createAndStart(2);
+    try {
+      // the completed request expires first, so it has been dropped once the pending one is cancelled.
+      Request<Response> completed = mock(Request.class);
+      when(completed.id()).thenReturn(1L);
+      when(completed.absoluteTimeout()).thenReturn(System.nanoTime() + Duration.ofMillis(20).toNanos());
+      when(completed.completed()).thenReturn(true);
+
+      Request<Response> pending = mock(Request.class);
+      when(pending.id()).thenReturn(1L);
+      when(pending.absoluteTimeout()).thenReturn(System.nanoTime() + Duration.ofMillis(100).toNanos());
+
+      timer.register(completed);
+      timer.register(pending);
+
+      verify(pending, timeout(1000).times(1)).cancel(CancellationReason.TIMEOUT);
+      verify(completed, never()).cancel(CancellationReason.TIMEOUT);
+    } finally {
+      timer.stop();
+    }
+  }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core;
+
+import com.couchbase.client.core.config.BucketConfig;
+import com.couchbase.client.core.config.ClusterConfig;
+import com.couchbase.client.core.config.NodeInfo;
+import com.couchbase.client.core.node.NodeIdentifier;
+import com.couchbase.client.core.service.ServiceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link TopologyTracker}.
+ */
+class TopologyTrackerTest {
+
+  private static final int NUM_BUCKETS = 100;
+  private static final int NUM_NODES = 50;
+
+  /**
+   * With 100 buckets on 50 nodes, a new revision of one bucket config which does not change its nodes must not
+   * produce any change at all.
+   */
+  @Test
+  void onlyDiffsChangedBucketConfigs() {
+    List<NodeInfo> nodes = new ArrayList<>();
+    for (int i = 0; i < NUM_NODES; i++) {
+      nodes.add(node("10.0.0." + i, 11210));
+    }
+    ClusterConfig config = new ClusterConfig();
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      config.setBucketConfig(bucketConfig("bucket-" + i, nodes));
+    }
+
+    TopologyTracker tracker = new TopologyTracker(false);
+    TopologyTracker.Changes initial = tracker.diff(config, Optional.empty());
+    assertEquals(NUM_BUCKETS * NUM_NODES, initial.bucketChanges().size());
+    assertTrue(initial.globalChanges().isEmpty());
+    assertTrue(initial.topologyChanged());
+
+    TopologyTracker.Changes unchanged = tracker.diff(config, Optional.empty());
+    assertTrue(unchanged.bucketChanges().isEmpty());
+    assertFalse(unchanged.topologyChanged());
+
+    config.setBucketConfig(bucketConfig("bucket-42", new ArrayList<>(nodes)));
+    TopologyTracker.Changes revBump = tracker.diff(config, Optional.empty());
+    assertTrue(revBump.bucketChanges().isEmpty());
+    assertFalse(revBump.topologyChanged());
+  }
+
+  @Test
+  void diffsServicesAndPortsOfChangedNodes() {
+    ClusterConfig config = new ClusterConfig();
+    config.setBucketConfig(bucketConfig("travel", Collections.singletonList(node("10.0.0.1", 11210))));
+
+    TopologyTracker tracker = new TopologyTracker(false);
+    TopologyTracker.NodeChange initial = tracker.diff(config, Optional.empty()).bucketChanges().get(0);
+    assertEquals(EnumSet.of(ServiceType.KV, ServiceType.MANAGER), initial.servicesToEnsure().keySet());
+    assertEquals(EnumSet.complementOf(EnumSet.of(ServiceType.KV, ServiceType.MANAGER)), initial.servicesToRemove());
+    assertEquals(Optional.of("travel"), initial.bucket());
+
+    config.setBucketConfig(bucketConfig("travel", Collections.singletonList(node("10.0.0.1", 11211))));
+    TopologyTracker.Changes portChanged = tracker.diff(config, Optional.empty());
+    assertEquals(1, portChanged.bucketChanges().size());
+    TopologyTracker.NodeChange change = portChanged.bucketChanges().get(0);
+    assertEquals(Collections.singletonMap(ServiceType.KV, 11211), change.servicesToEnsure());
+    assertEquals(EnumSet.of(ServiceType.KV), change.servicesToRemove());
+
+    Map<ServiceType, Integer> withoutKv = new HashMap<>();
+    withoutKv.put(ServiceType.MANAGER, 8091);
+    config.setBucketConfig(bucketConfig(
+      "travel",
+      Collections.singletonList(new NodeInfo("10.0.0.1", withoutKv, Collections.emptyMap(), null))
+    ));
+    change = tracker.diff(config, Optional.empty()).bucketChanges().get(0);
+    assertTrue(change.servicesToEnsure().isEmpty());
+    assertEquals(EnumSet.of(ServiceType.KV), change.servicesToRemove());
+  }
+
+  @Test
+  void reportsRemovedNodesAndBucketsAsTopologyChange() {
+    ClusterConfig config = new ClusterConfig();
+    List<NodeInfo> nodes = new ArrayList<>();
+    nodes.add(node("10.0.0.1", 11210));
+    nodes.add(node("10.0.0.2", 11210));
+    config.setBucketConfig(bucketConfig("travel", nodes));
+    config.setBucketConfig(bucketConfig("beer", nodes));
+
+    TopologyTracker tracker = new TopologyTracker(false);
+    tracker.diff(config, Optional.empty());
+
+    config.setBucketConfig(bucketConfig("travel", Collections.singletonList(nodes.get(0))));
+    TopologyTracker.Changes nodeRemoved = tracker.diff(config, Optional.empty());
+    assertTrue(nodeRemoved.bucketChanges().isEmpty());
+    assertTrue(nodeRemoved.topologyChanged());
+
+    config.deleteBucketConfig("beer");
+    TopologyTracker.Changes bucketClosed = tracker.diff(config, Optional.empty());
+    assertTrue(bucketClosed.bucketChanges().isEmpty());
+    assertTrue(bucketClosed.topologyChanged());
+  }
+
+  @Test
+  void appliesInvalidatedAndForgottenNodesAgain() {
+    ClusterConfig config = new ClusterConfig();
+    config.setBucketConfig(bucketConfig("travel", Collections.singletonList(node("10.0.0.1", 11210))));
+
+    TopologyTracker tracker = new TopologyTracker(false);
+    TopologyTracker.NodeChange initial = tracker.diff(config, Optional.empty()).bucketChanges().get(0);
+
+    tracker.invalidate(initial);
+    TopologyTracker.Changes afterInvalidate = tracker.diff(config, Optional.empty());
+    assertEquals(1, afterInvalidate.bucketChanges().size());
+    assertEquals(initial.servicesToEnsure(), afterInvalidate.bucketChanges().get(0).servicesToEnsure());
+
+    tracker.forgetNode(new NodeIdentifier("10.0.0.1", 8091));
+    assertEquals(1, tracker.diff(config, Optional.empty()).bucketChanges().size());
+    assertTrue(tracker.diff(config, Optional.empty()).bucketChanges().isEmpty());
+  }
+
+  private static NodeInfo node(final String hostname, final int kvPort) {
+    Map<ServiceType, Integer> services = new HashMap<>();
+    services.put(ServiceType.MANAGER, 8091);
+    services.put(ServiceType.KV, kvPort);
+    return new NodeInfo(hostname, services, Collections.emptyMap(), null);
+  }
+
+  private static BucketConfig bucketConfig(final String name, final List<NodeInfo> nodes) {
+    BucketConfig config = mock(BucketConfig.class);
+    when(config.name()).thenReturn(name);
+    when(config.nodes()).thenReturn(nodes);
+    return config;
+  }
+
+}
@@ -16,12 +16,15 @@
 
 package com.couchbase.client.core.cnc;
 
+import com.couchbase.client.core.cnc.events.core.EventsSuppressedEvent;
 import org.junit.jupiter.api.Test;
 import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.couchbase.client.test.Util.threadRunning;
 import static com.couchbase.client.test.Util.waitUntilCondition;
@@ -106,4 +109,91 @@ class DefaultEventBusTest {
     assertEquals(eventsReceived.get(), eventsSent);
   }
 
+  @Test
+  void wakesUpOnPublishWhileIdle() {
+    DefaultEventBus eventBus = DefaultEventBus
+      .builder(Schedulers.parallel())
+      .idleSleepDuration(Duration.ofMinutes(1))
+      .build();
+
+    AtomicInteger eventsReceived = new AtomicInteger();
+    eventBus.subscribe(event -> eventsReceived.incrementAndGet());
+    eventBus.start().block();
+
+    try {
+      // give the thread time to spin down and park
+      Thread.sleep(200);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+
+    eventBus.publish(mock(Event.class));
+    waitUntilCondition(() -> eventsReceived.get() == 1, Duration.ofSeconds(5));
+
+    eventBus.stop(Duration.ofSeconds(5)).block();
+  }
+
+  @Test
+  void rateLimitsAndSummarizesEventTypes() {
+    DefaultEventBus eventBus = DefaultEventBus
+      .builder(Schedulers.parallel())
+      .rateLimit(LimitedEvent.class, 10)
+      .suppressionSummaryInterval(Duration.ofMillis(50))
+      .errorLogging(Optional.empty())
+      .build();
+
+    AtomicInteger limitedReceived = new AtomicInteger();
+    AtomicLong suppressed = new AtomicLong();
+    eventBus.subscribe(event -> {
+      if (event instanceof LimitedEvent) {
+        limitedReceived.incrementAndGet();
+      } else if (event instanceof EventsSuppressedEvent) {
+        suppressed.addAndGet(((EventsSuppressedEvent) event).suppressed().getOrDefault("LimitedEvent", 0L));
+      }
+    });
+    eventBus.start().block();
+
+    int eventsSent = 1000;
+    for (int i = 0; i < eventsSent; i++) {
+      assertEquals(EventBus.PublishResult.SUCCESS, eventBus.publish(new LimitedEvent()));
+    }
+
+    waitUntilCondition(() -> limitedReceived.get() + suppressed.get() == eventsSent);
+    assertTrue(limitedReceived.get() <= 20);
+
+    eventBus.stop(Duration.ofSeconds(5)).block();
+  }
+
+  @Test
+  void doesNotRateLimitByDefault() {
+    DefaultEventBus eventBus = DefaultEventBus.create(Schedulers.parallel());
+
+    AtomicInteger received = new AtomicInteger();
+    eventBus.subscribe(event -> {
+      if (event instanceof LimitedEvent) {
+        received.incrementAndGet();
+      }
+    });
+    eventBus.start().block();
+
+    int eventsSent = 1000;
+    for (int i = 0; i < eventsSent; i++) {
+      assertEquals(EventBus.PublishResult.SUCCESS, eventBus.publish(new LimitedEvent()));
+    }
+    waitUntilCondition(() -> received.get() == eventsSent);
+
+    eventBus.stop(Duration.ofSeconds(5)).block();
+  }
+
+  static class LimitedEvent extends AbstractEvent {
+    LimitedEvent() {
+      super(Severity.DEBUG, Category.REQUEST, Duration.ZERO, null);
+    }
+
+    @Override
+    public String description() {
+      return "limited";
+    }
+  }
+
 }
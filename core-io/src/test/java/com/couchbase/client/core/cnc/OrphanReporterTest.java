@@ -16,14 +16,26 @@
 
 package com.couchbase.client.core.cnc;
 
+import com.couchbase.client.core.cnc.events.tracing.OrphansRecordedEvent;
 import com.couchbase.client.core.env.OrphanReporterConfig;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.msg.kv.GetRequest;
+import com.couchbase.client.core.service.ServiceType;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.couchbase.client.test.Util.waitUntilCondition;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Verifies basic functionality of the {@link OrphanReporter}.
@@ -56,6 +68,55 @@ class OrphanReporterTest {
     reporter.stop().block();
   }
 
+  /**
+   * Orphans which do not fit into the queue are reported once, as the dropped count of their service.
+   */
+  @Test
+  void reportsDroppedOrphansOnce() {
+    SimpleEventBus eventBus = new SimpleEventBus(false);
+    OrphanReporter reporter = new OrphanReporter(
+      eventBus,
+      OrphanReporterConfig.queueLength(2).emitInterval(Duration.ofMillis(10)).build()
+    );
+
+    for (int i = 0; i < 10; i++) {
+      reporter.report(orphan());
+    }
+    long dropped = reporter.droppedRecords();
+    assertTrue(dropped > 0);
+
+    reporter.start().block();
+    try {
+      waitUntilCondition(() -> orphanEvents(eventBus).stream().anyMatch(e -> !e.contains("\"top_requests\":[]")));
+      List<String> withDrops = orphanEvents(eventBus)
+        .stream()
+        .filter(e -> e.contains("dropped_count"))
+        .collect(Collectors.toList());
+      assertEquals(1, withDrops.size());
+      assertTrue(withDrops.get(0).contains("\"dropped_count\":" + dropped));
+    } finally {
+      reporter.stop().block();
+    }
+  }
+
+  private static List<String> orphanEvents(final SimpleEventBus eventBus) {
+    return eventBus
+      .publishedEvents()
+      .stream()
+      .filter(e -> e instanceof OrphansRecordedEvent)
+      .map(Event::description)
+      .collect(Collectors.toList());
+  }
+
+  private static GetRequest orphan() {
+    GetRequest request = mock(GetRequest.class);
+    when(request.context()).thenReturn(mock(RequestContext.class));
+    when(request.serviceType()).thenReturn(ServiceType.KV);
+    when(request.name()).thenReturn("get");
+    when(request.timeout()).thenReturn(Duration.ofSeconds(1));
+    return request;
+  }
+
   private static OrphanReporter newOrphanReporter(OrphanReporterConfig.Builder builder) {
     return new OrphanReporter(new SimpleEventBus(false), builder.build());
   }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc;
+
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.service.ServiceType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link TopRequestRecords}.
+ */
+class TopRequestRecordsTest {
+
+  @Test
+  void keepsSlowestRecordsInDescendingOrder() {
+    TopRequestRecords top = new TopRequestRecords(3);
+
+    List<Long> latencies = new ArrayList<>();
+    for (long i = 1; i <= 100; i++) {
+      latencies.add(i);
+    }
+    Collections.shuffle(latencies);
+    for (long latency : latencies) {
+      top.offer(record(latency));
+    }
+
+    assertEquals(100, top.totalCount());
+    assertEquals(asList(100L, 99L, 98L), latencies(top));
+  }
+
+  @Test
+  void keepsAllRecordsBelowCapacity() {
+    TopRequestRecords top = new TopRequestRecords(10);
+    top.offer(record(5));
+    top.offer(record(20));
+    top.offer(record(1));
+
+    assertEquals(3, top.totalCount());
+    assertEquals(asList(20L, 5L, 1L), latencies(top));
+  }
+
+  @Test
+  void clearResetsRecordsAndCount() {
+    TopRequestRecords top = new TopRequestRecords(2);
+    top.offer(record(5));
+    top.offer(record(20));
+    top.offer(record(1));
+    top.clear();
+
+    assertTrue(top.isEmpty());
+    assertEquals(0, top.totalCount());
+    assertTrue(top.records().isEmpty());
+
+    top.offer(record(3));
+    assertEquals(asList(3L), latencies(top));
+  }
+
+  @Test
+  void capturesRequestFields() {
+    RequestRecord record = record(1234);
+
+    assertEquals(ServiceType.KV, record.serviceType());
+    assertEquals("get", record.name());
+    assertEquals("0x1", record.operationId());
+    assertEquals(1234, record.logicalRequestLatency());
+    assertEquals(2500, record.timeoutMillis());
+  }
+
+  private static List<Long> latencies(final TopRequestRecords top) {
+    return top.records().stream().map(RequestRecord::logicalRequestLatency).collect(Collectors.toList());
+  }
+
+  private static RequestRecord record(final long latency) {
+    RequestContext ctx = mock(RequestContext.class);
+    when(ctx.logicalRequestLatency()).thenReturn(latency);
+    Request<?> request = mock(Request.class);
+    when(request.context()).thenReturn(ctx);
+    when(request.serviceType()).thenReturn(ServiceType.KV);
+    when(request.name()).thenReturn("get");
+    when(request.operationId()).thenReturn("0x1");
+    when(request.timeout()).thenReturn(Duration.ofMillis(2500));
+    return RequestRecord.from(request);
+  }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc.metrics;
+
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.EventBus;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.env.LoggingMeterConfig;
+import com.couchbase.client.core.error.InvalidArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verifies the functionality of the {@link LoggingMeter}.
+ */
+class LoggingMeterTest {
+
+  private static final Map<String, String> KV_TAGS =
+    Collections.singletonMap(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+
+  @Test
+  void returnsSameInstancesForNameAndTags() {
+    LoggingMeter meter = LoggingMeter.create(mock(EventBus.class), LoggingMeterConfig.create());
+
+    assertSame(
+      meter.counter(TracingIdentifiers.METER_REQUESTS, KV_TAGS),
+      meter.counter(TracingIdentifiers.METER_REQUESTS, KV_TAGS)
+    );
+    assertNotSame(
+      meter.counter(TracingIdentifiers.METER_REQUESTS, KV_TAGS),
+      meter.counter(TracingIdentifiers.METER_RETRIES, KV_TAGS)
+    );
+    assertSame(
+      meter.valueRecorder(TracingIdentifiers.METER_OPERATIONS, KV_TAGS),
+      meter.valueRecorder(TracingIdentifiers.METER_OPERATIONS, KV_TAGS)
+    );
+  }
+
+  @Test
+  void countersAggregateConcurrentIncrements() throws Exception {
+    LoggingMeter meter = LoggingMeter.create(mock(EventBus.class), LoggingMeterConfig.create());
+    AggregatingCounter counter = (AggregatingCounter) meter.counter(TracingIdentifiers.METER_REQUESTS, KV_TAGS);
+
+    int threads = 4;
+    int increments = 10_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch latch = new CountDownLatch(threads);
+    try {
+      for (int i = 0; i < threads; i++) {
+        executor.execute(() -> {
+          Counter c = meter.counter(TracingIdentifiers.METER_REQUESTS, KV_TAGS);
+          for (int j = 0; j < increments; j++) {
+            c.incrementBy(1);
+          }
+          latch.countDown();
+        });
+      }
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals((long) threads * increments, counter.sumThenReset());
+    assertEquals(0, counter.sumThenReset());
+  }
+
+  @Test
+  void sortsConfiguredPercentiles() {
+    LoggingMeterConfig config = LoggingMeterConfig.percentiles(99.9, 50.0, 100.0).build();
+    assertArrayEquals(new double[] { 50.0, 99.9, 100.0 }, config.percentiles());
+    assertArrayEquals(LoggingMeterConfig.Defaults.defaultPercentiles(), LoggingMeterConfig.create().percentiles());
+  }
+
+  @Test
+  void rejectsInvalidPercentiles() {
+    assertThrows(InvalidArgumentException.class, () -> LoggingMeterConfig.percentiles());
+    assertThrows(InvalidArgumentException.class, () -> LoggingMeterConfig.percentiles(0.0));
+    assertThrows(InvalidArgumentException.class, () -> LoggingMeterConfig.percentiles(100.1));
+  }
+
+}
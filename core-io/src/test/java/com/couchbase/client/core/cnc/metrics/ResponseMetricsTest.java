@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc.metrics;
+
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import com.couchbase.client.core.msg.CancellationReason;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.msg.kv.GetRequest;
+import com.couchbase.client.core.msg.kv.KeyValueRequest;
+import com.couchbase.client.core.msg.kv.UpsertRequest;
+import com.couchbase.client.core.node.NodeIdentifier;
+import com.couchbase.client.core.service.ServiceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link ResponseMetrics}.
+ */
+class ResponseMetricsTest {
+
+  private static final NodeIdentifier NODE_1 = new NodeIdentifier("10.0.0.1", 8091);
+  private static final NodeIdentifier NODE_2 = new NodeIdentifier("10.0.0.2", 8091);
+
+  @Test
+  void resolvesRecorderOncePerOperation() {
+    Meter meter = newMeter();
+    ResponseMetrics metrics = new ResponseMetrics(meter);
+
+    ValueRecorder get = metrics.recorder(request(GetRequest.class, "get", NODE_1, "travel"));
+    assertSame(get, metrics.recorder(request(GetRequest.class, "get", NODE_2, "beer")));
+
+    ValueRecorder upsert = metrics.recorder(request(UpsertRequest.class, "upsert", NODE_1, "travel"));
+    assertNotSame(get, upsert);
+    assertSame(upsert, metrics.recorder(request(UpsertRequest.class, "upsert", NODE_1, "travel")));
+
+    Map<String, String> expectedTags = new HashMap<>();
+    expectedTags.put(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    expectedTags.put(TracingIdentifiers.ATTR_OPERATION, "get");
+    verify(meter, times(1)).valueRecorder(TracingIdentifiers.METER_OPERATIONS, expectedTags);
+    verify(meter, times(2)).valueRecorder(eq(TracingIdentifiers.METER_OPERATIONS), anyMap());
+  }
+
+  @Test
+  void fallsBackToNameIfItDiffersWithinClass() {
+    ResponseMetrics metrics = new ResponseMetrics(newMeter());
+
+    ValueRecorder first = metrics.recorder(request(GetRequest.class, "first", NODE_1, "travel"));
+    ValueRecorder second = metrics.recorder(request(GetRequest.class, "second", NODE_1, "travel"));
+
+    assertNotSame(first, second);
+    assertSame(first, metrics.recorder(request(GetRequest.class, "first", NODE_1, "travel")));
+    assertSame(second, metrics.recorder(request(GetRequest.class, "second", NODE_1, "travel")));
+  }
+
+  @Test
+  void splitsByNodeAndBucketIfEnabled() {
+    Meter meter = newMeter();
+    ResponseMetrics metrics = new ResponseMetrics(meter, true, true);
+
+    ValueRecorder node1Travel = metrics.recorder(request(GetRequest.class, "get", NODE_1, "travel"));
+    ValueRecorder node2Travel = metrics.recorder(request(GetRequest.class, "get", NODE_2, "travel"));
+    ValueRecorder node1Beer = metrics.recorder(request(GetRequest.class, "get", NODE_1, "beer"));
+
+    assertNotSame(node1Travel, node2Travel);
+    assertNotSame(node1Travel, node1Beer);
+    assertSame(node1Travel, metrics.recorder(request(GetRequest.class, "get", NODE_1, "travel")));
+
+    Map<String, String> expectedTags = new HashMap<>();
+    expectedTags.put(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    expectedTags.put(TracingIdentifiers.ATTR_OPERATION, "get");
+    expectedTags.put(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, "10.0.0.2");
+    expectedTags.put(TracingIdentifiers.ATTR_NAME, "travel");
+    verify(meter, times(1)).valueRecorder(TracingIdentifiers.METER_OPERATIONS, expectedTags);
+    verify(meter, times(3)).valueRecorder(eq(TracingIdentifiers.METER_OPERATIONS), anyMap());
+  }
+
+  @Test
+  void dropsRecordersOfRemovedNode() {
+    ResponseMetrics metrics = new ResponseMetrics(newMeter(), true, false);
+
+    ValueRecorder node1 = metrics.recorder(request(GetRequest.class, "get", NODE_1, "travel"));
+    ValueRecorder node2 = metrics.recorder(request(GetRequest.class, "get", NODE_2, "travel"));
+
+    metrics.removeNode(NODE_1);
+    assertSame(node2, metrics.recorder(request(GetRequest.class, "get", NODE_2, "travel")));
+    assertNotSame(node1, metrics.recorder(request(GetRequest.class, "get", NODE_1, "travel")));
+  }
+
+  @Test
+  void countsRequestsRetriesAndTimeouts() {
+    Meter meter = newMeter();
+    Counter requests = mock(Counter.class);
+    Counter retries = mock(Counter.class);
+    Counter timeouts = mock(Counter.class);
+    Map<String, String> tags = Collections.singletonMap(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    when(meter.counter(TracingIdentifiers.METER_REQUESTS, tags)).thenReturn(requests);
+    when(meter.counter(TracingIdentifiers.METER_RETRIES, tags)).thenReturn(retries);
+    when(meter.counter(TracingIdentifiers.METER_TIMEOUTS, tags)).thenReturn(timeouts);
+    ResponseMetrics metrics = new ResponseMetrics(meter);
+
+    GetRequest succeeded = request(GetRequest.class, "get", NODE_1, "travel");
+    metrics.countCompleted(succeeded);
+
+    GetRequest timedOut = request(GetRequest.class, "get", NODE_1, "travel");
+    when(timedOut.context().retryAttempts()).thenReturn(3);
+    when(timedOut.cancellationReason()).thenReturn(CancellationReason.TIMEOUT);
+    metrics.countCompleted(timedOut);
+
+    verify(requests, times(2)).incrementBy(1);
+    verify(retries, times(1)).incrementBy(3);
+    verify(timeouts, times(1)).incrementBy(1);
+    verify(meter, times(1)).counter(TracingIdentifiers.METER_REQUESTS, tags);
+  }
+
+  private static Meter newMeter() {
+    Meter meter = mock(Meter.class);
+    when(meter.valueRecorder(any(), any())).thenAnswer(invocation -> mock(ValueRecorder.class));
+    return meter;
+  }
+
+  private static <T extends KeyValueRequest<?>> T request(final Class<T> type, final String name,
+                                                          final NodeIdentifier node, final String bucket) {
+    RequestContext ctx = mock(RequestContext.class);
+    when(ctx.lastDispatchedToNode()).thenReturn(node);
+    T request = mock(type);
+    when(request.context()).thenReturn(ctx);
+    when(request.serviceType()).thenReturn(ServiceType.KV);
+    when(request.name()).thenReturn(name);
+    when(request.bucket()).thenReturn(bucket);
+    return request;
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.config;
+
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
+import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the functionality of the {@link ConfigRevision}.
+ */
+class ConfigRevisionTest {
+
+  @Test
+  void extractsTopLevelRevisionOnly() {
+    String config = "{\"nodes\":[{\"rev\":1,\"hostname\":\"a\\\"rev\\\":2\"}],"
+      + "\"name\":\"rev\", \"rev\" : 1234,\"nested\":{\"revEpoch\":7},\"revEpoch\":3}";
+
+    ConfigRevision revision = ConfigRevision.from(config);
+    assertEquals(1234, revision.rev());
+    assertEquals(3, revision.revEpoch());
+
+    ByteBuf buffer = Unpooled.copiedBuffer("xx" + config, UTF_8);
+    buffer.skipBytes(2);
+    try {
+      revision = ConfigRevision.from(buffer);
+      assertEquals(1234, revision.rev());
+      assertEquals(3, revision.revEpoch());
+      assertEquals(2, buffer.readerIndex());
+    } finally {
+      buffer.release();
+    }
+  }
+
+  @Test
+  void defaultsEpochToZeroAndReturnsNullWithoutRev() {
+    ConfigRevision revision = ConfigRevision.from("{\"rev\":5,\"name\":\"default\"}");
+    assertEquals(5, revision.rev());
+    assertEquals(0, revision.revEpoch());
+
+    assertNull(ConfigRevision.from("{\"name\":\"default\",\"nodes\":[{\"rev\":1}]}"));
+    assertNull(ConfigRevision.from(""));
+  }
+
+  @Test
+  void comparesEpochBeforeRev() {
+    ConfigRevision current = new ConfigRevision(2, 100);
+
+    assertTrue(new ConfigRevision(3, 1).newerThan(current));
+    assertTrue(new ConfigRevision(2, 101).newerThan(current));
+    assertFalse(new ConfigRevision(2, 100).newerThan(current));
+    assertFalse(new ConfigRevision(1, 500).newerThan(current));
+    assertTrue(new ConfigRevision(2, 1).newerThan((ConfigRevision) null));
+  }
+
+}
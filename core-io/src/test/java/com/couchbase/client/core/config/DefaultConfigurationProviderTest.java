@@ -22,6 +22,8 @@ import com.couchbase.client.core.cnc.Event;
 import com.couchbase.client.core.cnc.SimpleEventBus;
 import com.couchbase.client.core.cnc.events.config.CollectionMapRefreshFailedEvent;
 import com.couchbase.client.core.cnc.events.config.CollectionMapRefreshIgnoredEvent;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
+import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
 import com.couchbase.client.core.env.Authenticator;
 import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.env.IoConfig;
@@ -33,6 +35,9 @@ import com.couchbase.client.core.msg.CancellationReason;
 import com.couchbase.client.core.msg.ResponseStatus;
 import com.couchbase.client.core.msg.kv.GetCollectionIdRequest;
 import com.couchbase.client.core.msg.kv.GetCollectionIdResponse;
+import com.couchbase.client.core.msg.kv.GetCollectionManifestRequest;
+import com.couchbase.client.core.msg.kv.GetCollectionManifestResponse;
+import com.couchbase.client.core.util.UnsignedLEB128;
 import com.couchbase.client.core.node.NodeIdentifier;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
@@ -45,26 +50,34 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.couchbase.client.test.Util.readResource;
 import static com.couchbase.client.test.Util.waitUntilCondition;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 /**
@@ -202,6 +215,114 @@ class DefaultConfigurationProviderTest {
     assertEquals(1888, provider.config().bucketConfig("default").rev());
   }
 
+  /**
+   * Raw configs which are not newer than the current one must be skipped before they are parsed, while newer ones
+   * are still applied (asynchronously).
+   */
+  @Test
+  void skipsRawConfigsWithLowerOrEqualRevBeforeParsing() {
+    Core core = mock(Core.class);
+    when(core.context()).thenReturn(new CoreContext(core, 1, ENVIRONMENT, mock(Authenticator.class)));
+
+    DefaultConfigurationProvider provider = new DefaultConfigurationProvider(core, SeedNode.LOCALHOST);
+
+    final AtomicInteger configsPushed = new AtomicInteger(0);
+    provider.configs()
+        .skip(1) // ignore initial empty config
+        .subscribe((c) -> configsPushed.incrementAndGet());
+
+    String bucket = "default";
+    String config = readResource(
+      "config_with_external.json",
+      DefaultConfigurationProviderTest.class
+    );
+    provider.proposeBucketConfig(new ProposedBucketConfigContext(bucket, config, ORIGIN));
+    assertEquals(1, configsPushed.get());
+
+    for (int i = 0; i < 3; i++) {
+      ByteBuf raw = Unpooled.copiedBuffer(config, UTF_8);
+      provider.proposeBucketConfig(bucket, raw, ORIGIN);
+      raw.release();
+    }
+    assertEquals(3, provider.staleConfigsSkipped());
+    assertEquals(1, configsPushed.get());
+
+    String newConfig = readResource(
+      "config_with_external_higher_rev.json",
+      DefaultConfigurationProviderTest.class
+    );
+    ByteBuf raw = Unpooled.copiedBuffer(newConfig, UTF_8);
+    provider.proposeBucketConfig(bucket, raw, ORIGIN);
+    raw.release();
+
+    waitUntilCondition(() -> provider.config().bucketConfig("default").rev() == 1888);
+    assertEquals(2, configsPushed.get());
+    assertEquals(3, provider.staleConfigsSkipped());
+  }
+
+  /**
+   * The future returned for a raw proposal only completes once the config is applied, so that a request retried
+   * after a "not my vbucket" is routed with the new config. Proposals skipped in the meantime complete with it.
+   */
+  @Test
+  void completesRawProposalOnceConfigApplied() throws Exception {
+    Core core = mock(Core.class);
+    when(core.context()).thenReturn(new CoreContext(core, 1, ENVIRONMENT, mock(Authenticator.class)));
+
+    DefaultConfigurationProvider provider = new DefaultConfigurationProvider(core, SeedNode.LOCALHOST);
+
+    String bucket = "default";
+    provider.proposeBucketConfig(new ProposedBucketConfigContext(
+      bucket,
+      readResource("config_with_external.json", DefaultConfigurationProviderTest.class),
+      ORIGIN
+    ));
+
+    String newConfig = readResource("config_with_external_higher_rev.json", DefaultConfigurationProviderTest.class);
+    ByteBuf raw = Unpooled.copiedBuffer(newConfig, UTF_8);
+    CompletableFuture<Void> first = provider.proposeBucketConfig(bucket, raw, ORIGIN);
+    CompletableFuture<Void> second = provider.proposeBucketConfig(bucket, raw, ORIGIN);
+    raw.release();
+
+    first.get(5, TimeUnit.SECONDS);
+    assertEquals(1888, provider.config().bucketConfig(bucket).rev());
+    second.get(5, TimeUnit.SECONDS);
+    assertEquals(1888, provider.config().bucketConfig(bucket).rev());
+    // the second one is either skipped while the first is in flight or because the first has already been applied.
+    assertEquals(1, provider.inFlightConfigsSkipped() + provider.staleConfigsSkipped());
+  }
+
+  /**
+   * If the scheduler rejects the parse (i.e. while shutting down), the proposal must not stay claimed, otherwise
+   * every later proposal for the bucket would return a future which never completes.
+   */
+  @Test
+  void completesRawProposalIfSchedulingFails() throws Exception {
+    Scheduler scheduler = mock(Scheduler.class);
+    when(scheduler.schedule(any())).thenThrow(new RejectedExecutionException("shutting down"));
+    CoreEnvironment env = spy(ENVIRONMENT);
+    doReturn(scheduler).when(env).scheduler();
+
+    Core core = mock(Core.class);
+    when(core.context()).thenReturn(new CoreContext(core, 1, env, mock(Authenticator.class)));
+
+    DefaultConfigurationProvider provider = new DefaultConfigurationProvider(core, SeedNode.LOCALHOST);
+
+    String bucket = "default";
+    ByteBuf raw = Unpooled.copiedBuffer(
+      readResource("config_with_external.json", DefaultConfigurationProviderTest.class),
+      UTF_8
+    );
+    provider.proposeBucketConfig(bucket, raw, ORIGIN).get(5, TimeUnit.SECONDS);
+    provider.proposeBucketConfig(bucket, raw, ORIGIN).get(5, TimeUnit.SECONDS);
+    raw.release();
+    assertEquals(0, provider.inFlightConfigsSkipped());
+
+    ByteBuf withoutRevision = Unpooled.copiedBuffer("{}", UTF_8);
+    provider.proposeBucketConfig(bucket, withoutRevision, ORIGIN).get(5, TimeUnit.SECONDS);
+    withoutRevision.release();
+  }
+
   @Test
   void ignoreProposedConfigOnceShutdown() {
     Core core = mock(Core.class);
@@ -438,6 +559,130 @@ class DefaultConfigurationProviderTest {
     assertTrue(found);
   }
 
+  /**
+   * With the manifest refresh enabled, all unknown collections of a bucket are resolved with a single manifest
+   * fetch, and collections dropped in a newer manifest are removed from the collection map.
+   */
+  @Test
+  void resolvesCollectionIdsFromManifest() {
+    CoreEnvironment env = CoreEnvironment
+      .builder()
+      .eventBus(EVENT_BUS)
+      .ioConfig(IoConfig.enableCollectionManifestRefresh(true))
+      .build();
+
+    try {
+      Core core = mock(Core.class);
+      CoreContext ctx = new CoreContext(core, 1, env, mock(Authenticator.class));
+      when(core.context()).thenReturn(ctx);
+
+      List<GetCollectionManifestRequest> capturedRequests = new ArrayList<>();
+      doAnswer(invocation -> {
+        capturedRequests.add(invocation.getArgument(0));
+        return null;
+      }).when(core).send(any(GetCollectionManifestRequest.class));
+
+      DefaultConfigurationProvider provider = new DefaultConfigurationProvider(core, SeedNode.LOCALHOST);
+
+      CollectionIdentifier users = new CollectionIdentifier("bucket", Optional.of("app"), Optional.of("users"));
+      CollectionIdentifier orders = new CollectionIdentifier("bucket", Optional.of("app"), Optional.of("orders"));
+      CollectionIdentifier missing = new CollectionIdentifier("bucket", Optional.of("app"), Optional.of("missing"));
+
+      provider.refreshCollectionId(users);
+      provider.refreshCollectionId(orders);
+      provider.refreshCollectionId(missing);
+      assertEquals(1, capturedRequests.size());
+      assertTrue(provider.collectionRefreshInProgress(
+        new CollectionIdentifier("bucket", Optional.of("app"), Optional.of("other"))
+      ));
+
+      capturedRequests.get(0).succeed(new GetCollectionManifestResponse(ResponseStatus.SUCCESS, Optional.of(
+        "{\"uid\":\"a\",\"scopes\":[{\"name\":\"app\",\"uid\":\"8\",\"collections\":["
+          + "{\"name\":\"users\",\"uid\":\"8\"},{\"name\":\"orders\",\"uid\":\"9\"}]}]}"
+      )));
+      waitUntilCondition(() -> !provider.collectionRefreshInProgress());
+
+      assertEquals(8, UnsignedLEB128.decode(provider.collectionMap().get(users)));
+      assertEquals(9, UnsignedLEB128.decode(provider.collectionMap().get(orders)));
+      assertNull(provider.collectionMap().get(missing));
+
+      int failed = 0;
+      for (Event event : EVENT_BUS.publishedEvents()) {
+        if (event instanceof CollectionMapRefreshFailedEvent) {
+          assertEquals(missing, ((CollectionMapRefreshFailedEvent) event).collectionIdentifier());
+          assertEquals(CollectionMapRefreshFailedEvent.Reason.UNKNOWN_COLLECTION, ((CollectionMapRefreshFailedEvent) event).reason());
+          failed++;
+        }
+      }
+      assertEquals(1, failed);
+
+      provider.refreshCollectionId(missing);
+      assertEquals(2, capturedRequests.size());
+      capturedRequests.get(1).succeed(new GetCollectionManifestResponse(ResponseStatus.SUCCESS, Optional.of(
+        "{\"uid\":\"b\",\"scopes\":[{\"name\":\"app\",\"uid\":\"8\",\"collections\":["
+          + "{\"name\":\"users\",\"uid\":\"8\"},{\"name\":\"missing\",\"uid\":\"a\"}]}]}"
+      )));
+      waitUntilCondition(() -> !provider.collectionRefreshInProgress());
+
+      assertEquals(8, UnsignedLEB128.decode(provider.collectionMap().get(users)));
+      assertEquals(10, UnsignedLEB128.decode(provider.collectionMap().get(missing)));
+      assertNull(provider.collectionMap().get(orders));
+    } finally {
+      env.shutdown();
+    }
+  }
+
+  /**
+   * If the manifest fetch fails, every identifier waiting on it is failed and the bucket is free for the next fetch.
+   */
+  @Test
+  void releasesManifestRefreshIfFetchFails() {
+    CoreEnvironment env = CoreEnvironment
+      .builder()
+      .eventBus(EVENT_BUS)
+      .ioConfig(IoConfig.enableCollectionManifestRefresh(true))
+      .build();
+
+    try {
+      Core core = mock(Core.class);
+      CoreContext ctx = new CoreContext(core, 1, env, mock(Authenticator.class));
+      when(core.context()).thenReturn(ctx);
+
+      List<GetCollectionManifestRequest> capturedRequests = new ArrayList<>();
+      doAnswer(invocation -> {
+        capturedRequests.add(invocation.getArgument(0));
+        return null;
+      }).when(core).send(any(GetCollectionManifestRequest.class));
+
+      DefaultConfigurationProvider provider = new DefaultConfigurationProvider(core, SeedNode.LOCALHOST);
+
+      CollectionIdentifier users = new CollectionIdentifier("bucket", Optional.of("app"), Optional.of("users"));
+      CollectionIdentifier orders = new CollectionIdentifier("bucket", Optional.of("app"), Optional.of("orders"));
+
+      provider.refreshCollectionId(users);
+      provider.refreshCollectionId(orders);
+      assertEquals(1, capturedRequests.size());
+
+      capturedRequests.get(0).cancel(CancellationReason.TIMEOUT);
+      waitUntilCondition(() -> !provider.collectionRefreshInProgress());
+
+      Set<CollectionIdentifier> failed = new HashSet<>();
+      for (Event event : EVENT_BUS.publishedEvents()) {
+        if (event instanceof CollectionMapRefreshFailedEvent) {
+          assertEquals(CollectionMapRefreshFailedEvent.Reason.FAILED, ((CollectionMapRefreshFailedEvent) event).reason());
+          failed.add(((CollectionMapRefreshFailedEvent) event).collectionIdentifier());
+        }
+      }
+      assertEquals(new HashSet<>(Arrays.asList(users, orders)), failed);
+
+      provider.refreshCollectionId(users);
+      assertEquals(2, capturedRequests.size());
+      assertTrue(provider.collectionRefreshInProgress(users));
+    } finally {
+      env.shutdown();
+    }
+  }
+
   @ParameterizedTest
   @CsvSource({
     "config_lower_rev_no_epoch,1,0,config_higher_rev_no_epoch,2,0",
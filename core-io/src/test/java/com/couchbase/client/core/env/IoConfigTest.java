@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.env;
+
+import com.couchbase.client.core.error.InvalidArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifies the defaults and builder validation of the flush consolidation options of the {@link IoConfig}.
+ */
+class IoConfigTest {
+
+  @Test
+  void usesFlushConsolidationDefaults() {
+    IoConfig config = IoConfig.create();
+    assertEquals(IoConfig.DEFAULT_FLUSH_CONSOLIDATION_ENABLED, config.flushConsolidationEnabled());
+    assertEquals(IoConfig.DEFAULT_FLUSH_CONSOLIDATION_MAX_FLUSHES, config.flushConsolidationMaxFlushes());
+  }
+
+  @Test
+  void configuresFlushConsolidation() {
+    IoConfig config = IoConfig
+      .enableFlushConsolidation(false)
+      .flushConsolidationMaxFlushes(32)
+      .build();
+    assertFalse(config.flushConsolidationEnabled());
+    assertEquals(32, config.flushConsolidationMaxFlushes());
+
+    Map<String, Object> exported = config.exportAsMap();
+    assertEquals(false, exported.get("flushConsolidationEnabled"));
+    assertEquals(32, exported.get("flushConsolidationMaxFlushes"));
+  }
+
+  @Test
+  void rejectsNonPositiveMaxFlushes() {
+    assertThrows(InvalidArgumentException.class, () -> IoConfig.flushConsolidationMaxFlushes(0));
+    assertThrows(InvalidArgumentException.class, () -> IoConfig.builder().flushConsolidationMaxFlushes(-1));
+  }
+
+  @Test
+  void setsFlushConsolidationThroughProperties() {
+    CoreEnvironment.Builder<?> builder = CoreEnvironment.builder();
+    BuilderPropertySetter setter = new BuilderPropertySetter();
+    setter.set(builder, "io.enableFlushConsolidation", "false");
+    setter.set(builder, "io.flushConsolidationMaxFlushes", "64");
+
+    IoConfig config = builder.ioConfig().build();
+    assertFalse(config.flushConsolidationEnabled());
+    assertEquals(64, config.flushConsolidationMaxFlushes());
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty;
+
+import com.couchbase.client.core.cnc.events.io.TlsHandshakeCompletedEvent.Resumption;
+import com.couchbase.client.core.deps.io.netty.handler.ssl.SslContext;
+import com.couchbase.client.core.env.Authenticator;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link SslContextCache}.
+ */
+class SslContextCacheTest {
+
+  @Test
+  void buildsContextOncePerAuthenticator() throws Exception {
+    SslContextCache cache = new SslContextCache();
+    Authenticator first = mock(Authenticator.class);
+    Authenticator second = mock(Authenticator.class);
+    AtomicInteger built = new AtomicInteger();
+
+    SslContext context = cache.get(first, () -> {
+      built.incrementAndGet();
+      return mock(SslContext.class);
+    });
+    assertSame(context, cache.get(first, () -> {
+      built.incrementAndGet();
+      return mock(SslContext.class);
+    }));
+    assertEquals(1, built.get());
+
+    assertNotSame(context, cache.get(second, () -> {
+      built.incrementAndGet();
+      return mock(SslContext.class);
+    }));
+    assertEquals(2, built.get());
+  }
+
+  @Test
+  void doesNotCacheFailedBuilds() throws Exception {
+    SslContextCache cache = new SslContextCache();
+    Authenticator authenticator = mock(Authenticator.class);
+
+    assertThrows(SSLException.class, () -> cache.get(authenticator, () -> {
+      throw new SSLException("failed");
+    }));
+
+    SslContext context = mock(SslContext.class);
+    assertSame(context, cache.get(authenticator, () -> context));
+  }
+
+  /**
+   * Contexts are built without holding a lock, if two builds race the one which finishes first is kept.
+   */
+  @Test
+  void keepsFirstBuiltContextIfBuildsRace() throws Exception {
+    SslContextCache cache = new SslContextCache();
+    Authenticator authenticator = mock(Authenticator.class);
+    SslContext first = mock(SslContext.class);
+
+    SslContext context = cache.get(authenticator, () -> {
+      // another build for the same authenticator completes while this one is still running.
+      cache.get(authenticator, () -> first);
+      return mock(SslContext.class);
+    });
+    assertSame(first, context);
+    assertSame(first, cache.get(authenticator, () -> mock(SslContext.class)));
+  }
+
+  @Test
+  void detectsResumedSessionsPerRemote() {
+    SslContextCache cache = new SslContextCache();
+    SSLSession first = session("TLSv1.2", new byte[] { 1, 2 });
+    SSLSession second = session("TLSv1.2", new byte[] { 3, 4 });
+
+    assertEquals(Resumption.FULL, cache.recordHandshake("host1:11207", first));
+    assertEquals(Resumption.RESUMED, cache.recordHandshake("host1:11207", first));
+    assertEquals(Resumption.FULL, cache.recordHandshake("host2:11207", first));
+    assertEquals(Resumption.FULL, cache.recordHandshake("host1:11207", second));
+
+    assertEquals(3, cache.fullHandshakes());
+    assertEquals(1, cache.resumedHandshakes());
+    assertEquals(0, cache.unknownHandshakes());
+  }
+
+  @Test
+  void reportsUnknownResumptionIfNotDetectable() {
+    SslContextCache cache = new SslContextCache();
+    SSLSession tls13 = session("TLSv1.3", new byte[] { 1, 2 });
+
+    assertEquals(Resumption.UNKNOWN, cache.recordHandshake("host1:11207", tls13));
+    assertEquals(Resumption.UNKNOWN, cache.recordHandshake("host1:11207", tls13));
+    assertEquals(Resumption.UNKNOWN, cache.recordHandshake("host1:11207", session("TLSv1.2", new byte[0])));
+
+    assertEquals(0, cache.fullHandshakes());
+    assertEquals(0, cache.resumedHandshakes());
+    assertEquals(3, cache.unknownHandshakes());
+  }
+
+  private static SSLSession session(final String protocol, final byte[] id) {
+    SSLSession session = mock(SSLSession.class);
+    when(session.getProtocol()).thenReturn(protocol);
+    when(session.getId()).thenReturn(id);
+    return session;
+  }
+
+}
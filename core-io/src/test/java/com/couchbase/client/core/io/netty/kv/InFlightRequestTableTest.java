@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty.kv;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.msg.Response;
+import com.couchbase.client.core.msg.kv.KeyValueRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verifies the functionality of the {@link InFlightRequestTable}.
+ */
+class InFlightRequestTableTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void storesAndRemovesSlots() {
+    InFlightRequestTable table = new InFlightRequestTable(4);
+    KeyValueRequest<Response> request = mock(KeyValueRequest.class);
+    RequestSpan span = mock(RequestSpan.class);
+
+    int slot = table.put(1, request);
+    table.dispatched(slot, 1234, span);
+
+    int found = table.slotOf(1);
+    assertEquals(slot, found);
+    assertSame(request, table.request(found));
+    assertEquals(1234, table.dispatchTiming(found));
+    assertSame(span, table.dispatchSpan(found));
+
+    table.removeAt(found);
+    assertEquals(InFlightRequestTable.NOT_FOUND, table.slotOf(1));
+    assertTrue(table.isEmpty());
+  }
+
+  @Test
+  void returnsNullOnUnknownOpaque() {
+    InFlightRequestTable table = new InFlightRequestTable();
+    assertEquals(InFlightRequestTable.NOT_FOUND, table.slotOf(42));
+    assertNull(table.remove(42));
+  }
+
+  /**
+   * Performs random inserts and removals against a reference map to make sure that growing and backward-shift
+   * deletion never lose an entry.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  void matchesReferenceMapUnderRandomOperations() {
+    InFlightRequestTable table = new InFlightRequestTable(2);
+    Map<Integer, KeyValueRequest<Response>> reference = new HashMap<>();
+    Random random = new Random(1234);
+
+    for (int i = 0; i < 5000; i++) {
+      int opaque = random.nextInt(512);
+      if (random.nextBoolean()) {
+        KeyValueRequest<Response> request = mock(KeyValueRequest.class);
+        int slot = table.put(opaque, request);
+        table.dispatched(slot, opaque, null);
+        reference.put(opaque, request);
+      } else {
+        assertSame(reference.remove(opaque), table.remove(opaque));
+      }
+      assertEquals(reference.size(), table.size());
+    }
+
+    for (Map.Entry<Integer, KeyValueRequest<Response>> entry : reference.entrySet()) {
+      int slot = table.slotOf(entry.getKey());
+      assertSame(entry.getValue(), table.request(slot));
+      assertEquals((long) entry.getKey(), table.dispatchTiming(slot));
+    }
+    assertEquals(reference.size(), table.requests().size());
+
+    table.clear();
+    assertTrue(table.isEmpty());
+    assertTrue(table.requests().isEmpty());
+  }
+
+}
@@ -52,11 +52,15 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -281,4 +285,59 @@ class KeyValueMessageHandlerTest {
     }
   }
 
-}
\ No newline at end of file
+  /**
+   * If cluster map change notifications are negotiated, pushed configs are proposed to the provider and the
+   * provider is told when the notifying channel opens and closes.
+   */
+  @Test
+  void proposesPushedClusterMapChangeNotifications() {
+    Core core = mock(Core.class);
+    CoreContext coreContext = new CoreContext(core, 1, ENV, PasswordAuthenticator.create("foo", "bar"));
+    ConfigurationProvider configurationProvider = mock(ConfigurationProvider.class);
+    when(configurationProvider.collectionMap()).thenReturn(new CollectionMap());
+    when(core.configurationProvider()).thenReturn(configurationProvider);
+    EndpointContext endpointContext = new EndpointContext(coreContext, new HostAndPort("127.0.0.1", 1234),
+      null, ServiceType.KV, Optional.empty(), Optional.empty(), Optional.empty());
+
+    EmbeddedChannel channel = new EmbeddedChannel();
+    channel.attr(ChannelAttributes.SERVER_FEATURE_KEY).set(
+      EnumSet.of(ServerFeature.DUPLEX, ServerFeature.CLUSTERMAP_CHANGE_NOTIFICATION)
+    );
+    channel.pipeline().addLast(new KeyValueMessageHandler(null, endpointContext, Optional.of(BUCKET)));
+    channel.pipeline().fireChannelActive();
+
+    try {
+      verify(configurationProvider).clusterMapNotificationsActive(BUCKET);
+
+      byte[] key = BUCKET.getBytes(UTF_8);
+      byte[] config = "{\"rev\":1234,\"nodes\":[]}".getBytes(UTF_8);
+      ByteBuf push = Unpooled.buffer()
+        .writeByte(MemcacheProtocol.Magic.SERVER_REQUEST.magic())
+        .writeByte(MemcacheProtocol.ServerOpcode.CLUSTERMAP_CHANGE_NOTIFICATION.opcode())
+        .writeShort(key.length)
+        .writeByte(Integer.BYTES)
+        .writeByte(0)
+        .writeShort(0)
+        .writeInt(Integer.BYTES + key.length + config.length)
+        .writeInt(0)
+        .writeLong(0)
+        .writeInt(1234)
+        .writeBytes(key)
+        .writeBytes(config);
+      channel.writeInbound(push);
+
+      verify(configurationProvider).proposeBucketConfig(
+        eq(BUCKET),
+        any(ByteBuf.class),
+        eq("127.0.0.1")
+      );
+      assertEquals(0, push.refCnt());
+      assertTrue(channel.isActive());
+    } finally {
+      channel.finishAndReleaseAll();
+    }
+
+    verify(configurationProvider).clusterMapNotificationsInactive(BUCKET);
+  }
+
+}
@@ -22,6 +22,9 @@ import com.couchbase.client.core.cnc.EventBus;
 import com.couchbase.client.core.cnc.events.io.DurabilityTimeoutCoercedEvent;
 import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
 import com.couchbase.client.core.deps.io.netty.buffer.ByteBufAllocator;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBufUtil;
+import com.couchbase.client.core.deps.io.netty.buffer.CompositeByteBuf;
+import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
 import com.couchbase.client.core.deps.io.netty.buffer.UnpooledByteBufAllocator;
 import com.couchbase.client.core.deps.io.netty.util.ReferenceCountUtil;
 import com.couchbase.client.core.env.Authenticator;
@@ -31,8 +34,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -143,4 +153,64 @@ class MemcacheProtocolTest {
     }
   }
 
+  @Test
+  void addsLargeBodiesWithoutCopying() {
+    byte[] content = new byte[MemcacheProtocol.COMPOSITE_BODY_THRESHOLD * 4];
+    Arrays.fill(content, (byte) 'a');
+    ByteBuf body = Unpooled.wrappedBuffer(content);
+    ByteBuf key = Unpooled.copiedBuffer("key", UTF_8);
+
+    ByteBuf request = MemcacheProtocol.flexibleRequest(ALLOC, MemcacheProtocol.Opcode.SET, (byte) 0, (short) 0,
+      1, 0, Unpooled.wrappedBuffer(new byte[] { 0x11, 0x01 }), MemcacheProtocol.noExtras(), key, body);
+    try {
+      assertTrue(request instanceof CompositeByteBuf);
+      assertTrue(MemcacheProtocol.verifyRequest(request));
+      assertEquals(MemcacheProtocol.HEADER_SIZE + 2 + 3 + content.length, request.readableBytes());
+
+      // the body component still points to the original array
+      content[0] = 'b';
+      assertEquals('b', request.getByte(MemcacheProtocol.HEADER_SIZE + 2 + 3));
+      assertEquals(2, body.refCnt());
+    } finally {
+      ReferenceCountUtil.release(request);
+      ReferenceCountUtil.release(body);
+      ReferenceCountUtil.release(key);
+    }
+    assertEquals(0, body.refCnt());
+  }
+
+  @Test
+  void copiesSmallBodies() {
+    ByteBuf body = Unpooled.copiedBuffer("{}", UTF_8);
+    ByteBuf request = MemcacheProtocol.request(ALLOC, MemcacheProtocol.Opcode.SET, (byte) 0, (short) 0,
+      1, 0, MemcacheProtocol.noExtras(), Unpooled.copiedBuffer("key", UTF_8), body);
+    try {
+      assertFalse(request instanceof CompositeByteBuf);
+      assertTrue(MemcacheProtocol.verifyRequest(request));
+      assertEquals(1, body.refCnt());
+    } finally {
+      ReferenceCountUtil.release(request);
+      ReferenceCountUtil.release(body);
+    }
+  }
+
+  @Test
+  void compressesIntoAllocatedBuffer() {
+    byte[] content = new byte[8192];
+    Arrays.fill(content, (byte) 'a');
+
+    ByteBuf compressed = MemcacheProtocol.tryCompression(ALLOC, content, 0.83);
+    try {
+      assertTrue(compressed.readableBytes() < content.length);
+      byte[] raw = ByteBufUtil.getBytes(compressed);
+      assertArrayEquals(content, MemcacheProtocol.tryDecompression(raw, MemcacheProtocol.Datatype.SNAPPY.datatype()));
+    } finally {
+      ReferenceCountUtil.release(compressed);
+    }
+
+    byte[] random = new byte[8192];
+    new Random(42).nextBytes(random);
+    assertNull(MemcacheProtocol.tryCompression(ALLOC, random, 0.83));
+  }
+
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty.kv.sasl;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import javax.security.auth.callback.Callback;
+import javax.security.auth.callback.CallbackHandler;
+import javax.security.auth.callback.NameCallback;
+import javax.security.auth.callback.PasswordCallback;
+import javax.security.sasl.SaslClient;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the SCRAM exchange of the {@link ScramSaslClient}, with and without the {@link ScramCredentialCache}.
+ */
+class ScramSaslClientTest {
+
+  private static final byte[] SALT = "0123456789abcdef".getBytes(UTF_8);
+  private static final int ITERATIONS = 4096;
+
+  @Test
+  void authenticatesWithoutCache() throws Exception {
+    authenticate(null, "password");
+  }
+
+  @Test
+  void reusesCachedKeysForSamePassword() throws Exception {
+    ScramCredentialCache cache = new ScramCredentialCache();
+
+    authenticate(cache, "password");
+    assertEquals(1, cache.size());
+    authenticate(cache, "password");
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void derivesNewKeysIfPasswordChanged() throws Exception {
+    ScramCredentialCache cache = new ScramCredentialCache();
+
+    authenticate(cache, "password");
+    authenticate(cache, "changed");
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void boundsNumberOfEntries() {
+    ScramCredentialCache cache = new ScramCredentialCache(2);
+    byte[] key = new byte[32];
+    for (int i = 0; i < 5; i++) {
+      cache.put("SCRAM-SHA512", "user" + i, SALT, ITERATIONS, "password", key, key);
+    }
+    assertEquals(2, cache.size());
+  }
+
+  /**
+   * Runs a full exchange against a simulated server, which derives its keys through the JDK PBKDF2 implementation.
+   */
+  private static void authenticate(final ScramCredentialCache cache, final String password) throws Exception {
+    CallbackHandler callbacks = (Callback[] cbs) -> {
+      for (Callback callback : cbs) {
+        if (callback instanceof NameCallback) {
+          ((NameCallback) callback).setName("user");
+        } else if (callback instanceof PasswordCallback) {
+          ((PasswordCallback) callback).setPassword(password.toCharArray());
+        }
+      }
+    };
+
+    SaslClient client = new ScramSaslClientFactory().createSaslClient(
+      new String[] { "SCRAM-SHA256" },
+      null,
+      "couchbase",
+      "127.0.0.1",
+      cache == null ? null : Collections.singletonMap(ScramCredentialCache.SASL_PROPERTY, cache),
+      callbacks
+    );
+
+    String clientFirst = new String(client.evaluateChallenge(new byte[0]), UTF_8);
+    String clientFirstBare = clientFirst.substring(3);
+    String clientNonce = clientFirstBare.substring(clientFirstBare.indexOf(",r=") + 3);
+
+    String serverFirst = "r=" + clientNonce + "server,s=" + Base64.getEncoder().encodeToString(SALT)
+      + ",i=" + ITERATIONS;
+    String clientFinal = new String(client.evaluateChallenge(serverFirst.getBytes(UTF_8)), UTF_8);
+    int proofStart = clientFinal.indexOf(",p=");
+    byte[] proof = Base64.getDecoder().decode(clientFinal.substring(proofStart + 3));
+    String authMessage = clientFirstBare + "," + serverFirst + "," + clientFinal.substring(0, proofStart);
+
+    SecretKeyFactory keyFactory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+    byte[] saltedPassword = keyFactory
+      .generateSecret(new PBEKeySpec(password.toCharArray(), SALT, ITERATIONS, 256))
+      .getEncoded();
+    byte[] storedKey = MessageDigest.getInstance("SHA-256").digest(hmac(saltedPassword, "Client Key"));
+    byte[] clientSignature = hmac(storedKey, authMessage);
+    byte[] clientKey = new byte[proof.length];
+    for (int i = 0; i < proof.length; i++) {
+      clientKey[i] = (byte) (proof[i] ^ clientSignature[i]);
+    }
+    assertArrayEquals(storedKey, MessageDigest.getInstance("SHA-256").digest(clientKey));
+
+    byte[] serverSignature = hmac(hmac(saltedPassword, "Server Key"), authMessage);
+    client.evaluateChallenge(("v=" + Base64.getEncoder().encodeToString(serverSignature)).getBytes(UTF_8));
+    assertTrue(client.isComplete());
+  }
+
+  private static byte[] hmac(final byte[] key, final String data) throws Exception {
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(key, "HmacSHA256"));
+    return mac.doFinal(data.getBytes(UTF_8));
+  }
+
+}
@@ -24,11 +24,17 @@ import com.couchbase.client.core.deps.io.netty.channel.Channel;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelHandlerContext;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelInboundHandlerAdapter;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelInitializer;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelOption;
 import com.couchbase.client.core.deps.io.netty.channel.DefaultEventLoopGroup;
 import com.couchbase.client.core.deps.io.netty.channel.EventLoopGroup;
 import com.couchbase.client.core.deps.io.netty.channel.local.LocalAddress;
 import com.couchbase.client.core.deps.io.netty.channel.local.LocalChannel;
+import com.couchbase.client.core.deps.io.netty.channel.WriteBufferWaterMark;
 import com.couchbase.client.core.deps.io.netty.channel.local.LocalServerChannel;
+import com.couchbase.client.core.deps.io.netty.channel.nio.NioEventLoopGroup;
+import com.couchbase.client.core.deps.io.netty.channel.socket.SocketChannel;
+import com.couchbase.client.core.deps.io.netty.channel.socket.nio.NioServerSocketChannel;
+import com.couchbase.client.core.deps.io.netty.channel.socket.nio.NioSocketChannel;
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.DefaultHttpContent;
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.DefaultHttpResponse;
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.DefaultLastHttpContent;
@@ -37,7 +43,9 @@ import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpHeaderName
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpResponse;
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpResponseStatus;
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpServerCodec;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpHeaderValues;
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpVersion;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.LastHttpContent;
 import com.couchbase.client.core.deps.io.netty.util.ReferenceCountUtil;
 import com.couchbase.client.core.endpoint.BaseEndpoint;
 import com.couchbase.client.core.endpoint.EndpointContext;
@@ -45,6 +53,7 @@ import com.couchbase.client.core.endpoint.NoopCircuitBreaker;
 import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.env.PasswordAuthenticator;
 import com.couchbase.client.core.env.SeedNode;
+import com.couchbase.client.core.msg.query.QueryChunkRow;
 import com.couchbase.client.core.msg.query.QueryRequest;
 import com.couchbase.client.core.msg.query.QueryResponse;
 import com.couchbase.client.core.retry.BestEffortRetryStrategy;
@@ -55,17 +64,21 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
 import reactor.test.StepVerifier;
 
+import java.net.InetSocketAddress;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.couchbase.client.test.Util.waitUntilCondition;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -110,6 +123,45 @@ class QueryMessageHandlerBackpressureTest {
    */
   @Test
   void requestRecordsExplicitly() throws Exception {
+    final QueryResponse response = queryChunkServer();
+
+    StepVerifier.create(response.rows().map(v -> new String(v.data(), UTF_8)), 0)
+      .thenRequest(1)
+      .expectNext("{\"foo\":1}")
+      .thenRequest(1)
+      .expectNext("{\"bar\":1}")
+      .thenRequest(2)
+      .expectNext("{\"faz\":1}", "{\"baz\":1}")
+      .thenRequest(4)
+      .expectNext("{\"fazz\":1}", "{\"bazz\":1}", "{\"fizz\":1}", "{\"bizz\":1}")
+      .expectComplete()
+      .verify();
+  }
+
+  /**
+   * The rows are streamed to a single subscriber only (so that its demand can drive the backpressure), every
+   * further subscriber is failed right away without affecting the first one.
+   */
+  @Test
+  void allowsOnlyOneRowSubscriber() throws Exception {
+    final QueryResponse response = queryChunkServer();
+
+    StepVerifier first = StepVerifier.create(response.rows())
+      .expectNextCount(8)
+      .expectComplete()
+      .verifyLater();
+
+    StepVerifier.create(response.rows())
+      .expectError(IllegalStateException.class)
+      .verify();
+
+    first.verify();
+  }
+
+  /**
+   * Sends a query to the {@link ChunkServer} and returns its response, before any of its rows are consumed.
+   */
+  private QueryResponse queryChunkServer() throws Exception {
     EndpointContext endpointContext = new EndpointContext(
       core.context(),
       new HostAndPort("127.0.0.1", 1234),
@@ -123,7 +175,7 @@ class QueryMessageHandlerBackpressureTest {
     when(endpoint.pipelined()).thenReturn(false);
     Bootstrap client = new Bootstrap()
       .channel(LocalChannel.class)
-      .group(new DefaultEventLoopGroup())
+      .group(eventLoopGroup)
       .remoteAddress(new LocalAddress("s1"))
       .handler(new ChannelInitializer<LocalChannel>() {
         @Override
@@ -136,7 +188,6 @@ class QueryMessageHandlerBackpressureTest {
 
     Channel channel = client.connect().awaitUninterruptibly().channel();
 
-    final List<byte[]> rows = Collections.synchronizedList(new ArrayList<>());
     QueryRequest request = new QueryRequest(
       Duration.ofSeconds(1),
       endpointContext,
@@ -152,22 +203,106 @@ class QueryMessageHandlerBackpressureTest {
     );
     channel.writeAndFlush(request);
 
-    final QueryResponse response = request.response().get();
-
-    assertEquals(0, rows.size());
-    StepVerifier.create(response.rows().map(v -> new String(v.data(), UTF_8)), 0)
-      .thenRequest(1)
-      .expectNext("{\"foo\":1}")
-      .thenRequest(1)
-      .expectNext("{\"bar\":1}")
-      .thenRequest(2)
-      .expectNext("{\"faz\":1}", "{\"baz\":1}")
-      .thenRequest(4)
-      .expectNext("{\"fazz\":1}", "{\"bazz\":1}", "{\"fizz\":1}", "{\"bizz\":1}")
-      .expectComplete()
-      .verify();
+    return request.response().get();
   }
 
+  /**
+   * Streams a large result over a real socket to a consumer which stops requesting rows after a while, and makes
+   * sure that the client stops reading (so the server stalls on a full socket) instead of buffering the rest of
+   * the result on the heap. Once the consumer catches up again, the remaining rows are streamed as requested.
+   */
+  @Test
+  void pausesReadingWhileConsumerIsSlow() throws Exception {
+    EventLoopGroup nioGroup = new NioEventLoopGroup(2);
+    StreamingServer server = new StreamingServer(nioGroup, 200_000);
+    try {
+      EndpointContext endpointContext = new EndpointContext(
+        core.context(),
+        new HostAndPort("127.0.0.1", server.port()),
+        NoopCircuitBreaker.INSTANCE,
+        ServiceType.QUERY,
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty()
+      );
+      BaseEndpoint endpoint = mock(BaseEndpoint.class);
+      when(endpoint.pipelined()).thenReturn(false);
+      Bootstrap client = new Bootstrap()
+        .channel(NioSocketChannel.class)
+        .group(nioGroup)
+        .option(ChannelOption.SO_RCVBUF, 32 * 1024)
+        .remoteAddress("127.0.0.1", server.port())
+        .handler(new ChannelInitializer<SocketChannel>() {
+          @Override
+          protected void initChannel(SocketChannel ch) {
+            ch.pipeline()
+              .addLast(new HttpClientCodec())
+              .addLast(new QueryMessageHandler(endpoint, endpointContext));
+          }
+        });
+
+      Channel channel = client.connect().awaitUninterruptibly().channel();
+
+      QueryRequest request = new QueryRequest(
+        Duration.ofSeconds(30),
+        endpointContext,
+        BestEffortRetryStrategy.INSTANCE,
+        endpointContext.authenticator(),
+        "select 1=1",
+        "myquery".getBytes(UTF_8),
+        true,
+        null,
+        null,
+        null,
+        null
+      );
+      channel.writeAndFlush(request);
+      final QueryResponse response = request.response().get();
+
+      final AtomicInteger received = new AtomicInteger();
+      final CountDownLatch completed = new CountDownLatch(1);
+      BaseSubscriber<QueryChunkRow> subscriber = new BaseSubscriber<QueryChunkRow>() {
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+          // demand is driven explicitly by the test
+        }
+
+        @Override
+        protected void hookOnNext(QueryChunkRow value) {
+          received.incrementAndGet();
+        }
+
+        @Override
+        protected void hookOnComplete() {
+          completed.countDown();
+        }
+      };
+      response.rows().subscribe(subscriber);
+
+      subscriber.request(1000);
+      waitUntilCondition(() -> received.get() == 1000);
+
+      // once the rows beyond the demand are buffered, reading is paused and so the server stalls on a full socket
+      waitUntilCondition(() -> !channel.config().isAutoRead());
+      waitUntilCondition(server::stalled);
+      assertEquals(1000, received.get());
+      int written = server.rowsWritten();
+      assertTrue(
+        written < server.totalRows() / 10,
+        "Server wrote " + written + " rows while only 1000 have been requested"
+      );
+
+      subscriber.request(Long.MAX_VALUE);
+      assertTrue(completed.await(10, TimeUnit.SECONDS));
+      assertEquals(server.totalRows(), received.get());
+      assertTrue(channel.config().isAutoRead());
+
+      channel.close().awaitUninterruptibly();
+    } finally {
+      server.shutdown();
+      nioGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+    }
+  }
 
   static class ChunkServer {
 
@@ -223,4 +358,110 @@ class QueryMessageHandlerBackpressureTest {
     }
 
   }
+
+  /**
+   * Streams a query response with the given number of rows in HTTP chunks, but only as fast as the socket
+   * accepts them, so a client which stops reading stalls the server.
+   */
+  static class StreamingServer {
+
+    private static final int ROWS_PER_CHUNK = 100;
+
+    private final Channel channel;
+    private final int totalRows;
+    private final AtomicInteger rowsWritten = new AtomicInteger();
+    private boolean finished;
+    private volatile Channel child;
+
+    StreamingServer(final EventLoopGroup eventLoopGroup, final int totalRows) {
+      this.totalRows = totalRows;
+      ServerBootstrap server = new ServerBootstrap()
+        .channel(NioServerSocketChannel.class)
+        .group(eventLoopGroup)
+        .localAddress("127.0.0.1", 0)
+        .childOption(ChannelOption.SO_SNDBUF, 32 * 1024)
+        .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(8 * 1024, 32 * 1024))
+        .childHandler(new ChannelInitializer<SocketChannel>() {
+          @Override
+          protected void initChannel(SocketChannel ch) {
+            ch.pipeline().addLast(new HttpServerCodec(), new ChannelInboundHandlerAdapter() {
+
+              private boolean streaming;
+
+              @Override
+              public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                boolean last = msg instanceof LastHttpContent;
+                ReferenceCountUtil.release(msg);
+                if (last && !streaming) {
+                  streaming = true;
+                  child = ctx.channel();
+                  HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+                  response.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+                  ctx.write(response);
+                  ctx.write(new DefaultHttpContent(
+                    Unpooled.copiedBuffer("{\"requestID\": \"1234\", \"signature\": \"bla\", \"results\": [", UTF_8)
+                  ));
+                  writeRows(ctx);
+                }
+              }
+
+              @Override
+              public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+                if (streaming && ctx.channel().isWritable()) {
+                  writeRows(ctx);
+                }
+              }
+            });
+          }
+        });
+
+      this.channel = server.bind().awaitUninterruptibly().channel();
+    }
+
+    private void writeRows(final ChannelHandlerContext ctx) {
+      while (ctx.channel().isWritable() && rowsWritten.get() < totalRows) {
+        StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < ROWS_PER_CHUNK && rowsWritten.get() < totalRows; i++) {
+          int id = rowsWritten.getAndIncrement();
+          if (id > 0) {
+            chunk.append(',');
+          }
+          chunk.append("{\"id\":").append(id).append(",\"payload\":\"abcdefghijklmnopqrstuvwxyz\"}");
+        }
+        ctx.write(new DefaultHttpContent(Unpooled.copiedBuffer(chunk, UTF_8)));
+      }
+      if (rowsWritten.get() >= totalRows && !finished) {
+        finished = true;
+        ctx.write(new DefaultHttpContent(Unpooled.copiedBuffer("], \"status\": \"success\"}", UTF_8)));
+        ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+      } else {
+        ctx.flush();
+      }
+    }
+
+    int port() {
+      return ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    /**
+     * Returns true if the server waits for the client to read, because the socket does not accept more rows.
+     */
+    boolean stalled() {
+      Channel child = this.child;
+      return child != null && !child.isWritable() && rowsWritten.get() < totalRows;
+    }
+
+    int rowsWritten() {
+      return rowsWritten.get();
+    }
+
+    int totalRows() {
+      return totalRows;
+    }
+
+    void shutdown() {
+      channel.close().awaitUninterruptibly();
+    }
+
+  }
 }
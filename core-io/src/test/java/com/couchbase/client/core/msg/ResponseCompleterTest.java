@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.msg;
+
+import com.couchbase.client.core.env.IoConfig;
+import com.couchbase.client.core.env.ResponseCompletion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the functionality of the {@link ResponseCompleter}.
+ */
+class ResponseCompleterTest {
+
+  @Test
+  void completesInlineByDefault() {
+    assertSame(ResponseCompleter.INLINE, ResponseCompleter.create(IoConfig.create()));
+
+    CompletableFuture<Thread> future = new CompletableFuture<>();
+    ResponseCompleter.INLINE.complete(future, Thread.currentThread());
+    assertTrue(future.isDone());
+  }
+
+  @Test
+  void completesOnExecutorInBatches() throws Exception {
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    AtomicInteger handoffs = new AtomicInteger();
+    Executor executor = task -> {
+      handoffs.incrementAndGet();
+      pool.execute(task);
+    };
+
+    try {
+      // keeps the pool busy until all responses are queued
+      CountDownLatch queued = new CountDownLatch(1);
+      pool.execute(() -> {
+        try {
+          queued.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+
+      ResponseCompleter completer = ResponseCompleter.batching(executor, 2);
+      int producers = 4;
+      int perProducer = 1000;
+
+      List<CompletableFuture<Thread>> callbacks = new ArrayList<>();
+      List<Thread> threads = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+        List<CompletableFuture<String>> own = new ArrayList<>();
+        for (int i = 0; i < perProducer; i++) {
+          CompletableFuture<String> future = new CompletableFuture<>();
+          callbacks.add(future.thenApply(ignored -> Thread.currentThread()));
+          own.add(future);
+        }
+        threads.add(new Thread(() -> {
+          for (CompletableFuture<String> future : own) {
+            completer.complete(future, "response");
+          }
+        }));
+      }
+      threads.forEach(Thread::start);
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      queued.countDown();
+
+      CompletableFuture.allOf(callbacks.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+      for (CompletableFuture<Thread> callback : callbacks) {
+        assertFalse(threads.contains(callback.get()));
+      }
+      // one handoff per lane and full batch, instead of one per response
+      assertTrue(handoffs.get() <= producers * perProducer / ResponseCompleter.MAX_BATCH_SIZE + 2);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void doesNotBlockCallerOnSlowCallbacks() throws Exception {
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      ResponseCompleter completer = ResponseCompleter.batching(pool, 1);
+      CountDownLatch release = new CountDownLatch(1);
+      CompletableFuture<String> slow = new CompletableFuture<>();
+      CompletableFuture<Thread> callbackThread = slow.thenApply(ignored -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return Thread.currentThread();
+      });
+
+      completer.complete(slow, "slow");
+      CompletableFuture<String> next = new CompletableFuture<>();
+      completer.completeExceptionally(next, new IllegalStateException());
+      assertFalse(next.isDone());
+
+      release.countDown();
+      assertNotEquals(Thread.currentThread(), callbackThread.get(10, TimeUnit.SECONDS));
+      assertTrue(next.handle((r, t) -> t instanceof IllegalStateException).get(10, TimeUnit.SECONDS));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void completesOnCallingThreadOnceShutdown() {
+    ResponseCompleter completer = ResponseCompleter.create(
+      IoConfig.responseCompletion(ResponseCompletion.BOUNDED_POOL).responseCompletionPoolSize(2).build()
+    );
+    completer.shutdown();
+
+    CompletableFuture<String> future = new CompletableFuture<>();
+    completer.complete(future, "done");
+    assertEquals("done", future.getNow(null));
+
+    ResponseCompleter perTask = ResponseCompleter.perTask(Executors.newSingleThreadExecutor());
+    perTask.shutdown();
+    CompletableFuture<String> failed = new CompletableFuture<>();
+    perTask.completeExceptionally(failed, new IllegalStateException());
+    assertTrue(failed.isCompletedExceptionally());
+  }
+
+}
@@ -18,6 +18,7 @@ package com.couchbase.client.core.msg.kv;
 
 import com.couchbase.client.core.CoreContext;
 import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.io.netty.kv.MemcacheProtocol;
 import com.couchbase.client.core.retry.BestEffortRetryStrategy;
 import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
 import org.junit.jupiter.api.Test;
@@ -28,6 +29,9 @@ import static com.couchbase.client.core.io.netty.kv.ProtocolVerifier.decodeHexDu
 import static com.couchbase.client.test.Util.readResource;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -53,6 +57,26 @@ class DecompressionTest {
     );
   }
 
+  @Test
+  void defersDecompressionUntilContentIsAccessed() {
+    ByteBuf response = decodeHexDump(readResource(
+      "compressed_get_response.txt",
+      DecompressionTest.class
+    ));
+
+    GetRequest request = new GetRequest("mydoc", Duration.ofSeconds(1),
+      mock(CoreContext.class), CollectionIdentifier.fromDefault("bucket"), BestEffortRetryStrategy.INSTANCE, null);
+    GetResponse decoded = request.decode(response, null);
+
+    String expected = readResource("dummy.json", DecompressionTest.class);
+    assertTrue(MemcacheProtocol.isCompressed(decoded.datatype()));
+    assertNotEquals(expected.getBytes(UTF_8).length, decoded.encodedContent().length);
+
+    byte[] content = decoded.content();
+    assertEquals(expected, new String(content, UTF_8));
+    assertSame(content, decoded.content());
+  }
+
   @Test
   void decompressesReplicaGet() {
     ByteBuf response = decodeHexDump(readResource(
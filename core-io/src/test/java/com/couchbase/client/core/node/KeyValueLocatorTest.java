@@ -18,6 +18,7 @@ package com.couchbase.client.core.node;
 
 import com.couchbase.client.core.Core;
 import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.config.BucketConfig;
 import com.couchbase.client.core.config.ClusterConfig;
 import com.couchbase.client.core.config.CouchbaseBucketConfig;
 import com.couchbase.client.core.config.NodeInfo;
@@ -37,6 +38,8 @@ import java.util.Collections;
 import java.util.List;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -271,4 +274,94 @@ class KeyValueLocatorTest {
     verify(request, times(1)).cancel(CancellationReason.TARGET_NODE_REMOVED);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void usesRoutingTableWhenBuiltForCurrentConfig() {
+    KeyValueLocator locator = new KeyValueLocator();
+
+    NodeInfo nodeInfo1 = new NodeInfo("http://foo:1234", "192.168.56.101:8091",
+      Collections.EMPTY_MAP, null);
+    NodeInfo nodeInfo2 = new NodeInfo("http://foo:1234", "192.168.56.102:8091",
+      Collections.EMPTY_MAP, null);
+    Node node1Mock = mock(Node.class);
+    when(node1Mock.identifier()).thenReturn(new NodeIdentifier("192.168.56.101", 8091));
+    Node node2Mock = mock(Node.class);
+    when(node2Mock.identifier()).thenReturn(new NodeIdentifier("192.168.56.102", 8091));
+    List<Node> nodes = new ArrayList<>(Arrays.asList(node1Mock, node2Mock));
+
+    ClusterConfig configMock = mock(ClusterConfig.class);
+    CouchbaseBucketConfig bucketMock = mock(CouchbaseBucketConfig.class);
+    when(configMock.bucketConfig("bucket")).thenReturn(bucketMock);
+    when(configMock.bucketConfigs()).thenReturn(Collections.<String, BucketConfig>singletonMap("bucket", bucketMock));
+    when(bucketMock.name()).thenReturn("bucket");
+    when(bucketMock.nodes()).thenReturn(Arrays.asList(nodeInfo1, nodeInfo2));
+    when(bucketMock.numberOfPartitions()).thenReturn(1024);
+    when(bucketMock.nodeIndexForActive(anyInt(), eq(false))).thenReturn((short) 1);
+    when(bucketMock.nodeAtIndex(1)).thenReturn(nodeInfo2);
+
+    locator.updateRoutingTables(configMock, nodes);
+    verify(bucketMock, times(1)).nodeAtIndex(1);
+
+    GetRequest getRequest = mock(GetRequest.class);
+    when(getRequest.bucket()).thenReturn("bucket");
+    when(getRequest.key()).thenReturn("key".getBytes(UTF_8));
+
+    locator.dispatch(getRequest, nodes, configMock, null);
+    verify(node2Mock, times(1)).send(getRequest);
+    verify(node1Mock, never()).send(getRequest);
+    verify(getRequest, times(1)).partition((short) 656);
+    // the node has been resolved from the table, not through the config again
+    verify(bucketMock, times(1)).nodeAtIndex(1);
+
+    // a newer config without a table goes through the regular path
+    ClusterConfig newConfigMock = mock(ClusterConfig.class);
+    CouchbaseBucketConfig newBucketMock = mock(CouchbaseBucketConfig.class);
+    when(newConfigMock.bucketConfig("bucket")).thenReturn(newBucketMock);
+    when(newBucketMock.nodes()).thenReturn(Arrays.asList(nodeInfo1, nodeInfo2));
+    when(newBucketMock.numberOfPartitions()).thenReturn(1024);
+    when(newBucketMock.nodeIndexForActive(656, false)).thenReturn((short) 0);
+    when(newBucketMock.nodeAtIndex(0)).thenReturn(nodeInfo1);
+
+    locator.dispatch(getRequest, nodes, newConfigMock, null);
+    verify(node1Mock, times(1)).send(getRequest);
+    verify(node2Mock, times(1)).send(getRequest);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void rebuildsRoutingTableOnlyIfAffected() {
+    KeyValueLocator locator = new KeyValueLocator();
+
+    NodeIdentifier identifier1 = new NodeIdentifier("192.168.56.101", 8091);
+    NodeInfo nodeInfo1 = new NodeInfo("http://foo:1234", "192.168.56.101:8091",
+      Collections.EMPTY_MAP, null);
+    Node node1Mock = mock(Node.class);
+    when(node1Mock.identifier()).thenReturn(identifier1);
+    List<Node> nodes = new ArrayList<>(Collections.singletonList(node1Mock));
+
+    ClusterConfig configMock = mock(ClusterConfig.class);
+    CouchbaseBucketConfig bucketMock = mock(CouchbaseBucketConfig.class);
+    when(configMock.bucketConfigs()).thenReturn(Collections.<String, BucketConfig>singletonMap("bucket", bucketMock));
+    when(bucketMock.name()).thenReturn("bucket");
+    when(bucketMock.nodes()).thenReturn(Collections.singletonList(nodeInfo1));
+    when(bucketMock.numberOfPartitions()).thenReturn(1024);
+    when(bucketMock.nodeIndexForActive(anyInt(), eq(false))).thenReturn((short) 0);
+    when(bucketMock.nodeAtIndex(0)).thenReturn(nodeInfo1);
+
+    locator.updateRoutingTables(configMock, nodes);
+    verify(bucketMock, times(1)).nodeAtIndex(0);
+
+    // the same bucket config again does not rebuild the table
+    locator.updateRoutingTables(configMock, nodes);
+    verify(bucketMock, times(1)).nodeAtIndex(0);
+
+    // a node which is not part of the bucket config does not affect the table
+    locator.updateRoutingTables(new NodeIdentifier("192.168.56.102", 8091), nodes);
+    verify(bucketMock, times(1)).nodeAtIndex(0);
+
+    // a node which is part of the bucket config does
+    locator.updateRoutingTables(identifier1, nodes);
+    verify(bucketMock, times(2)).nodeAtIndex(0);
+  }
+
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.node;
+
+import com.couchbase.client.core.config.ClusterConfig;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.msg.query.QueryRequest;
+import com.couchbase.client.core.service.ServiceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link LoadAwareLocator}.
+ */
+class LoadAwareLocatorTest {
+
+  private static final NodeIdentifier NODE1 = new NodeIdentifier("192.168.56.101", 8091);
+  private static final NodeIdentifier NODE2 = new NodeIdentifier("192.168.56.102", 8091);
+
+  @Test
+  void prefersNodeWithLowerLatency() {
+    LoadAwareLocator locator = new LoadAwareLocator(ServiceType.QUERY);
+    Node node1Mock = mockNode(NODE1);
+    Node node2Mock = mockNode(NODE2);
+    List<Node> nodes = new ArrayList<>(Arrays.asList(node1Mock, node2Mock));
+
+    locator.requestCompleted(completedRequest(NODE1, TimeUnit.MILLISECONDS.toNanos(50)));
+    locator.requestCompleted(completedRequest(NODE2, TimeUnit.MILLISECONDS.toNanos(5)));
+
+    QueryRequest request = mock(QueryRequest.class);
+    for (int i = 0; i < 20; i++) {
+      locator.dispatch(request, nodes, clusterConfig(), null);
+    }
+    verify(node1Mock, never()).send(request);
+    verify(node2Mock, times(20)).send(request);
+  }
+
+  @Test
+  void prefersNodeWithFewerOutstandingRequests() {
+    LoadAwareLocator locator = new LoadAwareLocator(ServiceType.QUERY);
+    Node node1Mock = mockNode(NODE1);
+    Node node2Mock = mockNode(NODE2);
+    when(node1Mock.outstandingRequests(ServiceType.QUERY)).thenReturn(0L);
+    when(node2Mock.outstandingRequests(ServiceType.QUERY)).thenReturn(4L);
+    List<Node> nodes = new ArrayList<>(Arrays.asList(node1Mock, node2Mock));
+
+    QueryRequest request = mock(QueryRequest.class);
+    for (int i = 0; i < 20; i++) {
+      locator.dispatch(request, nodes, clusterConfig(), null);
+    }
+    verify(node1Mock, times(20)).send(request);
+    verify(node2Mock, never()).send(request);
+  }
+
+  @Test
+  void decaysAndForgetsLatency() {
+    LoadAwareLocator.NodeLatency latency = new LoadAwareLocator.NodeLatency();
+    long start = 1000;
+    long slow = TimeUnit.MILLISECONDS.toNanos(100);
+    long fast = TimeUnit.MILLISECONDS.toNanos(1);
+
+    latency.record(slow, start);
+    assertEquals(slow, latency.average(start));
+
+    long now = start + LoadAwareLocator.DECAY_NANOS * 5;
+    latency.record(fast, now);
+    assertTrue(latency.average(now) < fast * 2);
+
+    assertEquals(0, latency.average(now + LoadAwareLocator.STALE_NANOS));
+  }
+
+  @Test
+  void forgetsRemovedNodes() {
+    LoadAwareLocator locator = new LoadAwareLocator(ServiceType.QUERY);
+    Node node1Mock = mockNode(NODE1);
+    Node node2Mock = mockNode(NODE2);
+    List<Node> nodes = new ArrayList<>(Arrays.asList(node1Mock, node2Mock));
+
+    locator.requestCompleted(completedRequest(NODE1, TimeUnit.MILLISECONDS.toNanos(5)));
+    locator.dispatch(mock(QueryRequest.class), nodes, clusterConfig(), null);
+    assertTrue(locator.averageLatency(NODE1) > 0);
+
+    nodes.remove(node1Mock);
+    locator.dispatch(mock(QueryRequest.class), nodes, clusterConfig(), null);
+    assertEquals(0, locator.averageLatency(NODE1));
+  }
+
+  private static Node mockNode(final NodeIdentifier identifier) {
+    Node node = mock(Node.class);
+    when(node.identifier()).thenReturn(identifier);
+    when(node.serviceEnabled(ServiceType.QUERY)).thenReturn(true);
+    return node;
+  }
+
+  private static ClusterConfig clusterConfig() {
+    ClusterConfig config = mock(ClusterConfig.class);
+    when(config.hasClusterOrBucketConfig()).thenReturn(true);
+    return config;
+  }
+
+  private static QueryRequest completedRequest(final NodeIdentifier node, final long dispatchLatency) {
+    RequestContext ctx = mock(RequestContext.class);
+    when(ctx.lastDispatchedToNode()).thenReturn(node);
+    when(ctx.dispatchLatency()).thenReturn(dispatchLatency);
+    QueryRequest request = mock(QueryRequest.class);
+    when(request.context()).thenReturn(ctx);
+    return request;
+  }
+
+}
@@ -157,6 +157,40 @@ class RoundRobinLocatorTest {
     verify(node4Mock, times(2)).send(request);
   }
 
+  @Test
+  void picksUpServiceAndNodeChangesWithCachedNodes() {
+    Locator locator = new RoundRobinLocator(ServiceType.QUERY, 0);
+
+    QueryRequest request = mock(QueryRequest.class);
+    ClusterConfig configMock = mock(ClusterConfig.class);
+    when(configMock.hasClusterOrBucketConfig()).thenReturn(true);
+
+    Node node1Mock = mock(Node.class);
+    when(node1Mock.identifier()).thenReturn(new NodeIdentifier("192.168.56.101", 8091));
+    when(node1Mock.serviceEnabled(ServiceType.QUERY)).thenReturn(true);
+    Node node2Mock = mock(Node.class);
+    when(node2Mock.identifier()).thenReturn(new NodeIdentifier("192.168.56.102", 8091));
+    when(node2Mock.serviceEnabled(ServiceType.QUERY)).thenReturn(false);
+    List<Node> nodes = new ArrayList<>(Arrays.asList(node1Mock, node2Mock));
+
+    locator.dispatch(request, nodes, configMock, null);
+    locator.dispatch(request, nodes, configMock, null);
+    verify(node1Mock, times(2)).send(request);
+    verify(node2Mock, never()).send(request);
+
+    when(node2Mock.serviceEnabled(ServiceType.QUERY)).thenReturn(true);
+    locator.dispatch(request, nodes, configMock, null);
+    locator.dispatch(request, nodes, configMock, null);
+    verify(node1Mock, times(3)).send(request);
+    verify(node2Mock, times(1)).send(request);
+
+    nodes.remove(node1Mock);
+    locator.dispatch(request, nodes, configMock, null);
+    locator.dispatch(request, nodes, configMock, null);
+    verify(node1Mock, times(3)).send(request);
+    verify(node2Mock, times(3)).send(request);
+  }
+
   @Test
   void cancelsTargetedRequestIfNodeNotInList() {
     Locator locator = new RoundRobinLocator(ServiceType.QUERY);
@@ -48,4 +48,9 @@ class ViewLocatorTest {
     assertFalse(locator.nodeCanBeUsed(node2, request, config));
   }
 
+  @Test
+  void doesNotCacheEligibleNodes() {
+    assertFalse(new ViewLocator().nodeEligibilityCacheable());
+  }
+
 }
\ No newline at end of file
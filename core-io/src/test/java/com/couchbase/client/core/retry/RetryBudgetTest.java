@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.retry;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.cnc.SimpleEventBus;
+import com.couchbase.client.core.cnc.events.request.RetryBudgetExhaustedEvent;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
+import com.couchbase.client.core.env.Authenticator;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.error.InvalidArgumentException;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.node.NodeIdentifier;
+import com.couchbase.client.core.service.ServiceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link RetryBudget}.
+ */
+class RetryBudgetTest {
+
+  private static final NodeIdentifier NODE_A = new NodeIdentifier("10.0.0.1", 8091);
+  private static final NodeIdentifier NODE_B = new NodeIdentifier("10.0.0.2", 8091);
+
+  private SimpleEventBus eventBus;
+  private CoreContext ctx;
+
+  @BeforeEach
+  void beforeEach() {
+    eventBus = new SimpleEventBus(true);
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    when(env.eventBus()).thenReturn(eventBus);
+    when(env.meter()).thenReturn(NoopMeter.INSTANCE);
+    ctx = new CoreContext(mock(Core.class), 1, env, mock(Authenticator.class));
+  }
+
+  @Test
+  void allowsAllRetriesIfDisabled() {
+    RetryBudget budget = RetryBudget.disabled();
+    Request<?> request = request(ServiceType.KV, NODE_A);
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(budget.tryAcquire(ctx, request));
+    }
+    assertFalse(budget.enabled());
+  }
+
+  @Test
+  void refillsFromSuccessfulResponses() {
+    RetryBudget budget = RetryBudget.create(0.1, 2);
+    Request<?> request = request(ServiceType.KV, NODE_A);
+
+    assertTrue(budget.tryAcquire(ctx, request));
+    assertTrue(budget.tryAcquire(ctx, request));
+    assertFalse(budget.tryAcquire(ctx, request));
+
+    for (int i = 0; i < 9; i++) {
+      budget.deposit(request);
+    }
+    assertFalse(budget.tryAcquire(ctx, request));
+    budget.deposit(request);
+    assertTrue(budget.tryAcquire(ctx, request));
+    assertEquals(2, budget.deniedRetries());
+
+    // the capacity bounds the deposits
+    for (int i = 0; i < 1000; i++) {
+      budget.deposit(request);
+    }
+    assertEquals(2, budget.availableRetries(ServiceType.KV));
+  }
+
+  @Test
+  void limitsRetriesPerNode() {
+    RetryBudget budget = RetryBudget.create(0.5, 2);
+    Request<?> toA = request(ServiceType.KV, NODE_A);
+    Request<?> toB = request(ServiceType.KV, NODE_B);
+
+    // the service bucket is refilled through successes on node b, but node a stays exhausted
+    assertTrue(budget.tryAcquire(ctx, toA));
+    assertTrue(budget.tryAcquire(ctx, toA));
+    for (int i = 0; i < 4; i++) {
+      budget.deposit(toB);
+    }
+    assertFalse(budget.tryAcquire(ctx, toA));
+    assertEquals(2, budget.availableRetries(ServiceType.KV));
+    assertEquals(0, budget.availableRetries(ServiceType.KV, NODE_A));
+    assertTrue(budget.tryAcquire(ctx, toB));
+
+    // other services have their own budget
+    assertTrue(budget.tryAcquire(ctx, request(ServiceType.QUERY, NODE_A)));
+  }
+
+  @Test
+  void publishesEventOnceWhenExhausted() {
+    RetryBudget budget = RetryBudget.create(0.1, 1);
+    Request<?> request = request(ServiceType.QUERY, null);
+
+    assertTrue(budget.tryAcquire(ctx, request));
+    assertFalse(budget.tryAcquire(ctx, request));
+    assertFalse(budget.tryAcquire(ctx, request));
+
+    assertEquals(1, eventBus.publishedEvents().size());
+    RetryBudgetExhaustedEvent event = (RetryBudgetExhaustedEvent) eventBus.publishedEvents().get(0);
+    assertEquals(ServiceType.QUERY, event.serviceType());
+    assertEquals(1, event.deniedRetries());
+  }
+
+  @Test
+  void rejectsInvalidSettings() {
+    assertThrows(InvalidArgumentException.class, () -> RetryBudget.create(1.5, 10));
+    assertThrows(InvalidArgumentException.class, () -> RetryBudget.create(0.1, 0));
+  }
+
+  private static Request<?> request(final ServiceType serviceType, final NodeIdentifier node) {
+    Request<?> request = mock(Request.class);
+    RequestContext context = mock(RequestContext.class);
+    when(context.lastDispatchedToNode()).thenReturn(node);
+    when(request.context()).thenReturn(context);
+    when(request.serviceType()).thenReturn(serviceType);
+    return request;
+  }
+
+}
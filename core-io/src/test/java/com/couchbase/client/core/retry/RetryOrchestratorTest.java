@@ -21,6 +21,8 @@ import com.couchbase.client.core.CoreContext;
 import com.couchbase.client.core.Timer;
 import com.couchbase.client.core.cnc.Event;
 import com.couchbase.client.core.cnc.events.request.RequestNotRetriedEvent;
+import com.couchbase.client.core.cnc.events.request.RetryBudgetExhaustedEvent;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
 import com.couchbase.client.core.cnc.events.request.RequestRetryScheduledEvent;
 import com.couchbase.client.core.env.Authenticator;
 import com.couchbase.client.core.env.CoreEnvironment;
@@ -28,6 +30,7 @@ import com.couchbase.client.core.msg.CancellationReason;
 import com.couchbase.client.core.msg.Request;
 import com.couchbase.client.core.msg.RequestContext;
 import com.couchbase.client.core.cnc.SimpleEventBus;
+import com.couchbase.client.core.service.ServiceType;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
@@ -91,6 +94,39 @@ class RetryOrchestratorTest {
     assertEquals(requestContext, retryEvent.context());
   }
 
+  @Test
+  @SuppressWarnings({"unchecked"})
+  void cancelIfRetryBudgetExhausted() {
+    RetryStrategy retryStrategy = mock(RetryStrategy.class);
+    when(retryStrategy.shouldRetry(any(Request.class), any(RetryReason.class))).thenReturn(
+      CompletableFuture.completedFuture(RetryAction.withDuration(Duration.ofMillis(200)))
+    );
+    Request<?> request = mock(Request.class);
+    when(request.completed()).thenReturn(false);
+    when(request.retryStrategy()).thenReturn(retryStrategy);
+    when(request.serviceType()).thenReturn(ServiceType.KV);
+    RequestContext requestContext = mock(RequestContext.class);
+    when(request.context()).thenReturn(requestContext);
+
+    RetryBudget retryBudget = RetryBudget.create(0.1, 1);
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    SimpleEventBus eventBus = new SimpleEventBus(true);
+    when(env.eventBus()).thenReturn(eventBus);
+    when(env.meter()).thenReturn(NoopMeter.INSTANCE);
+    when(env.retryBudget()).thenReturn(retryBudget);
+    CoreContext context = new CoreContext(mock(Core.class), 1, env, mock(Authenticator.class));
+
+    // drain the single token of the burst
+    assertTrue(retryBudget.tryAcquire(context, request));
+    RetryOrchestrator.maybeRetry(context, request, RetryReason.UNKNOWN);
+
+    verify(request, times(1)).cancel(CancellationReason.retryBudgetExhausted(RetryReason.UNKNOWN));
+    verify(requestContext, never()).incrementRetryAttempts(any(Duration.class), any(RetryReason.class));
+    assertEquals(1, retryBudget.deniedRetries());
+    assertTrue(eventBus.publishedEvents().get(0) instanceof RetryBudgetExhaustedEvent);
+    assertTrue(eventBus.publishedEvents().get(1) instanceof RequestNotRetriedEvent);
+  }
+
   @Test
   @SuppressWarnings({"unchecked"})
   void retryWithDelay() {
@@ -112,6 +148,7 @@ class RetryOrchestratorTest {
     SimpleEventBus eventBus = new SimpleEventBus(true);
     when(env.timer()).thenReturn(timer);
     when(env.eventBus()).thenReturn(eventBus);
+    when(env.retryBudget()).thenReturn(RetryBudget.disabled());
 
     CoreContext ctx = new CoreContext(core, 1, env, mock(Authenticator.class));
 
@@ -159,6 +196,7 @@ class RetryOrchestratorTest {
     SimpleEventBus eventBus = new SimpleEventBus(true);
     when(env.timer()).thenReturn(timer);
     when(env.eventBus()).thenReturn(eventBus);
+    when(env.retryBudget()).thenReturn(RetryBudget.disabled());
 
     CoreContext ctx = new CoreContext(core, 1, env, mock(Authenticator.class));
 
@@ -45,6 +45,7 @@ import java.util.function.Supplier;
 
 import static com.couchbase.client.test.Util.waitUntilCondition;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -726,6 +727,84 @@ class PooledServiceTest {
     verify(mock1, atLeastOnce()).disconnect();
   }
 
+  /**
+   * If the subclass signals load after a send, the pool grows by one endpoint but not beyond the max.
+   */
+  @Test
+  void growsPoolOnLoad() {
+    Endpoint mock1 = mock(Endpoint.class);
+    when(mock1.state()).thenReturn(EndpointState.CONNECTED);
+    when(mock1.states()).thenReturn(DirectProcessor.create());
+    Endpoint mock2 = mock(Endpoint.class);
+    when(mock2.state()).thenReturn(EndpointState.CONNECTED);
+    when(mock2.states()).thenReturn(DirectProcessor.create());
+
+    final List<Endpoint> mocks = Arrays.asList(mock1, mock2);
+    final AtomicInteger invocation = new AtomicInteger();
+    MockedService service = new MockedService(
+      new MockedServiceConfig(1, 2, Duration.ofSeconds(30), true),
+      () -> mocks.get(invocation.getAndIncrement()),
+      new FirstEndpointSelectionStrategy()
+    ) {
+      @Override
+      protected boolean shouldGrow(final Endpoint endpoint) {
+        return true;
+      }
+
+      @Override
+      protected Duration growInterval() {
+        return Duration.ZERO;
+      }
+    };
+    service.connect();
+    assertEquals(1, service.trackedEndpoints().size());
+
+    for (int i = 0; i < 3; i++) {
+      service.send(new NoopRequest(
+        Duration.ofSeconds(1),
+        serviceContext,
+        BestEffortRetryStrategy.INSTANCE,
+        CollectionIdentifier.fromDefault("bucket")
+      ));
+    }
+
+    assertEquals(2, service.trackedEndpoints().size());
+    verify(mock1, times(3)).send(any(NoopRequest.class));
+    verify(mock2, times(1)).connect();
+  }
+
+  /**
+   * If endpoints are not reserved on demand, a request which finds no endpoint is retried instead.
+   */
+  @Test
+  void retriesWithoutReservingIfNotReservingOnDemand() {
+    Endpoint mock1 = mock(Endpoint.class);
+    when(mock1.state()).thenReturn(EndpointState.CONNECTING);
+    when(mock1.states()).thenReturn(DirectProcessor.create());
+
+    MockedService service = new MockedService(
+      new MockedServiceConfig(1, 2, Duration.ofSeconds(30), true),
+      () -> mock1
+    ) {
+      @Override
+      protected boolean reserveEndpointIfNoneAvailable() {
+        return false;
+      }
+    };
+    service.connect();
+
+    NoopRequest request = new NoopRequest(
+      Duration.ofSeconds(1),
+      serviceContext,
+      BestEffortRetryStrategy.INSTANCE,
+      CollectionIdentifier.fromDefault("bucket")
+    );
+    service.send(request);
+
+    waitUntilCondition(() -> request.context().retryAttempts() > 0);
+    assertEquals(1, service.trackedEndpoints().size());
+  }
+
   class MockedService extends PooledService {
 
     List<Endpoint> trackedEndpoints = new ArrayList<>();
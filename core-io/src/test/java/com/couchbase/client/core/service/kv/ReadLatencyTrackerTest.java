@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.kv;
+
+import com.couchbase.client.core.node.NodeIdentifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the functionality of the {@link ReadLatencyTracker}.
+ */
+class ReadLatencyTrackerTest {
+
+  private static final NodeIdentifier NODE = new NodeIdentifier("192.168.56.101", 8091);
+
+  @Test
+  void reportsNothingWithoutEnoughSamples() {
+    ReadLatencyTracker tracker = new ReadLatencyTracker();
+    assertEquals(0, tracker.percentile(NODE, 0.95));
+
+    for (int i = 0; i < ReadLatencyTracker.MIN_SAMPLES - 1; i++) {
+      tracker.record(NODE, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    assertEquals(0, tracker.percentile(NODE, 0.95));
+  }
+
+  @Test
+  void calculatesPercentile() {
+    ReadLatencyTracker tracker = new ReadLatencyTracker();
+    for (int i = 0; i < 95; i++) {
+      tracker.record(NODE, TimeUnit.MICROSECONDS.toNanos(500));
+    }
+    for (int i = 0; i < 5; i++) {
+      tracker.record(NODE, TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    long p95 = tracker.percentile(NODE, 0.95);
+    assertTrue(p95 > TimeUnit.MICROSECONDS.toNanos(500) && p95 <= TimeUnit.MICROSECONDS.toNanos(640), "p95: " + p95);
+    long p99 = tracker.percentile(NODE, 0.99);
+    assertTrue(p99 > TimeUnit.MILLISECONDS.toNanos(50) && p99 <= TimeUnit.MILLISECONDS.toNanos(64), "p99: " + p99);
+
+    tracker.remove(NODE);
+    assertEquals(0, tracker.percentile(NODE, 0.95));
+  }
+
+  @Test
+  void bucketsAreOrderedAndBounded() {
+    long previousUpperBound = 0;
+    for (long micros = 0; micros < 100_000; micros++) {
+      int bucket = ReadLatencyTracker.Histogram.bucket(micros);
+      long upperBound = ReadLatencyTracker.Histogram.upperBound(bucket);
+      assertTrue(micros < upperBound);
+      assertTrue(upperBound >= previousUpperBound);
+      previousUpperBound = upperBound;
+    }
+  }
+
+  @Test
+  void forgetsOldWindows() {
+    ReadLatencyTracker.Histogram histogram = new ReadLatencyTracker.Histogram();
+    long now = System.nanoTime();
+    for (int i = 0; i < 100; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(10), now);
+    }
+    assertTrue(histogram.percentile(0.95, now) > 0);
+    assertEquals(0, histogram.percentile(0.95, now + 2 * ReadLatencyTracker.WINDOW_NANOS));
+  }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.kv;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.Timer;
+import com.couchbase.client.core.cnc.EventBus;
+import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
+import com.couchbase.client.core.config.ClusterConfig;
+import com.couchbase.client.core.config.CouchbaseBucketConfig;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.error.CouchbaseException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.core.error.RequestCanceledException;
+import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.msg.CancellationReason;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.ResponseStatus;
+import com.couchbase.client.core.msg.kv.GetRequest;
+import com.couchbase.client.core.msg.kv.GetResponse;
+import com.couchbase.client.core.msg.kv.ReplicaGetRequest;
+import com.couchbase.client.core.node.NodeIdentifier;
+import com.couchbase.client.core.retry.FailFastRetryStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.couchbase.client.test.Util.waitUntilCondition;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the hedged read functionality of the {@link ReplicaHelper}.
+ */
+class ReplicaHelperTest {
+
+  private static final String BUCKET = "bucket";
+  private static final Duration SHORT_HEDGE_DELAY = Duration.ofMillis(10);
+  private static final Duration LONG_HEDGE_DELAY = Duration.ofSeconds(30);
+
+  private final List<Request<?>> sent = new CopyOnWriteArrayList<>();
+  private final ReadLatencyTracker latencies = new ReadLatencyTracker();
+  private Timer timer;
+  private Core core;
+  private CoreContext ctx;
+
+  @BeforeEach
+  void beforeEach() {
+    timer = Timer.createAndStart(100);
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    when(env.timer()).thenReturn(timer);
+    when(env.requestTracer()).thenReturn(NoopRequestTracer.INSTANCE);
+    when(env.eventBus()).thenReturn(mock(EventBus.class));
+
+    core = mock(Core.class);
+    ctx = new CoreContext(core, 1, env, null);
+    when(core.context()).thenReturn(ctx);
+    when(core.readLatencies()).thenReturn(latencies);
+    doAnswer(invocation -> {
+      sent.add(invocation.getArgument(0));
+      return null;
+    }).when(core).send(any());
+    configureReplicas(1);
+  }
+
+  @AfterEach
+  void afterEach() {
+    timer.stop();
+  }
+
+  @Test
+  void activeResponseWins() throws Exception {
+    GetRequest active = activeRequest();
+    CompletableFuture<ReplicaHelper.GetReplicaResponse> result = getHedged(active, SHORT_HEDGE_DELAY);
+    ReplicaGetRequest hedge = awaitHedge();
+
+    GetResponse response = response(ResponseStatus.SUCCESS);
+    active.succeed(response);
+
+    assertFalse(result.get(1, TimeUnit.SECONDS).isFromReplica());
+    assertSame(response, result.get().getResponse());
+    assertTrue(hedge.cancelled());
+  }
+
+  @Test
+  void hedgeResponseWins() throws Exception {
+    GetRequest active = activeRequest();
+    CompletableFuture<ReplicaHelper.GetReplicaResponse> result = getHedged(active, SHORT_HEDGE_DELAY);
+    ReplicaGetRequest hedge = awaitHedge();
+    assertEquals(1, hedge.replica());
+
+    GetResponse response = response(ResponseStatus.SUCCESS);
+    hedge.succeed(response);
+
+    assertTrue(result.get(1, TimeUnit.SECONDS).isFromReplica());
+    assertSame(response, result.get().getResponse());
+    assertTrue(active.cancelled());
+    assertEquals(CancellationReason.STOPPED_LISTENING, active.cancellationReason());
+  }
+
+  @Test
+  void activeNotFoundIsAuthoritative() {
+    GetRequest active = activeRequest();
+    CompletableFuture<ReplicaHelper.GetReplicaResponse> result = getHedged(active, SHORT_HEDGE_DELAY);
+    ReplicaGetRequest hedge = awaitHedge();
+
+    active.succeed(response(ResponseStatus.NOT_FOUND));
+
+    ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+    assertTrue(ex.getCause() instanceof DocumentNotFoundException);
+    assertTrue(hedge.cancelled());
+  }
+
+  @Test
+  void propagatesActiveErrorIfHedgeFailsToo() {
+    GetRequest active = activeRequest();
+    CompletableFuture<ReplicaHelper.GetReplicaResponse> result = getHedged(active, SHORT_HEDGE_DELAY);
+    ReplicaGetRequest hedge = awaitHedge();
+
+    CouchbaseException activeError = new CouchbaseException("active failed");
+    active.fail(activeError);
+    assertFalse(result.isDone());
+
+    hedge.fail(new CouchbaseException("replica failed"));
+    ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+    assertSame(activeError, ex.getCause());
+  }
+
+  @Test
+  void readsOnlyFromActiveWithoutReplicas() throws Exception {
+    configureReplicas(0);
+    GetRequest active = activeRequest();
+    CompletableFuture<ReplicaHelper.GetReplicaResponse> result = getHedged(active, Duration.ZERO);
+
+    active.succeed(response(ResponseStatus.SUCCESS));
+    assertFalse(result.get(1, TimeUnit.SECONDS).isFromReplica());
+
+    Thread.sleep(SHORT_HEDGE_DELAY.toMillis() * 5);
+    assertEquals(1, sent.size());
+  }
+
+  /**
+   * If the bucket is not open yet, the request is not dispatched to a node right away, so there is no latency
+   * to derive the delay from and the maximum delay is used.
+   */
+  @Test
+  void usesMaxDelayIfActiveNotDispatchedYet() throws Exception {
+    for (int i = 0; i < ReadLatencyTracker.MIN_SAMPLES; i++) {
+      latencies.record(new NodeIdentifier("127.0.0.1", 8091), 1);
+    }
+
+    GetRequest active = activeRequest();
+    CompletableFuture<ReplicaHelper.GetReplicaResponse> result = getHedged(active, LONG_HEDGE_DELAY);
+    assertNull(active.context().lastDispatchedToNode());
+    verify(core, never()).readLatencies();
+
+    Thread.sleep(SHORT_HEDGE_DELAY.toMillis() * 5);
+    assertEquals(1, sent.size());
+
+    active.succeed(response(ResponseStatus.SUCCESS));
+    assertFalse(result.get(1, TimeUnit.SECONDS).isFromReplica());
+  }
+
+  @Test
+  void cancellingActiveCancelsHedge() {
+    GetRequest active = activeRequest();
+    CompletableFuture<ReplicaHelper.GetReplicaResponse> result = getHedged(active, SHORT_HEDGE_DELAY);
+    ReplicaGetRequest hedge = awaitHedge();
+
+    active.cancel(CancellationReason.STOPPED_LISTENING);
+
+    ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+    assertTrue(ex.getCause() instanceof RequestCanceledException);
+    assertTrue(hedge.cancelled());
+    assertEquals(CancellationReason.STOPPED_LISTENING, hedge.cancellationReason());
+  }
+
+  private CompletableFuture<ReplicaHelper.GetReplicaResponse> getHedged(final GetRequest active,
+                                                                      final Duration maxHedgeDelay) {
+    return ReplicaHelper.getHedgedAsync(core, active, maxHedgeDelay, null, Function.identity());
+  }
+
+  private GetRequest activeRequest() {
+    return new GetRequest("key", Duration.ofSeconds(10), ctx, CollectionIdentifier.fromDefault(BUCKET),
+      FailFastRetryStrategy.INSTANCE, null);
+  }
+
+  private ReplicaGetRequest awaitHedge() {
+    waitUntilCondition(() -> sent.size() == 2);
+    return (ReplicaGetRequest) sent.get(1);
+  }
+
+  private void configureReplicas(final int numReplicas) {
+    CouchbaseBucketConfig bucketConfig = mock(CouchbaseBucketConfig.class);
+    when(bucketConfig.numberOfReplicas()).thenReturn(numReplicas);
+    ClusterConfig clusterConfig = mock(ClusterConfig.class);
+    when(clusterConfig.bucketConfig(BUCKET)).thenReturn(bucketConfig);
+    when(core.clusterConfig()).thenReturn(clusterConfig);
+  }
+
+  private static GetResponse response(final ResponseStatus status) {
+    GetResponse response = mock(GetResponse.class);
+    when(response.status()).thenReturn(status);
+    return response;
+  }
+
+}
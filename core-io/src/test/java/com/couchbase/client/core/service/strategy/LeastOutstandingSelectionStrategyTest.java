@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.strategy;
+
+import com.couchbase.client.core.endpoint.Endpoint;
+import com.couchbase.client.core.endpoint.EndpointState;
+import com.couchbase.client.core.msg.Request;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+class LeastOutstandingSelectionStrategyTest {
+
+  private final LeastOutstandingSelectionStrategy strategy = new LeastOutstandingSelectionStrategy();
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void selectsEndpointWithLeastOutstandingRequests() {
+    Endpoint a = endpoint(EndpointState.CONNECTED, 10);
+    Endpoint b = endpoint(EndpointState.CONNECTED, 3);
+    Endpoint c = endpoint(EndpointState.CONNECTED, 7);
+
+    assertEquals(b, strategy.select(Mockito.mock(Request.class), Arrays.asList(a, b, c)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void prefersFirstEndpointOnTie() {
+    Endpoint a = endpoint(EndpointState.CONNECTED, 2);
+    Endpoint b = endpoint(EndpointState.CONNECTED, 2);
+
+    assertEquals(a, strategy.select(Mockito.mock(Request.class), Arrays.asList(a, b)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void skipsEndpointsWhichAreNotConnected() {
+    Endpoint a = endpoint(EndpointState.CONNECTING, 0);
+    Endpoint b = endpoint(EndpointState.CONNECTED, 5);
+
+    assertEquals(b, strategy.select(Mockito.mock(Request.class), Arrays.asList(a, b)));
+    assertNull(strategy.select(Mockito.mock(Request.class), Collections.singletonList(a)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void skipsEndpointsWhichAreNotWritable() {
+    Endpoint a = endpoint(EndpointState.CONNECTED, 0);
+    when(a.writable()).thenReturn(false);
+    Endpoint b = endpoint(EndpointState.CONNECTED, 5);
+
+    assertEquals(b, strategy.select(Mockito.mock(Request.class), Arrays.asList(a, b)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void selectsLeastBackloggedEndpointIfNoneIsWritable() {
+    Endpoint a = endpoint(EndpointState.CONNECTED, 0);
+    when(a.writable()).thenReturn(false);
+    when(a.pendingWriteBytes()).thenReturn(4096L);
+    Endpoint b = endpoint(EndpointState.CONNECTED, 5);
+    when(b.writable()).thenReturn(false);
+    when(b.pendingWriteBytes()).thenReturn(1024L);
+    Endpoint c = endpoint(EndpointState.CONNECTING, 0);
+
+    assertEquals(b, strategy.select(Mockito.mock(Request.class), Arrays.asList(a, b, c)));
+  }
+
+  private static Endpoint endpoint(final EndpointState state, final long outstanding) {
+    Endpoint endpoint = Mockito.mock(Endpoint.class);
+    when(endpoint.state()).thenReturn(state);
+    when(endpoint.freeToWrite()).thenReturn(true);
+    when(endpoint.writable()).thenReturn(true);
+    when(endpoint.outstandingRequests()).thenReturn(outstanding);
+    return endpoint;
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the functionality of the {@link ConcurrentLfuCache}.
+ */
+class ConcurrentLfuCacheTest {
+
+  @Test
+  void storesAndCountsHitsAndMisses() {
+    ConcurrentLfuCache<String, String> cache = new ConcurrentLfuCache<>(100);
+
+    assertNull(cache.get("a"));
+    assertTrue(cache.put("a", "1"));
+    assertEquals("1", cache.get("a"));
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.hits());
+    assertEquals(1, cache.misses());
+
+    assertEquals("1", cache.remove("a"));
+    assertNull(cache.get("a"));
+    assertEquals(2, cache.misses());
+
+    cache.put("b", "2");
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void neverGrowsBeyondMaxSize() {
+    List<String> evicted = new ArrayList<>();
+    ConcurrentLfuCache<Integer, Integer> cache = new ConcurrentLfuCache<>(1, (k, v) -> evicted.add(k + "=" + v));
+
+    assertTrue(cache.put(1, 1));
+    cache.get(2);
+    assertTrue(cache.put(2, 2));
+    assertEquals(1, cache.size());
+    assertEquals(1, cache.evictions());
+    assertEquals(1, evicted.size());
+    assertEquals("1=1", evicted.get(0));
+  }
+
+  @Test
+  void keepsFrequentEntriesOverOneOffs() {
+    ConcurrentLfuCache<String, String> cache = new ConcurrentLfuCache<>(1);
+
+    for (int i = 0; i < 5; i++) {
+      cache.get("popular");
+    }
+    cache.put("popular", "p");
+
+    cache.get("oneOff");
+    assertFalse(cache.put("oneOff", "o"));
+    assertEquals("p", cache.get("popular"));
+    assertEquals(1, cache.rejections());
+    assertEquals(0, cache.evictions());
+  }
+
+}
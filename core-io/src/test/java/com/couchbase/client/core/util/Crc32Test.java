@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies that {@link Crc32} produces the same checksums as {@link CRC32}.
+ */
+class Crc32Test {
+
+  @Test
+  void matchesJdkChecksum() {
+    Random random = new Random(42);
+    for (int length = 0; length < 300; length++) {
+      byte[] input = new byte[length];
+      random.nextBytes(input);
+      assertEquals(jdkCrc32(input, 0, length), Crc32.crc32(input));
+    }
+    byte[] id = "airline_10226".getBytes(StandardCharsets.UTF_8);
+    assertEquals(jdkCrc32(id, 0, id.length), Crc32.crc32(id));
+  }
+
+  @Test
+  void checksumsRegion() {
+    byte[] input = "prefix-document-suffix".getBytes(StandardCharsets.UTF_8);
+    assertEquals(jdkCrc32(input, 7, 8), Crc32.crc32(input, 7, 8));
+  }
+
+  private static long jdkCrc32(final byte[] input, final int offset, final int length) {
+    CRC32 crc32 = new CRC32();
+    crc32.update(input, offset, length);
+    return crc32.getValue();
+  }
+
+}
@@ -46,6 +46,8 @@ import com.couchbase.client.core.util.BucketConfigUtil;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.codec.Transcoder;
 import com.couchbase.client.java.env.ClusterEnvironment;
+import com.couchbase.client.java.kv.BulkAccessor;
+import com.couchbase.client.java.kv.BulkResult;
 import com.couchbase.client.java.kv.CommonDurabilityOptions;
 import com.couchbase.client.java.kv.ExistsAccessor;
 import com.couchbase.client.java.kv.ExistsOptions;
@@ -74,6 +76,7 @@ import com.couchbase.client.java.kv.MutationResult;
 import com.couchbase.client.java.kv.PersistTo;
 import com.couchbase.client.java.kv.RemoveAccessor;
 import com.couchbase.client.java.kv.RemoveOptions;
+import com.couchbase.client.java.kv.ReplicateTo;
 import com.couchbase.client.java.kv.ReplaceAccessor;
 import com.couchbase.client.java.kv.ReplaceOptions;
 import com.couchbase.client.java.kv.StoreSemantics;
@@ -88,11 +91,13 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import static com.couchbase.client.core.util.Validators.notNull;
 import static com.couchbase.client.core.util.Validators.notNullOrEmpty;
+import static com.couchbase.client.java.AsyncUtils.block;
 import static com.couchbase.client.java.ReactiveCollection.DEFAULT_EXISTS_OPTIONS;
 import static com.couchbase.client.java.ReactiveCollection.DEFAULT_GET_ALL_REPLICAS_OPTIONS;
 import static com.couchbase.client.java.ReactiveCollection.DEFAULT_GET_AND_LOCK_OPTIONS;
@@ -250,16 +255,79 @@ public class AsyncCollection {
    */
   public CompletableFuture<GetResult> get(final String id, final GetOptions options) {
     notNull(options, "GetOptions", () -> ReducedKeyValueErrorContext.create(id, collectionIdentifier));
+    return get(id, options.build());
+  }
+
+  /**
+   * Fetches many full documents (or projections of them) from a collection with default options.
+   *
+   * @param ids the document ids which are used to uniquely identify them.
+   * @return a {@link CompletableFuture} completing with the result or error per id once all are loaded or failed.
+   */
+  @Stability.Volatile
+  public CompletableFuture<Map<String, BulkResult<GetResult>>> getMulti(final java.util.Collection<String> ids) {
+    return getMulti(ids, DEFAULT_GET_OPTIONS);
+  }
+
+  /**
+   * Fetches many full documents (or projections of them) from a collection with custom options.
+   * <p>
+   * The ids are grouped by the node which owns them and only a bounded number of fetches is in-flight against each
+   * node at any given time. Individual failures do not fail the returned future, they are reported per id.
+   *
+   * @param ids the document ids which are used to uniquely identify them.
+   * @param options custom options to change the default behavior, applied to every fetch.
+   * @return a {@link CompletableFuture} completing with the result or error per id once all are loaded or failed.
+   */
+  @Stability.Volatile
+  public CompletableFuture<Map<String, BulkResult<GetResult>>> getMulti(final java.util.Collection<String> ids,
+                                                                       final GetOptions options) {
+    notNull(ids, "Ids");
+    notNull(options, "GetOptions");
     final GetOptions.Built opts = options.build();
+    return BulkAccessor.execute(core, bucket, ids, id -> get(id, opts));
+  }
 
+  /**
+   * Fetches a full document (or a projection of it) with already built options.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @param opts the built options.
+   * @return a {@link CompletableFuture} completing once loaded or failed.
+   */
+  CompletableFuture<GetResult> get(final String id, final GetOptions.Built opts) {
     final Transcoder transcoder = opts.transcoder() == null ? environment.transcoder() : opts.transcoder();
     if (opts.projections().isEmpty() && !opts.withExpiry()) {
+      if (opts.hedgeAfter().isPresent()) {
+        return GetAccessor.getHedged(core, fullGetRequest(id, opts), opts.hedgeAfter().get(),
+          opts.parentSpan().orElse(null), transcoder);
+      }
       return GetAccessor.get(core, fullGetRequest(id, opts), transcoder);
     } else {
       return GetAccessor.subdocGet(core, subdocGetRequest(id, opts), transcoder);
     }
   }
 
+  /**
+   * Fetches a full document like {@link #get(String, GetOptions)}, but parks the calling thread directly on the
+   * response instead of returning a future (see {@link com.couchbase.client.java.env.BlockingMode#DIRECT}).
+   * <p>
+   * Projections, expiry and hedged reads are not supported this way and block on the async path instead.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @param options custom options to change the default behavior.
+   * @return the fetched document.
+   */
+  GetResult getBlocking(final String id, final GetOptions options) {
+    notNull(options, "GetOptions", () -> ReducedKeyValueErrorContext.create(id, collectionIdentifier));
+    final GetOptions.Built opts = options.build();
+    if (!opts.projections().isEmpty() || opts.withExpiry() || opts.hedgeAfter().isPresent()) {
+      return block(get(id, opts));
+    }
+    final Transcoder transcoder = opts.transcoder() == null ? environment.transcoder() : opts.transcoder();
+    return GetAccessor.getBlocking(core, fullGetRequest(id, opts), transcoder);
+  }
+
   /**
    * Helper method to create a get request for a full doc fetch.
    *
@@ -613,6 +681,41 @@ public class AsyncCollection {
     return RemoveAccessor.remove(core, removeRequest(id, opts), id, opts.persistTo(), opts.replicateTo());
   }
 
+  /**
+   * Removes many Documents from a collection with default options.
+   *
+   * @param ids the ids of the documents to remove.
+   * @return a {@link CompletableFuture} completing with the result or error per id once all are removed or failed.
+   */
+  @Stability.Volatile
+  public CompletableFuture<Map<String, BulkResult<MutationResult>>> removeMulti(final java.util.Collection<String> ids) {
+    return removeMulti(ids, DEFAULT_REMOVE_OPTIONS);
+  }
+
+  /**
+   * Removes many Documents from a collection with custom options.
+   * <p>
+   * The ids are grouped by the node which owns them and only a bounded number of removes is in-flight against each
+   * node at any given time. Individual failures do not fail the returned future, they are reported per id.
+   *
+   * @param ids the ids of the documents to remove.
+   * @param options custom options to change the default behavior, applied to every remove.
+   * @return a {@link CompletableFuture} completing with the result or error per id once all are removed or failed.
+   */
+  @Stability.Volatile
+  public CompletableFuture<Map<String, BulkResult<MutationResult>>> removeMulti(final java.util.Collection<String> ids,
+                                                                               final RemoveOptions options) {
+    notNull(ids, "Ids");
+    notNull(options, "RemoveOptions");
+    final RemoveOptions.Built opts = options.build();
+    return BulkAccessor.execute(
+      core,
+      bucket,
+      ids,
+      id -> RemoveAccessor.remove(core, removeRequest(id, opts), id, opts.persistTo(), opts.replicateTo())
+    );
+  }
+
   /**
    * Helper method to create the remove request.
    *
@@ -724,6 +827,68 @@ public class AsyncCollection {
     return UpsertAccessor.upsert(core, upsertRequest(id, content, opts), id, opts.persistTo(), opts.replicateTo());
   }
 
+  /**
+   * Upserts many full documents which might or might not exist yet with default options.
+   *
+   * @param documents the document contents to upsert, keyed by their document id.
+   * @return a {@link CompletableFuture} completing with the result or error per id once all are upserted or failed.
+   */
+  @Stability.Volatile
+  public CompletableFuture<Map<String, BulkResult<MutationResult>>> upsertMulti(final Map<String, ?> documents) {
+    return upsertMulti(documents, DEFAULT_UPSERT_OPTIONS);
+  }
+
+  /**
+   * Upserts many full documents which might or might not exist yet with custom options.
+   * <p>
+   * The documents are grouped by the node which owns them and only a bounded number of upserts is in-flight against
+   * each node at any given time. Individual failures do not fail the returned future, they are reported per id.
+   *
+   * @param documents the document contents to upsert, keyed by their document id.
+   * @param options custom options to customize the upsert behavior, applied to every upsert.
+   * @return a {@link CompletableFuture} completing with the result or error per id once all are upserted or failed.
+   */
+  @Stability.Volatile
+  public CompletableFuture<Map<String, BulkResult<MutationResult>>> upsertMulti(final Map<String, ?> documents,
+                                                                               final UpsertOptions options) {
+    notNull(documents, "Documents");
+    notNull(options, "UpsertOptions");
+    final UpsertOptions.Built opts = options.build();
+    return BulkAccessor.execute(
+      core,
+      bucket,
+      documents.keySet(),
+      id -> UpsertAccessor.upsert(core, upsertRequest(id, documents.get(id), opts), id, opts.persistTo(), opts.replicateTo())
+    );
+  }
+
+  /**
+   * Upserts a full document like {@link #upsert(String, Object, UpsertOptions)}, but parks the calling thread
+   * directly on the response instead of returning a future (see
+   * {@link com.couchbase.client.java.env.BlockingMode#DIRECT}).
+   * <p>
+   * Legacy durability (persistTo/replicateTo) is not supported this way and blocks on the async path instead.
+   *
+   * @param id the document id to upsert.
+   * @param content the document content to upsert.
+   * @param options custom options to customize the upsert behavior.
+   * @return the result of the upsert.
+   */
+  MutationResult upsertBlocking(final String id, final Object content, final UpsertOptions options) {
+    notNull(options, "UpsertOptions", () -> ReducedKeyValueErrorContext.create(id, collectionIdentifier));
+    final UpsertOptions.Built opts = options.build();
+    if (opts.persistTo() != PersistTo.NONE || opts.replicateTo() != ReplicateTo.NONE) {
+      return block(UpsertAccessor.upsert(
+        core,
+        upsertRequest(id, content, opts),
+        id,
+        opts.persistTo(),
+        opts.replicateTo()
+      ));
+    }
+    return UpsertAccessor.upsertBlocking(core, upsertRequest(id, content, opts));
+  }
+
   /**
    * Helper method to generate the upsert request.
    *
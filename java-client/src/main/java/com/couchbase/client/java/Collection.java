@@ -28,9 +28,11 @@ import com.couchbase.client.java.datastructures.CouchbaseArrayList;
 import com.couchbase.client.java.datastructures.CouchbaseArraySet;
 import com.couchbase.client.java.datastructures.CouchbaseMap;
 import com.couchbase.client.java.datastructures.CouchbaseQueue;
+import com.couchbase.client.java.env.BlockingMode;
 import com.couchbase.client.java.env.ClusterEnvironment;
 import com.couchbase.client.java.kv.ArrayListOptions;
 import com.couchbase.client.java.kv.ArraySetOptions;
+import com.couchbase.client.java.kv.BulkResult;
 import com.couchbase.client.java.kv.ExistsOptions;
 import com.couchbase.client.java.kv.ExistsResult;
 import com.couchbase.client.java.kv.GetAllReplicasOptions;
@@ -65,6 +67,8 @@ import java.util.stream.Stream;
 
 import static com.couchbase.client.java.AsyncUtils.block;
 import static com.couchbase.client.java.ReactiveCollection.DEFAULT_GET_ALL_REPLICAS_OPTIONS;
+import static com.couchbase.client.java.ReactiveCollection.DEFAULT_GET_OPTIONS;
+import static com.couchbase.client.java.ReactiveCollection.DEFAULT_UPSERT_OPTIONS;
 import static com.couchbase.client.java.kv.ArrayListOptions.arrayListOptions;
 import static com.couchbase.client.java.kv.ArraySetOptions.arraySetOptions;
 import static com.couchbase.client.java.kv.MapOptions.mapOptions;
@@ -97,6 +101,11 @@ public class Collection {
    */
   private final BinaryCollection binaryCollection;
 
+  /**
+   * If supported operations park directly on the response, see {@link BlockingMode#DIRECT}.
+   */
+  private final boolean directBlocking;
+
   /**
    * Creates a new {@link Collection}.
    *
@@ -106,6 +115,8 @@ public class Collection {
     this.asyncCollection = asyncCollection;
     reactiveCollection = new ReactiveCollection(asyncCollection);
     binaryCollection = new BinaryCollection(asyncCollection.binary());
+    ClusterEnvironment environment = asyncCollection.environment();
+    directBlocking = environment != null && environment.blockingMode() == BlockingMode.DIRECT;
   }
 
   /**
@@ -181,7 +192,7 @@ public class Collection {
    * @throws CouchbaseException for all other error reasons (acts as a base type and catch-all).
    */
   public GetResult get(final String id) {
-    return block(async().get(id));
+    return directBlocking ? asyncCollection.getBlocking(id, DEFAULT_GET_OPTIONS) : block(async().get(id));
   }
 
   /**
@@ -195,7 +206,30 @@ public class Collection {
    * @throws CouchbaseException for all other error reasons (acts as a base type and catch-all).
    */
   public GetResult get(final String id, final GetOptions options) {
-    return block(async().get(id, options));
+    return directBlocking ? asyncCollection.getBlocking(id, options) : block(async().get(id, options));
+  }
+
+  /**
+   * Fetches many full documents from this collection with default options.
+   *
+   * @param ids the document ids which are used to uniquely identify them.
+   * @return the result or error per id once all documents have been loaded or failed.
+   */
+  @Stability.Volatile
+  public Map<String, BulkResult<GetResult>> getMulti(final java.util.Collection<String> ids) {
+    return block(async().getMulti(ids));
+  }
+
+  /**
+   * Fetches many full documents from this collection with custom options.
+   *
+   * @param ids the document ids which are used to uniquely identify them.
+   * @param options options to customize every get request.
+   * @return the result or error per id once all documents have been loaded or failed.
+   */
+  @Stability.Volatile
+  public Map<String, BulkResult<GetResult>> getMulti(final java.util.Collection<String> ids, final GetOptions options) {
+    return block(async().getMulti(ids, options));
   }
 
   /**
@@ -375,6 +409,30 @@ public class Collection {
     return block(async().remove(id, options));
   }
 
+  /**
+   * Removes many Documents from a collection with default options.
+   *
+   * @param ids the ids of the documents to remove.
+   * @return the result or error per id once all documents have been removed or failed.
+   */
+  @Stability.Volatile
+  public Map<String, BulkResult<MutationResult>> removeMulti(final java.util.Collection<String> ids) {
+    return block(async().removeMulti(ids));
+  }
+
+  /**
+   * Removes many Documents from a collection with custom options.
+   *
+   * @param ids the ids of the documents to remove.
+   * @param options custom options to change the default behavior of every remove.
+   * @return the result or error per id once all documents have been removed or failed.
+   */
+  @Stability.Volatile
+  public Map<String, BulkResult<MutationResult>> removeMulti(final java.util.Collection<String> ids,
+                                                             final RemoveOptions options) {
+    return block(async().removeMulti(ids, options));
+  }
+
   /**
    * Inserts a full document which does not exist yet.
    *
@@ -414,7 +472,9 @@ public class Collection {
    * @throws CouchbaseException for all other error reasons (acts as a base type and catch-all).
    */
   public MutationResult upsert(final String id, final Object content) {
-    return block(async().upsert(id, content));
+    return directBlocking
+      ? asyncCollection.upsertBlocking(id, content, DEFAULT_UPSERT_OPTIONS)
+      : block(async().upsert(id, content));
   }
 
   /**
@@ -428,7 +488,33 @@ public class Collection {
    * @throws CouchbaseException for all other error reasons (acts as a base type and catch-all).
    */
   public MutationResult upsert(final String id, final Object content, final UpsertOptions options) {
-    return block(async().upsert(id, content, options));
+    return directBlocking
+      ? asyncCollection.upsertBlocking(id, content, options)
+      : block(async().upsert(id, content, options));
+  }
+
+  /**
+   * Upserts many full documents which might or might not exist yet with default options.
+   *
+   * @param documents the document contents to upsert, keyed by their document id.
+   * @return the result or error per id once all documents have been upserted or failed.
+   */
+  @Stability.Volatile
+  public Map<String, BulkResult<MutationResult>> upsertMulti(final Map<String, ?> documents) {
+    return block(async().upsertMulti(documents));
+  }
+
+  /**
+   * Upserts many full documents which might or might not exist yet with custom options.
+   *
+   * @param documents the document contents to upsert, keyed by their document id.
+   * @param options custom options to customize every upsert.
+   * @return the result or error per id once all documents have been upserted or failed.
+   */
+  @Stability.Volatile
+  public Map<String, BulkResult<MutationResult>> upsertMulti(final Map<String, ?> documents,
+                                                             final UpsertOptions options) {
+    return block(async().upsertMulti(documents, options));
   }
 
   /**
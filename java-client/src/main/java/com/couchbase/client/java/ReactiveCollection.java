@@ -36,6 +36,7 @@ import com.couchbase.client.core.service.kv.ReplicaHelper;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.codec.Transcoder;
 import com.couchbase.client.java.env.ClusterEnvironment;
+import com.couchbase.client.java.kv.BulkResult;
 import com.couchbase.client.java.kv.ExistsAccessor;
 import com.couchbase.client.java.kv.ExistsOptions;
 import com.couchbase.client.java.kv.ExistsResult;
@@ -75,6 +76,7 @@ import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.couchbase.client.core.util.Validators.notNull;
@@ -226,6 +228,11 @@ public class ReactiveCollection {
 
       if (opts.projections().isEmpty() && !opts.withExpiry()) {
         GetRequest request = asyncCollection.fullGetRequest(id, opts);
+        if (opts.hedgeAfter().isPresent()) {
+          // cancelling the active request also cancels the replica request, if it has been sent already.
+          return Reactor.wrap(request, GetAccessor.getHedged(core, request, opts.hedgeAfter().get(),
+            opts.parentSpan().orElse(null), transcoder), true);
+        }
         return Reactor.wrap(request, GetAccessor.get(core, request, transcoder), true);
       } else {
         SubdocGetRequest request = asyncCollection.subdocGetRequest(id, opts);
@@ -234,6 +241,33 @@ public class ReactiveCollection {
     });
   }
 
+  /**
+   * Fetches many Documents from a collection with default options.
+   *
+   * @param ids the document ids which are used to uniquely identify them.
+   * @return a {@link Mono} completing with the result or error per id once all are loaded or failed.
+   */
+  @Stability.Volatile
+  public Mono<Map<String, BulkResult<GetResult>>> getMulti(final java.util.Collection<String> ids) {
+    return getMulti(ids, DEFAULT_GET_OPTIONS);
+  }
+
+  /**
+   * Fetches many Documents from a collection with custom options.
+   * <p>
+   * The ids are grouped by the node which owns them and only a bounded number of fetches is in-flight against each
+   * node at any given time. Individual failures do not fail the returned {@link Mono}, they are reported per id.
+   *
+   * @param ids the document ids which are used to uniquely identify them.
+   * @param options custom options to change the default behavior, applied to every fetch.
+   * @return a {@link Mono} completing with the result or error per id once all are loaded or failed.
+   */
+  @Stability.Volatile
+  public Mono<Map<String, BulkResult<GetResult>>> getMulti(final java.util.Collection<String> ids,
+                                                           final GetOptions options) {
+    return Mono.fromFuture(() -> asyncCollection.getMulti(ids, options));
+  }
+
   /**
    * Fetches a full document and write-locks it for the given duration with default options.
    * <p>
@@ -435,6 +469,33 @@ public class ReactiveCollection {
     });
   }
 
+  /**
+   * Removes many Documents from a collection with default options.
+   *
+   * @param ids the ids of the documents to remove.
+   * @return a {@link Mono} completing with the result or error per id once all are removed or failed.
+   */
+  @Stability.Volatile
+  public Mono<Map<String, BulkResult<MutationResult>>> removeMulti(final java.util.Collection<String> ids) {
+    return removeMulti(ids, DEFAULT_REMOVE_OPTIONS);
+  }
+
+  /**
+   * Removes many Documents from a collection with custom options.
+   * <p>
+   * The ids are grouped by the node which owns them and only a bounded number of removes is in-flight against each
+   * node at any given time. Individual failures do not fail the returned {@link Mono}, they are reported per id.
+   *
+   * @param ids the ids of the documents to remove.
+   * @param options custom options to change the default behavior, applied to every remove.
+   * @return a {@link Mono} completing with the result or error per id once all are removed or failed.
+   */
+  @Stability.Volatile
+  public Mono<Map<String, BulkResult<MutationResult>>> removeMulti(final java.util.Collection<String> ids,
+                                                                   final RemoveOptions options) {
+    return Mono.fromFuture(() -> asyncCollection.removeMulti(ids, options));
+  }
+
   /**
    * Inserts a full document which does not exist yet with default options.
    *
@@ -499,6 +560,33 @@ public class ReactiveCollection {
     });
   }
 
+  /**
+   * Upserts many full documents which might or might not exist yet with default options.
+   *
+   * @param documents the document contents to upsert, keyed by their document id.
+   * @return a {@link Mono} completing with the result or error per id once all are upserted or failed.
+   */
+  @Stability.Volatile
+  public Mono<Map<String, BulkResult<MutationResult>>> upsertMulti(final Map<String, ?> documents) {
+    return upsertMulti(documents, DEFAULT_UPSERT_OPTIONS);
+  }
+
+  /**
+   * Upserts many full documents which might or might not exist yet with custom options.
+   * <p>
+   * The documents are grouped by the node which owns them and only a bounded number of upserts is in-flight against
+   * each node at any given time. Individual failures do not fail the returned {@link Mono}, they are reported per id.
+   *
+   * @param documents the document contents to upsert, keyed by their document id.
+   * @param options custom options to customize the upsert behavior, applied to every upsert.
+   * @return a {@link Mono} completing with the result or error per id once all are upserted or failed.
+   */
+  @Stability.Volatile
+  public Mono<Map<String, BulkResult<MutationResult>>> upsertMulti(final Map<String, ?> documents,
+                                                                   final UpsertOptions options) {
+    return Mono.fromFuture(() -> asyncCollection.upsertMulti(documents, options));
+  }
+
   /**
    * Replaces a full document which already exists with default options.
    *
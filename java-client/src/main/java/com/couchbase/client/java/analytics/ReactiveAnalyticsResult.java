@@ -23,6 +23,13 @@ import com.couchbase.client.java.json.JsonObject;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+/**
+ * Reactive result that fetches the parts of the analytics responses reactively.
+ * <p>
+ * The rows are streamed from the server as they are requested, so they can only be consumed once: subscribing to
+ * the rows of this result more than once (through any of the rows methods) fails the additional subscribers with an
+ * {@link IllegalStateException}.
+ */
 public class ReactiveAnalyticsResult {
 
     private final AnalyticsResponse response;
@@ -31,11 +31,10 @@ import com.couchbase.client.core.node.KeyValueLocator;
 import com.couchbase.client.core.node.NodeIdentifier;
 import com.couchbase.client.java.Collection;
 import com.couchbase.client.java.cnc.evnts.BatchHelperExistsCompletedEvent;
+import com.couchbase.client.java.kv.BulkResult;
 import com.couchbase.client.java.kv.GetResult;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.function.Tuple2;
-import reactor.util.function.Tuples;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
@@ -72,12 +71,20 @@ public class ReactiveBatchHelper {
   @Stability.Volatile
   public static Mono<Map<String, GetResult>> getIfExists(final Collection collection,
                                                          final java.util.Collection<String> ids) {
-    return  Mono.defer(() -> existsBytes(collection, ids)
-        .flatMap(e -> {
-          String key = new String(e, StandardCharsets.UTF_8);
-          return collection.reactive().get(key).map(r -> Tuples.of(key, r));
-        })
-        .collectMap(Tuple2::getT1, Tuple2::getT2));
+    return Mono.defer(() -> existsBytes(collection, ids)
+        .map(e -> new String(e, StandardCharsets.UTF_8))
+        .collectList()
+        .flatMap(found -> collection.reactive().getMulti(found))
+        .flatMap(results -> {
+          Map<String, GetResult> fetched = new HashMap<>(results.size());
+          for (BulkResult<GetResult> result : results.values()) {
+            if (result.error().isPresent()) {
+              return Mono.error(result.error().get());
+            }
+            fetched.put(result.id(), result.result().get());
+          }
+          return Mono.just(fetched);
+        }));
   }
 
   /**
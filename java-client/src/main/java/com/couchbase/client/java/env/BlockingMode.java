@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.env;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.java.Collection;
+
+/**
+ * Describes how the blocking API (i.e. {@link Collection}) waits for the result of an operation.
+ */
+@Stability.Volatile
+public enum BlockingMode {
+
+  /**
+   * Blocks on the {@code CompletableFuture} returned by the async API (the default).
+   * <p>
+   * The response is converted into the result on the thread which completes the response, and the calling thread
+   * waits for the converted result.
+   */
+  ASYNC,
+
+  /**
+   * Parks the calling thread directly on the response of the request and converts it into the result on the
+   * calling thread afterwards.
+   * <p>
+   * This mode is tuned for calling the blocking API from many virtual threads (Java 21 and later): no intermediate
+   * futures are allocated, completing the response only unparks the waiting thread and the conversion (i.e. error
+   * mapping and decompression) is moved off the IO threads onto the cheap virtual threads. It works just as well on
+   * platform threads.
+   * <p>
+   * Only {@link Collection#get} and {@link Collection#upsert} use this mode so far (and only without projections,
+   * expiry, hedged reads or legacy durability). All other blocking operations, as well as the blocking
+   * {@link com.couchbase.client.java.Cluster} API, transparently use {@link #ASYNC}.
+   * <p>
+   * Since completing the response only unparks the waiting thread, it is best combined with completing responses
+   * on the IO threads (see {@link com.couchbase.client.core.env.IoConfig.Builder#responseCompletion}).
+   */
+  DIRECT
+
+}
@@ -16,6 +16,7 @@
 
 package com.couchbase.client.java.env;
 
+import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.encryption.CryptoManager;
 import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.java.ClusterOptions;
@@ -48,6 +49,7 @@ public class ClusterEnvironment extends CoreEnvironment {
   private final JsonSerializer jsonSerializer;
   private final Transcoder transcoder;
   private final Optional<CryptoManager> cryptoManager;
+  private final BlockingMode blockingMode;
 
   private ClusterEnvironment(Builder builder) {
     super(builder);
@@ -56,6 +58,7 @@ public class ClusterEnvironment extends CoreEnvironment {
         : newDefaultSerializer(builder.cryptoManager);
     this.transcoder = defaultIfNull(builder.transcoder, () -> JsonTranscoder.create(jsonSerializer));
     this.cryptoManager = Optional.ofNullable(builder.cryptoManager);
+    this.blockingMode = builder.blockingMode;
   }
 
   /**
@@ -137,11 +140,22 @@ public class ClusterEnvironment extends CoreEnvironment {
     return cryptoManager;
   }
 
+  /**
+   * Returns how the blocking API waits for the result of an operation.
+   *
+   * @see Builder#blockingMode(BlockingMode)
+   */
+  @Stability.Volatile
+  public BlockingMode blockingMode() {
+    return blockingMode;
+  }
+
   public static class Builder extends CoreEnvironment.Builder<Builder> {
 
     private JsonSerializer jsonSerializer;
     private Transcoder transcoder;
     private CryptoManager cryptoManager;
+    private BlockingMode blockingMode = BlockingMode.ASYNC;
 
     Builder() {
       super();
@@ -204,6 +218,21 @@ public class ClusterEnvironment extends CoreEnvironment {
       return this;
     }
 
+    /**
+     * Configures how the blocking API waits for the result of an operation ({@link BlockingMode#ASYNC} by default).
+     * <p>
+     * If the blocking API is called from many virtual threads, {@link BlockingMode#DIRECT} avoids the overhead of
+     * the async API and parks the calling threads directly on the responses.
+     *
+     * @param blockingMode the mode used by the blocking API.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public Builder blockingMode(final BlockingMode blockingMode) {
+      this.blockingMode = notNull(blockingMode, "BlockingMode");
+      return this;
+    }
+
     /**
      * Turns this builder into a real {@link ClusterEnvironment}.
      *
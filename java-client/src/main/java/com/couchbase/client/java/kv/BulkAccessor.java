@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.kv;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.config.BucketConfig;
+import com.couchbase.client.core.config.CouchbaseBucketConfig;
+import com.couchbase.client.core.node.KeyValueLocator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Dispatches a key-value operation for many documents at once, grouped by the node owning each document.
+ *
+ * <p>The ids are partitioned by their active node up front (based on the current bucket config). Per node only a
+ * bounded window of operations is in-flight at any given time, and the next one is only started once one of them
+ * completes. This keeps a large bulk operation from flooding the request queues and allocating the state for all
+ * documents at once, while still keeping every node busy.</p>
+ *
+ * <p>The returned future never completes exceptionally because of an individual failure, every document gets its
+ * own {@link BulkResult} instead.</p>
+ */
+@Stability.Internal
+public enum BulkAccessor {
+  ;
+
+  /**
+   * The number of operations kept in-flight per KV connection of a node.
+   */
+  public static final int IN_FLIGHT_PER_CONNECTION = 128;
+
+  /**
+   * Performs the operation for every (distinct) id and collects the outcomes.
+   *
+   * @param core the core reference, used to group the ids by node.
+   * @param bucket the name of the bucket the ids belong to.
+   * @param ids the ids of the documents.
+   * @param operation dispatches the operation for a single id.
+   * @param <T> the type of the individual result.
+   * @return a future completing with the outcome for every id once all operations are done.
+   */
+  public static <T> CompletableFuture<Map<String, BulkResult<T>>> execute(final Core core, final String bucket,
+                                                                         final Collection<String> ids,
+                                                                         final Function<String, CompletableFuture<T>> operation) {
+    final List<List<String>> groups = groupByNode(core.clusterConfig().bucketConfig(bucket), new LinkedHashSet<>(ids));
+    final int window = Math.max(1, core.context().environment().ioConfig().numKvConnections())
+      * IN_FLIGHT_PER_CONNECTION;
+    return new Batch<>(groups, operation).start(window);
+  }
+
+  /**
+   * Splits the ids into one group per active node.
+   * <p>
+   * If there is no (couchbase) bucket config available yet, all ids end up in a single group and are routed by the
+   * core once it is available.
+   *
+   * @param config the bucket config, might be null.
+   * @param ids the distinct ids to group.
+   * @return the non-empty groups.
+   */
+  static List<List<String>> groupByNode(final BucketConfig config, final Collection<String> ids) {
+    if (!(config instanceof CouchbaseBucketConfig) || config.nodes().isEmpty()) {
+      return ids.isEmpty() ? Collections.emptyList() : Collections.singletonList(new ArrayList<>(ids));
+    }
+
+    final CouchbaseBucketConfig cbc = (CouchbaseBucketConfig) config;
+    final int numNodes = cbc.nodes().size();
+    // The last group holds the ids whose partition has no active node at the moment.
+    final List<List<String>> byNode = new ArrayList<>(numNodes + 1);
+    for (int i = 0; i <= numNodes; i++) {
+      byNode.add(new ArrayList<>());
+    }
+
+    for (String id : ids) {
+      int partition = KeyValueLocator.partitionForKey(id.getBytes(StandardCharsets.UTF_8), cbc.numberOfPartitions());
+      int nodeIndex = cbc.nodeIndexForActive(partition, false);
+      byNode.get(nodeIndex >= 0 && nodeIndex < numNodes ? nodeIndex : numNodes).add(id);
+    }
+
+    final List<List<String>> groups = new ArrayList<>(byNode.size());
+    for (List<String> group : byNode) {
+      if (!group.isEmpty()) {
+        groups.add(group);
+      }
+    }
+    return groups;
+  }
+
+  /**
+   * Holds the state of one bulk operation across all of its node groups.
+   */
+  private static class Batch<T> {
+
+    private final List<List<String>> groups;
+    private final Function<String, CompletableFuture<T>> operation;
+    private final Map<String, BulkResult<T>> results;
+    private final AtomicInteger remaining;
+    private final CompletableFuture<Map<String, BulkResult<T>>> future = new CompletableFuture<>();
+
+    Batch(final List<List<String>> groups, final Function<String, CompletableFuture<T>> operation) {
+      this.groups = groups;
+      this.operation = operation;
+      int total = 0;
+      for (List<String> group : groups) {
+        total += group.size();
+      }
+      this.results = new ConcurrentHashMap<>(Math.max(16, (int) (total / 0.75f) + 1));
+      this.remaining = new AtomicInteger(total);
+    }
+
+    CompletableFuture<Map<String, BulkResult<T>>> start(final int window) {
+      if (remaining.get() == 0) {
+        future.complete(results);
+        return future;
+      }
+      for (List<String> group : groups) {
+        Group g = new Group(group);
+        for (int i = 0; i < Math.min(window, group.size()); i++) {
+          g.drain();
+        }
+      }
+      return future;
+    }
+
+    private void complete(final String id, final T result, final Throwable error) {
+      Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+      results.put(id, new BulkResult<>(id, result, cause));
+      if (remaining.decrementAndGet() == 0) {
+        future.complete(results);
+      }
+    }
+
+    /**
+     * Dispatches the ids of a single node, one window slot at a time.
+     */
+    private class Group {
+
+      private final List<String> ids;
+      private final AtomicInteger next = new AtomicInteger();
+
+      Group(final List<String> ids) {
+        this.ids = ids;
+      }
+
+      /**
+       * Starts the next operations of this group until one of them is actually in-flight.
+       * <p>
+       * Operations which complete right away (i.e. because they failed validation) are handled in the loop instead
+       * of recursively, so that a long run of them does not grow the stack.
+       */
+      void drain() {
+        while (true) {
+          final int index = next.getAndIncrement();
+          if (index >= ids.size()) {
+            return;
+          }
+          final String id = ids.get(index);
+          if (future.isDone()) {
+            // The caller is no longer interested (i.e. cancelled), do not dispatch any more operations.
+            continue;
+          }
+
+          CompletableFuture<T> op;
+          try {
+            op = operation.apply(id);
+          } catch (Throwable t) {
+            complete(id, null, t);
+            continue;
+          }
+
+          if (op.isDone()) {
+            op.handle((r, e) -> {
+              complete(id, r, e);
+              return null;
+            });
+          } else {
+            op.whenComplete((r, e) -> {
+              complete(id, r, e);
+              drain();
+            });
+            return;
+          }
+        }
+      }
+    }
+  }
+
+}
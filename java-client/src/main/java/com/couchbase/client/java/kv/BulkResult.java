@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.kv;
+
+import com.couchbase.client.core.annotation.Stability;
+
+import java.util.Optional;
+
+/**
+ * The per-document outcome of a bulk operation, holding either the result or the error of the individual operation.
+ *
+ * @param <T> the type of the individual operation result.
+ * @since 3.2.0
+ */
+@Stability.Volatile
+public class BulkResult<T> {
+
+  private final String id;
+  private final T result;
+  private final Throwable error;
+
+  BulkResult(final String id, final T result, final Throwable error) {
+    this.id = id;
+    this.result = result;
+    this.error = error;
+  }
+
+  /**
+   * Returns the id of the document this outcome belongs to.
+   */
+  public String id() {
+    return id;
+  }
+
+  /**
+   * Returns true if the operation on this document succeeded.
+   */
+  public boolean success() {
+    return error == null;
+  }
+
+  /**
+   * Returns the result of the operation if it succeeded.
+   */
+  public Optional<T> result() {
+    return Optional.ofNullable(result);
+  }
+
+  /**
+   * Returns the error of the operation if it failed.
+   */
+  public Optional<Throwable> error() {
+    return Optional.ofNullable(error);
+  }
+
+  @Override
+  public String toString() {
+    return "BulkResult{" +
+      "id='" + id + '\'' +
+      ", result=" + result +
+      ", error=" + error +
+      '}';
+  }
+}
@@ -18,23 +18,28 @@ package com.couchbase.client.java.kv;
 
 import com.couchbase.client.core.Core;
 import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.RequestSpan;
 import com.couchbase.client.core.error.CouchbaseException;
 import com.couchbase.client.core.msg.ResponseStatus;
 import com.couchbase.client.core.msg.kv.CodecFlags;
 import com.couchbase.client.core.msg.kv.GetAndLockRequest;
 import com.couchbase.client.core.msg.kv.GetAndTouchRequest;
 import com.couchbase.client.core.msg.kv.GetRequest;
+import com.couchbase.client.core.msg.kv.GetResponse;
 import com.couchbase.client.core.msg.kv.SubDocumentField;
 import com.couchbase.client.core.msg.kv.SubdocGetRequest;
 import com.couchbase.client.core.msg.kv.SubdocGetResponse;
 import com.couchbase.client.core.projections.ProjectionsApplier;
+import com.couchbase.client.core.service.kv.ReplicaHelper;
 import com.couchbase.client.java.codec.Transcoder;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import static com.couchbase.client.core.error.DefaultErrorUtil.keyValueStatusToException;
+import static com.couchbase.client.java.AsyncUtils.block;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Stability.Internal
@@ -55,13 +60,56 @@ public enum GetAccessor {
       .response()
       .thenApply(response -> {
         if (response.status().success()) {
-          return new GetResult(response.content(), response.flags(), response.cas(), Optional.empty(), transcoder);
+          return new GetResult(response.encodedContent(), response.datatype(), response.flags(), response.cas(),
+            Optional.empty(), transcoder);
         }
         throw keyValueStatusToException(request, response);
       })
       .whenComplete((t, e) -> request.context().logicallyComplete());
   }
 
+  /**
+   * Takes a {@link GetRequest} and dispatches it, then parks the calling thread until the response arrives and
+   * converts it on the calling thread.
+   *
+   * @param core the core reference to dispatch into.
+   * @param request the request to dispatch and convert once a response arrives.
+   * @param transcoder the transcoder used to decode the response body.
+   * @return the fetched document.
+   */
+  public static GetResult getBlocking(final Core core, final GetRequest request, final Transcoder transcoder) {
+    core.send(request);
+    try {
+      final GetResponse response = block(request.response());
+      if (response.status().success()) {
+        return new GetResult(response.encodedContent(), response.datatype(), response.flags(), response.cas(),
+          Optional.empty(), transcoder);
+      }
+      throw keyValueStatusToException(request, response);
+    } finally {
+      request.context().logicallyComplete();
+    }
+  }
+
+  /**
+   * Takes a {@link GetRequest} and dispatches it, hedging the read against a replica if the active is slow.
+   *
+   * @param core the core reference to dispatch into.
+   * @param request the request to dispatch and convert once a response arrives.
+   * @param maxHedgeDelay the maximum time to wait for the active before also reading from a replica.
+   * @param parentSpan (nullable) the parent span for the replica read.
+   * @param transcoder the transcoder used to decode the response body.
+   * @return a {@link CompletableFuture} once the document is fetched and decoded.
+   */
+  public static CompletableFuture<GetResult> getHedged(final Core core, final GetRequest request,
+                                                       final Duration maxHedgeDelay, final RequestSpan parentSpan,
+                                                       final Transcoder transcoder) {
+    return ReplicaHelper.getHedgedAsync(core, request, maxHedgeDelay, parentSpan, response -> response.isFromReplica()
+      ? GetReplicaResult.from(response, transcoder)
+      : new GetResult(response.getResponse().encodedContent(), response.getResponse().datatype(),
+        response.getResponse().flags(), response.getResponse().cas(), Optional.empty(), transcoder));
+  }
+
   /**
    * Takes a {@link GetAndLockRequest} and dispatches, converts and returns the result.
    *
@@ -77,7 +125,8 @@ public enum GetAccessor {
       .response()
       .thenApply(response -> {
         if (response.status().success()) {
-          return new GetResult(response.content(), response.flags(), response.cas(), Optional.empty(), transcoder);
+          return new GetResult(response.encodedContent(), response.datatype(), response.flags(), response.cas(),
+            Optional.empty(), transcoder);
         }
         throw keyValueStatusToException(request, response);
       })
@@ -91,7 +140,8 @@ public enum GetAccessor {
       .response()
       .thenApply(response -> {
         if (response.status().success()) {
-          return new GetResult(response.content(), response.flags(), response.cas(), Optional.empty(), transcoder);
+          return new GetResult(response.encodedContent(), response.datatype(), response.flags(), response.cas(),
+            Optional.empty(), transcoder);
         }
         throw keyValueStatusToException(request, response);
       })
@@ -21,10 +21,12 @@ import com.couchbase.client.java.CommonOptions;
 import com.couchbase.client.java.codec.Transcoder;
 import com.couchbase.client.java.json.JsonObject;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.couchbase.client.core.util.CbStrings.isNullOrEmpty;
@@ -64,6 +66,11 @@ public class GetOptions extends CommonOptions<GetOptions> {
    */
   private Transcoder transcoder;
 
+  /**
+   * If set, the maximum delay after which the read is hedged against a replica.
+   */
+  private Duration hedgeAfter;
+
   private GetOptions() {
     withExpiry = false;
   }
@@ -130,6 +137,28 @@ public class GetOptions extends CommonOptions<GetOptions> {
     return this;
   }
 
+  /**
+   * Hedges the read against a replica if the active did not respond after the given delay.
+   * <p>
+   * The read is sent to the active first. If no response arrived after the given delay (or earlier, once the recent
+   * 95th percentile read latency of the active node has passed), the document is additionally read from a replica
+   * and the first successful result is returned, cancelling the other read. This helps to cut the tail latency if
+   * a single node stalls temporarily, while only putting additional load on the replicas for the slowest reads.
+   * <p>
+   * Note that the result might be served from a replica, in which case it is a {@link GetReplicaResult} and can be
+   * stale. Hedging is only applied to full document fetches, it is ignored if projections or the expiry are
+   * requested.
+   *
+   * @param maxDelay the maximum time to wait for the active before reading from a replica.
+   * @return the {@link GetOptions} to allow method chaining.
+   */
+  @Stability.Volatile
+  public GetOptions hedgeAfter(final Duration maxDelay) {
+    notNull(maxDelay, "MaxDelay");
+    this.hedgeAfter = maxDelay;
+    return this;
+  }
+
   @Stability.Internal
   public Built build() {
     return new Built();
@@ -152,6 +181,10 @@ public class GetOptions extends CommonOptions<GetOptions> {
       return transcoder;
     }
 
+    public Optional<Duration> hedgeAfter() {
+      return Optional.ofNullable(hedgeAfter);
+    }
+
   }
 
 }
@@ -46,9 +46,9 @@ public class GetReplicaResult extends GetResult {
    * @param expiry the expiration if fetched from the doc.
    * @param isReplica whether the active or replica returned this result
    */
-  private GetReplicaResult(final byte[] content, final int flags, final long cas, final Optional<Instant> expiry,
-                   final Transcoder transcoder, boolean isReplica) {
-    super(content, flags, cas, expiry, transcoder);
+  private GetReplicaResult(final byte[] content, final byte datatype, final int flags, final long cas,
+                           final Optional<Instant> expiry, final Transcoder transcoder, boolean isReplica) {
+    super(content, datatype, flags, cas, expiry, transcoder);
     this.isReplica = isReplica;
   }
 
@@ -56,7 +56,8 @@ public class GetReplicaResult extends GetResult {
   public static GetReplicaResult from(ReplicaHelper.GetReplicaResponse response, Transcoder transcoder) {
     GetResponse get = response.getResponse();
     return new GetReplicaResult(
-        get.content(),
+        get.encodedContent(),
+        get.datatype(),
         get.flags(),
         get.cas(),
         Optional.empty(),
@@ -96,6 +97,6 @@ public class GetReplicaResult extends GetResult {
 
   @Override
   public int hashCode() {
-    return Objects.hash(content, flags, cas(), expiry(), isReplica);
+    return Objects.hash(content(), flags, cas(), expiry(), isReplica);
   }
 }
@@ -22,6 +22,7 @@ import com.couchbase.client.core.deps.io.netty.buffer.ByteBufUtil;
 import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
 import com.couchbase.client.core.error.CasMismatchException;
 import com.couchbase.client.core.msg.kv.CodecFlags;
+import com.couchbase.client.core.msg.kv.LazyDecompressedContent;
 import com.couchbase.client.java.codec.Transcoder;
 import com.couchbase.client.java.codec.TypeRef;
 import com.couchbase.client.java.json.JsonArray;
@@ -44,9 +45,9 @@ import static com.couchbase.client.core.logging.RedactableArgument.redactUser;
 public class GetResult {
 
   /**
-   * The encoded content when loading the document.
+   * The encoded content when loading the document, decompressed on first access if needed.
    */
-  protected final byte[] content;
+  private final LazyDecompressedContent content;
 
   /**
    * The flags from the kv operation.
@@ -75,8 +76,24 @@ public class GetResult {
    * @param expiry the expiry if fetched from the doc.
    */
   GetResult(final byte[] content, final int flags, final long cas, final Optional<Instant> expiry, Transcoder transcoder) {
+    this(content, (byte) 0, flags, cas, expiry, transcoder);
+  }
+
+  /**
+   * Creates a new {@link GetResult} with content which might still be compressed.
+   * <p>
+   * The content is only decompressed when it is first decoded, so that this happens on the thread consuming the
+   * result rather than on the IO event loop.
+   *
+   * @param encodedContent the content as received from the server.
+   * @param datatype the datatype of the encoded content.
+   * @param cas the cas from the doc.
+   * @param expiry the expiry if fetched from the doc.
+   */
+  GetResult(final byte[] encodedContent, final byte datatype, final int flags, final long cas,
+            final Optional<Instant> expiry, final Transcoder transcoder) {
     this.cas = cas;
-    this.content = content;
+    this.content = new LazyDecompressedContent(encodedContent, datatype);
     this.flags = flags;
     this.expiry = expiry;
     this.transcoder = transcoder;
@@ -145,7 +162,7 @@ public class GetResult {
    * @param target the target class to decode the encoded content into.
    */
   public <T> T contentAs(final Class<T> target) {
-    return transcoder.decode(target, content, flags);
+    return transcoder.decode(target, content(), flags);
   }
 
   /**
@@ -158,7 +175,14 @@ public class GetResult {
    * @param target the type to decode the encoded content into.
    */
   public <T> T contentAs(final TypeRef<T> target) {
-    return transcoder.decode(target, content, flags);
+    return transcoder.decode(target, content(), flags);
+  }
+
+  /**
+   * Returns the encoded content, decompressing it on first access if it was compressed on the wire.
+   */
+  protected byte[] content() {
+    return content.content();
   }
 
   @Override
@@ -175,6 +199,7 @@ public class GetResult {
    * Converts the content to a string representation if possible (for toString).
    */
   protected String convertContentToString() {
+    final byte[] content = content();
     if (content.length == 0) {
       return "";
     }
@@ -200,7 +225,7 @@ public class GetResult {
     GetResult getResult = (GetResult) o;
     return flags == getResult.flags &&
       cas == getResult.cas &&
-      Arrays.equals(content, getResult.content) &&
+      Arrays.equals(content(), getResult.content()) &&
       Objects.equals(expiry, getResult.expiry) &&
       Objects.equals(transcoder, getResult.transcoder);
   }
@@ -208,7 +233,7 @@ public class GetResult {
   @Override
   public int hashCode() {
     int result = Objects.hash(flags, cas, expiry, transcoder);
-    result = 31 * result + Arrays.hashCode(content);
+    result = 31 * result + Arrays.hashCode(content());
     return result;
   }
 }
@@ -19,10 +19,12 @@ package com.couchbase.client.java.kv;
 import com.couchbase.client.core.Core;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.msg.kv.UpsertRequest;
+import com.couchbase.client.core.msg.kv.UpsertResponse;
 
 import java.util.concurrent.CompletableFuture;
 
 import static com.couchbase.client.core.error.DefaultErrorUtil.keyValueStatusToException;
+import static com.couchbase.client.java.AsyncUtils.block;
 import static com.couchbase.client.java.kv.DurabilityUtils.wrapWithDurability;
 
 @Stability.Internal
@@ -44,4 +46,27 @@ public enum UpsertAccessor {
     return wrapWithDurability(mutationResult, key, persistTo, replicateTo, core, request, false);
   }
 
+  /**
+   * Dispatches the {@link UpsertRequest}, then parks the calling thread until the response arrives and converts it
+   * on the calling thread.
+   * <p>
+   * Note that legacy durability (persistTo/replicateTo) is not supported here.
+   *
+   * @param core the core reference to dispatch into.
+   * @param request the request to dispatch and convert once a response arrives.
+   * @return the result of the mutation.
+   */
+  public static MutationResult upsertBlocking(final Core core, final UpsertRequest request) {
+    core.send(request);
+    try {
+      final UpsertResponse response = block(request.response());
+      if (response.status().success()) {
+        return new MutationResult(response.cas(), response.mutationToken());
+      }
+      throw keyValueStatusToException(request, response);
+    } finally {
+      request.context().logicallyComplete();
+    }
+  }
+
 }
@@ -19,13 +19,18 @@ package com.couchbase.client.java.query;
 import com.couchbase.client.core.Core;
 import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
 import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
 import com.couchbase.client.core.cnc.events.request.PreparedStatementRetriedEvent;
 import com.couchbase.client.core.config.ClusterCapabilities;
 import com.couchbase.client.core.config.ClusterConfig;
 import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.error.CouchbaseException;
 import com.couchbase.client.core.error.PreparedStatementFailureException;
+import com.couchbase.client.core.error.RequestCanceledException;
+import com.couchbase.client.core.error.TimeoutException;
 import com.couchbase.client.core.error.context.ReducedQueryErrorContext;
 import com.couchbase.client.core.msg.query.QueryRequest;
 import com.couchbase.client.core.msg.query.QueryResponse;
@@ -34,7 +39,7 @@ import com.couchbase.client.core.node.NodeIdentifier;
 import com.couchbase.client.core.retry.RetryReason;
 import com.couchbase.client.core.retry.RetryStrategy;
 import com.couchbase.client.core.service.ServiceType;
-import com.couchbase.client.core.util.LRUCache;
+import com.couchbase.client.core.util.ConcurrentLfuCache;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.json.JsonObject;
 import reactor.core.publisher.Mono;
@@ -48,6 +53,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import static com.couchbase.client.core.retry.RetryOrchestrator.capDuration;
@@ -73,9 +80,16 @@ public class QueryAccessor {
     /**
      * Holds the query cache.
      */
-    private final Map<String, QueryCacheEntry> queryCache = Collections.synchronizedMap(
-      new LRUCache<>(QUERY_CACHE_SIZE)
-    );
+    private final ConcurrentLfuCache<String, QueryCacheEntry> queryCache;
+
+    /**
+     * Holds the prepares currently in progress, so that concurrent queries for the same statement wait for a
+     * single prepare instead of each issuing their own.
+     */
+    private final Map<String, CompletableFuture<QueryCacheEntry>> inFlightPrepares = new ConcurrentHashMap<>();
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
 
     private final Core core;
 
@@ -87,6 +101,13 @@ public class QueryAccessor {
     public QueryAccessor(final Core core) {
         this.core = core;
 
+        Meter meter = core.context().environment().meter();
+        Map<String, String> tags = Collections.singletonMap(TracingIdentifiers.ATTR_SERVICE, ServiceType.QUERY.ident());
+        this.cacheHits = meter.counter(TracingIdentifiers.METER_PREPARED_CACHE_HITS, tags);
+        this.cacheMisses = meter.counter(TracingIdentifiers.METER_PREPARED_CACHE_MISSES, tags);
+        Counter cacheEvictions = meter.counter(TracingIdentifiers.METER_PREPARED_CACHE_EVICTIONS, tags);
+        this.queryCache = new ConcurrentLfuCache<>(QUERY_CACHE_SIZE, (statement, entry) -> cacheEvictions.incrementBy(1));
+
         core
           .configurationProvider()
           .configs()
@@ -97,7 +118,8 @@ public class QueryAccessor {
      * Helper method to calculate if prepared statements are enabled or not.
      *
      * <p>Note that once it is enabled it cannot roll back, so we can bail out quickly once we found
-     * out that it is enabled.</p>
+     * out that it is enabled. When it gets enabled, all cached full plans are invalid and are dropped right away
+     * instead of being discovered one by one.</p>
      *
      * @param config the config to check.
      */
@@ -108,6 +130,17 @@ public class QueryAccessor {
 
         Set<ClusterCapabilities> caps = config.clusterCapabilities().get(ServiceType.QUERY);
         enhancedPreparedEnabled = caps != null && caps.contains(ClusterCapabilities.ENHANCED_PREPARED_STATEMENTS);
+        if (enhancedPreparedEnabled) {
+            queryCache.clear();
+        }
+    }
+
+    /**
+     * Returns the cache of prepared statements, i.e. to inspect its hit and miss counts.
+     */
+    @Stability.Internal
+    public ConcurrentLfuCache<String, ?> preparedStatementCache() {
+        return queryCache;
     }
 
     /**
@@ -162,7 +195,8 @@ public class QueryAccessor {
               .wrap(request, request.response(), true)
               .doFinally(signalType -> request.context().logicallyComplete());
         } else {
-            return maybePrepareAndExecute(request, options, serializer)
+            return Mono
+              .defer(() -> maybePrepareAndExecute(request, options, serializer))
               .doFinally(signalType -> request.context().logicallyComplete());
         }
     }
@@ -174,6 +208,9 @@ public class QueryAccessor {
      * and if so does it. In both cases, afterwards a subsequent execute is conducted with the primed cache and
      * the options that were present in the original query.</p>
      *
+     * <p>Only one prepare per statement is in flight at a time. Queries for a statement which is currently being
+     * prepared wait for its outcome and then execute with the resulting plan.</p>
+     *
      * <p>The code also checks if the cache entry is still valid, to handle the upgrade scenario an potentially
      * flush the cache entry in this case to then execute with the newer approach.</p>
      *
@@ -187,9 +224,32 @@ public class QueryAccessor {
         boolean enhancedEnabled = enhancedPreparedEnabled;
 
         if (cacheEntry != null && cacheEntryStillValid(cacheEntry, enhancedEnabled)) {
-            return queryInternal(buildExecuteRequest(cacheEntry, request, options), options, true, serializer)
-                .onErrorResume(new PreparedRetryFunction(request, options, serializer));
-        } else if (enhancedEnabled) {
+            cacheHits.incrementBy(1);
+            return execute(cacheEntry, request, options, serializer);
+        }
+        cacheMisses.incrementBy(1);
+
+        final CompletableFuture<QueryCacheEntry> prepare = new CompletableFuture<>();
+        final CompletableFuture<QueryCacheEntry> inFlight = inFlightPrepares.putIfAbsent(request.statement(), prepare);
+        if (inFlight != null) {
+            // a dependent future is used so that cancelling this query does not cancel the shared prepare.
+            return Mono
+              .fromFuture(inFlight.thenApply(Function.identity()))
+              .onErrorResume(t -> {
+                  Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                  if (cause instanceof RequestCanceledException || cause instanceof TimeoutException) {
+                      // the prepare failed for reasons specific to the other request, so prepare ourselves.
+                      return Mono.empty();
+                  }
+                  return Mono.error(cause);
+              })
+              .flatMap(entry -> cacheEntryStillValid(entry, enhancedPreparedEnabled)
+                ? execute(entry, request, options, serializer)
+                : maybePrepareAndExecute(request, options, serializer))
+              .switchIfEmpty(Mono.defer(() -> maybePrepareAndExecute(request, options, serializer)));
+        }
+
+        if (enhancedEnabled) {
             return queryInternal(buildPrepareRequest(request, options), options, true, serializer)
               .flatMap(qr -> {
                   Optional<String> preparedName = qr.header().prepared();
@@ -198,27 +258,50 @@ public class QueryAccessor {
                         new CouchbaseException("No prepared name present but must be, this is a query bug!")
                       );
                   }
-                  queryCache.put(
-                    request.statement(),
-                    new QueryCacheEntry(false, null, preparedName.get())
-                  );
+                  QueryCacheEntry entry = new QueryCacheEntry(false, null, preparedName.get());
+                  queryCache.put(request.statement(), entry);
+                  completePrepare(request.statement(), prepare, entry, null);
                   return Mono.just(qr);
-              });
+              })
+              .doOnError(t -> completePrepare(request.statement(), prepare, null, t))
+              .doFinally(signalType -> completePrepare(request.statement(), prepare, null, null));
         } else {
             return queryReactive(buildPrepareRequest(request, options), queryOptions().build(), serializer)
               .flatMap(result -> result.rowsAsObject().next())
               .map(row -> {
-                  queryCache.put(
-                    request.statement(),
-                    new QueryCacheEntry(
-                      true,
-                      row.getString("encoded_plan"),
-                      row.getString("name")
-                    )
-                  );
-                  return row;
+                  QueryCacheEntry entry = new QueryCacheEntry(true, row.getString("encoded_plan"), row.getString("name"));
+                  queryCache.put(request.statement(), entry);
+                  completePrepare(request.statement(), prepare, entry, null);
+                  return entry;
               })
-              .then(Mono.defer(() -> maybePrepareAndExecute(request, options, serializer)));
+              .doOnError(t -> completePrepare(request.statement(), prepare, null, t))
+              .doFinally(signalType -> completePrepare(request.statement(), prepare, null, null))
+              .flatMap(entry -> execute(entry, request, options, serializer));
+        }
+    }
+
+    /**
+     * Executes the prepared statement of the given cache entry.
+     */
+    private Mono<QueryResponse> execute(final QueryCacheEntry cacheEntry, final QueryRequest request,
+                                        final QueryOptions.Built options, final JsonSerializer serializer) {
+        return queryInternal(buildExecuteRequest(cacheEntry, request, options), options, true, serializer)
+          .onErrorResume(new PreparedRetryFunction(request, options, serializer));
+    }
+
+    /**
+     * Signals the outcome of a prepare to the queries waiting for it and allows new prepares for the statement.
+     *
+     * <p>If neither an entry nor an error is provided (i.e. if the prepare got cancelled), the waiting queries
+     * receive no entry and prepare on their own. Calling it again once the outcome is signaled has no effect.</p>
+     */
+    private void completePrepare(final String statement, final CompletableFuture<QueryCacheEntry> prepare,
+                                 final QueryCacheEntry entry, final Throwable error) {
+        inFlightPrepares.remove(statement, prepare);
+        if (error != null) {
+            prepare.completeExceptionally(error);
+        } else {
+            prepare.complete(entry);
         }
     }
 
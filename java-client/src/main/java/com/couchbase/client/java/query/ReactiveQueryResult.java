@@ -27,6 +27,10 @@ import reactor.core.publisher.Mono;
 
 /**
  * Reactive result that fetch parts of the N1ql Query responses reactively
+ * <p>
+ * The rows are streamed from the server as they are requested, so they can only be consumed once: subscribing to
+ * the rows of this result more than once (through any of the rows methods) fails the additional subscribers with an
+ * {@link IllegalStateException}.
  *
  * @since 3.0.0
  */
@@ -38,6 +38,9 @@ public class ReactiveSearchResult {
      * The list of FTS result rows for the FTS query, in the form of a reactive {@link Flux} publisher.
      * <p>
      * Any errors will be raised as onError on this.
+     * <p>
+     * The rows are streamed from the server as they are requested, so they can only be consumed once: subscribing
+     * to them more than once fails the additional subscribers with an {@link IllegalStateException}.
      */
     public Flux<SearchRow> rows() {
         return rows;
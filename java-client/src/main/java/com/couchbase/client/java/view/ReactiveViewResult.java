@@ -23,6 +23,9 @@ import reactor.core.publisher.Mono;
 
 /**
  * Holds a the result of a View request operation if successful.
+ * <p>
+ * The rows are streamed from the server as they are requested, so they can only be consumed once: subscribing to
+ * the rows of this result more than once fails the additional subscribers with an {@link IllegalStateException}.
  *
  * @since 3.0.0
  */
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.kv;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.config.ClusterConfig;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.env.IoConfig;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.core.error.InvalidArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link BulkAccessor}.
+ */
+class BulkAccessorTest {
+
+  @Test
+  void boundsInFlightOperationsAndReportsPerId() throws Exception {
+    int total = BulkAccessor.IN_FLIGHT_PER_CONNECTION * 4 + 7;
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < total; i++) {
+      ids.add("id-" + i);
+    }
+
+    Deque<CompletableFuture<String>> inFlight = new ArrayDeque<>();
+    Deque<String> inFlightIds = new ArrayDeque<>();
+    CompletableFuture<Map<String, BulkResult<String>>> future = BulkAccessor.execute(mockCore(), "bucket", ids, id -> {
+      CompletableFuture<String> op = new CompletableFuture<>();
+      inFlight.add(op);
+      inFlightIds.add(id);
+      return op;
+    });
+
+    assertEquals(BulkAccessor.IN_FLIGHT_PER_CONNECTION, inFlight.size());
+    int completed = 0;
+    while (!inFlight.isEmpty()) {
+      CompletableFuture<String> op = inFlight.poll();
+      String id = inFlightIds.poll();
+      if (completed++ % 2 == 0) {
+        op.complete(id);
+      } else {
+        op.completeExceptionally(new DocumentNotFoundException(null));
+      }
+      assertTrue(inFlight.size() <= BulkAccessor.IN_FLIGHT_PER_CONNECTION);
+    }
+
+    Map<String, BulkResult<String>> results = future.get(1, TimeUnit.SECONDS);
+    assertEquals(total, results.size());
+    assertEquals("id-0", results.get("id-0").result().get());
+    assertFalse(results.get("id-1").success());
+    assertTrue(results.get("id-1").error().get() instanceof DocumentNotFoundException);
+  }
+
+  @Test
+  void reportsSynchronousFailuresWithoutRecursion() throws Exception {
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      ids.add("id-" + i);
+    }
+
+    Map<String, BulkResult<Object>> results = BulkAccessor.<Object>execute(mockCore(), "bucket", ids, id -> {
+      throw InvalidArgumentException.fromMessage("invalid");
+    }).get(1, TimeUnit.SECONDS);
+
+    assertEquals(ids.size(), results.size());
+    assertTrue(results.get("id-42").error().get() instanceof InvalidArgumentException);
+  }
+
+  @Test
+  void completesEmptyBatchRightAway() throws Exception {
+    Map<String, BulkResult<String>> results = BulkAccessor.execute(
+      mockCore(),
+      "bucket",
+      new ArrayList<>(),
+      CompletableFuture::completedFuture
+    ).get(1, TimeUnit.SECONDS);
+    assertTrue(results.isEmpty());
+  }
+
+  private static Core mockCore() {
+    IoConfig ioConfig = mock(IoConfig.class);
+    when(ioConfig.numKvConnections()).thenReturn(1);
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    when(env.ioConfig()).thenReturn(ioConfig);
+    CoreContext ctx = mock(CoreContext.class);
+    when(ctx.environment()).thenReturn(env);
+
+    Core core = mock(Core.class);
+    when(core.context()).thenReturn(ctx);
+    when(core.clusterConfig()).thenReturn(new ClusterConfig());
+    return core;
+  }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.kv;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.msg.ResponseStatus;
+import com.couchbase.client.core.msg.kv.GetRequest;
+import com.couchbase.client.core.msg.kv.GetResponse;
+import com.couchbase.client.core.retry.FailFastRetryStrategy;
+import com.couchbase.client.java.codec.Transcoder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.couchbase.client.test.Util.waitUntilCondition;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the blocking functionality of the {@link GetAccessor}.
+ */
+class GetAccessorTest {
+
+  private static final CollectionIdentifier CID = CollectionIdentifier.fromDefault("bucket");
+
+  @Test
+  void blocksUntilResponseArrives() {
+    ExecutorService io = Executors.newSingleThreadExecutor();
+    try {
+      Core core = coreRespondingOn(io, ResponseStatus.SUCCESS);
+      GetResult result = GetAccessor.getBlocking(core, request(core, "key"), mock(Transcoder.class));
+      assertEquals(1234, result.cas());
+    } finally {
+      io.shutdownNow();
+    }
+  }
+
+  @Test
+  void throwsOnCallingThreadIfNotSuccessful() {
+    ExecutorService io = Executors.newSingleThreadExecutor();
+    try {
+      Core core = coreRespondingOn(io, ResponseStatus.NOT_FOUND);
+      assertThrows(
+        DocumentNotFoundException.class,
+        () -> GetAccessor.getBlocking(core, request(core, "key"), mock(Transcoder.class))
+      );
+    } finally {
+      io.shutdownNow();
+    }
+  }
+
+  /**
+   * Many callers park on their responses at the same time, while a single thread completes all of them once every
+   * caller has sent its request.
+   */
+  @Test
+  void completesManyParkedCallers() throws Exception {
+    int numCallers = 1000;
+    List<GetRequest> sent = new CopyOnWriteArrayList<>();
+    Core core = mock(Core.class);
+    doAnswer(invocation -> {
+      sent.add(invocation.getArgument(0));
+      return null;
+    }).when(core).send(any());
+
+    ExecutorService io = Executors.newSingleThreadExecutor();
+    ExecutorService callers = Executors.newFixedThreadPool(numCallers);
+    try {
+      List<Future<GetResult>> results = new ArrayList<>();
+      for (int i = 0; i < numCallers; i++) {
+        String key = "key-" + i;
+        results.add(callers.submit(() -> GetAccessor.getBlocking(core, request(core, key), mock(Transcoder.class))));
+      }
+
+      waitUntilCondition(() -> sent.size() == numCallers);
+      for (Future<GetResult> result : results) {
+        assertFalse(result.isDone());
+      }
+
+      GetResponse response = response(ResponseStatus.SUCCESS);
+      io.execute(() -> sent.forEach(request -> request.succeed(response)));
+      for (Future<GetResult> result : results) {
+        assertEquals(1234, result.get(10, TimeUnit.SECONDS).cas());
+      }
+    } finally {
+      callers.shutdownNow();
+      io.shutdownNow();
+    }
+  }
+
+  private static GetRequest request(final Core core, final String key) {
+    CoreContext ctx = new CoreContext(core, 1, null, null);
+    return new GetRequest(key, Duration.ofSeconds(10), ctx, CID, FailFastRetryStrategy.INSTANCE, null);
+  }
+
+  /**
+   * Creates a core which completes every request it is sent on the given executor.
+   */
+  private static Core coreRespondingOn(final ExecutorService io, final ResponseStatus status) {
+    GetResponse response = response(status);
+    Core core = mock(Core.class);
+    doAnswer(invocation -> {
+      GetRequest request = invocation.getArgument(0);
+      io.execute(() -> request.succeed(response));
+      return null;
+    }).when(core).send(any());
+    return core;
+  }
+
+  private static GetResponse response(final ResponseStatus status) {
+    GetResponse response = mock(GetResponse.class);
+    when(response.status()).thenReturn(status);
+    when(response.cas()).thenReturn(1234L);
+    when(response.encodedContent()).thenReturn(new byte[0]);
+    return response;
+  }
+
+}
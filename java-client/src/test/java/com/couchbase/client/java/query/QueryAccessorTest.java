@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2021 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
+import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
+import com.couchbase.client.core.config.ConfigurationProvider;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.error.CouchbaseException;
+import com.couchbase.client.core.error.TimeoutException;
+import com.couchbase.client.core.msg.CancellationReason;
+import com.couchbase.client.core.msg.query.QueryChunkHeader;
+import com.couchbase.client.core.msg.query.QueryChunkRow;
+import com.couchbase.client.core.msg.query.QueryChunkTrailer;
+import com.couchbase.client.core.msg.query.QueryRequest;
+import com.couchbase.client.core.msg.query.QueryResponse;
+import com.couchbase.client.core.retry.FailFastRetryStrategy;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.couchbase.client.test.Util.waitUntilCondition;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that the {@link QueryAccessor} only prepares a statement once if it is queried concurrently.
+ */
+class QueryAccessorTest {
+
+  private static final String STATEMENT = "select * from bucket";
+  private static final String PREPARE = "PREPARE " + STATEMENT;
+
+  private final List<QueryRequest> sent = new CopyOnWriteArrayList<>();
+  private final JsonSerializer serializer = DefaultJsonSerializer.create();
+  private Core core;
+  private CoreContext ctx;
+  private QueryAccessor accessor;
+
+  @BeforeEach
+  void beforeEach() {
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    when(env.meter()).thenReturn(NoopMeter.INSTANCE);
+    when(env.requestTracer()).thenReturn(NoopRequestTracer.INSTANCE);
+
+    ConfigurationProvider configurationProvider = mock(ConfigurationProvider.class);
+    when(configurationProvider.configs()).thenReturn(Flux.never());
+
+    core = mock(Core.class);
+    ctx = new CoreContext(core, 1, env, null);
+    when(core.context()).thenReturn(ctx);
+    when(core.configurationProvider()).thenReturn(configurationProvider);
+    doAnswer(invocation -> {
+      sent.add(invocation.getArgument(0));
+      return null;
+    }).when(core).send(any());
+
+    accessor = new QueryAccessor(core);
+  }
+
+  @Test
+  void preparesOnceForConcurrentQueries() {
+    CompletableFuture<QueryResult> first = query();
+    CompletableFuture<QueryResult> second = query();
+    assertEquals(1, sent.size());
+    assertEquals(PREPARE, sent.get(0).statement());
+
+    sent.get(0).succeed(response("{\"name\":\"p1\",\"encoded_plan\":\"plan\"}"));
+
+    waitUntilCondition(() -> sent.size() == 3);
+    assertEquals(1, prepares().size());
+    assertEquals(STATEMENT, sent.get(1).statement());
+    assertEquals(STATEMENT, sent.get(2).statement());
+    assertFalse(first.isDone());
+    assertFalse(second.isDone());
+    assertEquals(1, accessor.preparedStatementCache().size());
+  }
+
+  @Test
+  void waiterPreparesItselfIfLeaderTimesOut() {
+    CompletableFuture<QueryResult> leader = query();
+    CompletableFuture<QueryResult> waiter = query();
+    QueryRequest leaderPrepare = sent.get(0);
+
+    leaderPrepare.cancel(CancellationReason.TIMEOUT);
+
+    ExecutionException ex = assertThrows(ExecutionException.class, () -> leader.get(1, TimeUnit.SECONDS));
+    assertTrue(ex.getCause() instanceof TimeoutException);
+
+    waitUntilCondition(() -> prepares().size() == 2);
+    QueryRequest waiterPrepare = prepares().get(1);
+    waiterPrepare.succeed(response("{\"name\":\"p1\",\"encoded_plan\":\"plan\"}"));
+
+    waitUntilCondition(() -> sent.size() == 3);
+    assertEquals(STATEMENT, sent.get(2).statement());
+    assertFalse(waiter.isDone());
+  }
+
+  @Test
+  void waiterPreparesItselfIfLeaderIsCancelled() {
+    CompletableFuture<QueryResult> leader = query();
+    query();
+
+    leader.cancel(true);
+    assertTrue(sent.get(0).cancelled());
+
+    waitUntilCondition(() -> prepares().size() == 2);
+    assertFalse(prepares().get(1).completed());
+  }
+
+  @Test
+  void waiterFailsWithLeaderPrepareError() {
+    CompletableFuture<QueryResult> leader = query();
+    CompletableFuture<QueryResult> waiter = query();
+
+    CouchbaseException error = new CouchbaseException("syntax error");
+    sent.get(0).fail(error);
+
+    ExecutionException leaderEx = assertThrows(ExecutionException.class, () -> leader.get(1, TimeUnit.SECONDS));
+    assertSame(error, leaderEx.getCause());
+    ExecutionException waiterEx = assertThrows(ExecutionException.class, () -> waiter.get(1, TimeUnit.SECONDS));
+    assertSame(error, waiterEx.getCause());
+    assertEquals(1, sent.size());
+  }
+
+  private CompletableFuture<QueryResult> query() {
+    QueryOptions.Built options = QueryOptions.queryOptions().adhoc(false).build();
+    QueryRequest request = new QueryRequest(Duration.ofSeconds(10), ctx, FailFastRetryStrategy.INSTANCE, null,
+      STATEMENT, new byte[0], false, null, null, null, null);
+    return accessor.queryAsync(request, options, serializer);
+  }
+
+  private List<QueryRequest> prepares() {
+    return sent.stream().filter(r -> PREPARE.equals(r.statement())).collect(Collectors.toList());
+  }
+
+  private static QueryResponse response(final String row) {
+    QueryResponse response = mock(QueryResponse.class);
+    when(response.header()).thenReturn(
+      new QueryChunkHeader("requestId", Optional.empty(), Optional.empty(), Optional.empty())
+    );
+    when(response.rows()).thenReturn(Flux.just(new QueryChunkRow(row.getBytes(StandardCharsets.UTF_8))));
+    when(response.trailer()).thenReturn(
+      Mono.just(new QueryChunkTrailer("success", Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()))
+    );
+    return response;
+  }
+
+}